@@ -10,7 +10,10 @@ import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
@@ -213,6 +216,17 @@ public class ServiceExplorerView extends ViewPart implements PropertyChangeListe
             childNodes.remove(treeNode);
         }
 
+        /**
+         * Sort the child tree nodes in the order of their nodes in the given list
+         */
+        public void reorder(List<?> nodes) {
+            final Map<Object, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                positions.put(nodes.get(i), i);
+            }
+            childNodes.sort(Comparator.comparing(child -> positions.getOrDefault(child.node, Integer.MAX_VALUE)));
+        }
+
         @Override
         public String toString() {
             return node.getName();
@@ -283,25 +297,17 @@ public class ServiceExplorerView extends ViewPart implements PropertyChangeListe
         public void listChanged(final ListChangedEvent e) {
             switch (e.getAction()) {
                 case add:
-                    // create child tree nodes for the new nodes
-                    for (Node childNode : (Collection<Node>) e.getNewItems()) {
-                        // Eclipse does no support arm, so here need to skip resource management node
-                        if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
-                            continue;
-                        }
-                        treeNode.add(createTreeNode(childNode));
-                    }
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 case remove:
-                    // unregister all event handlers recursively and remove
-                    // child nodes from the tree
-                    for (Node childNode : (Collection<Node>) e.getOldItems()) {
-                        if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
-                            continue;
-                        }
-                        removeEventHandlers(childNode);
-                        // remove this node from the tree
-                        treeNode.remove((TreeNode) childNode.getViewData());
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    break;
+                case batch:
+                    // apply all the changes in order with the other events and refresh once
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
+                    if (!e.getMovedItems().isEmpty()) {
+                        treeNode.reorder(e.getItems());
                     }
                     break;
                 default:
@@ -314,6 +320,30 @@ public class ServiceExplorerView extends ViewPart implements PropertyChangeListe
                 }
             });
         }
+
+        private void addChildTreeNodes(Collection<Node> childNodes) {
+            // create child tree nodes for the new nodes
+            for (Node childNode : childNodes) {
+                // Eclipse does no support arm, so here need to skip resource management node
+                if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
+                    continue;
+                }
+                treeNode.add(createTreeNode(childNode));
+            }
+        }
+
+        private void removeChildTreeNodes(Collection<Node> childNodes) {
+            // unregister all event handlers recursively and remove
+            // child nodes from the tree
+            for (Node childNode : childNodes) {
+                if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
+                    continue;
+                }
+                removeEventHandlers(childNode);
+                // remove this node from the tree
+                treeNode.remove((TreeNode) childNode.getViewData());
+            }
+        }
     }
 
     class ViewLabelProvider extends LabelProvider {
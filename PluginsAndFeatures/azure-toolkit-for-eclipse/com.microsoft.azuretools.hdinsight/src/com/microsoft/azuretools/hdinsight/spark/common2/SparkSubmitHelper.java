@@ -49,6 +49,7 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager.BlobUploadStatistics;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.azuretools.telemetry.AppInsightsClient;
@@ -219,35 +220,37 @@ public class SparkSubmitHelper {
             String defaultContainerName, String uploadFolderPath) throws Exception {
         final File file = new File(localFile);
         if (storageAccount.getAccountType() == StorageAccountType.BLOB) {
-            try (FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                        @Override
-                        public Void call(Long uploadedBytes) throws Exception {
-                            double progress = ((double) uploadedBytes) / file.length();
-                            return null;
-                        }
-                    };
-
-                    HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount,
-                            defaultContainerName);
-                    String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    String uploadedPath = String.format("wasbs://%s@%s/%s", defaultContainerName,
-                            blobStorageAccount.getFullStorageBlobName(), path);
+            final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+                @Override
+                public Void call(Long uploadedBytes) throws Exception {
+                    double progress = ((double) uploadedBytes) / file.length();
+                    return null;
+                }
+            };
+
+            HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount,
+                    defaultContainerName);
+            // Resume the interrupted upload of the same file in its blob, rather than the new upload folder
+            String path = StorageClientSDKManager.getManager().getUploadBlobPath(
+                    blobStorageAccount.getConnectionString(), defaultContainer, file,
+                    String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName()));
+            String uploadedPath = String.format("wasbs://%s@%s/%s", defaultContainerName,
+                    blobStorageAccount.getFullStorageBlobName(), path);
 
-                    HDInsightUtil.showInfoOnSubmissionMessageWindow(
-                            String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...",
-                                    localFile, uploadedPath));
+            HDInsightUtil.showInfoOnSubmissionMessageWindow(
+                    String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...",
+                            localFile, uploadedPath));
 
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(blobStorageAccount.getConnectionString(),
-                            defaultContainer, path, bufferedInputStream, callable, 1024 * 1024, file.length());
+            BlobUploadStatistics statistics = StorageClientSDKManager.getManager().uploadBlobFile(
+                    blobStorageAccount.getConnectionString(), defaultContainer, path, file, callable,
+                    StorageClientSDKManager.DEFAULT_PARALLEL_BLOCK_SIZE,
+                    StorageClientSDKManager.DEFAULT_UPLOAD_PARALLELISM);
 
-                    HDInsightUtil.showInfoOnSubmissionMessageWindow(
-                            String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
-                    return uploadedPath;
-                }
-            }
+            HDInsightUtil.showInfoOnSubmissionMessageWindow(
+                    String.format("Info : Submit file to azure blob '%s' successfully (%d KB/s).", uploadedPath,
+                            statistics.getThroughput() / 1024));
+            return uploadedPath;
         } else if (storageAccount.getAccountType() == StorageAccountType.ADLS) {
             String uploadPath = String.format("adl://%s.azuredatalakestore.net/%s/%s", storageAccount.getName(),
                     storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
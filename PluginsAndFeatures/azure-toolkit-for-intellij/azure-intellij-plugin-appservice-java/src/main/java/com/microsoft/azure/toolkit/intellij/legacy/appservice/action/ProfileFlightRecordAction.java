@@ -5,8 +5,11 @@
 
 package com.microsoft.azure.toolkit.intellij.legacy.appservice.action;
 
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.PlatformUtils;
 import com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr.RunFlightRecorderDialog;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
@@ -28,6 +31,7 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
@@ -104,9 +108,10 @@ public class ProfileFlightRecordAction {
             }
             AzureMessager.getMessager().info(message("webapp.flightRecord.hint.profileCompletedOnAzure"));
             AzureMessager.getMessager().info(message("webapp.flightRecord.hint.downloadingJfr"));
-            final byte[] content = starter.downloadJFRFile(file.getName());
-            if (content != null) {
-                FileUtils.writeByteArrayToFile(file, content);
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            final long size = starter.downloadJFRFile(file.getName(), file, (received, total) -> Optional.ofNullable(indicator)
+                    .ifPresent(i -> i.setText2(String.format("%s downloaded", StringUtil.formatFileSize(received)))));
+            if (size > 0) {
                 AzureMessager.getMessager().info(message("webapp.flightRecord.hint.downloadingJfrDone"));
                 AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
             } else {
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.core;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The staging folders and function configurations of a function module kept between its runs and deployments, so
+ * that preparing the staging folder only copies the dependencies changed and regenerates the configurations of the
+ * functions changed since the last time.
+ * <p>
+ * A module has one staging folder for local run and one for deployment, each used by one run or deployment at a
+ * time, a temp staging folder is used instead if it's in use. The staging folders not used for
+ * {@link #STALE_FOLDER_AGE_MILLIS}, e.g. of the modules or projects removed, are deleted in background.
+ */
+public class FunctionStagingCache {
+    public static final String RUN = "run";
+    public static final String DEPLOY = "deploy";
+    private static final Key<FunctionStagingCache> STAGING_CACHE = Key.create("AZURE_FUNCTION_STAGING_CACHE");
+    private static final long STALE_FOLDER_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final Set<File> foldersInUse = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean staleFoldersCleaned = new AtomicBoolean(false);
+
+    private final Map<String, CachedConfiguration> configurations = new ConcurrentHashMap<>();
+    /**
+     * the configurations written into function.json of each staging folder
+     */
+    private final Map<File, Map<String, StagedConfiguration>> stagedConfigurations = new ConcurrentHashMap<>();
+
+    @Nonnull
+    public static synchronized FunctionStagingCache getInstance(@Nonnull final Module module) {
+        FunctionStagingCache cache = module.getUserData(STAGING_CACHE);
+        if (cache == null) {
+            cache = new FunctionStagingCache();
+            module.putUserData(STAGING_CACHE, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * @param purpose {@link #RUN} or {@link #DEPLOY}, the staging folder of deployment must not contain local settings
+     * @return the staging folder of the module kept for the purpose, or a new temp one if it's in use.
+     */
+    @Nonnull
+    public static File acquireStagingFolder(@Nullable final Module module, @Nonnull final String purpose) {
+        if (staleFoldersCleaned.compareAndSet(false, true)) {
+            AzureTaskManager.getInstance().runOnPooledThread(() -> cleanUpStaleFolders(getStagingRoot(), STALE_FOLDER_AGE_MILLIS));
+        }
+        if (Objects.nonNull(module)) {
+            final File folder = Paths.get(getStagingRoot().getPath(), module.getProject().getLocationHash(),
+                FileUtil.sanitizeFileName(module.getName()), purpose).toFile();
+            if (foldersInUse.add(folder)) {
+                folder.mkdirs();
+                folder.setLastModified(System.currentTimeMillis());
+                return folder;
+            }
+        }
+        return FunctionUtils.getTempStagingFolder();
+    }
+
+    /**
+     * keep the staging folder for the next time if it's a cached one, or delete it.
+     */
+    public static void releaseStagingFolder(@Nullable final File folder) {
+        if (Objects.isNull(folder)) {
+            return;
+        }
+        if (FileUtil.isAncestor(getStagingRoot(), folder, true)) {
+            // the last modified time of the folder tells when it was used last time
+            folder.setLastModified(System.currentTimeMillis());
+            foldersInUse.remove(folder);
+        } else {
+            FunctionUtils.cleanUpStagingFolder(folder);
+        }
+    }
+
+    private static File getStagingRoot() {
+        return Paths.get(PathManager.getSystemPath(), "azure-functions", "staging").toFile();
+    }
+
+    /**
+     * delete the staging folders under {@code <root>/<project>/<module>/} not used for the given time, and then the
+     * module and project folders left empty.
+     */
+    static void cleanUpStaleFolders(@Nonnull final File root, final long maxAgeMillis) {
+        final long expiry = System.currentTimeMillis() - maxAgeMillis;
+        for (final File project : listFolders(root)) {
+            for (final File module : listFolders(project)) {
+                for (final File folder : listFolders(module)) {
+                    // take the folder as in use while deleting it, so that it's not acquired meanwhile
+                    if (folder.lastModified() < expiry && foldersInUse.add(folder)) {
+                        try {
+                            FileUtils.deleteQuietly(folder);
+                        } finally {
+                            foldersInUse.remove(folder);
+                        }
+                    }
+                }
+                deleteIfEmpty(module);
+            }
+            deleteIfEmpty(project);
+        }
+    }
+
+    private static File[] listFolders(@Nonnull final File folder) {
+        return Optional.ofNullable(folder.listFiles(File::isDirectory)).orElse(new File[0]);
+    }
+
+    private static void deleteIfEmpty(@Nonnull final File folder) {
+        final String[] children = folder.list();
+        if (Objects.nonNull(children) && children.length == 0) {
+            folder.delete();
+        }
+    }
+
+    /**
+     * @return the configuration generated before for the method, if neither the method nor what its annotations
+     * refer to has been modified since.
+     */
+    @Nullable
+    FunctionConfiguration getConfiguration(@Nonnull final String functionName, @Nonnull final PsiMethod method) {
+        final CachedConfiguration cached = configurations.get(functionName);
+        if (Objects.isNull(cached) || !StringUtils.equals(cached.configuration.getEntryPoint(), getEntryPoint(method))) {
+            return null;
+        }
+        return cached.stamps.equals(getModificationStamps(method)) ? cached.configuration : null;
+    }
+
+    void putConfiguration(@Nonnull final String functionName, @Nonnull final PsiMethod method, @Nonnull final FunctionConfiguration configuration) {
+        configurations.put(functionName, new CachedConfiguration(configuration, getModificationStamps(method)));
+    }
+
+    void retainConfigurations(@Nonnull final Collection<String> functionNames) {
+        configurations.keySet().retainAll(functionNames);
+    }
+
+    /**
+     * @return true if the configuration has been written into function.json of the staging folder, which is still there.
+     */
+    boolean isStaged(@Nonnull final File stagingFolder, @Nonnull final String functionName, @Nonnull final FunctionConfiguration configuration,
+                     @Nonnull final File functionJson) {
+        final StagedConfiguration staged = stagedConfigurations.getOrDefault(stagingFolder, new HashMap<>()).get(functionName);
+        return Objects.nonNull(staged) && staged.configuration == configuration &&
+            StringUtils.equals(staged.scriptFile, configuration.getScriptFile()) && functionJson.isFile();
+    }
+
+    void setStaged(@Nonnull final File stagingFolder, @Nonnull final Map<String, FunctionConfiguration> configurations) {
+        if (!FileUtil.isAncestor(getStagingRoot(), stagingFolder, true)) {
+            return; // temp staging folders are not reused
+        }
+        final Map<String, StagedConfiguration> staged = new HashMap<>();
+        configurations.forEach((name, config) -> staged.put(name, new StagedConfiguration(config, config.getScriptFile())));
+        stagedConfigurations.put(stagingFolder, staged);
+    }
+
+    static String getEntryPoint(@Nonnull final PsiMethod method) {
+        return Optional.ofNullable(method.getContainingClass()).map(c -> c.getQualifiedName() + "." + method.getName()).orElse(method.getName());
+    }
+
+    /**
+     * the modification stamps of the file declaring the method and the files its annotations refer to, e.g. the
+     * constants used as the annotation values and the custom binding annotations.
+     */
+    private static Map<VirtualFile, Long> getModificationStamps(@Nonnull final PsiMethod method) {
+        final List<PsiAnnotation> annotations = new ArrayList<>(Arrays.asList(method.getModifierList().getAnnotations()));
+        for (final PsiParameter parameter : method.getParameterList().getParameters()) {
+            annotations.addAll(Arrays.asList(parameter.getAnnotations()));
+        }
+        final Map<VirtualFile, Long> stamps = new HashMap<>();
+        addModificationStamp(stamps, method.getContainingFile());
+        for (final PsiAnnotation annotation : annotations) {
+            PsiTreeUtil.processElements(annotation, element -> {
+                if (element instanceof PsiJavaCodeReferenceElement) {
+                    Optional.ofNullable(((PsiJavaCodeReferenceElement) element).resolve())
+                        .map(PsiElement::getContainingFile)
+                        .ifPresent(file -> addModificationStamp(stamps, file));
+                }
+                return true;
+            });
+        }
+        return stamps;
+    }
+
+    private static void addModificationStamp(@Nonnull final Map<VirtualFile, Long> stamps, @Nullable final PsiFile file) {
+        Optional.ofNullable(file).map(PsiFile::getVirtualFile).ifPresent(vf -> stamps.put(vf, file.getModificationStamp()));
+    }
+
+    /**
+     * copy the files into the folder, skipping the ones unchanged since the last copy, and delete the other files of
+     * the folder. the files in the maven or gradle repositories are hard linked rather than copied where possible.
+     */
+    static void syncFiles(@Nonnull final Collection<File> files, @Nonnull final File folder) throws IOException {
+        Files.createDirectories(folder.toPath());
+        final Map<String, File> filesByName = new HashMap<>();
+        files.forEach(file -> filesByName.put(file.getName(), file));
+        for (final File existing : Optional.ofNullable(folder.listFiles()).orElse(new File[0])) {
+            if (!filesByName.containsKey(existing.getName())) {
+                FileUtils.forceDelete(existing);
+            }
+        }
+        for (final File file : filesByName.values()) {
+            syncFile(file, folder, isInRepository(file));
+        }
+    }
+
+    /**
+     * copy the file into the folder, skipping it if unchanged since the last copy. it's always copied, e.g. the
+     * artifact of the module, which is rewritten by the build and locked by the running host on Windows if linked.
+     */
+    static void syncFile(@Nonnull final File file, @Nonnull final File folder) throws IOException {
+        syncFile(file, folder, false);
+    }
+
+    private static void syncFile(@Nonnull final File file, @Nonnull final File folder, final boolean link) throws IOException {
+        final Path source = file.toPath();
+        final Path target = folder.toPath().resolve(file.getName());
+        if (Files.isRegularFile(target) && isSameFile(source, target)) {
+            return;
+        }
+        Files.createDirectories(folder.toPath());
+        Files.deleteIfExists(target);
+        if (link) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (final IOException | UnsupportedOperationException e) {
+                // e.g. on different file stores
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    /**
+     * the artifacts in the maven local repository or the gradle cache are never rewritten, so they're safe to link.
+     */
+    static boolean isInRepository(@Nonnull final File file) {
+        final String path = FilenameUtils.separatorsToUnix(file.getAbsolutePath());
+        return StringUtils.containsAny(path, "/.m2/repository/", "/caches/modules-2/files-2.1/");
+    }
+
+    private static boolean isSameFile(@Nonnull final Path source, @Nonnull final Path target) throws IOException {
+        final BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+        final BasicFileAttributes targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+        if (sourceAttributes.size() != targetAttributes.size()) {
+            return false;
+        }
+        if (sourceAttributes.lastModifiedTime().equals(targetAttributes.lastModifiedTime())) {
+            return true;
+        }
+        // e.g. rebuilt with the same content
+        if (FileUtils.contentEquals(source.toFile(), target.toFile())) {
+            Files.setLastModifiedTime(target, sourceAttributes.lastModifiedTime());
+            return true;
+        }
+        return false;
+    }
+
+    private static class CachedConfiguration {
+        private final FunctionConfiguration configuration;
+        private final Map<VirtualFile, Long> stamps;
+
+        private CachedConfiguration(final FunctionConfiguration configuration, final Map<VirtualFile, Long> stamps) {
+            this.configuration = configuration;
+            this.stamps = stamps;
+        }
+    }
+
+    private static class StagedConfiguration {
+        private final FunctionConfiguration configuration;
+        private final String scriptFile;
+
+        private StagedConfiguration(final FunctionConfiguration configuration, final String scriptFile) {
+            this.configuration = configuration;
+            this.scriptFile = scriptFile;
+        }
+    }
+}
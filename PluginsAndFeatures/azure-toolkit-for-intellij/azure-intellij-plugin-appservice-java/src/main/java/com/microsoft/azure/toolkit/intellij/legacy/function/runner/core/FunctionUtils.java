@@ -235,10 +235,10 @@ public class FunctionUtils {
     @AzureOperation(name = "boundary/function.prepare_staging_folder")
     public static Map<String, FunctionConfiguration> prepareStagingFolder(Path stagingFolder, Path hostJson, Project project, Module module, PsiMethod[] methods)
             throws AzureExecutionException, IOException {
-        final Map<String, FunctionConfiguration> configMap = ReadAction.compute(() -> generateConfigurations(methods));
-        if (stagingFolder.toFile().isDirectory()) {
-            FileUtils.cleanDirectory(stagingFolder.toFile());
-        }
+        // the staging folder may be kept from the last time, see FunctionStagingCache, so only what's changed is updated
+        final FunctionStagingCache cache = FunctionStagingCache.getInstance(module);
+        final Map<String, FunctionConfiguration> configMap = ReadAction.compute(() -> generateConfigurations(cache, methods));
+        cleanUpStaleFunctions(stagingFolder.toFile(), configMap);
 
         final Path jarFile;
         // test if it is gradle project
@@ -250,10 +250,11 @@ public class FunctionUtils {
                 final String error = String.format("Failed generate jar file for project(%s)", gradleProject.getName());
                 throw new AzureToolkitRuntimeException(error);
             }
-            FileUtils.copyFileToDirectory(gradleProject.getArtifactFile(), stagingFolder.toFile());
+            FunctionStagingCache.syncFile(gradleProject.getArtifactFile(), stagingFolder.toFile());
         } else {
             jarFile = JarUtils.buildJarFileToStagingPath(stagingFolder.toString(), module);
         }
+        cleanUpStaleJars(stagingFolder.toFile(), jarFile.getFileName().toString());
 
         final String scriptFilePath = "../" + jarFile.getFileName().toString();
         configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
@@ -261,9 +262,12 @@ public class FunctionUtils {
             if (StringUtils.isNotBlank(config.getKey())) {
                 final File functionJsonFile = Paths.get(stagingFolder.toString(), config.getKey(), FUNCTION_JSON)
                                                    .toFile();
-                writeFunctionJsonFile(functionJsonFile, config.getValue());
+                if (!cache.isStaged(stagingFolder.toFile(), config.getKey(), config.getValue(), functionJsonFile)) {
+                    writeFunctionJsonFile(functionJsonFile, config.getValue());
+                }
             }
         }
+        cache.setStaged(stagingFolder.toFile(), configMap);
 
         final File hostJsonFile = new File(stagingFolder.toFile(), "host.json");
         copyFilesWithDefaultContent(hostJson, hostJsonFile, DEFAULT_HOST_JSON);
@@ -289,17 +293,37 @@ public class FunctionUtils {
                 .findFirst().orElse(AZURE_FUNCTIONS_JAVA_LIBRARY);
 
         final File libFolder = new File(stagingFolder.toFile(), "lib");
+        final List<File> libs = new ArrayList<>();
         for (final File file : dependencies) {
             if (!StringUtils.equalsIgnoreCase(getArtifactIdFromFile(file), libraryToExclude)) {
                 if (!file.exists()) {
                     throw new AzureToolkitRuntimeException(String.format("Dependency artifact (%s) not found, please correct the dependency and try again", file.getAbsolutePath()));
                 }
-                FileUtils.copyFileToDirectory(file, libFolder);
+                libs.add(file);
             }
         }
+        FunctionStagingCache.syncFiles(libs, libFolder);
         return configMap;
     }
 
+    // delete the folders of the functions removed since the staging folder was prepared last time
+    private static void cleanUpStaleFunctions(File stagingFolder, Map<String, FunctionConfiguration> configMap) throws IOException {
+        for (final File folder : Optional.ofNullable(stagingFolder.listFiles(File::isDirectory)).orElse(new File[0])) {
+            if (new File(folder, FUNCTION_JSON).isFile() && !configMap.containsKey(folder.getName())) {
+                FileUtils.deleteDirectory(folder);
+            }
+        }
+    }
+
+    // delete the jars of the function project built with other names last time, e.g. of an older version
+    private static void cleanUpStaleJars(File stagingFolder, String jarName) throws IOException {
+        for (final File jar : Optional.ofNullable(stagingFolder.listFiles((dir, name) -> StringUtils.endsWithIgnoreCase(name, ".jar"))).orElse(new File[0])) {
+            if (!StringUtils.equals(jar.getName(), jarName)) {
+                FileUtils.forceDelete(jar);
+            }
+        }
+    }
+
     // get artifact based on module
     @Nullable
     private static File getArtifactFromModule(final Module module) {
@@ -380,15 +404,23 @@ public class FunctionUtils {
                fileName.substring(0, fileName.length() - 2) : fileName;
     }
 
-    private static Map<String, FunctionConfiguration> generateConfigurations(final PsiMethod[] methods)
+    private static Map<String, FunctionConfiguration> generateConfigurations(final FunctionStagingCache cache, final PsiMethod[] methods)
             throws AzureExecutionException {
         final Map<String, FunctionConfiguration> configMap = new HashMap<>();
         for (final PsiMethod method : methods) {
             final PsiAnnotation annotation = AnnotationUtil.findAnnotation(method,
                                                                            FunctionUtils.AZURE_FUNCTION_ANNOTATION_CLASS);
             final String functionName = AnnotationUtil.getDeclaredStringAttributeValue(annotation, "value");
-            configMap.put(functionName, generateConfiguration(method));
+            FunctionConfiguration config = functionName == null ? null : cache.getConfiguration(functionName, method);
+            if (config == null) {
+                config = generateConfiguration(method);
+                if (functionName != null) {
+                    cache.putConfiguration(functionName, method, config);
+                }
+            }
+            configMap.put(functionName, config);
         }
+        cache.retainConfigurations(configMap.keySet());
         return configMap;
     }
 
@@ -12,6 +12,7 @@ import com.intellij.psi.PsiMethod;
 import com.microsoft.azure.toolkit.ide.appservice.function.FunctionAppConfig;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandlerMessenger;
 import com.microsoft.azure.toolkit.intellij.legacy.common.AzureRunProfileState;
+import com.microsoft.azure.toolkit.intellij.legacy.function.runner.core.FunctionStagingCache;
 import com.microsoft.azure.toolkit.intellij.legacy.function.runner.core.FunctionUtils;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionAppBase;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -68,7 +69,7 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionAppBas
         final RunProcessHandlerMessenger messenger = new RunProcessHandlerMessenger(processHandler);
         OperationContext.current().setMessager(messenger);
         final FunctionAppBase<?, ?, ?> target = FunctionAppService.getInstance().createOrUpdateFunctionApp(deployModel.getFunctionAppConfig());
-        stagingFolder = FunctionUtils.getTempStagingFolder();
+        stagingFolder = FunctionStagingCache.acquireStagingFolder(functionDeployConfiguration.getModule(), FunctionStagingCache.DEPLOY);
         prepareStagingFolder(stagingFolder, processHandler, operation);
         // deploy function to Azure
         FunctionAppService.getInstance().deployFunctionApp(target, stagingFolder);
@@ -108,13 +109,13 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionAppBas
         processHandler.setText(message("appService.deploy.hint.succeed"));
         processHandler.notifyComplete();
         functionDeployConfiguration.setAppSettings(result.getAppSettings());
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionStagingCache.releaseStagingFolder(stagingFolder);
     }
 
     @Override
     protected void onFail(@NotNull Throwable error, @NotNull RunProcessHandler processHandler) {
         super.onFail(error, processHandler);
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionStagingCache.releaseStagingFolder(stagingFolder);
     }
 
     @Override
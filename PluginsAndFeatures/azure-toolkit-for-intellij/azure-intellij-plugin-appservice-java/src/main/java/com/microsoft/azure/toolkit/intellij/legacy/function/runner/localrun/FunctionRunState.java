@@ -29,6 +29,7 @@ import com.intellij.openapi.wm.ToolWindowId;
 import com.intellij.psi.PsiMethod;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandlerMessenger;
 import com.microsoft.azure.toolkit.intellij.legacy.common.AzureRunProfileState;
+import com.microsoft.azure.toolkit.intellij.legacy.function.runner.core.FunctionStagingCache;
 import com.microsoft.azure.toolkit.intellij.legacy.function.runner.core.FunctionUtils;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.common.action.Action;
@@ -128,7 +129,7 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
         // Prepare staging Folder
         OperationContext.current().setMessager(new RunProcessHandlerMessenger(processHandler));
         validateFunctionRuntime();
-        stagingFolder = FunctionUtils.getTempStagingFolder();
+        stagingFolder = FunctionStagingCache.acquireStagingFolder(functionRunConfiguration.getModule(), FunctionStagingCache.RUN);
         addProcessTerminatedListener(processHandler);
         prepareStagingFolder(stagingFolder, processHandler, operation);
         // Run Function Host
@@ -342,14 +343,14 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
             processHandler.setText(message("function.run.hint.succeed"));
             processHandler.notifyComplete();
         }
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionStagingCache.releaseStagingFolder(stagingFolder);
     }
 
     @Override
     protected void onFail(@NotNull Throwable error, @NotNull RunProcessHandler processHandler) {
         super.onFail(error, processHandler);
         stopProcessIfAlive(process);
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionStagingCache.releaseStagingFolder(stagingFolder);
     }
 
     @Override
@@ -5,13 +5,15 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
 
-import com.azure.core.util.FluxUtil;
+import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceFileDownloader;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
@@ -33,8 +35,22 @@ public abstract class FlightRecorderStarterBase {
 
     public abstract CommandOutput startFlightRecorder(int pid, int timeInSeconds, String fileName) throws IOException;
 
-    public byte[] downloadJFRFile(String fileName) {
-        return FluxUtil.collectBytesInByteBufferStream(appService.getFileContent(getFinalJfrPath(fileName))).blockOptional()
+    /**
+     * the path to download the recording from, which is where it's written by default
+     */
+    protected String getJfrDownloadPath(String fileName) {
+        return getFinalJfrPath(fileName);
+    }
+
+    /**
+     * download the recording into the file as it's received, retrying if the download breaks halfway
+     *
+     * @return the size of the recording
+     */
+    public long downloadJFRFile(String fileName, @NotNull File dest, @Nullable AppServiceFileDownloader.ProgressListener listener) {
+        final String path = getJfrDownloadPath(fileName);
+        return AppServiceFileDownloader.retry(() -> appService.getFileContent(path), dest.toPath(), AppServiceFileDownloader.UNKNOWN_SIZE, listener)
+                .blockOptional()
                 .orElseThrow(() -> new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name())));
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FunctionStagingCacheTest {
+    private File root;
+    private File libs;
+    private File staging;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("function-staging-cache").toFile();
+        libs = new File(root, "libs");
+        staging = new File(root, "staging");
+        Files.createDirectories(libs.toPath());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(root);
+    }
+
+    @Test
+    public void testSyncFilesCopiesAndDeletesOthers() throws IOException {
+        final File a = write(new File(libs, "a.jar"), "a");
+        final File b = write(new File(libs, "b.jar"), "b");
+        write(new File(staging, "old.jar"), "old");
+
+        FunctionStagingCache.syncFiles(Arrays.asList(a, b), staging);
+
+        assertEquals(new HashSet<>(Arrays.asList("a.jar", "b.jar")), new HashSet<>(Arrays.asList(staging.list())));
+        assertEquals("a", read(new File(staging, "a.jar")));
+        assertEquals("b", read(new File(staging, "b.jar")));
+    }
+
+    @Test
+    public void testSyncFilesKeepsUnchangedFiles() throws IOException {
+        final File a = write(new File(libs, "a.jar"), "a");
+        // a copy rather than a link, e.g. staged from another file store
+        final File staged = new File(staging, "a.jar");
+        Files.createDirectories(staging.toPath());
+        Files.copy(a.toPath(), staged.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        final Object key = Files.readAttributes(staged.toPath(), "basic:fileKey").get("fileKey");
+
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        assertEquals(key, Files.readAttributes(staged.toPath(), "basic:fileKey").get("fileKey"));
+    }
+
+    @Test
+    public void testSyncFilesReplacesChangedFiles() throws IOException {
+        final File a = write(new File(libs, "a.jar"), "a");
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        // rebuilt into a new file, so that the staged one isn't a link to it
+        Files.delete(a.toPath());
+        write(a, "changed");
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        assertEquals("changed", read(new File(staging, "a.jar")));
+    }
+
+    @Test
+    public void testSyncFilesKeepsRebuiltFilesOfSameContent() throws IOException {
+        final File a = write(new File(libs, "a.jar"), "a");
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+        final File staged = new File(staging, "a.jar");
+
+        Files.delete(a.toPath());
+        write(a, "a");
+        Files.setLastModifiedTime(a.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        assertEquals("a", read(staged));
+        assertEquals(Files.getLastModifiedTime(a.toPath()), Files.getLastModifiedTime(staged.toPath()));
+    }
+
+    @Test
+    public void testSyncFilesLinksRepositoryFiles() throws IOException {
+        final File a = write(new File(root, ".m2/repository/com/example/a/1.0/a-1.0.jar"), "a");
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        assertEquals(getFileKey(a), getFileKey(new File(staging, "a-1.0.jar")));
+    }
+
+    @Test
+    public void testSyncFilesCopiesBuiltFiles() throws IOException {
+        final File a = write(new File(root, "module/build/libs/a.jar"), "a");
+        FunctionStagingCache.syncFiles(Collections.singletonList(a), staging);
+
+        assertNotEquals(getFileKey(a), getFileKey(new File(staging, "a.jar")));
+    }
+
+    @Test
+    public void testSyncFileCopiesModuleArtifact() throws IOException {
+        final File artifact = write(new File(root, "module/build/libs/module.jar"), "module");
+        FunctionStagingCache.syncFile(artifact, staging);
+
+        // rewritten in place by the build, which must not change the staged one.
+        final File staged = new File(staging, "module.jar");
+        assertNotEquals(getFileKey(artifact), getFileKey(staged));
+        write(artifact, "rebuilt");
+        assertEquals("module", read(staged));
+    }
+
+    @Test
+    public void testCleanUpStaleFolders() throws IOException {
+        final File project = new File(staging, "project");
+        final File stale = new File(project, "removed-module/run");
+        final File used = new File(project, "module/deploy");
+        write(new File(stale, "a.jar"), "a");
+        write(new File(used, "a.jar"), "a");
+        assertTrue(stale.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)));
+
+        FunctionStagingCache.cleanUpStaleFolders(staging, TimeUnit.DAYS.toMillis(30));
+
+        assertFalse(stale.getParentFile().exists());
+        assertTrue(new File(used, "a.jar").isFile());
+    }
+
+    @Test
+    public void testCleanUpEmptyProjectFolder() throws IOException {
+        final File stale = new File(staging, "project/module/run");
+        Files.createDirectories(stale.toPath());
+        assertTrue(stale.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)));
+
+        FunctionStagingCache.cleanUpStaleFolders(staging, TimeUnit.DAYS.toMillis(30));
+
+        assertFalse(new File(staging, "project").exists());
+        assertTrue(staging.isDirectory());
+    }
+
+    private static File write(File file, String content) throws IOException {
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static Object getFileKey(File file) throws IOException {
+        return Files.readAttributes(file.toPath(), "basic:fileKey").get("fileKey");
+    }
+
+    private static String read(File file) throws IOException {
+        return FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+    }
+}
@@ -12,8 +12,11 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.ui.UIUtil;
+import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceFileDownloader;
 import com.microsoft.azure.toolkit.intellij.common.FileChooser;
 import com.microsoft.azure.toolkit.intellij.common.fileexplorer.VirtualFileActions;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
@@ -28,16 +31,14 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.SneakyThrows;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Mono;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.io.OutputStream;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.Objects;
@@ -53,6 +54,7 @@ public class AppServiceFileAction {
     private static final Key<String> APP_SERVICE_FILE_ID = new Key<>("APP_SERVICE_FILE_ID");
     private static final String ERROR_DOWNLOADING = "Failed to download file[%s] to [%s].";
     private static final String FILE_HAS_BEEN_SAVED = "File %s has been saved to Azure";
+    private static final long MAX_EDITABLE_FILE_SIZE = 10 * FileUtils.ONE_MB;
 
     @AzureOperation(name = "user/appservice.open_file.file", params = {"target.getName()"})
     @SneakyThrows
@@ -71,9 +73,8 @@ public class AppServiceFileAction {
                 return;
             }
             indicator.setText2("Loading file content");
-            final String failure = String.format("Can not open file (%s). Try downloading it first and open it manually.", target.getName());
-            if (target.getSize() > 10 * FileUtils.ONE_MB) {
-                AzureTaskManager.getInstance().runLater(() -> Messages.showWarningDialog(failure, "Open File"));
+            if (target.getSize() > MAX_EDITABLE_FILE_SIZE) {
+                downloadAndView(file, manager.getProject());
                 return;
             }
             final VirtualFile vf = VirtualFileActions.getVirtualFile(file.getId(), manager);
@@ -90,7 +91,6 @@ public class AppServiceFileAction {
     private void downloadAndOpen(AppServiceFile file, Object context) {
         final FileEditorManager fileEditorManager = FileEditorManager.getInstance((Project) context);
         final File temp = FileUtil.createTempFile("", file.getName(), true);
-        final FileOutputStream output = new FileOutputStream(temp);
         final Function<String, Boolean> onSave = content -> {
             saveFileToAzure(file, content, fileEditorManager.getProject());
             return true;
@@ -100,25 +100,57 @@ public class AppServiceFileAction {
                 WriteAction.run(() -> FileUtil.delete(temp));
             }
         };
-        file.getApp()
-            .getFileContent(file.getPath())
-            .doOnComplete(() -> AzureTaskManager.getInstance().runLater(() -> {
+        final Action<Void> retry = Action.retryFromFailure((() -> this.openAppServiceFile(file, context)));
+        download(file, temp)
+            .onErrorMap(IOException.class, e -> new AzureToolkitRuntimeException("failed to load data into editor", e, "try later or downloading it first", retry))
+            .doOnSuccess(size -> AzureTaskManager.getInstance().runLater(() -> {
                 final VirtualFile virtualFile = VirtualFileActions.createVirtualFile(file.getId(), file.getFullName(), temp, fileEditorManager);
                 VirtualFileActions.openFileInEditor(virtualFile, onSave, onClose, fileEditorManager);
             }, AzureTask.Modality.NONE))
-            .doAfterTerminate(() -> IOUtils.closeQuietly(output, null))
-            .subscribe(bytes -> {
-                try {
-                    if (bytes != null) {
-                        output.write(bytes.array(), 0, bytes.limit());
-                    }
-                } catch (final IOException e) {
-                    final String error = "failed to load data into editor";
-                    final String action = "try later or downloading it first";
-                    final Action<Void> retry = Action.retryFromFailure((() -> this.openAppServiceFile(file, context)));
-                    throw new AzureToolkitRuntimeException(error, e, action, retry);
+            .doOnError(AppServiceFileAction::onRxException)
+            .onErrorResume(e -> Mono.empty())
+            .block();
+    }
+
+    /**
+     * open the large file read only from a local copy, which is paged by the large file viewer of the IDE rather than
+     * loaded into memory if it's larger than the content loading limit.
+     */
+    @SneakyThrows
+    private void downloadAndView(AppServiceFile file, Project project) {
+        final File temp = FileUtil.createTempFile("", file.getName(), true);
+        final Action<Void> retry = Action.retryFromFailure((() -> this.openAppServiceFile(file, project)));
+        download(file, temp)
+            .onErrorMap(IOException.class, e -> new AzureToolkitRuntimeException("failed to load data into viewer", e, "try later or downloading it first", retry))
+            .doOnSuccess(size -> {
+                temp.setReadOnly();
+                final VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(temp);
+                if (Objects.nonNull(virtualFile)) {
+                    AzureTaskManager.getInstance().runLater(() -> FileEditorManager.getInstance(project).openFile(virtualFile, true), AzureTask.Modality.NONE);
+                }
+            })
+            .doOnError(AppServiceFileAction::onRxException)
+            .onErrorResume(e -> Mono.empty())
+            .block();
+    }
+
+    /**
+     * stream the content of the file to the local file, reporting the progress to the current progress indicator
+     */
+    private static Mono<Long> download(AppServiceFile file, File dest) {
+        final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        final long size = file.getSize();
+        if (Objects.nonNull(indicator)) {
+            indicator.setIndeterminate(size <= 0);
+        }
+        return AppServiceFileDownloader.download(file.getApp().getFileContent(file.getPath()), dest.toPath(), size, (received, total) -> {
+            if (Objects.nonNull(indicator)) {
+                indicator.setText2(String.format("%s downloaded", StringUtil.formatFileSize(received)));
+                if (total > 0) {
+                    indicator.setFraction((double) received / total);
                 }
-            }, AppServiceFileAction::onRxException);
+            }
+        });
     }
 
     private void saveFileToAzure(final AppServiceFile appServiceFile, final String content, final Project project) {
@@ -153,24 +185,14 @@ public class AppServiceFileAction {
         if (Objects.isNull(destFile)) {
             return;
         }
-        final OutputStream output = new FileOutputStream(destFile);
         final AzureString title = OperationBundle.description("user/appservice.download_file.file", file.getName());
         final AzureTask<Void> task = new AzureTask<>(project, title, false, () -> {
-            ProgressManager.getInstance().getProgressIndicator().setIndeterminate(true);
-            file.getApp()
-                .getFileContent(file.getPath())
-                .doOnComplete(() -> VirtualFileActions.notifyDownloadSuccess(file.getName(), destFile, project))
-                .doOnTerminate(() -> IOUtils.closeQuietly(output, null))
-                .subscribe(bytes -> {
-                    try {
-                        if (bytes != null) {
-                            output.write(bytes.array(), 0, bytes.limit());
-                        }
-                    } catch (final IOException e) {
-                        final String error = "failed to write data into local file";
-                        throw new AzureToolkitRuntimeException(error, e, retry);
-                    }
-                }, AppServiceFileAction::onRxException);
+            download(file, destFile)
+                .onErrorMap(IOException.class, e -> new AzureToolkitRuntimeException("failed to write data into local file", e, retry))
+                .doOnSuccess(size -> VirtualFileActions.notifyDownloadSuccess(file.getName(), destFile, project))
+                .doOnError(AppServiceFileAction::onRxException)
+                .onErrorResume(e -> Mono.empty())
+                .block();
         });
         AzureTaskManager.getInstance().runInModal(task);
     }
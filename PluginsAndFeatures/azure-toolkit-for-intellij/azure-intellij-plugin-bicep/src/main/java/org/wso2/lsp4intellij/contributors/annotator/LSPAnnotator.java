@@ -57,12 +57,14 @@ import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.wso2.lsp4intellij.requests.RequestMetrics.track;
 import static org.wso2.lsp4intellij.requests.Timeout.getTimeout;
 import static org.wso2.lsp4intellij.requests.Timeouts.CODEACTION;
 
@@ -233,7 +235,10 @@ public class LSPAnnotator extends ExternalAnnotator<Object, Object> {
         final CodeActionContext context = new CodeActionContext(diagnosticContext);
         params.setContext(context);
         final LanguageServerWrapper wrapper = eventManager.wrapper;
-        final CompletableFuture<List<Either<Command, CodeAction>>> future = eventManager.wrapper.getRequestManager().codeAction(params);
+        // The code actions are obsolete once the document is changed again
+        eventManager.documentEventManager.flushPendingChanges();
+        final CompletableFuture<List<Either<Command, CodeAction>>> future = eventManager.documentEventManager.cancelOnChange(
+                track(CODEACTION, eventManager.wrapper.getRequestManager().codeAction(params)));
         if (future != null) {
             try {
                 List<Either<Command, CodeAction>> res = future.get(getTimeout(CODEACTION), TimeUnit.MILLISECONDS);
@@ -243,6 +248,9 @@ public class LSPAnnotator extends ExternalAnnotator<Object, Object> {
                 LOG.warn(e);
                 wrapper.notifyFailure(CODEACTION);
                 return null;
+            } catch (CancellationException e) {
+                LOG.debug("Code action is cancelled by the document change");
+                return null;
             } catch (InterruptedException | JsonRpcException | ExecutionException e) {
                 LOG.warn(e);
                 wrapper.crashed(e);
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package org.wso2.lsp4intellij.editor;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Coalesces the incremental document changes not sent to the server yet. The consecutive typing or deleting at the
+ * end of the previous change is merged into the previous change, other changes are kept in order, as the server
+ * applies the content changes of a didChange notification one by one.
+ */
+class DocumentChangeCoalescer {
+
+    /**
+     * Above this number of pending changes, the full text is sent instead
+     */
+    static final int MAX_PENDING_CHANGES = 64;
+
+    private final List<TextDocumentContentChangeEvent> changes = new ArrayList<>();
+    private boolean fullTextRequired = false;
+    private CharSequence latestText = "";
+
+    boolean isEmpty() {
+        return changes.isEmpty() && !fullTextRequired;
+    }
+
+    /**
+     * Adds the incremental change, whose range is in the document after the previous changes are applied
+     *
+     * @param change The incremental change
+     * @param text   The immutable text of the document after the change, used if the full text is to be sent
+     */
+    void add(TextDocumentContentChangeEvent change, CharSequence text) {
+        latestText = text;
+        if (fullTextRequired) {
+            return;
+        }
+        if (changes.isEmpty() || !merge(changes.get(changes.size() - 1), change)) {
+            changes.add(change);
+        }
+        if (changes.size() > MAX_PENDING_CHANGES) {
+            markFullText();
+        }
+    }
+
+    /**
+     * Marks the whole text is to be sent, for the full sync kind
+     *
+     * @param text The immutable text of the document after the change
+     */
+    void markFullText(CharSequence text) {
+        latestText = text;
+        markFullText();
+    }
+
+    private void markFullText() {
+        changes.clear();
+        fullTextRequired = true;
+    }
+
+    /**
+     * Returns the pending changes and resets
+     */
+    List<TextDocumentContentChangeEvent> drain() {
+        final List<TextDocumentContentChangeEvent> drained = fullTextRequired ?
+                Collections.singletonList(new TextDocumentContentChangeEvent(latestText.toString())) :
+                new ArrayList<>(changes);
+        changes.clear();
+        fullTextRequired = false;
+        latestText = "";
+        return drained;
+    }
+
+    private static boolean merge(TextDocumentContentChangeEvent previous, TextDocumentContentChangeEvent next) {
+        final Range previousRange = previous.getRange();
+        final Range nextRange = next.getRange();
+        if (previousRange == null || nextRange == null) {
+            return false;
+        }
+        final String insertedText = previous.getText();
+        final Position insertedEnd = endOf(previousRange.getStart(), insertedText);
+        final boolean isInsertion = nextRange.getStart().equals(nextRange.getEnd());
+
+        if (isInsertion && nextRange.getStart().equals(insertedEnd)) {
+            // Typing right after the previous change
+            previous.setText(insertedText + next.getText());
+            return true;
+        }
+
+        final int lastLineStart = insertedText.lastIndexOf('\n') + 1;
+        final int deletedLength = nextRange.getEnd().getCharacter() - nextRange.getStart().getCharacter();
+        if (next.getText().isEmpty() && nextRange.getEnd().equals(insertedEnd)
+                && nextRange.getStart().getLine() == insertedEnd.getLine()
+                && deletedLength <= insertedText.length() - lastLineStart) {
+            // Deleting the tail of the text just inserted on its last line
+            previous.setText(insertedText.substring(0, insertedText.length() - deletedLength));
+            return true;
+        }
+        return false;
+    }
+
+    private static Position endOf(Position start, String text) {
+        final int lastNewLine = text.lastIndexOf('\n');
+        if (lastNewLine < 0) {
+            return new Position(start.getLine(), start.getCharacter() + text.length());
+        }
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return new Position(start.getLine() + lines, text.length() - lastNewLine - 1);
+    }
+}
@@ -22,6 +22,7 @@ import com.intellij.openapi.editor.event.DocumentEvent;
 import com.intellij.openapi.editor.event.DocumentListener;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
@@ -38,11 +39,14 @@ import org.wso2.lsp4intellij.utils.ApplicationUtils;
 import org.wso2.lsp4intellij.utils.DocumentUtils;
 import org.wso2.lsp4intellij.utils.FileUtils;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class DocumentEventManager {
     private final Document document;
@@ -51,6 +55,12 @@ public class DocumentEventManager {
     private final LanguageServerWrapper wrapper;
     private final TextDocumentIdentifier identifier;
     private int version = -1;
+    private final DocumentChangeCoalescer pendingChanges = new DocumentChangeCoalescer();
+    private final Set<CompletableFuture<?>> obsoleteOnChangeRequests = ConcurrentHashMap.newKeySet();
+    private ScheduledFuture<?> flushFuture;
+    private long firstPendingChangeTime;
+    private static final long FLUSH_DELAY_MS = 100;
+    private static final long MAX_FLUSH_DELAY_MS = 500;
     protected Logger LOG = Logger.getInstance(EditorEventManager.class);
     private static final Map<String, DocumentEventManager> uriToDocumentEventManager = new HashMap<>();
 
@@ -93,58 +103,121 @@ public class DocumentEventManager {
     }
 
     public void documentChanged(DocumentEvent event) {
+        // The results of the requests in flight are obsolete for the changed document
+        cancelObsoleteRequests();
+
+        synchronized (this) {
+            if (syncKind == TextDocumentSyncKind.Incremental) {
+                TextDocumentContentChangeEvent changeEvent = toIncrementalChange(event);
+                if (changeEvent == null) {
+                    return;
+                }
+                pendingChanges.add(changeEvent, event.getDocument().getImmutableCharSequence());
+            } else if (syncKind == TextDocumentSyncKind.Full) {
+                pendingChanges.markFullText(event.getDocument().getImmutableCharSequence());
+            } else {
+                return;
+            }
+            scheduleFlush();
+        }
+    }
 
-        DidChangeTextDocumentParams changesParams = new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(),
-                Collections.singletonList(new TextDocumentContentChangeEvent()));
-        changesParams.getTextDocument().setUri(identifier.getUri());
+    /**
+     * Sends the pending changes to the server at once, which should be called before the requests depending on the
+     * latest document content.
+     */
+    public synchronized void flushPendingChanges() {
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
+            flushFuture = null;
+        }
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        DidChangeTextDocumentParams changesParams = new DidChangeTextDocumentParams(
+                new VersionedTextDocumentIdentifier(identifier.getUri(), ++version), pendingChanges.drain());
+        wrapper.getRequestManager().didChange(changesParams);
+    }
 
+    /**
+     * Cancels the request when the document is changed, the cancellation is sent to the server as $/cancelRequest
+     *
+     * @param request The request whose result is obsolete once the document is changed
+     * @return The same request
+     */
+    public <T> CompletableFuture<T> cancelOnChange(CompletableFuture<T> request) {
+        if (request != null && !request.isDone()) {
+            obsoleteOnChangeRequests.add(request);
+            request.whenComplete((result, error) -> obsoleteOnChangeRequests.remove(request));
+        }
+        return request;
+    }
 
-        changesParams.getTextDocument().setVersion(++version);
+    private void cancelObsoleteRequests() {
+        for (CompletableFuture<?> request : obsoleteOnChangeRequests) {
+            request.cancel(true);
+        }
+        obsoleteOnChangeRequests.clear();
+    }
 
-        if (syncKind == TextDocumentSyncKind.Incremental) {
-            TextDocumentContentChangeEvent changeEvent = changesParams.getContentChanges().get(0);
-            CharSequence newText = event.getNewFragment();
-            int offset = event.getOffset();
-            int newTextLength = event.getNewLength();
-            Set<EditorEventManager> managersForUri = EditorEventManagerBase.managersForUri(FileUtils.documentToUri(document));
-            if (managersForUri == null || managersForUri.isEmpty()) {
-                LOG.warn("no manager associated with uri");
+    /**
+     * Flushes the pending changes once the typing pauses for {@link #FLUSH_DELAY_MS}, but no later than
+     * {@link #MAX_FLUSH_DELAY_MS} after the first pending change
+     */
+    private void scheduleFlush() {
+        long now = System.currentTimeMillis();
+        if (flushFuture != null && !flushFuture.isDone()) {
+            if (now - firstPendingChangeTime >= MAX_FLUSH_DELAY_MS) {
                 return;
             }
-            EditorEventManager editorEventManager = EditorEventManagerBase.managersForUri(FileUtils.documentToUri(document)).iterator().next();
-            if (editorEventManager == null) {
-                LOG.warn("no editor associated with document");
-                return;
-            }
-            Editor editor = editorEventManager.editor;
-            Position lspPosition = DocumentUtils.offsetToLSPPos(editor, offset);
-            if (lspPosition == null) {
-                return;
-            }
-            int startLine = lspPosition.getLine();
-            int startColumn = lspPosition.getCharacter();
-            CharSequence oldText = event.getOldFragment();
-
-            //if text was deleted/replaced, calculate the end position of inserted/deleted text
-            int endLine, endColumn;
-            if (oldText.length() > 0) {
-                endLine = startLine + StringUtil.countNewLines(oldText);
-                String content = oldText.toString();
-                String[] oldLines = content.split("\n");
-                int oldTextLength = oldLines.length == 0 ? 0 : oldLines[oldLines.length - 1].length();
-                endColumn = content.endsWith("\n") ? 0 : oldLines.length == 1 ? startColumn + oldTextLength : oldTextLength;
-            } else { //if insert or no text change, the end position is the same
-                endLine = startLine;
-                endColumn = startColumn;
-            }
-            Range range = new Range(new Position(startLine, startColumn), new Position(endLine, endColumn));
-            changeEvent.setRange(range);
-            changeEvent.setRangeLength(newTextLength);
-            changeEvent.setText(newText.toString());
-        } else if (syncKind == TextDocumentSyncKind.Full) {
-            changesParams.getContentChanges().get(0).setText(document.getText());
+            flushFuture.cancel(false);
+        } else {
+            firstPendingChangeTime = now;
+        }
+        // Flush through the pool to keep the order with the other notifications, such as didSave
+        flushFuture = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(() -> ApplicationUtils.pool(this::flushPendingChanges), FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private TextDocumentContentChangeEvent toIncrementalChange(DocumentEvent event) {
+        CharSequence newText = event.getNewFragment();
+        int offset = event.getOffset();
+        Set<EditorEventManager> managersForUri = EditorEventManagerBase.managersForUri(FileUtils.documentToUri(document));
+        if (managersForUri == null || managersForUri.isEmpty()) {
+            LOG.warn("no manager associated with uri");
+            return null;
+        }
+        EditorEventManager editorEventManager = managersForUri.iterator().next();
+        if (editorEventManager == null) {
+            LOG.warn("no editor associated with document");
+            return null;
+        }
+        Editor editor = editorEventManager.editor;
+        Position lspPosition = DocumentUtils.offsetToLSPPos(editor, offset);
+        if (lspPosition == null) {
+            return null;
+        }
+        int startLine = lspPosition.getLine();
+        int startColumn = lspPosition.getCharacter();
+        CharSequence oldText = event.getOldFragment();
+
+        //if text was deleted/replaced, calculate the end position of inserted/deleted text
+        int endLine, endColumn;
+        if (oldText.length() > 0) {
+            endLine = startLine + StringUtil.countNewLines(oldText);
+            String content = oldText.toString();
+            String[] oldLines = content.split("\n");
+            int oldTextLength = oldLines.length == 0 ? 0 : oldLines[oldLines.length - 1].length();
+            endColumn = content.endsWith("\n") ? 0 : oldLines.length == 1 ? startColumn + oldTextLength : oldTextLength;
+        } else { //if insert or no text change, the end position is the same
+            endLine = startLine;
+            endColumn = startColumn;
         }
-        ApplicationUtils.pool(() -> wrapper.getRequestManager().didChange(changesParams));
+        TextDocumentContentChangeEvent changeEvent = new TextDocumentContentChangeEvent();
+        changeEvent.setRange(new Range(new Position(startLine, startColumn), new Position(endLine, endColumn)));
+        changeEvent.setRangeLength(event.getOldLength());
+        changeEvent.setText(newText.toString());
+        return changeEvent;
     }
 
     public void documentOpened() {
@@ -167,6 +240,8 @@ public class DocumentEventManager {
             LOG.warn("trying to close document which is still open in another editor!");
         } else {
             openDocuments.remove(document);
+            cancelObsoleteRequests();
+            flushPendingChanges();
             wrapper.getRequestManager().didClose(new DidCloseTextDocumentParams(identifier));
         }
     }
@@ -121,6 +121,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -132,10 +133,12 @@ import static org.wso2.lsp4intellij.editor.EditorEventManagerBase.getCtrlRange;
 import static org.wso2.lsp4intellij.editor.EditorEventManagerBase.getIsCtrlDown;
 import static org.wso2.lsp4intellij.editor.EditorEventManagerBase.getIsKeyPressed;
 import static org.wso2.lsp4intellij.editor.EditorEventManagerBase.setCtrlRange;
+import static org.wso2.lsp4intellij.requests.RequestMetrics.track;
 import static org.wso2.lsp4intellij.requests.Timeout.getTimeout;
 import static org.wso2.lsp4intellij.requests.Timeouts.COMPLETION;
 import static org.wso2.lsp4intellij.requests.Timeouts.DEFINITION;
 import static org.wso2.lsp4intellij.requests.Timeouts.EXECUTE_COMMAND;
+import static org.wso2.lsp4intellij.requests.Timeouts.FORMATTING;
 import static org.wso2.lsp4intellij.requests.Timeouts.HOVER;
 import static org.wso2.lsp4intellij.requests.Timeouts.REFERENCES;
 import static org.wso2.lsp4intellij.requests.Timeouts.SIGNATURE;
@@ -238,6 +241,15 @@ public class EditorEventManager {
         return identifier;
     }
 
+    /**
+     * Returns the request manager after the pending document changes are sent, for the requests depending on the
+     * latest document content
+     */
+    private RequestManager getSyncedRequestManager() {
+        documentEventManager.flushPendingChanges();
+        return wrapper.getRequestManager();
+    }
+
     /**
      * Calls onTypeFormatting or signatureHelp if the character typed was a trigger character
      *
@@ -370,7 +382,7 @@ public class EditorEventManager {
     private Location requestDefinition(Position position) {
         DefinitionParams params = new DefinitionParams(identifier, position);
         CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> request =
-                wrapper.getRequestManager().definition(params);
+                track(DEFINITION, getSyncedRequestManager().definition(params));
 
         if (request == null) {
             return null;
@@ -416,7 +428,7 @@ public class EditorEventManager {
         ReferenceParams params = new ReferenceParams(textDocumentIdentifier, lspPos, new ReferenceContext(getOriginalElement));
         params.setPosition(lspPos);
         params.setTextDocument(identifier);
-        CompletableFuture<List<? extends Location>> request = wrapper.getRequestManager().references(params);
+        CompletableFuture<List<? extends Location>> request = track(REFERENCES, getSyncedRequestManager().references(params));
         if (request != null) {
             try {
                 List<? extends Location> res = request.get(getTimeout(REFERENCES), TimeUnit.MILLISECONDS);
@@ -508,7 +520,9 @@ public class EditorEventManager {
         Point point = editor.logicalPositionToXY(lPos);
         SignatureHelpParams params = new SignatureHelpParams(identifier, DocumentUtils.logicalToLSPPos(lPos, editor));
         pool(() -> {
-            CompletableFuture<SignatureHelp> future = wrapper.getRequestManager().signatureHelp(params);
+            // The signature help is obsolete once the document is changed again
+            CompletableFuture<SignatureHelp> future = documentEventManager.cancelOnChange(
+                    track(SIGNATURE, getSyncedRequestManager().signatureHelp(params)));
             if (future == null) {
                 return;
             }
@@ -553,6 +567,8 @@ public class EditorEventManager {
             } catch (TimeoutException e) {
                 LOG.warn(e);
                 wrapper.notifyFailure(Timeouts.SIGNATURE);
+            } catch (CancellationException e) {
+                LOG.debug("Signature help is cancelled by the document change");
             } catch (JsonRpcException | ExecutionException | InterruptedException e) {
                 LOG.warn(e);
                 wrapper.crashed(e);
@@ -587,7 +603,7 @@ public class EditorEventManager {
             options.setInsertSpaces(DocumentUtils.shouldUseSpaces(editor));
             params.setOptions(options);
 
-            CompletableFuture<List<? extends TextEdit>> request = wrapper.getRequestManager().formatting(params);
+            CompletableFuture<List<? extends TextEdit>> request = track(FORMATTING, getSyncedRequestManager().formatting(params));
             if (request == null) {
                 return;
             }
@@ -621,7 +637,7 @@ public class EditorEventManager {
             options.setInsertSpaces(DocumentUtils.shouldUseSpaces(editor));
             params.setOptions(options);
 
-            CompletableFuture<List<? extends TextEdit>> request = wrapper.getRequestManager().rangeFormatting(params);
+            CompletableFuture<List<? extends TextEdit>> request = track(FORMATTING, getSyncedRequestManager().rangeFormatting(params));
             if (request == null) {
                 return;
             }
@@ -654,7 +670,7 @@ public class EditorEventManager {
             }
             Position servPos = DocumentUtils.offsetToLSPPos(editor, offset);
             RenameParams params = new RenameParams(identifier, servPos, renameTo);
-            CompletableFuture<WorkspaceEdit> request = wrapper.getRequestManager().rename(params);
+            CompletableFuture<WorkspaceEdit> request = getSyncedRequestManager().rename(params);
             if (request != null) {
                 request.thenAccept(res -> {
                     WorkspaceEditHandler
@@ -690,7 +706,7 @@ public class EditorEventManager {
      */
     private void requestAndShowDoc(LogicalPosition editorPos, Point point) {
         Position serverPos = computableReadAction(() -> DocumentUtils.logicalToLSPPos(editorPos, editor));
-        CompletableFuture<Hover> request = wrapper.getRequestManager().hover(new HoverParams(identifier, serverPos));
+        CompletableFuture<Hover> request = track(HOVER, getSyncedRequestManager().hover(new HoverParams(identifier, serverPos)));
         if (request == null) {
             return;
         }
@@ -742,8 +758,9 @@ public class EditorEventManager {
     public Iterable<? extends LookupElement> completion(Position pos) {
 
         List<LookupElement> lookupItems = new ArrayList<>();
-        CompletableFuture<Either<List<CompletionItem>, CompletionList>> request = wrapper.getRequestManager()
-                .completion(new CompletionParams(identifier, pos));
+        // The completion is obsolete once the document is changed again
+        CompletableFuture<Either<List<CompletionItem>, CompletionList>> request = documentEventManager.cancelOnChange(
+                track(COMPLETION, getSyncedRequestManager().completion(new CompletionParams(identifier, pos))));
         if (request == null) {
             return lookupItems;
         }
@@ -769,6 +786,8 @@ public class EditorEventManager {
                     }
                 }
             }
+        } catch (CancellationException e) {
+            LOG.debug("Completion is cancelled by the document change");
         } catch (TimeoutException | InterruptedException e) {
             LOG.warn(e);
             wrapper.notifyFailure(Timeouts.COMPLETION);
@@ -1235,7 +1254,7 @@ public class EditorEventManager {
         pool(() -> {
             if (!editor.isDisposed()) {
                 DidSaveTextDocumentParams params = new DidSaveTextDocumentParams(identifier, editor.getDocument().getText());
-                wrapper.getRequestManager().didSave(params);
+                getSyncedRequestManager().didSave(params);
             }
         });
     }
@@ -1267,7 +1286,7 @@ public class EditorEventManager {
                 }
                 WillSaveTextDocumentParams params = new WillSaveTextDocumentParams(identifier,
                         TextDocumentSaveReason.Manual);
-                CompletableFuture<List<TextEdit>> future = wrapper.getRequestManager().willSaveWaitUntil(params);
+                CompletableFuture<List<TextEdit>> future = track(WILLSAVE, getSyncedRequestManager().willSaveWaitUntil(params));
                 if (future != null) {
                     try {
                         List<TextEdit> edits = future.get(getTimeout(WILLSAVE), TimeUnit.MILLISECONDS);
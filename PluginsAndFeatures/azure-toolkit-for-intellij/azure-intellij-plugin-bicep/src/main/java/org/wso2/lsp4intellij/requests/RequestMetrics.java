@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package org.wso2.lsp4intellij.requests;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency metrics of the requests to the language server, by the request type
+ */
+public class RequestMetrics {
+
+    /**
+     * The upper bounds in milliseconds of the latency histogram buckets, the last bucket is unbounded
+     */
+    private static final long[] BUCKET_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2000, 5000};
+
+    private static Map<Timeouts, Metric> metrics = new ConcurrentHashMap<>();
+
+    static {
+        Arrays.stream(Timeouts.values()).forEach(t -> metrics.put(t, new Metric()));
+    }
+
+    /**
+     * Records the latency of the request when it's completed, failed or cancelled
+     *
+     * @param type    The request type
+     * @param request The request future, could be null if the server doesn't support the request
+     * @return The same request future
+     */
+    public static <T> CompletableFuture<T> track(Timeouts type, CompletableFuture<T> request) {
+        if (request == null) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        request.whenComplete((result, error) -> {
+            final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            metrics.get(type).record(elapsedMs, cause == null, cause instanceof CancellationException);
+        });
+        return request;
+    }
+
+    public static Map<Timeouts, Metric> getMetrics() {
+        return metrics;
+    }
+
+    public static void reset() {
+        metrics.values().forEach(Metric::reset);
+    }
+
+    /**
+     * The latency metric of a request type
+     */
+    public static class Metric {
+        private final long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+        private long succeeded;
+        private long failed;
+        private long cancelled;
+        private long totalMs;
+        private long maxMs;
+
+        synchronized void record(long elapsedMs, boolean success, boolean isCancelled) {
+            if (isCancelled) {
+                cancelled++;
+                return;
+            }
+            if (success) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+            totalMs += elapsedMs;
+            maxMs = Math.max(maxMs, elapsedMs);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && elapsedMs > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+        }
+
+        synchronized void reset() {
+            Arrays.fill(buckets, 0);
+            succeeded = failed = cancelled = totalMs = maxMs = 0;
+        }
+
+        public synchronized long getCount() {
+            return succeeded + failed;
+        }
+
+        public synchronized long getFailed() {
+            return failed;
+        }
+
+        public synchronized long getCancelled() {
+            return cancelled;
+        }
+
+        public synchronized long getAverageMs() {
+            final long count = getCount();
+            return count == 0 ? 0 : totalMs / count;
+        }
+
+        public synchronized long getMaxMs() {
+            return maxMs;
+        }
+
+        /**
+         * @param percentile The percentile, e.g. 0.95
+         * @return The upper bound of the histogram bucket containing the percentile, the max latency for the last bucket
+         */
+        public synchronized long getPercentileMs(double percentile) {
+            final long count = getCount();
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKET_BOUNDS_MS.length; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MS[bucket], maxMs);
+                }
+            }
+            return maxMs;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("count %d, avg %dms, p50 <=%dms, p95 <=%dms, max %dms, failed %d, cancelled %d",
+                    getCount(), getAverageMs(), getPercentileMs(0.5), getPercentileMs(0.95), maxMs, failed, cancelled);
+        }
+    }
+}
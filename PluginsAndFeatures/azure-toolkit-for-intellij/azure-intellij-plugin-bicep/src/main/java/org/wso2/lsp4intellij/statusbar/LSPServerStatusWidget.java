@@ -41,6 +41,7 @@ import org.jetbrains.annotations.Nullable;
 import org.wso2.lsp4intellij.client.languageserver.ServerStatus;
 import org.wso2.lsp4intellij.client.languageserver.wrapper.LanguageServerWrapper;
 import org.wso2.lsp4intellij.contributors.icon.LSPDefaultIconProvider;
+import org.wso2.lsp4intellij.requests.RequestMetrics;
 import org.wso2.lsp4intellij.requests.Timeouts;
 import org.wso2.lsp4intellij.utils.ApplicationUtils;
 import org.wso2.lsp4intellij.utils.GUIUtils;
@@ -156,6 +157,7 @@ public class LSPServerStatusWidget implements StatusBarWidget {
                     actions.add(new ShowConnectedFiles());
                 }
                 actions.add(new ShowTimeouts());
+                actions.add(new ShowLatencies());
                 String title = "Server Actions";
                 DataContext context = DataManager.getInstance().getDataContext(component);
                 DefaultActionGroup group = new DefaultActionGroup(actions);
@@ -214,6 +216,27 @@ public class LSPServerStatusWidget implements StatusBarWidget {
             }
         }
 
+        class ShowLatencies extends AnAction implements DumbAware {
+            ShowLatencies() {
+                super("Show &Latencies", "Show the latencies of the server requests", null);
+            }
+
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                StringBuilder message = new StringBuilder();
+                message.append("<html>");
+                message.append("Latencies (cancelled requests are not counted) :<br>");
+                RequestMetrics.getMetrics().forEach((t, metric) -> {
+                    if (metric.getCount() > 0 || metric.getCancelled() > 0) {
+                        message.append(t.name(), 0, 1).append(t.name().substring(1).toLowerCase()).append(" => ")
+                                .append(metric).append("<br>");
+                    }
+                });
+                message.append("</html>");
+                Messages.showInfoMessage(message.toString(), "Latencies");
+            }
+        }
+
         class Restart extends AnAction implements DumbAware {
 
             Restart() {
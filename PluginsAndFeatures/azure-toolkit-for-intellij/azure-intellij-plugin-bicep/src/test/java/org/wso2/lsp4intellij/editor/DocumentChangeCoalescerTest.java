@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package org.wso2.lsp4intellij.editor;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentChangeCoalescerTest {
+    @Test
+    public void testTypingMerged() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.add(change(0, 4, 0, 4, "a"), "text");
+        coalescer.add(change(0, 5, 0, 5, "b"), "text");
+        coalescer.add(change(0, 6, 0, 6, "c"), "text");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(1, changes.size());
+        assertEquals("abc", changes.get(0).getText());
+        assertEquals(range(0, 4, 0, 4), changes.get(0).getRange());
+    }
+
+    @Test
+    public void testTypingAfterNewLineMerged() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.add(change(1, 4, 1, 4, "a\n"), "text");
+        coalescer.add(change(2, 0, 2, 0, "b"), "text");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(1, changes.size());
+        assertEquals("a\nb", changes.get(0).getText());
+    }
+
+    @Test
+    public void testBackspaceAfterTypingMerged() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.add(change(0, 0, 0, 0, "abc"), "text");
+        coalescer.add(change(0, 2, 0, 3, ""), "text");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(1, changes.size());
+        assertEquals("ab", changes.get(0).getText());
+    }
+
+    @Test
+    public void testDeletingBeyondTypedTextKept() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.add(change(0, 3, 0, 3, "ab"), "text");
+        coalescer.add(change(0, 1, 0, 5, ""), "text");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(2, changes.size());
+        assertEquals("ab", changes.get(0).getText());
+        assertEquals(range(0, 1, 0, 5), changes.get(1).getRange());
+    }
+
+    @Test
+    public void testNonAdjacentChangesKeptInOrder() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.add(change(0, 0, 0, 0, "a"), "text");
+        coalescer.add(change(5, 0, 5, 0, "b"), "text");
+        coalescer.add(change(0, 1, 0, 1, "c"), "text");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(3, changes.size());
+        assertEquals("a", changes.get(0).getText());
+        assertEquals("b", changes.get(1).getText());
+        assertEquals("c", changes.get(2).getText());
+    }
+
+    @Test
+    public void testTooManyChangesSentAsFullText() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        for (int line = 0; line <= DocumentChangeCoalescer.MAX_PENDING_CHANGES; line++) {
+            coalescer.add(change(line * 2, 0, line * 2, 0, "x"), "text " + line);
+        }
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(1, changes.size());
+        assertNull(changes.get(0).getRange());
+        assertEquals("text " + DocumentChangeCoalescer.MAX_PENDING_CHANGES, changes.get(0).getText());
+    }
+
+    @Test
+    public void testFullTextUsesLatestText() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        coalescer.markFullText("first");
+        coalescer.add(change(0, 0, 0, 0, "x"), "latest");
+
+        final List<TextDocumentContentChangeEvent> changes = coalescer.drain();
+        assertEquals(1, changes.size());
+        assertNull(changes.get(0).getRange());
+        assertEquals("latest", changes.get(0).getText());
+    }
+
+    @Test
+    public void testDrainResets() {
+        final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer();
+        assertTrue(coalescer.isEmpty());
+
+        coalescer.markFullText("text");
+        assertFalse(coalescer.isEmpty());
+
+        coalescer.drain();
+        assertTrue(coalescer.isEmpty());
+        assertTrue(coalescer.drain().isEmpty());
+    }
+
+    private static TextDocumentContentChangeEvent change(int startLine, int startCharacter, int endLine, int endCharacter, String text) {
+        final TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+        change.setRange(range(startLine, startCharacter, endLine, endCharacter));
+        change.setText(text);
+        return change;
+    }
+
+    private static Range range(int startLine, int startCharacter, int endLine, int endCharacter) {
+        return new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter));
+    }
+}
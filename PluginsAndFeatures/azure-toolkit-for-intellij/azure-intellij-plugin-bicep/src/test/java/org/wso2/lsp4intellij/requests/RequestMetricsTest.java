@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package org.wso2.lsp4intellij.requests;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RequestMetricsTest {
+    @Test
+    public void testPercentilesByBucket() {
+        final RequestMetrics.Metric metric = new RequestMetrics.Metric();
+        for (int i = 0; i < 90; i++) {
+            metric.record(5, true, false);
+        }
+        for (int i = 0; i < 9; i++) {
+            metric.record(80, true, false);
+        }
+        metric.record(3000, false, false);
+
+        assertEquals(100, metric.getCount());
+        assertEquals(1, metric.getFailed());
+        assertEquals(10, metric.getPercentileMs(0.5));
+        assertEquals(100, metric.getPercentileMs(0.95));
+        assertEquals(3000, metric.getPercentileMs(1));
+        assertEquals(3000, metric.getMaxMs());
+        assertEquals((90 * 5 + 9 * 80 + 3000) / 100, metric.getAverageMs());
+    }
+
+    @Test
+    public void testPercentileCappedByMax() {
+        final RequestMetrics.Metric metric = new RequestMetrics.Metric();
+        metric.record(30, true, false);
+
+        assertEquals(30, metric.getPercentileMs(0.5));
+    }
+
+    @Test
+    public void testLatencyBeyondLastBoundInLastBucket() {
+        final RequestMetrics.Metric metric = new RequestMetrics.Metric();
+        metric.record(8000, true, false);
+
+        assertEquals(8000, metric.getPercentileMs(0.95));
+    }
+
+    @Test
+    public void testCancelledNotCounted() {
+        final RequestMetrics.Metric metric = new RequestMetrics.Metric();
+        metric.record(10, true, false);
+        metric.record(900, false, true);
+
+        assertEquals(1, metric.getCount());
+        assertEquals(1, metric.getCancelled());
+        assertEquals(10, metric.getMaxMs());
+    }
+
+    @Test
+    public void testReset() {
+        final RequestMetrics.Metric metric = new RequestMetrics.Metric();
+        metric.record(10, true, false);
+        metric.record(10, false, true);
+        metric.reset();
+
+        assertEquals(0, metric.getCount());
+        assertEquals(0, metric.getCancelled());
+        assertEquals(0, metric.getPercentileMs(0.5));
+    }
+
+    @Test
+    public void testTrackCompletedAndCancelledRequests() {
+        RequestMetrics.reset();
+        final CompletableFuture<String> completed = RequestMetrics.track(Timeouts.COMPLETION, new CompletableFuture<>());
+        final CompletableFuture<String> cancelled = RequestMetrics.track(Timeouts.COMPLETION, new CompletableFuture<>());
+        completed.complete("done");
+        cancelled.cancel(true);
+
+        final RequestMetrics.Metric metric = RequestMetrics.getMetrics().get(Timeouts.COMPLETION);
+        assertEquals(1, metric.getCount());
+        assertEquals(1, metric.getCancelled());
+        assertNull(RequestMetrics.track(Timeouts.COMPLETION, null));
+        RequestMetrics.reset();
+    }
+}
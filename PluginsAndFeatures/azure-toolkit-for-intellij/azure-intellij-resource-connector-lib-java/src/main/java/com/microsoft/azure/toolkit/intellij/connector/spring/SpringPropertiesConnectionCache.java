@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector.spring;
+
+import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.intellij.connector.Connection;
+import com.microsoft.azure.toolkit.intellij.connector.ConnectionManager;
+import com.microsoft.azure.toolkit.intellij.connector.ConnectionTopics;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the connections of each module by the first spring property they define, so that highlighting the spring
+ * properties looks up the connection of a property rather than computing the properties of all connections.
+ * it's dropped whenever the connections are changed or refreshed, see {@link ConnectionTopics}.
+ */
+@RequiredArgsConstructor
+public class SpringPropertiesConnectionCache {
+    private final Project project;
+    private volatile Map<String, Map<Pair<String, String>, Connection<?, ?>>> connectionsByModule = new ConcurrentHashMap<>();
+
+    public static SpringPropertiesConnectionCache getInstance(@Nonnull Project project) {
+        return project.getService(SpringPropertiesConnectionCache.class);
+    }
+
+    /**
+     * @return the first connection of the module whose first spring property is the given one.
+     */
+    @Nullable
+    public Connection<?, ?> getConnection(@Nonnull String moduleName, @Nonnull Pair<String, String> property) {
+        return this.connectionsByModule.computeIfAbsent(moduleName, this::loadConnections).get(property);
+    }
+
+    private Map<Pair<String, String>, Connection<?, ?>> loadConnections(@Nonnull String moduleName) {
+        final Map<Pair<String, String>, Connection<?, ?>> result = new HashMap<>();
+        final List<Connection<?, ?>> connections = this.project.getService(ConnectionManager.class).getConnectionsByConsumerId(moduleName);
+        for (final Connection<?, ?> connection : connections) {
+            final List<Pair<String, String>> properties = SpringSupported.getProperties(connection);
+            if (!properties.isEmpty()) {
+                result.putIfAbsent(properties.get(0), connection);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate() {
+        // replace rather than clear, so that the connections being loaded meanwhile are dropped with the old map.
+        this.connectionsByModule = new ConcurrentHashMap<>();
+    }
+
+    @RequiredArgsConstructor
+    public static class Invalidator implements ConnectionTopics.ConnectionChanged, ConnectionTopics.ConnectionsRefreshed {
+        private final Project project;
+
+        @Override
+        public void connectionChanged(Project project, Connection<?, ?> connection, ConnectionTopics.Action change) {
+            getInstance(project).invalidate();
+        }
+
+        @Override
+        public void connectionsRefreshed() {
+            getInstance(this.project).invalidate();
+        }
+    }
+}
@@ -20,18 +20,15 @@ import com.intellij.psi.PsiElement;
 import com.microsoft.azure.toolkit.ide.common.icon.AzureIcons;
 import com.microsoft.azure.toolkit.intellij.common.IntelliJAzureIcons;
 import com.microsoft.azure.toolkit.intellij.connector.Connection;
-import com.microsoft.azure.toolkit.intellij.connector.ConnectionManager;
 import com.microsoft.azure.toolkit.intellij.connector.Resource;
 import com.microsoft.azure.toolkit.lib.common.messager.ExceptionNotification;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.awt.event.MouseEvent;
-import java.util.List;
 import java.util.Objects;
 
 public class SpringPropertiesLineMarkerProvider implements LineMarkerProvider {
@@ -50,20 +47,16 @@ public class SpringPropertiesLineMarkerProvider implements LineMarkerProvider {
             return null;
         }
         final ImmutablePair<String, String> keyProp = new ImmutablePair<>(propKey, propVal);
-        final List<Connection<?, ?>> connections = element.getProject().getService(ConnectionManager.class)
-                .getConnectionsByConsumerId(module.getName());
-        for (final Connection<?, ?> connection : connections) {
-            final List<Pair<String, String>> properties = SpringSupported.getProperties(connection);
-            if (!properties.isEmpty() && properties.get(0).equals(keyProp)) {
-                final Resource<?> r = connection.getResource();
-                return new LineMarkerInfo<>(element, element.getTextRange(),
-                        IntelliJAzureIcons.getIcon(AzureIcons.Connector.CONNECT),
-                        element2 -> String.format("%s (%s)", r.getName(), r.getDefinition().getTitle()),
-                        new SpringDatasourceNavigationHandler(r),
-                        GutterIconRenderer.Alignment.LEFT, () -> "");
-            }
+        final Connection<?, ?> connection = SpringPropertiesConnectionCache.getInstance(element.getProject()).getConnection(module.getName(), keyProp);
+        if (Objects.isNull(connection)) {
+            return null;
         }
-        return null;
+        final Resource<?> r = connection.getResource();
+        return new LineMarkerInfo<>(element, element.getTextRange(),
+                IntelliJAzureIcons.getIcon(AzureIcons.Connector.CONNECT),
+                element2 -> String.format("%s (%s)", r.getName(), r.getDefinition().getTitle()),
+                new SpringDatasourceNavigationHandler(r),
+                GutterIconRenderer.Alignment.LEFT, () -> "");
     }
 
     @RequiredArgsConstructor
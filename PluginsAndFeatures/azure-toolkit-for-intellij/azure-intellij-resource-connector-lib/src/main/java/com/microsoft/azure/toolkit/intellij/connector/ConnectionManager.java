@@ -9,9 +9,11 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.project.Project;
 import com.microsoft.azure.toolkit.lib.common.messager.ExceptionNotification;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -21,10 +23,11 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
@@ -72,6 +75,7 @@ public interface ConnectionManager extends PersistentStateComponent<Element> {
     }
 
     @Log
+    @RequiredArgsConstructor
     @State(name = Impl.ELEMENT_NAME_CONNECTIONS, storages = {@Storage("azure/resource-connections.xml")})
     final class Impl implements ConnectionManager, PersistentStateComponent<Element> {
         private static final ExtensionPointName<ConnectionDefinition<?, ?>> exPoints =
@@ -79,7 +83,13 @@ public interface ConnectionManager extends PersistentStateComponent<Element> {
         private static final String ELEMENT_NAME_CONNECTIONS = "connections";
         private static final String ELEMENT_NAME_CONNECTION = "connection";
         private static final String FIELD_TYPE = "type";
+        private final Project project;
         private final Set<Connection<?, ?>> connections = new LinkedHashSet<>();
+        /**
+         * the connections indexed by the id of their resource and consumer, in the same order as {@link #connections}
+         */
+        private final Map<String, Set<Connection<?, ?>>> connectionsByResourceId = new HashMap<>();
+        private final Map<String, Set<Connection<?, ?>>> connectionsByConsumerId = new HashMap<>();
         private static Map<String, ConnectionDefinition<?, ?>> definitions = null;
 
         public synchronized static Map<String, ConnectionDefinition<?, ?>> getDefinitions() {
@@ -92,36 +102,55 @@ public interface ConnectionManager extends PersistentStateComponent<Element> {
         @Override
         @AzureOperation(name = "user/connector.add_connection")
         public synchronized void addConnection(Connection<?, ?> connection) {
-            connections.removeIf(c -> Objects.equals(c, connection)); // always replace the old with the new one.
+            if (connections.contains(connection)) { // always replace the old with the new one.
+                unindex(connection);
+            }
             connections.add(connection);
+            connectionsByResourceId.computeIfAbsent(connection.getResource().getId(), id -> new LinkedHashSet<>()).add(connection);
+            connectionsByConsumerId.computeIfAbsent(connection.getConsumer().getId(), id -> new LinkedHashSet<>()).add(connection);
         }
 
         @Override
         @AzureOperation(name = "user/connector.remove_connection")
         public synchronized void removeConnection(String resourceId, String consumerId) {
-            connections.removeIf(c -> StringUtils.equals(resourceId, c.getResource().getId()) && StringUtils.equals(consumerId, c.getConsumer().getId()));
+            connectionsByConsumerId.getOrDefault(consumerId, Collections.emptySet()).stream()
+                .filter(c -> StringUtils.equals(resourceId, c.getResource().getId()))
+                .collect(Collectors.toList()).forEach(this::unindex);
+        }
+
+        private void unindex(Connection<?, ?> connection) {
+            connections.remove(connection);
+            unindex(connectionsByResourceId, connection.getResource().getId(), connection);
+            unindex(connectionsByConsumerId, connection.getConsumer().getId(), connection);
+        }
+
+        private static void unindex(Map<String, Set<Connection<?, ?>>> index, String id, Connection<?, ?> connection) {
+            final Set<Connection<?, ?>> indexed = index.get(id);
+            if (indexed != null && indexed.remove(connection) && indexed.isEmpty()) {
+                index.remove(id);
+            }
         }
 
         @Override
-        public List<Connection<?, ?>> getConnections() {
+        public synchronized List<Connection<?, ?>> getConnections() {
             return new ArrayList<>(connections);
         }
 
         @Override
-        public List<Connection<?, ?>> getConnectionsByResourceId(String id) {
-            return connections.stream().filter(e -> StringUtils.equals(id, e.getResource().getId())).collect(Collectors.toList());
+        public synchronized List<Connection<?, ?>> getConnectionsByResourceId(String id) {
+            return new ArrayList<>(connectionsByResourceId.getOrDefault(id, Collections.emptySet()));
         }
 
         @Override
-        public List<Connection<?, ?>> getConnectionsByConsumerId(String id) {
-            return connections.stream().filter(e -> StringUtils.equals(id, e.getConsumer().getId())).collect(Collectors.toList());
+        public synchronized List<Connection<?, ?>> getConnectionsByConsumerId(String id) {
+            return new ArrayList<>(connectionsByConsumerId.getOrDefault(id, Collections.emptySet()));
         }
 
         @Override
         @ExceptionNotification
         public Element getState() {
             final Element connectionsEle = new Element(ELEMENT_NAME_CONNECTIONS);
-            for (final Connection<?, ?> connection : this.connections) {
+            for (final Connection<?, ?> connection : this.getConnections()) {
                 final Element connectionEle = new Element(ELEMENT_NAME_CONNECTION);
                 connectionEle.setAttribute(FIELD_TYPE, ConnectionManager.getName(connection.getDefinition()));
                 connection.write(connectionEle);
@@ -143,6 +172,8 @@ public interface ConnectionManager extends PersistentStateComponent<Element> {
                     log.log(Level.WARNING, String.format("error occurs when load a resource connection of type '%s'", name), e);
                 }
             }
+            // the connections are (re)loaded without firing CONNECTION_CHANGED for each, e.g. when the file is reverted.
+            this.project.getMessageBus().syncPublisher(ConnectionTopics.CONNECTIONS_REFRESHED).connectionsRefreshed();
         }
     }
 }
@@ -18,7 +18,9 @@ import org.jdom.Element;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +62,10 @@ public interface ResourceManager {
         protected static final String ELEMENT_NAME_RESOURCES = "resources";
         protected static final String ELEMENT_NAME_RESOURCE = "resource";
         protected final Set<Resource<?>> resources = new LinkedHashSet<>();
+        /**
+         * the first one of {@link #resources} with the id
+         */
+        private final Map<String, Resource<?>> resourcesById = new HashMap<>();
         private static Map<String, ResourceDefinition<?>> definitions;
 
         public synchronized static Map<String, ResourceDefinition<?>> getDefinitions() {
@@ -71,17 +77,25 @@ public interface ResourceManager {
 
         @Override
         public synchronized void addResource(Resource<?> resource) {
-            resources.remove(resource);
+            final boolean replaced = resources.remove(resource);
             resources.add(resource);
+            final String id = resource.getId();
+            final Resource<?> indexed = resourcesById.get(id);
+            if (indexed == null) {
+                resourcesById.put(id, resource);
+            } else if (replaced && indexed.equals(resource)) {
+                // the replaced one was the first with the id, which is the new one unless another one has the same id.
+                resourcesById.put(id, resources.stream().filter(e -> StringUtils.equals(e.getId(), id)).findFirst().orElse(resource));
+            }
         }
 
         @Nullable
         @Override
-        public Resource<?> getResourceById(String id) {
+        public synchronized Resource<?> getResourceById(String id) {
             if (StringUtils.isBlank(id)) {
                 return null;
             }
-            return resources.stream().filter(e -> StringUtils.equals(e.getId(), id)).findFirst().orElse(null);
+            return resourcesById.get(id);
         }
 
         @Override
@@ -89,7 +103,11 @@ public interface ResourceManager {
         @AzureOperation(name = "platform/connector.persist_connection_resources")
         public Element getState() {
             final Element resourcesEle = new Element(ELEMENT_NAME_RESOURCES);
-            this.resources.forEach(resource -> {
+            final List<Resource<?>> resources;
+            synchronized (this) {
+                resources = new ArrayList<>(this.resources);
+            }
+            resources.forEach(resource -> {
                 final Element resourceEle = new Element(ELEMENT_NAME_RESOURCE);
                 try {
                     if (resource.writeTo(resourceEle)) {
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector;
+
+import com.intellij.openapi.project.Project;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionManagerTest {
+    private ConnectionManager.Impl manager;
+    private ConnectionDefinition<Object, Object> definition;
+    private Resource<Object> module;
+
+    @Before
+    public void setUp() {
+        this.manager = new ConnectionManager.Impl(mock(Project.class));
+        this.definition = new ConnectionDefinition<>(mockDefinition("resource"), mockDefinition("consumer"));
+        this.module = mockResource("module");
+    }
+
+    @Test
+    public void testReplaceConnectionKeepsIndexesInOrder() {
+        final Connection<Object, Object> first = new Connection<>(mockResource("first"), this.module, this.definition);
+        final Connection<Object, Object> second = new Connection<>(mockResource("second"), this.module, this.definition);
+        final Connection<Object, Object> third = new Connection<>(mockResource("third"), this.module, this.definition);
+        this.manager.addConnection(first);
+        this.manager.addConnection(second);
+        this.manager.addConnection(third);
+
+        final Connection<Object, Object> replacement = new Connection<>(second.getResource(), this.module, this.definition);
+        this.manager.addConnection(replacement);
+
+        // the replaced connection is moved to the end, and the indexes are in the same order as all the connections.
+        assertEquals(Arrays.asList(first, third, replacement), this.manager.getConnections());
+        assertEquals(this.manager.getConnections(), this.manager.getConnectionsByConsumerId("module"));
+        assertSame(replacement, this.manager.getConnectionsByConsumerId("module").get(2));
+        assertEquals(Collections.singletonList(replacement), this.manager.getConnectionsByResourceId("second"));
+    }
+
+    @Test
+    public void testRemoveConnection() {
+        final Connection<Object, Object> first = new Connection<>(mockResource("first"), this.module, this.definition);
+        final Connection<Object, Object> second = new Connection<>(mockResource("second"), this.module, this.definition);
+        this.manager.addConnection(first);
+        this.manager.addConnection(second);
+
+        this.manager.removeConnection("first", "module");
+
+        assertEquals(Collections.singletonList(second), this.manager.getConnections());
+        assertEquals(Collections.singletonList(second), this.manager.getConnectionsByConsumerId("module"));
+        assertTrue(this.manager.getConnectionsByResourceId("first").isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResourceDefinition<Object> mockDefinition(String name) {
+        final ResourceDefinition<Object> definition = mock(ResourceDefinition.class);
+        when(definition.getName()).thenReturn(name);
+        return definition;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Resource<Object> mockResource(String id) {
+        final Resource<Object> resource = mock(Resource.class);
+        when(resource.getId()).thenReturn(id);
+        return resource;
+    }
+}
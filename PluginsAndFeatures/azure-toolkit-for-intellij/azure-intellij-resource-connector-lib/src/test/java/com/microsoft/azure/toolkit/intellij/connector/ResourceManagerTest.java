@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.microsoft.azure.toolkit.intellij.connector.ConnectionManagerTest.mockResource;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ResourceManagerTest {
+    private ResourceManager.Impl manager;
+
+    @Before
+    public void setUp() {
+        this.manager = new ResourceManager.Impl();
+    }
+
+    @Test
+    public void testGetResourceByIdReturnsFirstWithDuplicateId() {
+        final Resource<Object> first = mockResource("duplicate");
+        final Resource<Object> second = mockResource("duplicate");
+        this.manager.addResource(first);
+        this.manager.addResource(second);
+
+        assertSame(first, this.manager.getResourceById("duplicate"));
+    }
+
+    @Test
+    public void testGetResourceByIdAfterFirstIsReplaced() {
+        final Resource<Object> first = mockResource("duplicate");
+        final Resource<Object> second = mockResource("duplicate");
+        this.manager.addResource(first);
+        this.manager.addResource(second);
+
+        // the replaced one is moved to the end, so the other one with the id is the first now.
+        this.manager.addResource(first);
+
+        assertSame(second, this.manager.getResourceById("duplicate"));
+    }
+
+    @Test
+    public void testGetResourceByUnknownId() {
+        this.manager.addResource(mockResource("known"));
+
+        assertNull(this.manager.getResourceById("unknown"));
+        assertNull(this.manager.getResourceById(""));
+    }
+}
@@ -7,6 +7,8 @@ package com.microsoft.azure.toolkit.intellij.azuresdk.dependencesurvey.activity;
 
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkArtifactIndex;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkLibraryService;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.ProjectLibraryService;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.WorkspaceTaggingService;
 import com.microsoft.azure.toolkit.intellij.common.survey.CustomerSurvey;
@@ -68,8 +70,9 @@ public class WorkspaceTaggingActivity {
     }
 
     private static Set<String> getWorkspaceTags(@NotNull final Project project) {
+        final AzureSdkArtifactIndex index = AzureSdkLibraryService.loadAzureSdkArtifactIndex();
         return ProjectLibraryService.getProjectLibraries(project).stream()
-                .map(l -> WorkspaceTaggingService.getWorkspaceTag(l.getGroupId(), l.getArtifactId()))
+                .map(l -> WorkspaceTaggingService.getWorkspaceTag(index, l.getGroupId(), l.getArtifactId()))
                 .filter(StringUtils::isNotBlank)
                 .collect(Collectors.toSet());
     }
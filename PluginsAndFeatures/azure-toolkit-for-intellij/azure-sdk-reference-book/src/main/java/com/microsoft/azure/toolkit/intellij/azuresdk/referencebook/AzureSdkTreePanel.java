@@ -29,6 +29,7 @@ import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkCategoryService;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkLibraryService;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkSearchIndex;
 import com.microsoft.azure.toolkit.intellij.common.TextDocumentListenerAdapter;
 import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -48,17 +49,18 @@ import javax.annotation.Nullable;
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
-import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -76,6 +78,7 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     private DefaultTreeModel model;
     private List<? extends AzureSdkServiceEntity> services;
     private Map<String, List<AzureSdkCategoryEntity>> categories;
+    private AzureSdkSearchIndex index;
     private TreePath lastNodePath;
 
     public AzureSdkTreePanel() {
@@ -134,8 +137,11 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     }
 
     private void filter(final String text) {
-        final String[] filters = Arrays.stream(text.split("\\s+")).filter(StringUtils::isNoneBlank).map(String::toLowerCase).toArray(String[]::new);
-        this.loadData(this.categories, this.services, filters);
+        this.loadData(this.categories, this.services, toFilters(text));
+    }
+
+    private static String[] toFilters(final String text) {
+        return Arrays.stream(text.split("\\s+")).filter(StringUtils::isNoneBlank).map(String::toLowerCase).toArray(String[]::new);
     }
 
     public synchronized void refresh(boolean... force) {
@@ -144,9 +150,10 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
                 AzureSdkLibraryService.refresh();
             }
             this.services = AzureSdkLibraryService.loadAzureSdkServices();
+            this.index = AzureSdkLibraryService.loadAzureSdkSearchIndex();
             this.categories = AzureSdkCategoryService.loadAzureSDKCategories();
             this.fillDescriptionFromCategoryIfMissing(this.categories, this.services);
-            this.loadData(this.categories, this.services, this.searchBox.getText());
+            this.loadData(this.categories, this.services, toFilters(this.searchBox.getText()));
             Optional.ofNullable(this.lastNodePath).ifPresent(p -> AzureTaskManager.getInstance().runAndWait(() -> TreeUtil.selectPath(this.tree, p)));
             AzureEventBus.emit("reference.refresh");
         } catch (final IOException e) {
@@ -168,35 +175,16 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     }
 
     private void loadData(final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap, final List<? extends AzureSdkServiceEntity> services, String... filters) {
-        final DefaultMutableTreeNode root = (DefaultMutableTreeNode) this.model.getRoot();
-        root.removeAllChildren();
         final Map<String, AzureSdkServiceEntity> serviceMap = services.stream().collect(Collectors.toMap(e -> getServiceKeyByName(e.getName()), e -> e));
-        final List<String> categories = categoryToServiceMap.keySet().stream().filter(StringUtils::isNotBlank).sorted(
-                (s1, s2) -> StringUtils.contains(s1, "Others") ? 1 : StringUtils.contains(s2, "Others") ? -1 : s1.compareTo(s2)).collect(Collectors.toList());
-        for (final String category : categories) {
-            // no feature found for current category
-            if (CollectionUtils.isEmpty(categoryToServiceMap.get(category)) ||
-                categoryToServiceMap.get(category).stream().allMatch(e -> Objects.isNull(serviceMap.get(getServiceKeyByName(e.getServiceName()))) ||
-                    CollectionUtils.isEmpty(serviceMap.get(getServiceKeyByName(e.getServiceName())).getContent()))) {
-                continue;
-            }
-            // add features for current category
-            final MutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
-            final boolean categoryMatched = this.isMatchedFilters(category, filters);
-            categoryToServiceMap.get(category)
-                .stream().sorted(Comparator.comparing(AzureSdkCategoryEntity::getServiceName))
-                .forEach(categoryService -> {
-                    final AzureSdkServiceEntity service = serviceMap.get(getServiceKeyByName(categoryService.getServiceName()));
-                    AzureTaskManager.getInstance().runAndWait(() -> this.loadServiceData(service, categoryService, categoryNode, filters));
-                });
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || categoryNode.getChildCount() > 0) {
-                this.model.insertNodeInto(categoryNode, root, root.getChildCount());
+        final Set<AzureSdkFeatureEntity> matched = this.search(categoryToServiceMap, serviceMap, filters);
+        final DefaultMutableTreeNode expected = this.buildTree(categoryToServiceMap, serviceMap, matched);
+        // apply the difference to the tree model instead of rebuilding it, which keeps the nodes unchanged expanded
+        AzureTaskManager.getInstance().runAndWait(() -> {
+            this.mergeChildren((DefaultMutableTreeNode) this.model.getRoot(), expected);
+            if (ArrayUtils.isNotEmpty(filters)) {
+                TreeUtil.expandAll(this.tree);
             }
-        }
-        this.model.reload();
-        if (ArrayUtils.isNotEmpty(filters)) {
-            TreeUtil.expandAll(this.tree);
-        }
+        });
         try {
             TreeUtil.promiseSelectFirstLeaf(this.tree).blockingGet(TIMEOUT);
         } catch (Throwable e) {
@@ -204,40 +192,109 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
         }
     }
 
-    private String getServiceKeyByName(final String name) {
-        return StringUtils.lowerCase(StringUtils.trim(name));
+    /**
+     * @return the features matching all the filters by the search index or the category name, {@code null} if no
+     * filter is specified
+     */
+    @Nullable
+    private Set<AzureSdkFeatureEntity> search(final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap,
+                                              final Map<String, AzureSdkServiceEntity> serviceMap, String... filters) {
+        Set<AzureSdkFeatureEntity> result = null;
+        for (final String filter : filters) {
+            final Set<AzureSdkFeatureEntity> matched = this.index.search(filter);
+            categoryToServiceMap.forEach((category, categoryServices) -> {
+                if (StringUtils.containsIgnoreCase(category, filter)) {
+                    categoryServices.stream().map(e -> serviceMap.get(getServiceKeyByName(e.getServiceName())))
+                        .filter(Objects::nonNull).forEach(service -> matched.addAll(service.getContent()));
+                }
+            });
+            if (result == null) {
+                result = matched;
+            } else {
+                result.retainAll(matched);
+            }
+        }
+        return result;
+    }
+
+    private DefaultMutableTreeNode buildTree(final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap,
+                                             final Map<String, AzureSdkServiceEntity> serviceMap, @Nullable final Set<AzureSdkFeatureEntity> matched) {
+        final DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+        final List<String> categories = categoryToServiceMap.keySet().stream().filter(StringUtils::isNotBlank).sorted(
+                (s1, s2) -> StringUtils.contains(s1, "Others") ? 1 : StringUtils.contains(s2, "Others") ? -1 : s1.compareTo(s2)).collect(Collectors.toList());
+        for (final String category : categories) {
+            // add features for current category
+            final DefaultMutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
+            categoryToServiceMap.get(category)
+                .stream().sorted(Comparator.comparing(AzureSdkCategoryEntity::getServiceName))
+                .map(categoryService -> serviceMap.get(getServiceKeyByName(categoryService.getServiceName())))
+                .forEach(service -> this.buildServiceNode(service, categoryNode, matched));
+            // no feature found for current category
+            if (categoryNode.getChildCount() > 0) {
+                root.add(categoryNode);
+            }
+        }
+        return root;
     }
 
-    private void loadServiceData(AzureSdkServiceEntity service, AzureSdkCategoryEntity categoryService, MutableTreeNode categoryNode, String... filters) {
+    private void buildServiceNode(@Nullable AzureSdkServiceEntity service, DefaultMutableTreeNode categoryNode, @Nullable Set<AzureSdkFeatureEntity> matched) {
         if (Objects.isNull(service) || CollectionUtils.isEmpty(service.getContent())) {
             return;
         }
-        final boolean categoryMatched = this.isMatchedFilters(categoryService.getCategory(), filters);
         if (CollectionUtils.size(service.getContent()) == 1 && StringUtils.equals(service.getName(), service.getContent().get(0).getName())) {
             final AzureSdkFeatureEntity feature = service.getContent().get(0);
-            final boolean featureMatched = this.isMatchedFilters(feature.getName(), filters);
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || featureMatched) {
-                final DefaultMutableTreeNode featureNode = new DefaultMutableTreeNode(feature);
-                this.model.insertNodeInto(featureNode, categoryNode, categoryNode.getChildCount());
+            if (Objects.isNull(matched) || matched.contains(feature)) {
+                categoryNode.add(new DefaultMutableTreeNode(feature));
             }
             return;
         }
-        final MutableTreeNode serviceNode = new DefaultMutableTreeNode(service);
-        final boolean serviceMatched = this.isMatchedFilters(service.getName(), filters);
+        final DefaultMutableTreeNode serviceNode = new DefaultMutableTreeNode(service);
         for (final AzureSdkFeatureEntity feature : service.getContent()) {
-            final boolean featureMatched = this.isMatchedFilters(feature.getName(), filters);
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || serviceMatched || featureMatched) {
-                final DefaultMutableTreeNode featureNode = new DefaultMutableTreeNode(feature);
-                this.model.insertNodeInto(featureNode, serviceNode, serviceNode.getChildCount());
+            if (Objects.isNull(matched) || matched.contains(feature)) {
+                serviceNode.add(new DefaultMutableTreeNode(feature));
+            }
+        }
+        if (serviceNode.getChildCount() > 0) {
+            categoryNode.add(serviceNode);
+        }
+    }
+
+    /**
+     * Make the children of the node in the tree model the same as the expected ones, which are in the same order.
+     */
+    private void mergeChildren(final DefaultMutableTreeNode node, final DefaultMutableTreeNode expected) {
+        final Set<Object> expectedObjects = new HashSet<>();
+        for (int i = 0; i < expected.getChildCount(); i++) {
+            expectedObjects.add(((DefaultMutableTreeNode) expected.getChildAt(i)).getUserObject());
+        }
+        for (int i = node.getChildCount() - 1; i >= 0; i--) {
+            final DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
+            if (!expectedObjects.contains(child.getUserObject())) {
+                this.model.removeNodeFromParent(child);
             }
         }
-        if (ArrayUtils.isEmpty(filters) || categoryMatched || serviceMatched || serviceNode.getChildCount() > 0) {
-            this.model.insertNodeInto(serviceNode, categoryNode, categoryNode.getChildCount());
+        // the remaining children keep the expected order, so each expected child is either the one at the same index or new
+        for (int i = 0; i < expected.getChildCount(); i++) {
+            final DefaultMutableTreeNode expectedChild = (DefaultMutableTreeNode) expected.getChildAt(i);
+            final DefaultMutableTreeNode child = i < node.getChildCount() ? (DefaultMutableTreeNode) node.getChildAt(i) : null;
+            if (Objects.nonNull(child) && Objects.equals(child.getUserObject(), expectedChild.getUserObject())) {
+                this.mergeChildren(child, expectedChild);
+            } else {
+                this.model.insertNodeInto(copyOf(expectedChild), node, i);
+            }
         }
     }
 
-    private boolean isMatchedFilters(String content, String... filters) {
-        return Arrays.stream(filters).allMatch(f -> StringUtils.containsIgnoreCase(content, f));
+    private static DefaultMutableTreeNode copyOf(final DefaultMutableTreeNode node) {
+        final DefaultMutableTreeNode copy = new DefaultMutableTreeNode(node.getUserObject());
+        for (int i = 0; i < node.getChildCount(); i++) {
+            copy.add(copyOf((DefaultMutableTreeNode) node.getChildAt(i)));
+        }
+        return copy;
+    }
+
+    private String getServiceKeyByName(final String name) {
+        return StringUtils.lowerCase(StringUtils.trim(name));
     }
 
     private ActionToolbarImpl initToolbar() {
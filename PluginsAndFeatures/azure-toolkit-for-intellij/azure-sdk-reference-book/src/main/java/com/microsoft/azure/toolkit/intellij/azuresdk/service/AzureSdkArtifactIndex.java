@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The index of the Azure SDK libraries and the workspace tag rules by {@code groupId:artifactId}, so that looking up
+ * a project library takes constant time rather than scanning the catalogues.
+ */
+public class AzureSdkArtifactIndex {
+    private final Map<String, AzureJavaSdkEntity> entities = new HashMap<>();
+    private final Map<String, AzureJavaSdkEntity> typedEntities = new HashMap<>();
+    private final Map<String, AzureJavaSdkEntity> deprecatedEntities = new HashMap<>();
+    /**
+     * The tag rules with both group id and artifact id specified
+     */
+    private final Map<String, TagRule> exactTagRules = new HashMap<>();
+    /**
+     * The tag rules with only group id specified, matching any artifact of the group
+     */
+    private final Map<String, TagRule> groupTagRules = new HashMap<>();
+    /**
+     * The tag rules with only artifact id specified, matching the artifact of any group
+     */
+    private final Map<String, TagRule> artifactTagRules = new HashMap<>();
+    @Nullable
+    private TagRule anyTagRule;
+
+    public AzureSdkArtifactIndex(@Nonnull final List<? extends AzureJavaSdkEntity> entities, @Nonnull final List<? extends WorkspaceTagEntity> tags) {
+        // the first one wins as the linear scans did
+        for (final AzureJavaSdkEntity entity : entities) {
+            final String key = key(entity.getGroupId(), entity.getArtifactId());
+            this.entities.putIfAbsent(key, entity);
+            if (StringUtils.isNotEmpty(entity.getType())) {
+                this.typedEntities.putIfAbsent(key, entity);
+            }
+            if (AzureSdkLibraryService.isDeprecated(entity)) {
+                this.deprecatedEntities.putIfAbsent(key, entity);
+            }
+        }
+        for (int i = 0; i < tags.size(); i++) {
+            final WorkspaceTagEntity tag = tags.get(i);
+            final TagRule rule = new TagRule(i, tag.getTag());
+            final boolean anyGroup = StringUtils.isEmpty(tag.getGroupId());
+            final boolean anyArtifact = StringUtils.isEmpty(tag.getArtifactId());
+            if (anyGroup && anyArtifact) {
+                if (this.anyTagRule == null) {
+                    this.anyTagRule = rule;
+                }
+            } else if (anyArtifact) {
+                this.groupTagRules.putIfAbsent(lowerCase(tag.getGroupId()), rule);
+            } else if (anyGroup) {
+                this.artifactTagRules.putIfAbsent(lowerCase(tag.getArtifactId()), rule);
+            } else {
+                this.exactTagRules.putIfAbsent(key(tag.getGroupId(), tag.getArtifactId()), rule);
+            }
+        }
+    }
+
+    @Nullable
+    public AzureJavaSdkEntity getEntity(@Nonnull final String groupId, @Nonnull final String artifactId) {
+        return this.entities.get(key(groupId, artifactId));
+    }
+
+    @Nullable
+    public AzureJavaSdkEntity getDeprecatedEntity(@Nonnull final String groupId, @Nonnull final String artifactId) {
+        return this.deprecatedEntities.get(key(groupId, artifactId));
+    }
+
+    /**
+     * @return the type of the Azure SDK library, e.g. client, mgmt or spring
+     */
+    @Nullable
+    public String getAzureDependencyTag(@Nonnull final String groupId, @Nonnull final String artifactId) {
+        return Optional.ofNullable(this.typedEntities.get(key(groupId, artifactId))).map(AzureJavaSdkEntity::getType).orElse(null);
+    }
+
+    /**
+     * @return the tag of the first workspace tag rule matching the library
+     */
+    @Nullable
+    public String getExternalDependencyTag(@Nonnull final String groupId, @Nonnull final String artifactId) {
+        final TagRule rule = earlier(earlier(this.exactTagRules.get(key(groupId, artifactId)), this.groupTagRules.get(lowerCase(groupId))),
+            earlier(this.artifactTagRules.get(lowerCase(artifactId)), this.anyTagRule));
+        return Optional.ofNullable(rule).map(r -> r.tag).orElse(null);
+    }
+
+    @Nullable
+    private static TagRule earlier(@Nullable final TagRule r1, @Nullable final TagRule r2) {
+        if (r1 == null || r2 == null) {
+            return r1 == null ? r2 : r1;
+        }
+        return r1.order <= r2.order ? r1 : r2;
+    }
+
+    private static String key(@Nullable final String groupId, @Nullable final String artifactId) {
+        return lowerCase(groupId) + ":" + lowerCase(artifactId);
+    }
+
+    private static String lowerCase(@Nullable final String value) {
+        return StringUtils.defaultString(value).toLowerCase(Locale.ROOT);
+    }
+
+    private static class TagRule {
+        private final int order;
+        private final String tag;
+
+        private TagRule(final int order, final String tag) {
+            this.order = order;
+            this.tag = tag;
+        }
+    }
+}
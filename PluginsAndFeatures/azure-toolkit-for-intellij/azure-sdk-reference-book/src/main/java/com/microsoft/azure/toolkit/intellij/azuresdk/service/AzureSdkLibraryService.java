@@ -63,6 +63,15 @@ public class AzureSdkLibraryService {
         return services.values().stream().sorted(Comparator.comparing(AzureSdkServiceEntity::getName)).collect(Collectors.toList());
     }
 
+    /**
+     * the search index of the services loaded by {@link #loadAzureSdkServices()}, built once with them.
+     */
+    @Preload
+    @Cacheable(value = "sdk/services/index")
+    public static AzureSdkSearchIndex loadAzureSdkSearchIndex() throws IOException {
+        return new AzureSdkSearchIndex(loadAzureSdkServices());
+    }
+
     private static void addClientLibs(Map<String, AzureSdkServiceEntity> services) {
         getClientLibs().stream()
                 .sorted(Comparator.comparing(AzureJavaSdkEntity::getServiceName))
@@ -169,10 +178,24 @@ public class AzureSdkLibraryService {
         // > The value is either true to hide or empty to not hide. This is useful to filter older packages that are still on the package managers,
         // > but we don't want to promote or display anywhere.
         return entities.stream()
-                .filter(e -> Boolean.TRUE.equals(e.getIsHide()) || (StringUtils.isNotBlank(e.getReplace()) && !"active".equals(e.getSupport())))
+                .filter(AzureSdkLibraryService::isDeprecated)
                 .collect(Collectors.toList());
     }
 
+    static boolean isDeprecated(@Nonnull AzureJavaSdkEntity entity) {
+        return Boolean.TRUE.equals(entity.getIsHide()) || (StringUtils.isNotBlank(entity.getReplace()) && !"active".equals(entity.getSupport()));
+    }
+
+    /**
+     * the index of the Azure SDK libraries and the workspace tag rules, shared by the workspace tagging and the
+     * deprecated libraries detection.
+     */
+    @Preload
+    @Cacheable("sdk/packages/index")
+    public static AzureSdkArtifactIndex loadAzureSdkArtifactIndex() {
+        return new AzureSdkArtifactIndex(loadAzureSDKEntities(), WorkspaceTaggingService.getWorkspaceTagEntities());
+    }
+
     @SneakyThrows(MalformedURLException.class)
     @Cacheable("sdk/packages/spring")
     @AzureOperation(name = "boundary/sdk.load_spring_libs_metadata")
@@ -239,7 +262,9 @@ public class AzureSdkLibraryService {
     public static void refresh() {
         try {
             CacheManager.evictCache("sdk/services", CacheEvict.ALL);
+            CacheManager.evictCache("sdk/services/index", CacheEvict.ALL);
             CacheManager.evictCache("sdk/packages", CacheEvict.ALL);
+            CacheManager.evictCache("sdk/packages/index", CacheEvict.ALL);
             CacheManager.evictCache("sdk/packages/spring", CacheEvict.ALL);
             CacheManager.evictCache("sdk/packages/whitelist", CacheEvict.ALL);
         } catch (final ExecutionException e) {
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkArtifactEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The inverted index of the Azure SDK features, by the prefixes of the words in the names, artifact ids and
+ * descriptions of the features and their services, built once with the services.
+ */
+public class AzureSdkSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final PrefixNode root = new PrefixNode();
+    /**
+     * The lower cased names of the feature and its service, matched by substring as the tree filter always did
+     */
+    private final Map<AzureSdkFeatureEntity, String> names = new LinkedHashMap<>();
+
+    public AzureSdkSearchIndex(@Nonnull final List<? extends AzureSdkServiceEntity> services) {
+        for (final AzureSdkServiceEntity service : services) {
+            for (final AzureSdkFeatureEntity feature : service.getContent()) {
+                names.put(feature, lowerCase(service.getName()) + "\n" + lowerCase(feature.getName()));
+                index(feature, service.getName());
+                index(feature, feature.getName());
+                index(feature, feature.getDescription());
+                for (final AzureSdkArtifactEntity artifact : feature.getArtifacts()) {
+                    index(feature, artifact.getArtifactId());
+                }
+                if (feature.getClientSource() != null) {
+                    index(feature, feature.getClientSource().getArtifactId());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the features matching the term, each word of which is the prefix of a word indexed, or the term is
+     * contained in the name of the feature or its service
+     */
+    @Nonnull
+    public Set<AzureSdkFeatureEntity> search(@Nonnull final String term) {
+        final String lowerCaseTerm = lowerCase(term);
+        final Set<AzureSdkFeatureEntity> result = newFeatureSet();
+        final String[] words = Arrays.stream(WORD_SEPARATOR.split(lowerCaseTerm)).filter(StringUtils::isNotEmpty).toArray(String[]::new);
+        if (words.length > 0) {
+            result.addAll(lookup(words[0]));
+            for (int i = 1; i < words.length && !result.isEmpty(); i++) {
+                result.retainAll(lookup(words[i]));
+            }
+        }
+        names.forEach((feature, name) -> {
+            if (name.contains(lowerCaseTerm)) {
+                result.add(feature);
+            }
+        });
+        return result;
+    }
+
+    @Nonnull
+    private Set<AzureSdkFeatureEntity> lookup(@Nonnull final String prefix) {
+        PrefixNode node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node == null ? Collections.emptySet() : node.features;
+    }
+
+    private void index(@Nonnull final AzureSdkFeatureEntity feature, @Nullable final String text) {
+        if (StringUtils.isBlank(text)) {
+            return;
+        }
+        final Set<String> words = Arrays.stream(WORD_SEPARATOR.split(lowerCase(text)))
+            .filter(StringUtils::isNotEmpty).collect(Collectors.toSet());
+        for (final String word : words) {
+            // every node on the path holds the features, so that looking up a prefix doesn't walk the sub tree
+            PrefixNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new PrefixNode());
+                node.features.add(feature);
+            }
+        }
+    }
+
+    private static String lowerCase(@Nullable final String text) {
+        return StringUtils.defaultString(text).toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<AzureSdkFeatureEntity> newFeatureSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static class PrefixNode {
+        private final Map<Character, PrefixNode> children = new HashMap<>();
+        private final Set<AzureSdkFeatureEntity> features = newFeatureSet();
+    }
+}
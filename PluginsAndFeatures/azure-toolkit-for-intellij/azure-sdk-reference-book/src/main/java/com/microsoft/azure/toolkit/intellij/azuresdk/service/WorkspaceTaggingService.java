@@ -9,7 +9,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
@@ -30,29 +29,15 @@ public class WorkspaceTaggingService {
 
     @Nullable
     public static String getWorkspaceTag(@Nonnull String groupId, @Nonnull final String artifactId) {
+        return getWorkspaceTag(AzureSdkLibraryService.loadAzureSdkArtifactIndex(), groupId, artifactId);
+    }
+
+    @Nullable
+    public static String getWorkspaceTag(@Nonnull final AzureSdkArtifactIndex index, @Nonnull String groupId, @Nonnull final String artifactId) {
         if (StringUtils.isAnyEmpty(groupId, artifactId)) {
             return null;
         }
-        return ObjectUtils.firstNonNull(getAzureDependencyTag(groupId, artifactId), getExternalDependencyTag(groupId, artifactId));
-    }
-
-    private static String getAzureDependencyTag(final String groupId, final String artifactId) {
-        return AzureSdkLibraryService.loadAzureSDKEntities()
-            .stream()
-            .filter(entity -> StringUtils.isNotEmpty(entity.getType())
-                && StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId)
-                && StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId))
-            .map(AzureJavaSdkEntity::getType)
-            .findFirst().orElse(null);
-    }
-
-    private static String getExternalDependencyTag(final String groupId, final String artifactId) {
-        return getWorkspaceTagEntities()
-            .stream()
-            .filter(entity -> (StringUtils.isEmpty(entity.getGroupId()) || StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId))
-                && (StringUtils.isEmpty(entity.getArtifactId()) || StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId)))
-            .map(WorkspaceTagEntity::getTag)
-            .findFirst().orElse(null);
+        return ObjectUtils.firstNonNull(index.getAzureDependencyTag(groupId, artifactId), index.getExternalDependencyTag(groupId, artifactId));
     }
 
     @Preload
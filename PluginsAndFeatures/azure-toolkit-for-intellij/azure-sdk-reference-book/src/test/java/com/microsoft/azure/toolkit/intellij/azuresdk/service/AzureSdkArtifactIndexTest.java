@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AzureSdkArtifactIndexTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] TYPES = {"client", "mgmt", "spring"};
+
+    @Test
+    public void testAzureDependencyTagIgnoresCase() {
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(Collections.singletonList(entity("com.azure", "azure-storage-blob", "client", false)),
+            Collections.emptyList());
+
+        assertEquals("client", WorkspaceTaggingService.getWorkspaceTag(index, "COM.azure", "Azure-Storage-Blob"));
+        assertNull(WorkspaceTaggingService.getWorkspaceTag(index, "com.azure", "azure-storage-queue"));
+    }
+
+    @Test
+    public void testFirstTypedEntityWins() {
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(Arrays.asList(
+            entity("com.azure", "azure-core", "", false),
+            entity("com.azure", "azure-core", "client", false),
+            entity("com.azure", "azure-core", "mgmt", false)), Collections.emptyList());
+
+        assertEquals("client", index.getAzureDependencyTag("com.azure", "azure-core"));
+        assertEquals("", index.getEntity("com.azure", "azure-core").getType());
+    }
+
+    @Test
+    public void testHiddenEntityDeprecated() {
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(Arrays.asList(
+            entity("com.microsoft.azure", "azure-storage", "client", true),
+            entity("com.azure", "azure-storage-blob", "client", false)), Collections.emptyList());
+
+        assertEquals("azure-storage", index.getDeprecatedEntity("com.microsoft.azure", "azure-storage").getArtifactId());
+        assertNull(index.getDeprecatedEntity("com.azure", "azure-storage-blob"));
+    }
+
+    @Test
+    public void testFirstMatchingTagRuleWins() {
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(Collections.emptyList(), Arrays.asList(
+            tag("org.springframework", "", "spring"),
+            tag("org.springframework", "spring-core", "spring-core"),
+            tag("", "jackson-databind", "jackson"),
+            tag("", "", "other")));
+
+        assertEquals("spring", index.getExternalDependencyTag("org.springframework", "spring-core"));
+        assertEquals("jackson", index.getExternalDependencyTag("com.fasterxml.jackson.core", "jackson-databind"));
+        assertEquals("other", index.getExternalDependencyTag("org.unknown", "unknown"));
+    }
+
+    @Test
+    public void testAzureTagBeforeExternalTag() {
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(Collections.singletonList(entity("com.azure", "azure-identity", "client", false)),
+            Collections.singletonList(tag("com.azure", "", "azure")));
+
+        assertEquals("client", WorkspaceTaggingService.getWorkspaceTag(index, "com.azure", "azure-identity"));
+        assertEquals("azure", WorkspaceTaggingService.getWorkspaceTag(index, "com.azure", "azure-unknown"));
+        assertNull(WorkspaceTaggingService.getWorkspaceTag(index, "", "azure-identity"));
+    }
+
+    /**
+     * the index tags the libraries of a synthetic project the same as scanning the catalogues
+     */
+    @Test
+    public void testSameAsLinearScan() {
+        final int catalogueSize = 200;
+        final Random random = new Random(42);
+        final List<AzureJavaSdkEntity> catalogue = new ArrayList<>();
+        for (int i = 0; i < catalogueSize; i++) {
+            catalogue.add(entity(i % 2 == 0 ? "com.azure" : "com.azure.resourcemanager", "azure-lib-" + i, TYPES[i % TYPES.length], i % 10 == 0));
+        }
+        final List<WorkspaceTagEntity> tags = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            tags.add(tag("org.external" + i, i % 5 == 0 ? "" : "external-lib-" + i, "tag" + (i % 12)));
+        }
+        final AzureSdkArtifactIndex index = new AzureSdkArtifactIndex(catalogue, tags);
+        for (int i = 0; i < 1000; i++) {
+            final String groupId;
+            final String artifactId;
+            switch (random.nextInt(3)) {
+                case 0:
+                    groupId = "com.azure";
+                    artifactId = "azure-lib-" + random.nextInt(catalogueSize * 2);
+                    break;
+                case 1:
+                    final int external = random.nextInt(60);
+                    groupId = "org.external" + external;
+                    artifactId = "external-lib-" + external;
+                    break;
+                default:
+                    groupId = "org.unknown" + i;
+                    artifactId = "unknown-lib-" + i;
+                    break;
+            }
+            assertEquals(groupId + ":" + artifactId, scan(catalogue, tags, groupId, artifactId),
+                WorkspaceTaggingService.getWorkspaceTag(index, groupId, artifactId));
+        }
+    }
+
+    /**
+     * The lookup as the linear scans over the catalogues did
+     */
+    private static String scan(List<AzureJavaSdkEntity> catalogue, List<WorkspaceTagEntity> tags, String groupId, String artifactId) {
+        final String azureTag = catalogue.stream()
+            .filter(entity -> StringUtils.isNotEmpty(entity.getType())
+                && StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId)
+                && StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId))
+            .map(AzureJavaSdkEntity::getType)
+            .findFirst().orElse(null);
+        final String externalTag = tags.stream()
+            .filter(entity -> (StringUtils.isEmpty(entity.getGroupId()) || StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId))
+                && (StringUtils.isEmpty(entity.getArtifactId()) || StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId)))
+            .map(WorkspaceTagEntity::getTag)
+            .filter(Objects::nonNull)
+            .findFirst().orElse(null);
+        return ObjectUtils.firstNonNull(azureTag, externalTag);
+    }
+
+    private static AzureJavaSdkEntity entity(String groupId, String artifactId, String type, boolean hidden) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("GroupId", groupId);
+        values.put("Package", artifactId);
+        values.put("Type", type);
+        values.put("Hide", hidden);
+        return MAPPER.convertValue(values, AzureJavaSdkEntity.class);
+    }
+
+    private static WorkspaceTagEntity tag(String groupId, String artifactId, String tag) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("groupId", groupId);
+        values.put("artifactId", artifactId);
+        values.put("tag", tag);
+        return MAPPER.convertValue(values, WorkspaceTagEntity.class);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkArtifactEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AzureSdkSearchIndexTest {
+    private AzureSdkFeatureEntity blob;
+    private AzureSdkFeatureEntity queue;
+    private AzureSdkFeatureEntity secrets;
+    private AzureSdkSearchIndex index;
+
+    @Before
+    public void setUp() {
+        blob = feature("Blob Storage", "Store unstructured data", "azure-storage-blob");
+        queue = feature("Queue Storage", "Reliable messaging", "azure-storage-queue");
+        secrets = feature("Secrets", "Manage secrets of Key Vault", "azure-security-keyvault-secrets");
+        final AzureSdkServiceEntity storage = AzureSdkServiceEntity.builder().name("Storage").content(Arrays.asList(blob, queue)).build();
+        final AzureSdkServiceEntity keyVault = AzureSdkServiceEntity.builder().name("Key Vault").content(Collections.singletonList(secrets)).build();
+        index = new AzureSdkSearchIndex(Arrays.asList(storage, keyVault));
+    }
+
+    @Test
+    public void testSearchByWordPrefix() {
+        assertEquals(set(blob, queue), index.search("stor"));
+        assertEquals(set(secrets), index.search("VAU"));
+    }
+
+    @Test
+    public void testSearchByDescriptionAndArtifactId() {
+        assertEquals(set(blob), index.search("unstructured"));
+        assertEquals(set(secrets), index.search("keyvault"));
+        assertEquals(set(queue), index.search("azure-storage-q"));
+    }
+
+    @Test
+    public void testAllWordsMatched() {
+        assertEquals(set(queue), index.search("storage mess"));
+        assertTrue(index.search("storage secrets").isEmpty());
+    }
+
+    @Test
+    public void testSearchBySubstringOfNames() {
+        // "lob" is not the prefix of any word, but is contained in the feature name
+        assertEquals(set(blob), index.search("lob"));
+        assertEquals(set(blob), index.search("storage\nblob"));
+    }
+
+    @Test
+    public void testNothingMatched() {
+        assertTrue(index.search("cosmos").isEmpty());
+    }
+
+    private static AzureSdkFeatureEntity feature(String name, String description, String artifactId) {
+        final AzureSdkArtifactEntity artifact = new AzureSdkArtifactEntity();
+        artifact.setGroupId("com.azure");
+        artifact.setArtifactId(artifactId);
+        return AzureSdkFeatureEntity.builder().name(name).description(description).artifacts(Collections.singletonList(artifact)).build();
+    }
+
+    private static Set<AzureSdkFeatureEntity> set(AzureSdkFeatureEntity... features) {
+        return new HashSet<>(Arrays.asList(features));
+    }
+}
@@ -326,25 +326,16 @@ public class ServerExplorerToolWindowFactory implements ToolWindowFactory, Prope
 
             switch (e.getAction()) {
                 case add:
-                    // create child tree nodes for the new nodes
-                    for (final Node childNode : (Collection<Node>) e.getNewItems()) {
-                        if (isOutdatedModule(childNode)) {
-                            continue;
-                        }
-                        treeNode.add(createTreeNode(childNode, project));
-                    }
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 case remove:
-                    // unregistered all event handlers recursively and remove
-                    // child nodes from the tree
-                    for (final Node childNode : (Collection<Node>) e.getOldItems()) {
-                        if (isOutdatedModule(childNode)) {
-                            continue;
-                        }
-                        // remove this node from the tree
-                        removeEventHandlers(childNode);
-                        treeNode.remove((MutableTreeNode) childNode.getViewData());
-                    }
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    break;
+                case batch:
+                    // apply all the changes in this pass and reload once, the moved nodes are ignored since the
+                    // child tree nodes are sorted by priority and name rather than the order of the child nodes
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 default:
                     break;
@@ -356,6 +347,29 @@ public class ServerExplorerToolWindowFactory implements ToolWindowFactory, Prope
                 }
             }
         }
+
+        private void addChildTreeNodes(final Collection<Node> childNodes) {
+            // create child tree nodes for the new nodes
+            for (final Node childNode : childNodes) {
+                if (isOutdatedModule(childNode)) {
+                    continue;
+                }
+                treeNode.add(createTreeNode(childNode, project));
+            }
+        }
+
+        private void removeChildTreeNodes(final Collection<Node> childNodes) {
+            // unregistered all event handlers recursively and remove
+            // child nodes from the tree
+            for (final Node childNode : childNodes) {
+                if (isOutdatedModule(childNode)) {
+                    continue;
+                }
+                // remove this node from the tree
+                removeEventHandlers(childNode);
+                treeNode.remove((MutableTreeNode) childNode.getViewData());
+            }
+        }
     }
 
     private static class NodeTreeCellRenderer extends NodeRenderer {
@@ -23,9 +23,12 @@
 package com.microsoft.azure.hdinsight.spark.console
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.microsoft.azure.hdinsight.common.MessageInfoType
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL
 import org.apache.commons.io.output.ByteArrayOutputStream
 import java.nio.charset.Charset
 
@@ -37,22 +40,28 @@ class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream
         }
 
         val codes = toString(Charset.defaultCharset())
+        reset()
         log().debug("Send those codes to Livy: $codes")
 
-        session.runCodes(codes)
-                .doOnEach { reset() }
-                .toBlocking()
+        // Queue the codes without waiting for the previous statements done, the result and progress are printed
+        // into the console asynchronously
+        session.statementExecutor.run(codes)
                 .subscribe(
                         { result ->
                             log().debug("Livy running results: ${ObjectMapper().writeValueAsString(result)}")
                         },
                         { err -> when (err.cause) {
                             is StatementExecutionError -> log().debug(err.message)
-                            else -> throw SparkConsoleExceptions.LivySessionExecuteError(
-                                    "Got the code `${codes.split(
-                                            "\n").first()}` execution error:",
-                                    err.cause ?: err)
+                            else -> {
+                                val executeError = SparkConsoleExceptions.LivySessionExecuteError(
+                                        "Got the code `${codes.split("\n").first()}` execution error:",
+                                        err.cause ?: err)
+
+                                log().warn(executeError.message, executeError)
+                                session.ctrlSubject.onNext(SparkLogLine(TOOL, MessageInfoType.Error,
+                                        "${executeError.message} ${(err.cause ?: err).message}"))
+                            }
                         }}
                 )
     }
-}
\ No newline at end of file
+}
@@ -26,10 +26,12 @@ import com.google.common.net.HostAndPort
 import com.intellij.remote.RemoteProcess
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.common.mvc.IdeSchedulers
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.LivySessionPool
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import rx.Observable
 import java.io.InputStream
 import java.io.OutputStream
+import java.util.concurrent.atomic.AtomicBoolean
 
 class SparkLivySessionProcess(
         private val rxSchedulers: IdeSchedulers,
@@ -47,8 +49,14 @@ class SparkLivySessionProcess(
 
     override fun waitFor(): Int = 0
 
+    private val isReleased = AtomicBoolean(false)
+
     override fun destroy() {
-        session.close()
+        // Return the session to the pool for the next console if it's pooled and healthy, otherwise it's closed
+        if (isReleased.compareAndSet(false, true)) {
+            LivySessionPool.getInstance().release(session, LivySessionPool.SCOPE_CONSOLE)
+        }
+
         outputStream.close()
         errorStream.close()
         inputStream.close()
@@ -70,7 +78,8 @@ class SparkLivySessionProcess(
                     "Deploy Livy interactive console artifacts dependencies..."))
             .observeOn(rxSchedulers.processBarVisibleAsync(
                     "Create Spark Livy interactive console session..."))
-            .flatMap { it.create() }
+            // Take over a pre-warmed session if any, and warm up another one for the next console
+            .flatMap { LivySessionPool.getInstance().acquire(it, LivySessionPool.SCOPE_CONSOLE, true) }
             .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
                     "The Spark Livy interactive console session is starting..." )) }
             .doOnError { destroy() }
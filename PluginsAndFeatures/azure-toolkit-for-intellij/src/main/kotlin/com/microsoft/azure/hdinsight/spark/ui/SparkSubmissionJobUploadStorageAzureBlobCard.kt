@@ -144,7 +144,7 @@ class SparkSubmissionJobUploadStorageAzureBlobCard
         if (storageContainerUI.button.isEnabled) {
             storageContainerUI.button.isEnabled = false
             (viewModel as ViewModel).refreshContainers()
-                    .doOnEach { storageContainerUI.button.isEnabled = true }
+                    .doOnTerminate { storageContainerUI.button.isEnabled = true }
                     .subscribe(
                             { },
                             { err -> log().warn(ExceptionUtils.getStackTrace(err)) })
@@ -210,7 +210,7 @@ class SparkSubmissionJobUploadStorageAzureBlobCard
             return Observable.just(SparkSubmitJobUploadStorageModel())
                     .doOnNext { getData(it) }
                     .observeOn(Schedulers.io())
-                    .map { config ->
+                    .concatMap { config ->
                         if (StringUtils.isEmpty(config.storageAccount) || StringUtils.isEmpty(config.storageKey)) {
                             throw RuntimeConfigurationError("Storage account and key can't be empty")
                         }
@@ -221,21 +221,26 @@ class SparkSubmissionJobUploadStorageAzureBlobCard
                         // Add Timeout for list containers operation to avoid getting stuck
                         // when storage account or key is invalid
                         val requestOptions = BlobRequestOptions().apply { maximumExecutionTimeInMs = 5000 }
-                        val containers = StorageClientSDKManager
-                                .getManager()
-                                .getBlobContainers(clientStorageAccount.connectionString, requestOptions)
-                                .map { it.name as Any }
-                                .toTypedArray()
-
-                        if (containers.isEmpty()) {
-                            throw RuntimeConfigurationError("No container found in this storage account")
-                        }
 
-                        refreshContainerError = null
-                        ImmutableComboBoxModel(containers).apply {
-                            findFirst { containerName -> containerName == config.selectedContainer }
-                                    ?.let { found -> selectedItem = found }
-                        }
+                        // Show the containers page by page rather than waiting for all pages listed
+                        StorageClientSDKManager
+                                .getManager()
+                                .listBlobContainerPages(clientStorageAccount.connectionString, requestOptions, false)
+                                .filter { it.isNotEmpty() }
+                                .scan(emptyList<Any>()) { containers, page -> containers + page.map { it.name as Any } }
+                                .skip(1)
+                                .switchIfEmpty(Observable.just(emptyList()))
+                                .map { containers ->
+                                    if (containers.isEmpty()) {
+                                        throw RuntimeConfigurationError("No container found in this storage account")
+                                    }
+
+                                    refreshContainerError = null
+                                    ImmutableComboBoxModel(containers.toTypedArray()).apply {
+                                        findFirst { containerName -> containerName == config.selectedContainer }
+                                                ?.let { found -> selectedItem = found }
+                                    }
+                                }
                     }
                     .doOnError {
                         log().info("Refresh Azure Blob containers error: $it")
@@ -7,10 +7,15 @@ package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.BlobContainerPermissions;
 import com.microsoft.azure.storage.blob.BlobContainerProperties;
+import com.microsoft.azure.storage.blob.BlobContainerPublicAccessType;
 import com.microsoft.azure.storage.blob.BlobRequestOptions;
 import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
 import com.microsoft.azure.storage.blob.BlockSearchMode;
 import com.microsoft.azure.storage.blob.CloudBlobClient;
 import com.microsoft.azure.storage.blob.CloudBlobContainer;
@@ -25,20 +30,70 @@ import com.microsoft.azuretools.utils.StorageAccoutUtils;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
-
-import java.io.InputStream;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class StorageClientSDKManager {
+    /**
+     * The max number of the containers listed in one page
+     */
+    public static final int CONTAINERS_PAGE_SIZE = 500;
+
+    /**
+     * The max number of the concurrent container permission requests
+     */
+    public static final int MAX_CONCURRENT_PERMISSION_REQUESTS = 8;
+
+    /**
+     * The max block size of the block blob
+     */
+    public static final long MAX_BLOCK_SIZE = 100L * 1024 * 1024;
+
+    public static final long DEFAULT_PARALLEL_BLOCK_SIZE = 4L * 1024 * 1024;
+
+    public static final int DEFAULT_UPLOAD_PARALLELISM = 8;
+
+    private static final int MAX_RESUMABLE_UPLOADS = 16;
+    private static final long RESUMABLE_HOURS = 24;
+
     private static StorageClientSDKManager apiManager;
 
+    /**
+     * The blob paths of the unfinished uploads keyed by the storage account, the container and the file, in the
+     * access order to evict the eldest one
+     */
+    private final Map<String, UnfinishedUpload> unfinishedUploads =
+            new LinkedHashMap<String, UnfinishedUpload>(MAX_RESUMABLE_UPLOADS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, UnfinishedUpload> eldest) {
+                    return size() > MAX_RESUMABLE_UPLOADS;
+                }
+            };
+
     private StorageClientSDKManager() {
     }
 
@@ -94,90 +149,341 @@ public class StorageClientSDKManager {
 
     public List<BlobContainer> getBlobContainers(@NotNull String connectionString, @Nullable BlobRequestOptions options)
             throws AzureCmdException {
-        List<BlobContainer> bcList = new ArrayList<BlobContainer>();
-
         try {
-            CloudBlobClient client = getCloudBlobClient(connectionString);
-            for (CloudBlobContainer container : client.listContainers(null, ContainerListingDetails.ALL, options, null)) {
-                String uri = container.getUri() != null ? container.getUri().toString() : "";
-                String eTag = "";
-                Calendar lastModified = new GregorianCalendar();
-                BlobContainerProperties properties = container.getProperties();
-
-                if (properties != null) {
-                    eTag = Strings.nullToEmpty(properties.getEtag());
-
-                    if (properties.getLastModified() != null) {
-                        lastModified.setTime(properties.getLastModified());
-                    }
-                }
+            return listBlobContainerPages(connectionString, options, false)
+                    .concatMapIterable(page -> page)
+                    .toList()
+                    .toBlocking()
+                    .single();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Container list", t);
+        }
+    }
 
-                String publicReadAccessType = "";
-                BlobContainerPermissions blobContainerPermissions = container.downloadPermissions();
+    /**
+     * List the blob containers page by page, the container properties, including the public read access type,
+     * come from the listing response directly without requests per container.
+     *
+     * @param connectionString the storage account connection string
+     * @param options the request options, null for default
+     * @param isPermissionChecked true to get the public read access type by downloading the container permissions,
+     *                            with at most {@link #MAX_CONCURRENT_PERMISSION_REQUESTS} requests in flight
+     * @return the blob containers Observable, one list for each page. The pages are listed on demand, at most
+     *         one page ahead, so that the listing stops soon after unsubscribed
+     */
+    @NotNull
+    public Observable<List<BlobContainer>> listBlobContainerPages(@NotNull String connectionString,
+                                                                  @Nullable BlobRequestOptions options,
+                                                                  boolean isPermissionChecked) {
+        return Observable.fromCallable(() -> getCloudBlobClient(connectionString))
+                .concatMap(client -> listContainerSegments(client, options, null))
+                .concatMap(segment -> Observable.from(segment.getResults())
+                        .concatMapEager(container -> isPermissionChecked
+                                                     ? Observable.fromCallable(() -> toBlobContainer(container, true))
+                                                                 .subscribeOn(Schedulers.io())
+                                                     : Observable.fromCallable(() -> toBlobContainer(container, false)),
+                                        segment.getLength() > 0 ? segment.getLength() : 1,
+                                        MAX_CONCURRENT_PERMISSION_REQUESTS)
+                        .toList());
+    }
 
-                if (blobContainerPermissions != null && blobContainerPermissions.getPublicAccess() != null) {
-                    publicReadAccessType = blobContainerPermissions.getPublicAccess().toString();
-                }
+    @NotNull
+    private Observable<ResultSegment<CloudBlobContainer>> listContainerSegments(
+            @NotNull CloudBlobClient client,
+            @Nullable BlobRequestOptions options,
+            @Nullable ResultContinuation continuationToken) {
+        return Observable
+                .fromCallable(() -> client.listContainersSegmented(
+                        null, ContainerListingDetails.ALL, CONTAINERS_PAGE_SIZE, continuationToken, options, null))
+                .concatMap(segment -> segment.getHasMoreResults()
+                                      ? Observable.just(segment).concatWith(Observable.defer(() ->
+                                                listContainerSegments(client, options, segment.getContinuationToken())))
+                                      : Observable.just(segment));
+    }
 
-                bcList.add(new BlobContainer(Strings.nullToEmpty(container.getName()),
-                        uri,
-                        eTag,
-                        lastModified,
-                        publicReadAccessType));
+    @NotNull
+    private static BlobContainer toBlobContainer(@NotNull CloudBlobContainer container, boolean isPermissionChecked)
+            throws StorageException {
+        String uri = container.getUri() != null ? container.getUri().toString() : "";
+        String eTag = "";
+        Calendar lastModified = new GregorianCalendar();
+        BlobContainerPublicAccessType publicAccess = null;
+        BlobContainerProperties properties = container.getProperties();
+
+        if (properties != null) {
+            eTag = Strings.nullToEmpty(properties.getEtag());
+            publicAccess = properties.getPublicAccess();
+
+            if (properties.getLastModified() != null) {
+                lastModified.setTime(properties.getLastModified());
             }
+        }
 
-            return bcList;
-        } catch (Throwable t) {
-            throw new AzureCmdException("Error retrieving the Blob Container list", t);
+        if (isPermissionChecked) {
+            BlobContainerPermissions blobContainerPermissions = container.downloadPermissions();
+
+            publicAccess = blobContainerPermissions != null ? blobContainerPermissions.getPublicAccess() : null;
+        } else if (publicAccess == null) {
+            // The listing response only contains the public access of the public containers
+            publicAccess = BlobContainerPublicAccessType.OFF;
         }
 
+        return new BlobContainer(Strings.nullToEmpty(container.getName()),
+                uri,
+                eTag,
+                lastModified,
+                publicAccess != null ? publicAccess.toString() : "");
+    }
+
+    /**
+     * Get the blob path to upload the file to. The upload of the same file (same path, size and modified time) to
+     * the same container which was interrupted in the last {@value #RESUMABLE_HOURS} hours is resumed in its blob,
+     * rather than starting over in the new blob, since each upload usually goes to a new folder.
+     *
+     * @param connectionString the storage account connection string
+     * @param blobContainer the blob container
+     * @param file the file to upload
+     * @param newBlobPath the blob path in container for a new upload
+     * @return the blob path of the unfinished upload, or the new blob path
+     */
+    @NotNull
+    public String getUploadBlobPath(@NotNull String connectionString,
+                                    @NotNull BlobContainer blobContainer,
+                                    @NotNull File file,
+                                    @NotNull String newBlobPath) {
+        final String uploadKey = getUploadKey(connectionString, blobContainer, file);
+
+        synchronized (unfinishedUploads) {
+            final long expiredBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(RESUMABLE_HOURS);
+            unfinishedUploads.values().removeIf(unfinished -> unfinished.startedMs < expiredBefore);
+
+            final UnfinishedUpload unfinished = unfinishedUploads.get(uploadKey);
+
+            return unfinished != null ? unfinished.blobPath : newBlobPath;
+        }
     }
 
-    public void uploadBlobFileContent(@NotNull String connectionString,
-                                      @NotNull BlobContainer blobContainer,
-                                      @NotNull String filePath,
-                                      @NotNull InputStream content,
-                                      CallableSingleArg<Void, Long> processBlock,
-                                      long maxBlockSize,
-                                      long length)
+    /**
+     * Upload the file to the block blob in parallel, each block is read from the file range directly with
+     * {@code parallelism} blocks in flight. The block IDs are deterministic by the file and the block index, so the
+     * upload interrupted is resumed by skipping the uncommitted blocks already uploaded to the blob, see
+     * {@link #getUploadBlobPath(String, BlobContainer, File, String)} for the blob to resume.
+     *
+     * @param connectionString the storage account connection string
+     * @param blobContainer the blob container
+     * @param filePath the blob path in container
+     * @param file the file to upload
+     * @param processBlock the callback with the uploaded bytes whenever a block is uploaded, null for no callback
+     * @param blockSize the block size, no more than {@link #MAX_BLOCK_SIZE}
+     * @param parallelism the max number of blocks in flight
+     * @return the upload statistics
+     * @throws AzureCmdException for the upload failure
+     */
+    @NotNull
+    public BlobUploadStatistics uploadBlobFile(@NotNull String connectionString,
+                                               @NotNull BlobContainer blobContainer,
+                                               @NotNull String filePath,
+                                               @NotNull File file,
+                                               @Nullable CallableSingleArg<Void, Long> processBlock,
+                                               long blockSize,
+                                               int parallelism)
             throws AzureCmdException {
+        final CloudBlockBlob blob;
+
         try {
             CloudBlobClient client = getCloudBlobClient(connectionString);
-            String containerName = blobContainer.getName();
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+            blob = container.getBlockBlobReference(filePath);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
 
-            CloudBlobContainer container = client.getContainerReference(containerName);
-            final CloudBlockBlob blob = container.getBlockBlobReference(filePath);
-            long uploadedBytes = 0;
+        return uploadBlobFile(getUploadKey(connectionString, blobContainer, file), filePath, blob, file,
+                              processBlock, blockSize, parallelism);
+    }
 
-            ArrayList<BlockEntry> blockEntries = new ArrayList<BlockEntry>();
+    @NotNull
+    BlobUploadStatistics uploadBlobFile(@NotNull String uploadKey,
+                                        @NotNull String filePath,
+                                        @NotNull CloudBlockBlob blob,
+                                        @NotNull File file,
+                                        @Nullable CallableSingleArg<Void, Long> processBlock,
+                                        long blockSize,
+                                        int parallelism)
+            throws AzureCmdException {
+        final long startMs = System.currentTimeMillis();
+        final long length = file.length();
+        final long actualBlockSize = Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
 
-            while (uploadedBytes < length) {
-                String blockId = Base64.encode(UUID.randomUUID().toString().getBytes());
-                BlockEntry entry = new BlockEntry(blockId, BlockSearchMode.UNCOMMITTED);
+        synchronized (unfinishedUploads) {
+            unfinishedUploads.put(uploadKey, new UnfinishedUpload(filePath, startMs));
+        }
 
-                long blockSize = maxBlockSize;
-                if (length - uploadedBytes <= maxBlockSize) {
-                    blockSize = length - uploadedBytes;
-                }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final List<BlockEntry> blockEntries = getBlockEntries(file, actualBlockSize);
+            final Set<String> uploadedBlockIds = getUncommittedBlockIds(blob);
+            final AtomicLong uploadedBytes = new AtomicLong();
+            long skippedBytes = 0;
 
-                if (processBlock != null) {
-                    processBlock.call(uploadedBytes);
+            for (BlockEntry entry : blockEntries) {
+                if (uploadedBlockIds.contains(entry.getId())) {
+                    skippedBytes += entry.getSize();
                 }
+            }
 
-                entry.setSize(blockSize);
+            uploadedBytes.set(skippedBytes);
 
-                blockEntries.add(entry);
-                blob.uploadBlock(entry.getId(), content, blockSize);
-                uploadedBytes += blockSize;
-            }
+            Observable.range(0, blockEntries.size())
+                    .filter(index -> !uploadedBlockIds.contains(blockEntries.get(index).getId()))
+                    .flatMap(index -> Observable.fromCallable(() -> {
+                                final BlockEntry entry = blockEntries.get(index);
+                                final byte[] buffer = readBlock(channel, index * actualBlockSize, (int) entry.getSize());
+
+                                blob.uploadBlock(entry.getId(), new ByteArrayInputStream(buffer), buffer.length);
+
+                                final long current = uploadedBytes.addAndGet(buffer.length);
+
+                                if (processBlock != null) {
+                                    synchronized (processBlock) {
+                                        processBlock.call(current);
+                                    }
+                                }
+
+                                return entry;
+                            }).subscribeOn(Schedulers.io()),
+                            Math.max(parallelism, 1))
+                    .toBlocking()
+                    .lastOrDefault(null);
 
             blob.commitBlockList(blockEntries);
 
+            synchronized (unfinishedUploads) {
+                unfinishedUploads.remove(uploadKey);
+            }
+
+            return new BlobUploadStatistics(length, skippedBytes, System.currentTimeMillis() - startMs);
         } catch (Throwable t) {
             throw new AzureCmdException("Error uploading the Blob File content", t);
         }
     }
 
+    /**
+     * Get the blocks of the file, the block ID is `{upload ID}-{block index}` in Base64, the upload ID is generated
+     * from the file path, size, modified time and the block size, so it's the same for the upload to resume
+     */
+    @NotNull
+    static List<BlockEntry> getBlockEntries(@NotNull File file, long blockSize) {
+        final long length = file.length();
+        final String uploadId = UUID.nameUUIDFromBytes(String.join("|",
+                file.getAbsolutePath(),
+                String.valueOf(length),
+                String.valueOf(file.lastModified()),
+                String.valueOf(blockSize)).getBytes(StandardCharsets.UTF_8)).toString();
+        final List<BlockEntry> blockEntries = new ArrayList<>();
+
+        for (long offset = 0; offset < length; offset += blockSize) {
+            String blockId = Base64.encode(String.format("%s-%08d", uploadId, blockEntries.size())
+                                                 .getBytes(StandardCharsets.UTF_8));
+            BlockEntry entry = new BlockEntry(blockId, BlockSearchMode.UNCOMMITTED);
+            entry.setSize(Math.min(blockSize, length - offset));
+
+            blockEntries.add(entry);
+        }
+
+        return blockEntries;
+    }
+
+    @NotNull
+    static String getUploadKey(@NotNull String connectionString, @NotNull BlobContainer blobContainer, @NotNull File file) {
+        return String.join("|",
+                Strings.nullToEmpty(Utility.parseAccountString(connectionString).get(ClientStorageAccount.ACCOUNT_NAME_KEY)),
+                blobContainer.getName(),
+                file.getAbsolutePath(),
+                String.valueOf(file.length()),
+                String.valueOf(file.lastModified()));
+    }
+
+    @NotNull
+    private static Set<String> getUncommittedBlockIds(@NotNull CloudBlockBlob blob) throws StorageException {
+        final Set<String> blockIds = new HashSet<>();
+
+        try {
+            for (BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null)) {
+                blockIds.add(entry.getId());
+            }
+        } catch (StorageException e) {
+            // The blob doesn't exist, nothing to resume
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        return blockIds;
+    }
+
+    @NotNull
+    private static byte[] readBlock(@NotNull FileChannel channel, long position, int size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        while (buffer.hasRemaining()) {
+            // Positioned read, which doesn't change the channel position and is safe for concurrent reading
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("The file is changed while uploading");
+            }
+        }
+
+        return buffer.array();
+    }
+
+    private static class UnfinishedUpload {
+        @NotNull
+        private final String blobPath;
+
+        private final long startedMs;
+
+        UnfinishedUpload(@NotNull String blobPath, long startedMs) {
+            this.blobPath = blobPath;
+            this.startedMs = startedMs;
+        }
+    }
+
+    /**
+     * The statistics of a blob upload
+     */
+    public static class BlobUploadStatistics {
+        private final long totalBytes;
+        private final long resumedBytes;
+        private final long elapsedMs;
+
+        BlobUploadStatistics(long totalBytes, long resumedBytes, long elapsedMs) {
+            this.totalBytes = totalBytes;
+            this.resumedBytes = resumedBytes;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        /**
+         * @return the bytes skipped since they were uploaded by the previous interrupted upload
+         */
+        public long getResumedBytes() {
+            return resumedBytes;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        /**
+         * @return the bytes per second actually uploaded in this upload
+         */
+        public long getThroughput() {
+            return (totalBytes - resumedBytes) * 1000 / Math.max(elapsedMs, 1);
+        }
+    }
+
     public static String getEndpointSuffix() {
         return StorageAccoutUtils.getEndpointSuffix();
     }
@@ -7,5 +7,9 @@ package com.microsoft.tooling.msservices.helpers.collections;
 
 public enum ListChangedAction {
     add,
-    remove
+    remove,
+    /**
+     * The items added, removed and moved at once, see {@link ListChangedEvent#getMovedItems()}
+     */
+    batch
 }
@@ -6,12 +6,16 @@
 package com.microsoft.tooling.msservices.helpers.collections;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
 
 public class ListChangedEvent extends EventObject {
     private ListChangedAction action;
     private Collection<?> newItems;
     private Collection<?> oldItems;
+    private Collection<?> movedItems = Collections.emptyList();
+    private List<?> items;
 
     public ListChangedEvent(
             ObservableList<?> source,
@@ -24,6 +28,22 @@ public class ListChangedEvent extends EventObject {
         this.oldItems = oldItems;
     }
 
+    /**
+     * The {@link ListChangedAction#batch} event
+     *
+     * @param items the snapshot of all the items after the changes, in order
+     */
+    public ListChangedEvent(
+            ObservableList<?> source,
+            Collection<?> newItems,
+            Collection<?> oldItems,
+            Collection<?> movedItems,
+            List<?> items) {
+        this(source, ListChangedAction.batch, newItems, oldItems);
+        this.movedItems = movedItems;
+        this.items = items;
+    }
+
     public ListChangedAction getAction() {
         return action;
     }
@@ -35,4 +55,18 @@ public class ListChangedEvent extends EventObject {
     public Collection<?> getOldItems() {
         return oldItems;
     }
+
+    /**
+     * The retained items whose position is changed, for the batch event only
+     */
+    public Collection<?> getMovedItems() {
+        return movedItems;
+    }
+
+    /**
+     * The snapshot of all the items after the changes, for the batch event only
+     */
+    public List<?> getItems() {
+        return items;
+    }
 }
@@ -8,14 +8,28 @@ package com.microsoft.tooling.msservices.helpers.collections;
 import com.google.common.collect.ForwardingList;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
+/**
+ * The list firing the change events, which is safe for concurrent access: reading and iterating work on copy-on-write
+ * snapshots, and the changes are serialized with the events fired outside the lock.
+ *
+ * The changes made in {@link #batch(Runnable)} or {@link #update(List)} are fired as one
+ * {@link ListChangedAction#batch} event of the items added, removed and moved, instead of one event per item.
+ */
 public class ObservableList<E> extends ForwardingList<E> {
-    private final List<E> delegate = new ArrayList<E>();
-    protected List<ListChangeListener> changeListeners = new ArrayList<ListChangeListener>();
-    private boolean freezeEvents = false;
+    private volatile CopyOnWriteArrayList<E> delegate = new CopyOnWriteArrayList<E>();
+    protected List<ListChangeListener> changeListeners = new CopyOnWriteArrayList<ListChangeListener>();
+    private int batchDepth = 0;
+    private List<E> batchStart;
 
     @Override
     protected List<E> delegate() {
@@ -24,16 +38,26 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean add(E element) {
-        return standardAdd(element);
+        final boolean inBatch;
+        synchronized (this) {
+            delegate.add(element);
+            inBatch = batchDepth > 0;
+        }
+        fireChangeListenerEvent(inBatch, ListChangedAction.add, Collections.singletonList(element), null);
+        return true;
     }
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(c);
+        final List<E> added = new ArrayList<E>(c);
+        final boolean changed;
+        final boolean inBatch;
+        synchronized (this) {
+            changed = delegate.addAll(added);
+            inBatch = batchDepth > 0;
+        }
         if (changed) {
-            freezeEvents = false;
-            fireChangeListenerEvent(ListChangedAction.add, c, null);
+            fireChangeListenerEvent(inBatch, ListChangedAction.add, added, null);
         }
 
         return changed;
@@ -41,11 +65,15 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(index, c);
+        final List<E> added = new ArrayList<E>(c);
+        final boolean changed;
+        final boolean inBatch;
+        synchronized (this) {
+            changed = delegate.addAll(index, added);
+            inBatch = batchDepth > 0;
+        }
         if (changed) {
-            freezeEvents = false;
-            fireChangeListenerEvent(ListChangedAction.add, c, null);
+            fireChangeListenerEvent(inBatch, ListChangedAction.add, added, null);
         }
 
         return changed;
@@ -53,60 +81,199 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public void add(int index, E element) {
-        super.add(index, element);
+        final boolean inBatch;
+        synchronized (this) {
+            delegate.add(index, element);
+            inBatch = batchDepth > 0;
+        }
 
         // notify post-add
-        fireChangeListenerEvent(
-                ListChangedAction.add,
-                Arrays.asList(element),
-                null);
+        fireChangeListenerEvent(inBatch, ListChangedAction.add, Collections.singletonList(element), null);
     }
 
     @Override
     public boolean remove(Object o) {
-        int index = indexOf(o);
-        if (index > -1)
-            remove(index);
-        return index != -1;
+        final boolean changed;
+        final boolean inBatch;
+        synchronized (this) {
+            changed = delegate.remove(o);
+            inBatch = batchDepth > 0;
+        }
+        if (changed) {
+            fireChangeListenerEvent(inBatch, ListChangedAction.remove, null, Collections.singletonList(o));
+        }
+        return changed;
     }
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        freezeEvents = true;
-        boolean changed = standardRemoveAll(c);
-        if (changed) {
-            freezeEvents = false;
-            fireChangeListenerEvent(ListChangedAction.remove, null, c);
+        final Collection<?> toRemove = c instanceof Set ? c : new HashSet<Object>(c);
+        return removeIf(toRemove::contains);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        final List<E> removed = new ArrayList<E>();
+        final boolean inBatch;
+        synchronized (this) {
+            final List<E> retained = new ArrayList<E>(delegate.size());
+            for (final E item : delegate) {
+                (filter.test(item) ? removed : retained).add(item);
+            }
+            if (!removed.isEmpty()) {
+                delegate = new CopyOnWriteArrayList<E>(retained);
+            }
+            inBatch = batchDepth > 0;
+        }
+        if (!removed.isEmpty()) {
+            fireChangeListenerEvent(inBatch, ListChangedAction.remove, null, removed);
         }
 
-        return standardRemoveAll(c);
+        return !removed.isEmpty();
     }
 
     @Override
     public E remove(int index) {
-        E removed = super.remove(index);
+        final E removed;
+        final boolean inBatch;
+        synchronized (this) {
+            removed = delegate.remove(index);
+            inBatch = batchDepth > 0;
+        }
 
         // notify post-remove
-        fireChangeListenerEvent(
-                ListChangedAction.remove,
-                null,
-                Arrays.asList(removed));
+        fireChangeListenerEvent(inBatch, ListChangedAction.remove, null, Collections.singletonList(removed));
 
         return removed;
     }
 
-    private void fireChangeListenerEvent(ListChangedAction action,
+    @Override
+    public void clear() {
+        final List<E> removed;
+        final boolean inBatch;
+        synchronized (this) {
+            removed = new ArrayList<E>(delegate);
+            delegate = new CopyOnWriteArrayList<E>();
+            inBatch = batchDepth > 0;
+        }
+        if (!removed.isEmpty()) {
+            fireChangeListenerEvent(inBatch, ListChangedAction.remove, null, removed);
+        }
+    }
+
+    /**
+     * Replace all the items at once, the change is fired as one batch event of the items added, removed and moved.
+     */
+    public void update(List<? extends E> items) {
+        batch(() -> {
+            synchronized (this) {
+                delegate = new CopyOnWriteArrayList<E>(items);
+            }
+        });
+    }
+
+    /**
+     * Run the changes, and fire one batch event of the difference made by them when the outermost batch completes,
+     * which includes the changes made by the other threads meanwhile.
+     */
+    public void batch(Runnable changes) {
+        synchronized (this) {
+            if (batchDepth++ == 0) {
+                batchStart = new ArrayList<E>(delegate);
+            }
+        }
+        ListChangedEvent event = null;
+        try {
+            changes.run();
+        } finally {
+            synchronized (this) {
+                if (--batchDepth == 0) {
+                    event = diff(batchStart, new ArrayList<E>(delegate));
+                    batchStart = null;
+                }
+            }
+        }
+        if (event != null) {
+            fireChangeListenerEvent(event);
+        }
+    }
+
+    ListChangedEvent diff(List<E> before, List<E> after) {
+        final Map<E, Integer> beforeIndex = new IdentityHashMap<E, Integer>();
+        final Map<E, Integer> afterIndex = new IdentityHashMap<E, Integer>();
+        for (int i = 0; i < before.size(); i++) {
+            beforeIndex.put(before.get(i), i);
+        }
+        for (int i = 0; i < after.size(); i++) {
+            afterIndex.put(after.get(i), i);
+        }
+        final List<E> added = new ArrayList<E>();
+        final List<E> removed = new ArrayList<E>();
+        final List<E> retained = new ArrayList<E>();
+        for (final E item : before) {
+            (afterIndex.containsKey(item) ? retained : removed).add(item);
+        }
+        for (final E item : after) {
+            if (!beforeIndex.containsKey(item)) {
+                added.add(item);
+            }
+        }
+        // the retained items out of the longest run keeping their relative order are the moved ones
+        final List<E> moved = new ArrayList<E>(retained);
+        moved.removeAll(longestOrderedRun(retained, afterIndex));
+        moved.sort((a, b) -> Integer.compare(afterIndex.get(a), afterIndex.get(b)));
+        if (added.isEmpty() && removed.isEmpty() && moved.isEmpty()) {
+            return null;
+        }
+        return new ListChangedEvent(this, added, removed, moved, after);
+    }
+
+    /**
+     * The longest increasing subsequence of the items by their positions after the changes
+     */
+    static <E> Set<E> longestOrderedRun(List<E> items, Map<E, Integer> positions) {
+        final int[] tails = new int[items.size()];
+        final int[] previous = new int[items.size()];
+        int length = 0;
+        for (int i = 0; i < items.size(); i++) {
+            final int position = positions.get(items.get(i));
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (positions.get(items.get(tails[middle])) < position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            length = Math.max(length, low + 1);
+        }
+        final Set<E> run = Collections.newSetFromMap(new IdentityHashMap<E, Boolean>());
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            run.add(items.get(i));
+        }
+        return run;
+    }
+
+    /**
+     * @param inBatch whether the change was made in a batch, checked along with the change under the same lock
+     */
+    private void fireChangeListenerEvent(boolean inBatch,
+                                         ListChangedAction action,
                                          Collection<?> newItems,
                                          Collection<?> oldItems) {
-        if (!changeListeners.isEmpty() && !freezeEvents) {
-            ListChangedEvent listChangedEvent = new ListChangedEvent(
-                    this,
-                    action,
-                    newItems,
-                    oldItems);
-            for (ListChangeListener listener : changeListeners) {
-                listener.listChanged(listChangedEvent);
-            }
+        // the changes made in a batch are fired as a part of the batch event
+        if (!inBatch && !changeListeners.isEmpty()) {
+            fireChangeListenerEvent(new ListChangedEvent(this, action, newItems, oldItems));
+        }
+    }
+
+    private void fireChangeListenerEvent(ListChangedEvent listChangedEvent) {
+        for (ListChangeListener listener : changeListeners) {
+            listener.listChanged(listChangedEvent);
         }
     }
 
@@ -119,11 +286,6 @@ public class ObservableList<E> extends ForwardingList<E> {
     }
 
     public void removeAllChangeListeners() {
-        // we remove items from the collection one by one instead
-        // of simply calling "clear" because we want the "remove" event
-        // to fire for each item that's removed
-        while (!changeListeners.isEmpty()) {
-            changeListeners.remove(0);
-        }
+        changeListeners.clear();
     }
 }
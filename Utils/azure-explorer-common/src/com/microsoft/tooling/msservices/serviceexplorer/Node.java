@@ -181,20 +181,17 @@ public class Node implements MvpView, BasicTelemetryProperty, Sortable {
     }
 
     public void removeAllChildNodes() {
-        while (!childNodes.isEmpty()) {
-            final Node node = childNodes.get(0);
-
-            // sometimes node can be null if multiple threads access this method; safer to check than make it synchronized
-            if (node != null) {
-                // remove this node's child nodes (so they get an
-                // opportunity to clean up after them)
-                node.removeAllChildNodes();
-            }
-
-            // this remove call should cause the NodeListChangeListener object
-            // registered on it's child nodes to fire
-            childNodes.remove(0);
+        // the snapshot is safe to iterate while other threads change the child nodes
+        final List<Node> nodes = new ArrayList<>(childNodes);
+        for (final Node node : nodes) {
+            // remove this node's child nodes (so they get an
+            // opportunity to clean up after them)
+            node.removeAllChildNodes();
         }
+
+        // this remove call should cause the NodeListChangeListener object
+        // registered on it's child nodes to fire once for all of them
+        childNodes.removeAll(nodes);
     }
 
     /**
@@ -22,8 +22,13 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.AzureModule;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public abstract class RefreshableNode extends Node {
     protected boolean initialized;
@@ -75,6 +80,13 @@ public abstract class RefreshableNode extends Node {
         return false;
     }
 
+    // Sub-classes are expected to override this method if they wish to keep the
+    // existing child nodes on refresh, see reconcileChildNodes. By default, all the
+    // child nodes are removed and created again.
+    protected boolean isReconcilingChildNodes() {
+        return false;
+    }
+
     // Sub-classes are expected to override this method if they wish to
     // refresh items synchronously. The default implementation does nothing.
     protected abstract void refreshItems() throws AzureCmdException;
@@ -87,25 +99,102 @@ public abstract class RefreshableNode extends Node {
         if (!loading) {
             setLoading(true);
             try {
-                removeAllChildNodes();
-                if (IdeAzureAccount.getInstance().isLoggedIn()
-                        || this instanceof AzureModule
-                        || refreshEnabledWhenNotSignIn()) {
-                    if (forceRefresh) {
-                        refreshFromAzure();
+                // the old child nodes are replaced in one batch event when the new ones are ready, rather than
+                // the tree being cleared and refilled one node at a time
+                childNodes.batch(() -> {
+                    final boolean reconciling = isReconcilingChildNodes();
+                    final List<Node> previousNodes = new ArrayList<>(childNodes);
+                    try {
+                        if (reconciling) {
+                            // detach the child nodes only, they are cleaned up in reconcileChildNodes if gone
+                            childNodes.clear();
+                        } else {
+                            removeAllChildNodes();
+                        }
+                        if (IdeAzureAccount.getInstance().isLoggedIn()
+                                || this instanceof AzureModule
+                                || refreshEnabledWhenNotSignIn()) {
+                            if (forceRefresh) {
+                                refreshFromAzure();
+                            }
+                            refreshItems();
+                        }
+                    } catch (Exception e) {
+                        future.setException(e);
+                    } finally {
+                        if (reconciling) {
+                            reconcileChildNodes(previousNodes);
+                        }
                     }
-                    refreshItems();
-                }
+                });
 
                 future.set(getChildNodes());
-            } catch (Exception e) {
-                future.setException(e);
             } finally {
                 setLoading(false);
             }
         }
     }
 
+    /**
+     * Match the refreshed child nodes with the previous ones by {@link #getChildNodeKey(Node)}. The matched previous
+     * node is kept with its loaded child nodes and updated in place, so only the child nodes added or gone are
+     * changed in the tree.
+     */
+    private void reconcileChildNodes(List<Node> previousNodes) {
+        final List<Node> refreshedNodes = new ArrayList<>(childNodes);
+        final Map<String, Node> previousByKey = indexByUniqueKey(previousNodes);
+        final Map<String, Node> refreshedByKey = indexByUniqueKey(refreshedNodes);
+        final Set<Node> previous = Collections.newSetFromMap(new IdentityHashMap<>());
+        previous.addAll(previousNodes);
+        final Set<Node> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        final List<Node> reconciled = new ArrayList<>(refreshedNodes.size());
+        for (final Node node : refreshedNodes) {
+            final String key = getChildNodeKey(node);
+            Node existing = previous.contains(node) ? node : null;
+            if (existing == null && refreshedByKey.get(key) == node) {
+                existing = previousByKey.get(key);
+            }
+            if (existing == null || kept.contains(existing)) {
+                reconciled.add(node);
+                continue;
+            }
+            if (existing != node) {
+                existing.setName(node.getName());
+                existing.setIconPath(node.getIconPath());
+                node.removeAllChildNodes();
+            }
+            kept.add(existing);
+            reconciled.add(existing);
+        }
+        for (final Node node : previousNodes) {
+            if (!kept.contains(node)) {
+                node.removeAllChildNodes();
+            }
+        }
+        childNodes.update(reconciled);
+    }
+
+    /**
+     * The key matching the refreshed child node to the previous one, the nodes sharing a key are not matched
+     */
+    protected String getChildNodeKey(Node child) {
+        return child.getClass().getName() + "/" + child.getId();
+    }
+
+    private Map<String, Node> indexByUniqueKey(List<Node> nodes) {
+        final Map<String, Node> index = new HashMap<>();
+        final Set<String> duplicated = new HashSet<>();
+        for (final Node node : nodes) {
+            final String key = getChildNodeKey(node);
+            if (index.put(key, node) != null) {
+                duplicated.add(key);
+            }
+        }
+        index.keySet().removeAll(duplicated);
+        return index;
+    }
+
     protected void refreshFromAzure() throws Exception {
     }
 
@@ -116,6 +116,12 @@ public class AzureModule extends AzureRefreshableNode {
         this.arcadiaModule = rootModule;
     }
 
+    @Override
+    protected boolean isReconcilingChildNodes() {
+        // keep the service modules with their loaded resources, which are refreshed by themselves
+        return true;
+    }
+
     @Override
     protected void refreshItems() throws AzureCmdException {
         // add the module; we check if the node has
@@ -35,6 +35,12 @@ public class ContainerRegistryModule extends AzureRefreshableNode {
         return AzureIcons.ContainerRegistry.MODULE;
     }
 
+    @Override
+    protected boolean isReconcilingChildNodes() {
+        // the registry nodes hold nothing but the ids and names
+        return true;
+    }
+
     @Override
     protected void refreshItems() throws AzureCmdException {
         final List<ContainerRegistry> registryList = ContainerRegistryMvpModel.getInstance().listContainerRegistries();
@@ -38,6 +38,18 @@ public class RedisCacheModule extends AzureRefreshableNode {
         return AzureIcons.RedisCache.MODULE;
     }
 
+    @Override
+    protected boolean isReconcilingChildNodes() {
+        return true;
+    }
+
+    @Override
+    protected String getChildNodeKey(Node child) {
+        // the actions and icon of a redis cache node depend on its provision state, the node is replaced once it changes
+        final String key = super.getChildNodeKey(child);
+        return child instanceof RedisCacheNode ? key + "/" + ((RedisCacheNode) child).getProvisionState() : key;
+    }
+
     @Override
     protected void refreshItems() throws AzureCmdException {
         redisCachePresenter.onModuleRefresh();
@@ -70,6 +70,10 @@ public class RedisCacheNode extends Node implements TelemetryProperties {
         loadActions();
     }
 
+    String getProvisionState() {
+        return provisionState;
+    }
+
     @Override
     public @Nullable AzureIcon getIconSymbol() {
         boolean running = RUNNING_STATE.equalsIgnoreCase(provisionState) || SUCCESS_STATE.equalsIgnoreCase(provisionState);
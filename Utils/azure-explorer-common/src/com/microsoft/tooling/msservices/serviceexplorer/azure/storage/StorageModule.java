@@ -28,6 +28,12 @@ public class StorageModule extends AzureRefreshableNode {
         return AzureIcons.StorageAccount.MODULE;
     }
 
+    @Override
+    protected boolean isReconcilingChildNodes() {
+        // the storage account nodes refer to the cached storage accounts, which are the same instances after refresh
+        return true;
+    }
+
     @Override
     protected void refreshItems() throws AzureCmdException {
         Azure.az(AzureStorageAccount.class).list().stream().flatMap(m -> m.storageAccounts().list().stream())
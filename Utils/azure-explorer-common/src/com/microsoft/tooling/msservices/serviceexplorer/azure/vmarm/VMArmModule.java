@@ -41,6 +41,17 @@ public class VMArmModule extends AzureRefreshableNode {
         return AzureIcons.VirtualMachine.MODULE;
     }
 
+    @Override
+    protected boolean isReconcilingChildNodes() {
+        return true;
+    }
+
+    @Override
+    protected String getChildNodeKey(Node child) {
+        // a vm node is kept only if the vm is still in the same power state, or it's replaced with the refreshed one
+        return super.getChildNodeKey(child) + "/" + child.getIconPath();
+    }
+
     @Override
     protected void refreshItems() throws AzureCmdException {
         final List<Pair<String, String>> failedSubscriptions = new ArrayList<>();
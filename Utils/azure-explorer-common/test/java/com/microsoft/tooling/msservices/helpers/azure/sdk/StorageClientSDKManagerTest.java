@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager.BlobUploadStatistics;
+import com.microsoft.tooling.msservices.model.storage.BlobContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StorageClientSDKManagerTest {
+    private static final String CONNECTION_STRING = "DefaultEndpointsProtocol=https;AccountName=test;AccountKey=a2V5";
+    private static final long BLOCK_SIZE = 4;
+
+    private final StorageClientSDKManager manager = StorageClientSDKManager.getManager();
+    private final BlobContainer container = new BlobContainer("container", "", "", new GregorianCalendar(), "");
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("storage-upload", ".jar").toFile();
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testBlockIdsAreDeterministic() {
+        final List<BlockEntry> blocks = StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE);
+        final List<BlockEntry> blocksAgain = StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE);
+
+        assertEquals(3, blocks.size());
+        assertEquals(ids(blocks), ids(blocksAgain));
+        assertEquals(4, blocks.get(0).getSize());
+        assertEquals(2, blocks.get(2).getSize());
+
+        // Base64 of `{upload ID}-{block index}`, the IDs of a blob must have the same length
+        final String uploadId = decode(blocks.get(0).getId()).substring(0, 36);
+
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(String.format("%s-%08d", uploadId, i), decode(blocks.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void testBlockIdsChangeWithFileOrBlockSize() throws IOException {
+        final List<String> ids = ids(StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE));
+
+        assertTrue(Collections.disjoint(ids, ids(StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE + 1))));
+
+        Files.write(file.toPath(), "01234567890".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(Collections.disjoint(ids, ids(StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE))));
+    }
+
+    @Test
+    public void testUploadAllBlocks() throws Exception {
+        final CloudBlockBlob blob = mockBlob(Collections.emptyList());
+        final List<String> uploaded = new CopyOnWriteArrayList<>();
+        recordUploadedBlocks(blob, uploaded, -1);
+
+        final BlobUploadStatistics statistics = upload("SparkSubmission/new/test.jar", blob);
+
+        final List<BlockEntry> blocks = StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE);
+        assertEquals(ids(blocks), uploaded.stream().sorted().collect(Collectors.toList()));
+        assertEquals(10, statistics.getTotalBytes());
+        assertEquals(0, statistics.getResumedBytes());
+        verify(blob).commitBlockList(any());
+    }
+
+    @Test
+    public void testResumeUploadInTheSameBlob() throws Exception {
+        final List<BlockEntry> blocks = StorageClientSDKManager.getBlockEntries(file, BLOCK_SIZE);
+        final String firstPath = "SparkSubmission/first/test.jar";
+
+        // The first upload fails at the second block
+        final CloudBlockBlob failingBlob = mockBlob(Collections.emptyList());
+        final List<String> uploadedFirst = new CopyOnWriteArrayList<>();
+        recordUploadedBlocks(failingBlob, uploadedFirst, 1);
+
+        try {
+            upload(firstPath, failingBlob);
+            fail("The upload should fail");
+        } catch (AzureCmdException expected) {
+        }
+
+        assertEquals(Collections.singletonList(blocks.get(0).getId()), uploadedFirst);
+
+        // The retry goes to the blob of the unfinished upload, rather than the new folder
+        final String path = manager.getUploadBlobPath(CONNECTION_STRING, container, file, "SparkSubmission/second/test.jar");
+        assertEquals(firstPath, path);
+
+        // Only the rest blocks are uploaded, the uncommitted ones are skipped
+        final CloudBlockBlob blob = mockBlob(Collections.singletonList(blocks.get(0)));
+        final List<String> uploaded = new CopyOnWriteArrayList<>();
+        recordUploadedBlocks(blob, uploaded, -1);
+
+        final BlobUploadStatistics statistics = upload(path, blob);
+
+        assertEquals(ids(blocks.subList(1, 3)), uploaded.stream().sorted().collect(Collectors.toList()));
+        assertEquals(4, statistics.getResumedBytes());
+
+        // The finished upload isn't resumed any more
+        assertEquals("SparkSubmission/third/test.jar",
+                     manager.getUploadBlobPath(CONNECTION_STRING, container, file, "SparkSubmission/third/test.jar"));
+    }
+
+    @Test
+    public void testNewUploadForChangedFile() throws Exception {
+        final CloudBlockBlob failingBlob = mockBlob(Collections.emptyList());
+        recordUploadedBlocks(failingBlob, new ArrayList<>(), 0);
+
+        try {
+            upload("SparkSubmission/first/test.jar", failingBlob);
+            fail("The upload should fail");
+        } catch (AzureCmdException expected) {
+        }
+
+        Files.write(file.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("SparkSubmission/second/test.jar",
+                     manager.getUploadBlobPath(CONNECTION_STRING, container, file, "SparkSubmission/second/test.jar"));
+    }
+
+    private BlobUploadStatistics upload(String path, CloudBlockBlob blob) throws AzureCmdException {
+        return manager.uploadBlobFile(StorageClientSDKManager.getUploadKey(CONNECTION_STRING, container, file),
+                                      path, blob, file, null, BLOCK_SIZE, 1);
+    }
+
+    private static CloudBlockBlob mockBlob(List<BlockEntry> uncommitted) throws Exception {
+        final CloudBlockBlob blob = mock(CloudBlockBlob.class);
+        when(blob.downloadBlockList(any(), any(), any(), any())).thenReturn(new ArrayList<>(uncommitted));
+
+        return blob;
+    }
+
+    /**
+     * Record the IDs of the blocks uploaded, the upload of the block at the failing index fails
+     */
+    private static void recordUploadedBlocks(CloudBlockBlob blob, List<String> uploaded, int failingIndex) throws Exception {
+        doAnswer(invocation -> {
+            final String blockId = invocation.getArgument(0);
+
+            if (decode(blockId).endsWith(String.format("-%08d", failingIndex))) {
+                throw new IOException("Failed to upload block " + failingIndex);
+            }
+
+            uploaded.add(blockId);
+            return null;
+        }).when(blob).uploadBlock(anyString(), any(InputStream.class), anyLong());
+    }
+
+    private static List<String> ids(List<BlockEntry> blocks) {
+        return blocks.stream().map(BlockEntry::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static String decode(String blockId) {
+        return new String(Base64.decode(blockId), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ObservableListTest {
+    @Test
+    public void testLongestOrderedRun() {
+        final List<String> items = Arrays.asList("a", "b", "c", "d", "e");
+        final Map<String, Integer> positions = positions(Arrays.asList("b", "c", "a", "d", "e"));
+
+        assertEquals(new HashSet<>(Arrays.asList("b", "c", "d", "e")), new HashSet<>(ObservableList.longestOrderedRun(items, positions)));
+    }
+
+    @Test
+    public void testLongestOrderedRunReversed() {
+        final List<String> items = Arrays.asList("a", "b", "c");
+        final Map<String, Integer> positions = positions(Arrays.asList("c", "b", "a"));
+
+        assertEquals(1, ObservableList.longestOrderedRun(items, positions).size());
+    }
+
+    @Test
+    public void testLongestOrderedRunEmpty() {
+        assertTrue(ObservableList.longestOrderedRun(Collections.<String>emptyList(), new HashMap<String, Integer>()).isEmpty());
+    }
+
+    @Test
+    public void testDiffAddedRemovedAndMoved() {
+        final ObservableList<String> list = new ObservableList<>();
+        final String a = "a", b = "b", c = "c", d = "d", e = "e";
+        final ListChangedEvent event = list.diff(Arrays.asList(a, b, c, d), Arrays.asList(b, c, a, e));
+
+        assertEquals(ListChangedAction.batch, event.getAction());
+        assertEquals(Collections.singletonList(e), new ArrayList<>(event.getNewItems()));
+        assertEquals(Collections.singletonList(d), new ArrayList<>(event.getOldItems()));
+        assertEquals(Collections.singletonList(a), new ArrayList<>(event.getMovedItems()));
+        assertEquals(Arrays.asList(b, c, a, e), event.getItems());
+    }
+
+    @Test
+    public void testDiffMovedInNewOrder() {
+        final ObservableList<String> list = new ObservableList<>();
+        final ListChangedEvent event = list.diff(Arrays.asList("a", "b", "c", "d"), Arrays.asList("d", "c", "a", "b"));
+
+        assertTrue(event.getNewItems().isEmpty());
+        assertTrue(event.getOldItems().isEmpty());
+        assertEquals(Arrays.asList("d", "c"), new ArrayList<>(event.getMovedItems()));
+    }
+
+    @Test
+    public void testDiffUnchanged() {
+        final ObservableList<String> list = new ObservableList<>();
+
+        assertNull(list.diff(Arrays.asList("a", "b"), Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void testBatchFiresOneEvent() {
+        final ObservableList<String> list = new ObservableList<>();
+        list.addAll(Arrays.asList("a", "b"));
+        final List<ListChangedEvent> events = new ArrayList<>();
+        list.addChangeListener(events::add);
+
+        list.batch(() -> {
+            list.add("c");
+            list.remove("a");
+            list.add(0, "d");
+        });
+
+        assertEquals(1, events.size());
+        assertEquals(ListChangedAction.batch, events.get(0).getAction());
+        assertEquals(Arrays.asList("d", "c"), new ArrayList<>(events.get(0).getNewItems()));
+        assertEquals(Collections.singletonList("a"), new ArrayList<>(events.get(0).getOldItems()));
+        assertEquals(Arrays.asList("d", "b", "c"), events.get(0).getItems());
+    }
+
+    @Test
+    public void testUpdateFiresOneEvent() {
+        final ObservableList<String> list = new ObservableList<>();
+        list.addAll(Arrays.asList("a", "b", "c"));
+        final List<ListChangedEvent> events = new ArrayList<>();
+        list.addChangeListener(events::add);
+
+        list.update(Arrays.asList("c", "a", "b"));
+
+        assertEquals(1, events.size());
+        assertEquals(Collections.singletonList("c"), new ArrayList<>(events.get(0).getMovedItems()));
+    }
+
+    @Test
+    public void testChangesOutOfBatchFiredEach() {
+        final ObservableList<String> list = new ObservableList<>();
+        final List<ListChangedEvent> events = new ArrayList<>();
+        list.addChangeListener(events::add);
+
+        list.add("a");
+        list.remove("a");
+
+        assertEquals(2, events.size());
+        assertEquals(ListChangedAction.add, events.get(0).getAction());
+        assertEquals(ListChangedAction.remove, events.get(1).getAction());
+    }
+
+    @Test
+    public void testConcurrentChangesFiredOnce() throws InterruptedException {
+        final ObservableList<Object> list = new ObservableList<>();
+        final Set<Object> fired = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        final List<Object> duplicated = Collections.synchronizedList(new ArrayList<>());
+        list.addChangeListener(e -> {
+            if (e.getNewItems() == null) {
+                return;
+            }
+            synchronized (fired) {
+                for (final Object item : e.getNewItems()) {
+                    if (!fired.add(item)) {
+                        duplicated.add(item);
+                    }
+                }
+            }
+        });
+        final List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(new Object());
+        }
+        final Thread adder = new Thread(() -> values.forEach(list::add));
+        adder.start();
+        while (adder.isAlive()) {
+            list.batch(() -> {
+            });
+        }
+        adder.join();
+
+        assertTrue(duplicated.isEmpty());
+        assertEquals(values.size(), fired.size());
+    }
+
+    private static Map<String, Integer> positions(List<String> items) {
+        final Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            positions.put(items.get(i), i);
+        }
+        return positions;
+    }
+}
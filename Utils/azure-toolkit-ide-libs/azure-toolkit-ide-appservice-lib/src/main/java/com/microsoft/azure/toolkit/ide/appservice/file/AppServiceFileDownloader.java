@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.file;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * writes the content of an app service file to a local file as it's received, rather than collecting it in memory.
+ * only one buffer is requested from the content at a time, so the download never runs ahead of the disk.
+ */
+public class AppServiceFileDownloader {
+    public static final long UNKNOWN_SIZE = -1;
+    private static final int MAX_RETRIES = 3;
+    private static final Duration FIRST_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    /**
+     * download the content to the file, overwriting it.
+     *
+     * @return the number of bytes downloaded
+     */
+    @Nonnull
+    public static Mono<Long> download(@Nonnull final Flux<ByteBuffer> content, @Nonnull final Path dest,
+                                      final long size, @Nullable final ProgressListener listener) {
+        return write(content, dest, 0, size, listener);
+    }
+
+    /**
+     * download the content to the file, overwriting it, and download it again from the start if it fails halfway.
+     * the file content api takes no range, so every retry receives the bytes already downloaded again, and only
+     * skips writing them. to bound the cost, it's retried at most {@link #MAX_RETRIES} times with backoff, and only
+     * if the failed attempt got further than the ones before it.
+     *
+     * @param content supplies a new content stream for each attempt
+     * @return the size of the file downloaded
+     */
+    @Nonnull
+    public static Mono<Long> retry(@Nonnull final Supplier<Flux<ByteBuffer>> content, @Nonnull final Path dest,
+                                   final long size, @Nullable final ProgressListener listener) {
+        // the bytes on disk when the last attempt started, none for the first attempt to overwrite the file
+        final AtomicLong attemptOffset = new AtomicLong(-1);
+        return Mono.defer(() -> {
+            final long offset = attemptOffset.get() < 0 ? 0 : sizeOf(dest);
+            attemptOffset.set(offset);
+            return write(content.get(), dest, offset, size, listener);
+        }).retryWhen(Retry.backoff(MAX_RETRIES, FIRST_RETRY_BACKOFF)
+            .filter(e -> (e instanceof IOException || e.getCause() instanceof IOException) && sizeOf(dest) > attemptOffset.get())
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private static long sizeOf(@Nonnull final Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * write the content to the file, skipping the first {@code offset} bytes of it, which are on disk already.
+     *
+     * @return the size of the file written
+     */
+    @Nonnull
+    static Mono<Long> write(@Nonnull final Flux<ByteBuffer> content, @Nonnull final Path dest, final long offset,
+                                    final long size, @Nullable final ProgressListener listener) {
+        return Mono.using(() -> open(dest, offset), channel -> {
+            final AtomicLong received = new AtomicLong();
+            return content.concatMap(buffer -> Mono.fromCallable(() -> {
+                final long start = received.getAndAdd(buffer.remaining());
+                final long end = start + buffer.remaining();
+                if (end > offset) {
+                    final ByteBuffer remaining = buffer.duplicate();
+                    remaining.position(remaining.position() + (int) Math.max(0, offset - start));
+                    long position = Math.max(start, offset);
+                    while (remaining.hasRemaining()) {
+                        position += channel.write(remaining, position);
+                    }
+                }
+                if (listener != null) {
+                    listener.onProgress(end, size);
+                }
+                return end;
+            }), 1)
+                .then(Mono.fromCallable(() -> Math.max(received.get(), offset)));
+        }, AppServiceFileDownloader::closeQuietly);
+    }
+
+    private static FileChannel open(@Nonnull final Path dest, final long offset) throws IOException {
+        final FileChannel channel = FileChannel.open(dest, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // drop whatever is beyond the bytes to keep, e.g. the content of an older file
+        channel.truncate(offset);
+        return channel;
+    }
+
+    private static void closeQuietly(@Nonnull final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+            // nothing to do with it
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param received the number of bytes received so far
+         * @param size     the size of the file, or {@link AppServiceFileDownloader#UNKNOWN_SIZE}
+         */
+        void onProgress(long received, long size);
+    }
+}
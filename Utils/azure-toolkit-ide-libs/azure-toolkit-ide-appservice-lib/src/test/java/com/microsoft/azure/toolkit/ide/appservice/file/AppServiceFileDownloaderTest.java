@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.file;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AppServiceFileDownloaderTest {
+    private static final String CONTENT = "hello app service";
+
+    private Path dest;
+
+    @Before
+    public void setUp() throws IOException {
+        dest = Files.createTempFile("app-service-file", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dest);
+    }
+
+    @Test
+    public void testDownloadOverwritesLongerFile() throws IOException {
+        Files.write(dest, (CONTENT + CONTENT).getBytes(StandardCharsets.UTF_8));
+        final List<Long> progress = new ArrayList<>();
+
+        final long size = AppServiceFileDownloader.download(chunks(CONTENT, 4), dest, CONTENT.length(), (received, total) -> progress.add(received)).block();
+
+        assertEquals(CONTENT.length(), size);
+        assertEquals(CONTENT, read());
+        assertEquals(Long.valueOf(CONTENT.length()), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testWriteSkipsBytesOnDisk() throws IOException {
+        // the offset falls in the middle of the second chunk
+        Files.write(dest, CONTENT.substring(0, 6).getBytes(StandardCharsets.UTF_8));
+
+        final long size = AppServiceFileDownloader.write(chunks("HELLO APP SERVICE", 4), dest, 6, CONTENT.length(), null).block();
+
+        assertEquals(CONTENT.length(), size);
+        // the bytes on disk are kept rather than rewritten
+        assertEquals("hello APP SERVICE", read());
+    }
+
+    @Test
+    public void testWriteOffsetAtChunkBoundary() throws IOException {
+        Files.write(dest, CONTENT.substring(0, 8).getBytes(StandardCharsets.UTF_8));
+
+        final long size = AppServiceFileDownloader.write(chunks(CONTENT, 4), dest, 8, CONTENT.length(), null).block();
+
+        assertEquals(CONTENT.length(), size);
+        assertEquals(CONTENT, read());
+    }
+
+    @Test
+    public void testWriteOffsetBeyondContent() throws IOException {
+        Files.write(dest, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        final long size = AppServiceFileDownloader.write(chunks("hello", 4), dest, CONTENT.length(), CONTENT.length(), null).block();
+
+        assertEquals(CONTENT.length(), size);
+        assertEquals(CONTENT, read());
+    }
+
+    @Test
+    public void testRetryContinuesAfterProgress() throws IOException {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final long size = AppServiceFileDownloader.retry(() -> attempts.incrementAndGet() == 1 ?
+            chunks(CONTENT.substring(0, 8), 4).concatWith(Flux.error(new IOException("broken"))) :
+            chunks(CONTENT, 4), dest, AppServiceFileDownloader.UNKNOWN_SIZE, null).block();
+
+        assertEquals(2, attempts.get());
+        assertEquals(CONTENT.length(), size);
+        assertEquals(CONTENT, read());
+    }
+
+    @Test
+    public void testRetryStopsWithoutProgress() {
+        final AtomicInteger attempts = new AtomicInteger();
+        try {
+            AppServiceFileDownloader.retry(() -> {
+                attempts.incrementAndGet();
+                return Flux.error(new IOException("unreachable"));
+            }, dest, AppServiceFileDownloader.UNKNOWN_SIZE, null).block();
+            fail("the download should fail");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(1, attempts.get());
+    }
+
+    private static Flux<ByteBuffer> chunks(String text, int chunkSize) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            buffers.add(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)).slice());
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(dest), StandardCharsets.UTF_8);
+    }
+}
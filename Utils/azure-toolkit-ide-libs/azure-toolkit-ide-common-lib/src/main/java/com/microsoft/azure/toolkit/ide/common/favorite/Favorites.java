@@ -7,12 +7,14 @@ package com.microsoft.azure.toolkit.ide.common.favorite;
 
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceId;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.toolkit.ide.common.IExplorerNodeProvider;
 import com.microsoft.azure.toolkit.ide.common.action.ResourceCommonActionsContributor;
 import com.microsoft.azure.toolkit.ide.common.component.AzureModuleLabelView;
 import com.microsoft.azure.toolkit.ide.common.component.AzureResourceLabelView;
 import com.microsoft.azure.toolkit.ide.common.component.Node;
+import com.microsoft.azure.toolkit.ide.common.component.NodeView;
 import com.microsoft.azure.toolkit.ide.common.icon.AzureIcons;
 import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
 import com.microsoft.azure.toolkit.ide.common.store.IMachineStore;
@@ -30,7 +32,12 @@ import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.utils.Debouncer;
+import com.microsoft.azure.toolkit.lib.common.utils.TailingDebouncer;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -40,12 +47,23 @@ import javax.annotation.Nullable;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,7 +74,23 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
     @Getter
     private static final Favorites instance = new Favorites();
     public static final String NAME = "favorites";
-    List<String> favorites = new LinkedList<>();
+    private static final String SNAPSHOTS = "favorites_snapshots";
+    private static final int MAX_CONCURRENT_RESOLUTIONS = 8;
+    List<String> favorites = new CopyOnWriteArrayList<>();
+    /**
+     * the pinned resources resolved, empty if the resource doesn't exist any more.
+     */
+    private final Map<String, Optional<AbstractAzResource<?, ?, ?>>> resolved = new ConcurrentHashMap<>();
+    /**
+     * the last-known labels and types of the pinned resources, shown while they are being resolved.
+     */
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    /**
+     * the pinned resources failed to resolve, e.g. because of network errors, shown as placeholders to retry.
+     */
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private final Debouncer childrenChanged = new TailingDebouncer(() -> AzureEventBus.emit("module.children_changed.module", this), 300);
 
     private Favorites() {
         super(NAME, AzResource.NONE);
@@ -71,6 +105,9 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
     public synchronized void clear() {
         super.clear();
         this.favorites.clear();
+        this.resolved.clear();
+        this.snapshots.clear();
+        this.failed.clear();
     }
 
     @Nonnull
@@ -87,22 +124,196 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
     @Nonnull
     @Override
     protected Stream<AbstractAzResource<?, ?, ?>> loadResourcesFromAzure() {
+        this.loadFavorites();
+        this.resolveAll(this.favorites);
+        this.persistSnapshots();
+        return this.favorites.stream().map(id -> this.resolved.getOrDefault(id, Optional.empty()))
+            .filter(Optional::isPresent).map(Optional::get);
+    }
+
+    /**
+     * list the pinned resource ids for the explorer without waiting for them to be resolved, the resolving is started
+     * in background if needed, and the explorer is notified as the resources are resolved.
+     */
+    @Nonnull
+    public List<String> listPinnedIds() {
+        if (!Azure.az(AzureAccount.class).isLoggedIn()) {
+            return Collections.emptyList();
+        }
+        if (this.loading.compareAndSet(false, true)) {
+            if (this.resolved.isEmpty()) {
+                this.loadFavorites();
+            }
+            // `list()` resolves the favorites only if they are not loaded or are refreshed.
+            AzureTaskManager.getInstance().runOnPooledThread(() -> {
+                try {
+                    this.list();
+                } finally {
+                    this.loading.set(false);
+                }
+            });
+        }
+        return new ArrayList<>(this.favorites);
+    }
+
+    public boolean isResolved(@Nonnull String id) {
+        return this.resolved.containsKey(id.toLowerCase());
+    }
+
+    public boolean isFailed(@Nonnull String id) {
+        return this.failed.contains(id.toLowerCase());
+    }
+
+    /**
+     * resolve the pinned resource failed to resolve again.
+     */
+    public void retry(@Nonnull String id) {
+        AzureTaskManager.getInstance().runOnPooledThread(() -> {
+            this.resolve(id.toLowerCase());
+        });
+    }
+
+    /**
+     * @return the resolved resource of the pinned id, null if it's not resolved yet or doesn't exist.
+     */
+    @Nullable
+    public AbstractAzResource<?, ?, ?> getResolved(@Nonnull String id) {
+        return this.resolved.getOrDefault(id.toLowerCase(), Optional.empty()).orElse(null);
+    }
+
+    @Nullable
+    public Snapshot getSnapshot(@Nonnull String id) {
+        return this.snapshots.get(id.toLowerCase());
+    }
+
+    private void loadFavorites() {
         final Account account = Azure.az(AzureAccount.class).account();
         final String user = account.getUsername();
         final IMachineStore store = AzureStoreManager.getInstance().getMachineStore();
         final String favorites = store.getProperty(this.getName(), user);
+        final ObjectMapper mapper = new ObjectMapper();
         if (StringUtils.isNotBlank(favorites)) {
-            final ObjectMapper mapper = new ObjectMapper();
             try {
-                this.favorites = new LinkedList<>(Arrays.asList(mapper.readValue(favorites, String[].class))).stream()
-                    .map(String::toLowerCase).distinct().collect(Collectors.toList());
+                this.favorites = new CopyOnWriteArrayList<>(Arrays.stream(mapper.readValue(favorites, String[].class))
+                    .map(String::toLowerCase).distinct().collect(Collectors.toList()));
             } catch (final JsonProcessingException ex) {
                 AzureMessager.getMessager().error("failed to load favorites.");
-                this.favorites = new LinkedList<>();
+                this.favorites = new CopyOnWriteArrayList<>();
+            }
+        }
+        final String snapshots = store.getProperty(SNAPSHOTS, user);
+        if (StringUtils.isNotBlank(snapshots)) {
+            try {
+                this.snapshots.putAll(mapper.readValue(snapshots, new TypeReference<Map<String, Snapshot>>() {
+                }));
+            } catch (final JsonProcessingException ex) {
+                log.warn("failed to load snapshots of favorites.", ex);
             }
         }
-        return this.favorites.stream().map(id -> this.loadResourceFromAzure(id, FAVORITE_GROUP)).filter(Objects::nonNull)
-            .map(c -> ((AbstractAzResource<?, ?, ?>) c));
+    }
+
+    /**
+     * resolve the pinned resources on the pooled threads, the ids are grouped by subscription and resource type, and
+     * the groups are resolved in parallel, at most {@link #MAX_CONCURRENT_RESOLUTIONS} at a time.
+     */
+    private void resolveAll(@Nonnull List<String> ids) {
+        final Map<String, List<String>> groups = ids.stream()
+            .collect(Collectors.groupingBy(Favorites::getGroupKey, LinkedHashMap::new, Collectors.toList()));
+        final Semaphore permits = new Semaphore(MAX_CONCURRENT_RESOLUTIONS);
+        final CountDownLatch done = new CountDownLatch(groups.size());
+        for (final List<String> group : groups.values()) {
+            permits.acquireUninterruptibly();
+            AzureTaskManager.getInstance().runOnPooledThread(() -> {
+                try {
+                    this.resolveGroup(group);
+                } finally {
+                    permits.release();
+                    done.countDown();
+                }
+            });
+        }
+        try {
+            done.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * the resources of the same type in the same subscription are listed by the module of the first one resolved,
+     * so that the others in the group are resolved by one list call rather than one call for each.
+     */
+    private void resolveGroup(@Nonnull List<String> ids) {
+        final Map<String, AbstractAzResource<?, ?, ?>> listed = new HashMap<>();
+        for (final String id : ids) {
+            final AbstractAzResource<?, ?, ?> found = listed.get(id);
+            if (Objects.nonNull(found)) {
+                this.onResolved(id, found);
+                continue;
+            }
+            final AbstractAzResource<?, ?, ?> resource = this.resolve(id);
+            if (Objects.nonNull(resource) && listed.isEmpty() && ids.size() > 1) {
+                try {
+                    resource.getModule().list().forEach(r -> listed.put(r.getId().toLowerCase(), r));
+                } catch (final Exception e) {
+                    log.warn(String.format("failed to list %s, resolving favorites one by one.", resource.getModule().getResourceTypeName()), e);
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private static String getGroupKey(@Nonnull String id) {
+        try {
+            final ResourceId resourceId = ResourceId.fromString(id);
+            final ResourceId parent = resourceId.parent();
+            return String.join("/", resourceId.subscriptionId(), resourceId.fullResourceType(), Objects.isNull(parent) ? "" : parent.id());
+        } catch (final Exception e) {
+            return id;
+        }
+    }
+
+    /**
+     * a resource failed to resolve is kept as it was, so that it's still shown and can be retried, only the ones
+     * not existing any more are hidden.
+     *
+     * @return the resolved resource, null if it doesn't exist any more or failed to resolve.
+     */
+    @Nullable
+    private AbstractAzResource<?, ?, ?> resolve(@Nonnull String id) {
+        try {
+            final AbstractAzResource<?, ?, ?> resource = this.loadResourceFromAzure(id, FAVORITE_GROUP);
+            this.onResolved(id, resource);
+            return resource;
+        } catch (final Exception e) {
+            log.warn(String.format("failed to resolve favorite %s.", id), e);
+            this.failed.add(id);
+            // the explorer is refreshed once for the resources resolved in a short while
+            this.childrenChanged.debounce();
+            return null;
+        }
+    }
+
+    private void onResolved(@Nonnull String id, @Nullable AbstractAzResource<?, ?, ?> resource) {
+        this.failed.remove(id);
+        this.resolved.put(id, Optional.ofNullable(resource));
+        if (Objects.nonNull(resource)) {
+            this.snapshots.put(id, new Snapshot(resource.getName(), resource.getModule().getResourceTypeName()));
+        }
+        // the explorer is refreshed once for the resources resolved in a short while
+        this.childrenChanged.debounce();
+    }
+
+    private void persistSnapshots() {
+        final IMachineStore store = AzureStoreManager.getInstance().getMachineStore();
+        final String user = Azure.az(AzureAccount.class).account().getUsername();
+        final Map<String, Snapshot> pinned = this.favorites.stream().filter(this.snapshots::containsKey)
+            .collect(Collectors.toMap(id -> id, this.snapshots::get, (a, b) -> a));
+        try {
+            store.setProperty(SNAPSHOTS, user, new ObjectMapper().writeValueAsString(pinned));
+        } catch (final JsonProcessingException e) {
+            log.warn("failed to persist snapshots of favorites.", e);
+        }
     }
 
     @Nullable
@@ -120,6 +331,8 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
     protected void deleteResourceFromAzure(@Nonnull String favoriteId) {
         final String resourceId = URLDecoder.decode(ResourceId.fromString(favoriteId).name(), StandardCharsets.UTF_8.name());
         this.favorites.remove(resourceId.toLowerCase());
+        this.resolved.remove(resourceId.toLowerCase());
+        this.failed.remove(resourceId.toLowerCase());
         this.persist();
     }
 
@@ -184,6 +397,14 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
         this.delete(resourceId, FAVORITE_GROUP);
     }
 
+    void addPinned(@Nonnull AbstractAzResource<?, ?, ?> resource) {
+        final String id = resource.getId().toLowerCase();
+        this.favorites.add(0, id);
+        this.resolved.put(id, Optional.of(resource));
+        this.snapshots.put(id, new Snapshot(resource.getName(), resource.getModule().getResourceTypeName()));
+        this.persist();
+    }
+
     public void persist() {
         AzureTaskManager.getInstance().runOnPooledThread(() -> {
             final IMachineStore store = AzureStoreManager.getInstance().getMachineStore();
@@ -208,16 +429,46 @@ public class Favorites extends AbstractAzResourceModule<Favorite, AzResource.Non
             .enableWhen(s -> s instanceof Favorites)
             .withHandler(Favorites::unpinAll)
             .withShortcut("control F11");
+        final Action<String> retryAction = new Action<>(Action.Id.<String>of("user/favorite.retry_resolving"))
+            .withLabel("Retry")
+            .withIcon(AzureIcons.Action.REFRESH.getIconPath())
+            .enableWhen(s -> s instanceof String)
+            .withHandler(id -> Favorites.getInstance().retry(id));
 
         final AzureModuleLabelView<Favorites> rootView = new AzureModuleLabelView<>(Favorites.getInstance(), "Favorites", FAVORITE_ICON);
         return new Node<>(Favorites.getInstance(), rootView).lazy(false)
             .actions(new ActionGroup(unpinAllAction, "---", ResourceCommonActionsContributor.REFRESH))
-            .addChildren(Favorites::list, (o, parent) -> {
-                final Node<?> node = manager.createNode(o.getResource(), parent, IExplorerNodeProvider.ViewType.APP_CENTRIC);
+            .addChildren(f -> f.listPinnedIds().stream().filter(id -> !f.isResolved(id) || Objects.nonNull(f.getResolved(id)))
+                .collect(Collectors.toList()), (id, parent) -> {
+                final AbstractAzResource<?, ?, ?> resource = parent.data().getResolved(id);
+                if (Objects.isNull(resource)) {
+                    // show the last-known label until the resource is resolved
+                    final Snapshot snapshot = parent.data().getSnapshot(id);
+                    final String label = Objects.nonNull(snapshot) ? snapshot.getName() : ResourceId.fromString(id).name();
+                    final String type = Objects.nonNull(snapshot) ? snapshot.getType() + " " : "";
+                    if (parent.data().isFailed(id)) {
+                        return new Node<>(id, new NodeView.Static(label, AzureIcons.Common.REFRESH_ICON.getIconPath(), type + "(failed to load)"))
+                            .actions(new ActionGroup(retryAction));
+                    }
+                    return new Node<>(id, new NodeView.Static(label, AzureIcons.Common.REFRESH_ICON.getIconPath(), type + "(loading)"));
+                }
+                final Node<?> node = manager.createNode(resource, parent, IExplorerNodeProvider.ViewType.APP_CENTRIC);
                 if (node.view() instanceof AzureResourceLabelView) {
                     node.view(new FavoriteNodeView((AzureResourceLabelView<?>) node.view()));
                 }
                 return node;
             });
     }
+
+    /**
+     * the last-known label and type of a pinned resource
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Snapshot {
+        private String name;
+        private String type;
+    }
 }
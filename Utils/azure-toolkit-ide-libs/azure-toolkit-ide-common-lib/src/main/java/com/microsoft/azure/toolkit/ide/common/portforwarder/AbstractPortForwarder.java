@@ -6,20 +6,29 @@
 package com.microsoft.azure.toolkit.ide.common.portforwarder;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import okhttp3.OkHttpClient;
 import okhttp3.WebSocket;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * The forwarder from a local port to the remote web socket. Each local connection accepted is forwarded through its
+ * own web socket, and the forwarding stops when all the local connections are closed.
+ */
 public abstract class AbstractPortForwarder {
     protected ServerSocketChannel server;
     protected PortForwarderWebSocketListener listener;
+    protected final List<PortForwarderWebSocketListener> listeners = new CopyOnWriteArrayList<>();
 
     public void initLocalSocket(final int port) throws IOException {
         stopForward();
@@ -32,9 +41,13 @@ public abstract class AbstractPortForwarder {
                 initLocalSocket(localPort);
             }
             final OkHttpClient okHttpClient = new OkHttpClient();
-            this.listener = createWebSocketListener(server.accept());
-            final CompletableFuture<WebSocket> future = createSocketBuilder(okHttpClient).buildAsync(listener);
-            future.whenComplete((socket, throwable) -> Optional.ofNullable(throwable).ifPresent(t -> listener.onError(socket, t)));
+            final ServerSocketChannel current = this.server;
+            forward(okHttpClient, current.accept());
+            // Accept the other connections opened while forwarding in background, e.g. the debugger opens another one
+            // before closing the first. The forwarding stops once all of them are closed, reattaching starts it again
+            final Thread acceptor = new Thread(() -> acceptConnections(okHttpClient, current), "port-forwarder-accept-" + localPort);
+            acceptor.setDaemon(true);
+            acceptor.start();
         } catch (final IOException e) {
             stopForward();
             throw new AzureToolkitRuntimeException("Unable to start debugging.", e);
@@ -49,11 +62,45 @@ public abstract class AbstractPortForwarder {
                 throw new AzureToolkitRuntimeException(e);
             }
         }
-        if (Objects.nonNull(listener) && listener.isAlive()) {
-            listener.closeForwarder();
+        for (final PortForwarderWebSocketListener connection : this.listeners) {
+            if (connection.isAlive()) {
+                connection.closeForwarder();
+            }
+        }
+        this.listeners.clear();
+    }
+
+    /**
+     * Called by the listener when its local connection is closed
+     */
+    protected void onConnectionClosed(final PortForwarderWebSocketListener connection) {
+        this.listeners.remove(connection);
+        if (this.listeners.stream().noneMatch(PortForwarderWebSocketListener::isAlive)) {
+            stopForward();
+        }
+    }
+
+    private void acceptConnections(final OkHttpClient okHttpClient, final ServerSocketChannel current) {
+        while (current.isOpen()) {
+            try {
+                forward(okHttpClient, current.accept());
+            } catch (final ClosedChannelException e) {
+                return;
+            } catch (final IOException e) {
+                AzureMessager.getMessager().error(e, "Failed to accept the local connection.");
+                return;
+            }
         }
     }
 
+    private void forward(final OkHttpClient okHttpClient, final SocketChannel connection) {
+        final PortForwarderWebSocketListener connectionListener = createWebSocketListener(connection);
+        this.listeners.add(connectionListener);
+        this.listener = connectionListener;
+        final CompletableFuture<WebSocket> future = createSocketBuilder(okHttpClient).buildAsync(connectionListener);
+        future.whenComplete((socket, throwable) -> Optional.ofNullable(throwable).ifPresent(t -> connectionListener.onError(socket, t)));
+    }
+
     protected abstract WebSocketBuilder createSocketBuilder(OkHttpClient httpClient);
 
     protected abstract PortForwarderWebSocketListener createWebSocketListener(final SocketChannel portForwarder);
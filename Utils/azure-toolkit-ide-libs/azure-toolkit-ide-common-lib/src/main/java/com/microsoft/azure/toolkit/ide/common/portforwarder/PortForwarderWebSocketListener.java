@@ -11,10 +11,12 @@ import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
 import okio.ByteString;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
@@ -25,7 +27,15 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
 
+/**
+ * The web socket listener to forward one local connection. The local socket channel is pumped by the shared
+ * {@link SocketChannelPump}, the channels which can't be selected are pumped by a dedicated thread.
+ */
 public class PortForwarderWebSocketListener extends WebSocketListener {
+    /**
+     * The max bytes queued in the web socket before pausing reading the local channel
+     */
+    protected static final long MAX_QUEUED_BYTES = 1024 * 1024;
     protected volatile boolean opened;
     protected boolean more = true;
     protected final ReentrantLock lock = new ReentrantLock();
@@ -36,6 +46,11 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
     protected final ReadableByteChannel in;
     protected final WritableByteChannel out;
     protected final AbstractPortForwarder forwarder;
+    /**
+     * The pump registration of the local socket channel, null for the channels which can't be selected
+     */
+    @Nullable
+    protected volatile SocketChannelPump.Registration registration;
 
     public PortForwarderWebSocketListener(ReadableByteChannel in, WritableByteChannel out, AbstractPortForwarder forwarder) {
         this.in = in;
@@ -71,7 +86,40 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
         if (response != null) {
             response.close();
         }
-        if (this.in != null) {
+        if (this.in instanceof SelectableChannel && this.in == this.out) {
+            try {
+                this.registration = SocketChannelPump.getInstance().register((SelectableChannel) this.in, new SocketChannelPump.Handler() {
+                    @Override
+                    public boolean isReady() {
+                        // Stop reading when the remote can't keep up, to avoid overflowing the web socket queue
+                        return webSocket.queueSize() < MAX_QUEUED_BYTES;
+                    }
+
+                    @Override
+                    public int onReadable(@NotNull final ByteBuffer buffer) throws IOException {
+                        final int read = readMessage(PortForwarderWebSocketListener.this.in, buffer);
+                        if (read > 0) {
+                            buffer.flip();
+                            webSocket.send(ByteString.of(buffer));
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void onError(@NotNull final Throwable t) {
+                        if (PortForwarderWebSocketListener.this.alive.get()) {
+                            PortForwarderWebSocketListener.this.closeWebSocket(webSocket, 1001, "Client error");
+                            if (!(t instanceof IOException)) {
+                                AzureMessager.getMessager().error(t, "Error while forwarding data from client to remote.");
+                            }
+                        }
+                    }
+                });
+            } catch (final IOException e) {
+                this.closeWebSocket(webSocket, 1001, "Client error");
+                AzureMessager.getMessager().error(e, "Error while forwarding data from client to remote.");
+            }
+        } else if (this.in != null) {
             this.pumperService.execute(() -> {
                 try {
                     pipe(this.in, webSocket, this.alive::get);
@@ -157,8 +205,12 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
                 AzureMessager.getMessager().error(e, "Error while stop debugger.");
             }
         }
-        this.forwarder.stopForward();
+        final SocketChannelPump.Registration current = this.registration;
+        if (current != null) {
+            current.cancel();
+        }
         this.pumperService.shutdownNow();
+        this.forwarder.onConnectionClosed(this);
     }
 
     protected void pipe(ReadableByteChannel in, WebSocket webSocket, BooleanSupplier isAlive) throws IOException, InterruptedException {
@@ -196,7 +248,16 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
 
     protected void writeMessage(WebSocket webSocket, ByteString bytes) {
         final ByteBuffer buffer = bytes.asByteBuffer();
-        if (this.out != null) {
+        final SocketChannelPump.Registration current = this.registration;
+        if (current != null) {
+            // Request the next message once this one is written, without blocking the web socket reader
+            current.write(buffer, this::request, e -> {
+                if (this.alive.get()) {
+                    this.closeWebSocket(webSocket, 1002, "Protocol error");
+                    AzureMessager.getMessager().error(e, "Error while forwarding data from remote to client.");
+                }
+            });
+        } else if (this.out != null) {
             while (true) {
                 try {
                     if (buffer.hasRemaining()) {
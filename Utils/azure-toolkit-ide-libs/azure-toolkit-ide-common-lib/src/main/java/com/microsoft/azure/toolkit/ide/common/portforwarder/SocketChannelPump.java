@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * The selector driven pump shared by all the port forwarding connections, one thread serves the reads and the
+ * pending writes of all the registered local socket channels without sleeping, with the pooled direct buffers.
+ */
+@Slf4j
+final class SocketChannelPump {
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    /**
+     * The interval to check whether the paused reading can be resumed, only used when any reading is paused
+     */
+    private static final long PAUSED_CHECK_INTERVAL_MS = 5;
+
+    private static SocketChannelPump instance;
+
+    private final Queue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Selector selector;
+
+    @Nonnull
+    static synchronized SocketChannelPump getInstance() throws IOException {
+        if (instance == null) {
+            instance = new SocketChannelPump();
+        }
+        return instance;
+    }
+
+    private SocketChannelPump() throws IOException {
+        this.selector = Selector.open();
+        final Thread thread = new Thread(this::run, "port-forwarder-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Register the channel to pump
+     *
+     * @param channel the local socket channel, which is switched to non-blocking
+     * @param handler the handler of the channel events, called in the pump thread
+     * @return the registration to write the channel and to cancel
+     */
+    @Nonnull
+    Registration register(@Nonnull final SelectableChannel channel, @Nonnull final Handler handler) throws IOException {
+        channel.configureBlocking(false);
+        final Registration registration = new Registration(channel, handler);
+        this.execute(() -> {
+            if (registration.cancelled) {
+                return;
+            }
+            try {
+                final SelectionKey key = channel.register(this.selector, 0, registration);
+                registration.key = key;
+                // Cancelled after the check above but before the key is set, the key is missed by the cancelling
+                if (registration.cancelled) {
+                    key.cancel();
+                }
+            } catch (final IOException | RuntimeException e) {
+                handler.onError(e);
+            }
+        });
+        return registration;
+    }
+
+    @Nonnull
+    ByteBuffer acquireBuffer() {
+        final ByteBuffer buffer = this.bufferPool.poll();
+        return buffer != null ? (ByteBuffer) buffer.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    void releaseBuffer(@Nonnull final ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == BUFFER_SIZE) {
+            this.bufferPool.offer(buffer);
+        }
+    }
+
+    private void execute(@Nonnull final Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                Runnable task;
+                while ((task = this.tasks.poll()) != null) {
+                    task.run();
+                }
+                boolean anyPaused = false;
+                for (final SelectionKey key : this.selector.keys()) {
+                    anyPaused |= !((Registration) key.attachment()).updateInterest();
+                }
+                this.selector.select(anyPaused ? PAUSED_CHECK_INTERVAL_MS : 0);
+                for (final SelectionKey key : this.selector.selectedKeys()) {
+                    ((Registration) key.attachment()).onSelected();
+                }
+                this.selector.selectedKeys().clear();
+            } catch (final Throwable t) {
+                log.warn("Port forwarder pump error", t);
+            }
+        }
+    }
+
+    /**
+     * The handler of the channel events
+     */
+    interface Handler {
+        /**
+         * @return true if the handler can take more data, the reading is paused otherwise
+         */
+        boolean isReady();
+
+        /**
+         * Read the channel into the buffer and forward the data read
+         *
+         * @return the bytes read, -1 for the end of stream
+         */
+        int onReadable(@Nonnull ByteBuffer buffer) throws IOException;
+
+        void onError(@Nonnull Throwable t);
+    }
+
+    /**
+     * The registration of a channel, only one write can be in flight
+     */
+    final class Registration {
+        private final SelectableChannel channel;
+        private final Handler handler;
+        private final Deque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+        @Nullable
+        private Runnable onWritten;
+        @Nullable
+        private volatile SelectionKey key;
+        private volatile boolean cancelled;
+
+        private Registration(@Nonnull final SelectableChannel channel, @Nonnull final Handler handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        /**
+         * Write the data to the channel, the data is written at once if the channel can take it all, otherwise the
+         * rest is copied and written by the pump when the channel is writable.
+         *
+         * @param src the data to write
+         * @param onWritten called when all the data is written
+         * @param onError called when the write fails
+         */
+        void write(@Nonnull final ByteBuffer src, @Nonnull final Runnable onWritten, @Nonnull final Consumer<Throwable> onError) {
+            try {
+                final ByteChannel out = (ByteChannel) this.channel;
+                while (src.hasRemaining() && out.write(src) > 0) {
+                    // Write as much as the socket buffer can take
+                }
+                if (!src.hasRemaining()) {
+                    onWritten.run();
+                    return;
+                }
+                synchronized (this) {
+                    while (src.hasRemaining()) {
+                        final ByteBuffer buffer = acquireBuffer();
+                        final int length = Math.min(buffer.remaining(), src.remaining());
+                        final ByteBuffer slice = src.duplicate();
+                        slice.limit(slice.position() + length);
+                        buffer.put(slice).flip();
+                        src.position(src.position() + length);
+                        this.pendingWrites.addLast(buffer);
+                    }
+                    this.onWritten = onWritten;
+                }
+                // Wake up the pump to watch the channel writable
+                selector.wakeup();
+            } catch (final IOException | RuntimeException e) {
+                onError.accept(e);
+            }
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            final SelectionKey current = this.key;
+            if (current != null) {
+                current.cancel();
+            }
+            synchronized (this) {
+                this.pendingWrites.forEach(SocketChannelPump.this::releaseBuffer);
+                this.pendingWrites.clear();
+                this.onWritten = null;
+            }
+            selector.wakeup();
+        }
+
+        /**
+         * @return false if the reading is paused
+         */
+        private boolean updateInterest() {
+            final SelectionKey current = this.key;
+            if (current == null || !current.isValid() || this.cancelled) {
+                return true;
+            }
+            final boolean ready = this.handler.isReady();
+            final int ops;
+            synchronized (this) {
+                ops = (ready ? SelectionKey.OP_READ : 0) | (this.pendingWrites.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+            }
+            try {
+                if (current.interestOps() != ops) {
+                    current.interestOps(ops);
+                }
+            } catch (final CancelledKeyException ignored) {
+                return true;
+            }
+            return ready;
+        }
+
+        private void onSelected() {
+            final SelectionKey current = this.key;
+            try {
+                if (current == null || !current.isValid() || this.cancelled) {
+                    return;
+                }
+                if (current.isWritable()) {
+                    this.flush();
+                }
+                if (current.isValid() && current.isReadable()) {
+                    final ByteBuffer buffer = acquireBuffer();
+                    try {
+                        if (this.handler.onReadable(buffer) < 0) {
+                            current.cancel();
+                            this.handler.onError(new IOException("The local connection is closed."));
+                        }
+                    } finally {
+                        releaseBuffer(buffer);
+                    }
+                }
+            } catch (final IOException | RuntimeException e) {
+                if (current != null) {
+                    current.cancel();
+                }
+                this.handler.onError(e);
+            }
+        }
+
+        private void flush() throws IOException {
+            final Runnable written;
+            synchronized (this) {
+                final ByteChannel out = (ByteChannel) this.channel;
+                while (!this.pendingWrites.isEmpty()) {
+                    final ByteBuffer buffer = this.pendingWrites.peekFirst();
+                    out.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        return;
+                    }
+                    releaseBuffer(this.pendingWrites.pollFirst());
+                }
+                written = this.onWritten;
+                this.onWritten = null;
+            }
+            if (written != null) {
+                written.run();
+            }
+        }
+    }
+}
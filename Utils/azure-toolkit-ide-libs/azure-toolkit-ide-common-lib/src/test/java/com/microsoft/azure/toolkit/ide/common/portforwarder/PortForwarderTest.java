@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Forward the local connections to a local echo web socket server, and check the data echoed back through the
+ * forwarder for the small JDWP-like packets, the bulk data and the concurrent connections.
+ */
+public class PortForwarderTest {
+    private static final String WEB_SOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int PACKET_SIZE = 64;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private ServerSocket echoServer;
+    private TestPortForwarder forwarder;
+    private ExecutorService clients;
+    private int localPort;
+
+    @Before
+    public void setUp() throws IOException {
+        echoServer = startEchoServer();
+        forwarder = new TestPortForwarder(echoServer.getLocalPort());
+        forwarder.initLocalSocket(0);
+        localPort = forwarder.getLocalPort();
+        clients = Executors.newCachedThreadPool();
+        clients.submit(() -> forwarder.startForward(localPort));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        forwarder.stopForward();
+        echoServer.close();
+        clients.shutdownNow();
+    }
+
+    @Test(timeout = 60_000)
+    public void testSmallPacketsEchoed() throws IOException {
+        try (Socket socket = connect(localPort)) {
+            assertRoundTrips(socket, 200);
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void testBulkDataEchoed() throws Exception {
+        final byte[] data = new byte[4 * 1024 * 1024];
+        new Random(0).nextBytes(data);
+
+        try (Socket socket = connect(localPort)) {
+            final Future<byte[]> echoed = clients.submit(() -> {
+                final byte[] received = new byte[data.length];
+                new DataInputStream(socket.getInputStream()).readFully(received);
+                return received;
+            });
+
+            final OutputStream out = socket.getOutputStream();
+            for (int offset = 0; offset < data.length; offset += 64 * 1024) {
+                out.write(data, offset, Math.min(64 * 1024, data.length - offset));
+            }
+            out.flush();
+
+            assertArrayEquals(data, echoed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void testConcurrentConnectionsEchoed() throws Exception {
+        try (Socket first = connect(localPort)) {
+            // The first connection keeps the forwarding while the others are opened in background
+            assertRoundTrips(first, 10);
+
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(clients.submit(() -> {
+                    try (Socket socket = connect(localPort)) {
+                        assertRoundTrips(socket, 100);
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+
+            assertRoundTrips(first, 10);
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void testForwardingStoppedWhenAllConnectionsClosed() throws Exception {
+        try (Socket socket = connect(localPort)) {
+            assertRoundTrips(socket, 1);
+        }
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (forwarder.isListening() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(forwarder.isListening());
+        try (Socket ignored = connect(localPort)) {
+            fail("The local port should be closed");
+        } catch (final ConnectException expected) {
+            // The reattaching needs to start forwarding again
+        }
+    }
+
+    private static Socket connect(final int port) throws IOException {
+        final Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress("127.0.0.1", port));
+        return socket;
+    }
+
+    private static void assertRoundTrips(final Socket socket, final int roundTrips) throws IOException {
+        final Random random = new Random(roundTrips);
+        final byte[] packet = new byte[PACKET_SIZE];
+        final byte[] echo = new byte[PACKET_SIZE];
+        final OutputStream out = socket.getOutputStream();
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+
+        for (int i = 0; i < roundTrips; i++) {
+            random.nextBytes(packet);
+            out.write(packet);
+            out.flush();
+            in.readFully(echo);
+            assertArrayEquals(packet, echo);
+        }
+    }
+
+    /**
+     * Start a minimal RFC 6455 echo server, which echoes the data frames and answers the pings and closes
+     */
+    private static ServerSocket startEchoServer() throws IOException {
+        final ServerSocket server = new ServerSocket(0);
+        final Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    final Socket socket = server.accept();
+                    socket.setTcpNoDelay(true);
+                    final Thread echo = new Thread(() -> echo(socket), "echo-web-socket");
+                    echo.setDaemon(true);
+                    echo.start();
+                } catch (final IOException e) {
+                    return;
+                }
+            }
+        }, "echo-web-socket-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    private static void echo(final Socket socket) {
+        try (Socket ignored = socket) {
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            final OutputStream out = socket.getOutputStream();
+            handshake(in, out);
+
+            while (true) {
+                final int head = in.readUnsignedByte();
+                final int opcode = head & 0x0F;
+                final int second = in.readUnsignedByte();
+                long length = second & 0x7F;
+                if (length == 126) {
+                    length = in.readUnsignedShort();
+                } else if (length == 127) {
+                    length = in.readLong();
+                }
+                final byte[] mask = new byte[4];
+                if ((second & 0x80) != 0) {
+                    in.readFully(mask);
+                }
+                final byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+
+                final int replyOpcode = opcode == 0x9 ? 0xA : opcode;
+                writeFrame(out, 0x80 | replyOpcode, payload);
+                if (opcode == 0x8) {
+                    return;
+                }
+            }
+        } catch (final IOException e) {
+            // The client is gone
+        }
+    }
+
+    private static void handshake(final InputStream in, final OutputStream out) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new HeaderInputStream(in), StandardCharsets.ISO_8859_1));
+        String key = null;
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        try {
+            final byte[] sha1 = MessageDigest.getInstance("SHA-1").digest((key + WEB_SOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            final String response = "HTTP/1.1 101 Switching Protocols\r\n" +
+                    "Upgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\n" +
+                    "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(sha1) + "\r\n\r\n";
+            out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        } catch (final java.security.NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void writeFrame(final OutputStream out, final int head, final byte[] payload) throws IOException {
+        out.write(head);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length & 0xFF);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (((long) payload.length >>> shift) & 0xFF));
+            }
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * The stream reading byte by byte, so that the reader of the handshake headers doesn't consume the frames
+     */
+    private static class HeaderInputStream extends InputStream {
+        private final InputStream in;
+
+        HeaderInputStream(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final int read = in.read();
+            if (read < 0) {
+                return -1;
+            }
+            buffer[off] = (byte) read;
+            return 1;
+        }
+    }
+
+    private static class TestPortForwarder extends AbstractPortForwarder {
+        private final int echoPort;
+
+        TestPortForwarder(final int echoPort) {
+            this.echoPort = echoPort;
+        }
+
+        int getLocalPort() {
+            return this.server.socket().getLocalPort();
+        }
+
+        boolean isListening() {
+            return this.server.isOpen();
+        }
+
+        @Override
+        protected WebSocketBuilder createSocketBuilder(final OkHttpClient httpClient) {
+            return new WebSocketBuilder(httpClient).uri("ws://127.0.0.1:" + this.echoPort + "/");
+        }
+
+        @Override
+        protected PortForwarderWebSocketListener createWebSocketListener(final SocketChannel portForwarder) {
+            return new PortForwarderWebSocketListener(portForwarder, portForwarder, this);
+        }
+    }
+}
@@ -13,12 +13,14 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 public class AppInsightsClient {
     static AppInsightsConfiguration configuration;
+    private static volatile CommonProperties commonProperties;
 
     public enum EventType {
         Action,
@@ -100,36 +102,50 @@ public class AppInsightsClient {
         if (isAppInsightsClientAvailable() && configuration.validated()) {
             String prefValue = configuration.preferenceVal();
             if (prefValue == null || prefValue.isEmpty() || prefValue.equalsIgnoreCase("true") || force) {
-                AzureTelemetryClient telemetry = TelemetryClientSingleton.getTelemetry();
-                Map<String, String> properties = buildProperties(version, myProperties);
-                synchronized (TelemetryClientSingleton.class) {
-                    telemetry.trackEvent(eventName, properties, metrics);
-                }
+                // the properties are merged and the event is tracked in background
+                final Map<String, String> properties = myProperties == null ? null : new HashMap<>(myProperties);
+                TelemetryQueue.getInstance().enqueue(eventName, version, properties, metrics);
             }
         }
     }
 
     private static Map<String, String> buildProperties(String version, Map<String, String> myProperties) {
-        Map<String, String> properties = myProperties == null ? new HashMap<>() : new HashMap<>(myProperties);
-        properties.put("SessionId", configuration.sessionId());
-        properties.put("IDE", configuration.ide());
-        properties.put("AssignmentContext", Optional.ofNullable(ExperimentationClient.getExperimentationService()).map(ExperimentationService::getAssignmentContext).orElse(StringUtils.EMPTY));
+        return buildProperties(version, myProperties, getCommonProperties());
+    }
 
+    static Map<String, String> buildProperties(String version, @Nullable Map<String, String> myProperties,
+                                               Map<String, String> commonProperties) {
+        Map<String, String> properties = myProperties == null ? new HashMap<>() : new HashMap<>(myProperties);
         // Telemetry client doesn't accept null value for ConcurrentHashMap doesn't accept null as key or value..
         properties.entrySet().removeIf(entry -> StringUtils.isEmpty(entry.getKey()) || StringUtils.isEmpty(entry.getValue()));
+        properties.putAll(commonProperties);
         if (version != null && !version.isEmpty()) {
             properties.put("Library Version", version);
         }
-        String pluginVersion = configuration.pluginVersion();
-        if (!StringUtils.isEmpty(pluginVersion)) {
-            properties.put("Plugin Version", pluginVersion);
-        }
+        return properties;
+    }
 
-        String instID = configuration.installationId();
-        if (!StringUtils.isEmpty(instID)) {
-            properties.put("Installation ID", instID);
+    /**
+     * The immutable properties shared by all the events, rebuilt only when the configuration or the assignment
+     * context is changed
+     */
+    static Map<String, String> getCommonProperties() {
+        final AppInsightsConfiguration current = configuration;
+        final String assignmentContext = Optional.ofNullable(ExperimentationClient.getExperimentationService())
+                .map(ExperimentationService::getAssignmentContext).orElse(StringUtils.EMPTY);
+        final CommonProperties cached = commonProperties;
+        if (cached != null && cached.configuration == current && StringUtils.equals(cached.assignmentContext, assignmentContext)) {
+            return cached.properties;
         }
-        return properties;
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("SessionId", current.sessionId());
+        properties.put("IDE", current.ide());
+        properties.put("AssignmentContext", assignmentContext);
+        properties.put("Plugin Version", current.pluginVersion());
+        properties.put("Installation ID", current.installationId());
+        properties.entrySet().removeIf(entry -> StringUtils.isEmpty(entry.getValue()));
+        commonProperties = new CommonProperties(current, assignmentContext, Collections.unmodifiableMap(properties));
+        return commonProperties.properties;
     }
 
     private static boolean isAppInsightsClientAvailable() {
@@ -152,4 +168,16 @@ public class AppInsightsClient {
         } catch (Exception ignore) {
         }
     }
+
+    private static final class CommonProperties {
+        private final AppInsightsConfiguration configuration;
+        private final String assignmentContext;
+        private final Map<String, String> properties;
+
+        private CommonProperties(AppInsightsConfiguration configuration, String assignmentContext, Map<String, String> properties) {
+            this.configuration = configuration;
+            this.assignmentContext = assignmentContext;
+            this.properties = properties;
+        }
+    }
 }
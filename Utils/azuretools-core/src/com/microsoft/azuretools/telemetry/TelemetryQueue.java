@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetry;
+
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryClient;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * The bounded queue of the telemetry events, sent to the telemetry client by one background thread in batches, so
+ * that tracking an event never blocks the caller. The enqueueing is lock free, and the oldest events are dropped
+ * when the queue is full.
+ */
+public final class TelemetryQueue {
+    private static final Logger LOGGER = Logger.getLogger(TelemetryQueue.class.getName());
+    static final int CAPACITY = 4096;
+    static final int BATCH_SIZE = 128;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long SHUTDOWN_FLUSH_MILLIS = 2000;
+
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final Supplier<Map<String, String>> commonProperties;
+    private final Consumer<List<Event>> sender;
+    private volatile Thread drainer;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder enqueueNanos = new LongAdder();
+    private final AtomicLong maxEnqueueNanos = new AtomicLong();
+
+    private static final class LazyHolder {
+        static final TelemetryQueue INSTANCE = create();
+
+        private static TelemetryQueue create() {
+            final TelemetryQueue queue = new TelemetryQueue(CAPACITY, AppInsightsClient::getCommonProperties, TelemetryQueue::track);
+            // the drainer is a daemon thread, send what's left before the IDE exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                queue.flush(SHUTDOWN_FLUSH_MILLIS);
+                LOGGER.info("telemetry queue: " + queue);
+            }, "azure-telemetry-queue-flush"));
+            return queue;
+        }
+    }
+
+    public static TelemetryQueue getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    TelemetryQueue(int capacity, @NotNull Supplier<Map<String, String>> commonProperties, @NotNull Consumer<List<Event>> sender) {
+        this.capacity = capacity;
+        this.commonProperties = commonProperties;
+        this.sender = sender;
+    }
+
+    /**
+     * Queue the event to send, the properties map is owned by the queue from now on. The metrics and the common
+     * properties are taken as they are now, rather than when the event is sent.
+     */
+    public void enqueue(@NotNull String eventName,
+                        @Nullable String version,
+                        @Nullable Map<String, String> properties,
+                        @Nullable Map<String, Double> metrics) {
+        final long start = System.nanoTime();
+        events.offer(new Event(eventName, version, properties, metrics == null ? null : new HashMap<>(metrics),
+                commonProperties.get()));
+        enqueued.increment();
+        final int pending = size.incrementAndGet();
+        if (pending > capacity) {
+            // drop the oldest one, which could have been drained meanwhile
+            if (events.poll() != null) {
+                size.decrementAndGet();
+                dropped.increment();
+                if (dropped.sum() == 1) {
+                    LOGGER.warning("telemetry queue is full, dropping the oldest events: " + this);
+                }
+            }
+        } else if (pending == 1 || drainer == null) {
+            // the drainer keeps draining until the queue is empty, wake it up only then
+            wakeUpDrainer();
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        enqueueNanos.add(elapsed);
+        maxEnqueueNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private void wakeUpDrainer() {
+        Thread current = drainer;
+        if (current == null) {
+            synchronized (this) {
+                // only once, when the first event comes
+                current = drainer;
+                if (current == null) {
+                    current = new Thread(this::drain, "azure-telemetry-queue");
+                    current.setDaemon(true);
+                    drainer = current;
+                    current.start();
+                    return;
+                }
+            }
+        }
+        LockSupport.unpark(current);
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (!sendBatch()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Send the pending events on the calling thread, until the queue is empty or the timeout elapses
+     *
+     * @return true if all the pending events are sent
+     */
+    boolean flush(long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (System.nanoTime() - deadline < 0) {
+            if (!sendBatch()) {
+                return true;
+            }
+        }
+        return events.isEmpty();
+    }
+
+    /**
+     * @return false if there's no event to send
+     */
+    private boolean sendBatch() {
+        final List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        Event event;
+        while (batch.size() < BATCH_SIZE && (event = events.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        try {
+            sender.accept(batch);
+        } catch (RuntimeException ignore) {
+            // telemetry failure should never break anything
+        }
+        return true;
+    }
+
+    private static void track(List<Event> batch) {
+        final AzureTelemetryClient telemetry = TelemetryClientSingleton.getTelemetry();
+        for (final Event event : batch) {
+            telemetry.trackEvent(event.name, event.buildProperties(), event.metrics);
+        }
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getPendingCount() {
+        return Math.max(0, size.get());
+    }
+
+    public long getAverageEnqueueNanos() {
+        final long count = enqueued.sum();
+        return count == 0 ? 0 : enqueueNanos.sum() / count;
+    }
+
+    public long getMaxEnqueueNanos() {
+        return maxEnqueueNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("enqueued %d, dropped %d, pending %d, avg enqueue %dns, max enqueue %dns",
+                getEnqueuedCount(), getDroppedCount(), getPendingCount(), getAverageEnqueueNanos(), getMaxEnqueueNanos());
+    }
+
+    static final class Event {
+        final String name;
+        final String version;
+        final Map<String, String> properties;
+        final Map<String, Double> metrics;
+        final Map<String, String> commonProperties;
+
+        Event(String name, String version, Map<String, String> properties, Map<String, Double> metrics,
+              Map<String, String> commonProperties) {
+            this.name = name;
+            this.version = version;
+            this.properties = properties;
+            this.metrics = metrics;
+            this.commonProperties = commonProperties;
+        }
+
+        Map<String, String> buildProperties() {
+            return AppInsightsClient.buildProperties(version, properties, commonProperties);
+        }
+    }
+}
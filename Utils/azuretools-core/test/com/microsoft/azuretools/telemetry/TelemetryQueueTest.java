@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryQueueTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final List<TelemetryQueue.Event> sent = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Map<String, String>> commonProperties =
+            new AtomicReference<>(Collections.singletonMap("SessionId", "first"));
+    private CountDownLatch sending;
+    private CountDownLatch blocked;
+
+    @Before
+    public void setUp() {
+        sending = new CountDownLatch(1);
+        blocked = new CountDownLatch(0);
+    }
+
+    @After
+    public void tearDown() {
+        blocked.countDown();
+    }
+
+    @Test
+    public void testEventsSent() {
+        final TelemetryQueue queue = newQueue(100);
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue("event" + i, null, null, null);
+        }
+
+        assertTrue(queue.flush(TIMEOUT_MILLIS));
+        waitUntilSent(10);
+        final Set<String> names = names();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(names.contains("event" + i));
+        }
+        assertEquals(10, queue.getEnqueuedCount());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void testOldestDroppedWhenFull() throws InterruptedException {
+        final TelemetryQueue queue = newQueue(4);
+        blockSending(queue);
+        for (int i = 0; i < 6; i++) {
+            queue.enqueue("event" + i, null, null, null);
+        }
+
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals(4, queue.getPendingCount());
+        blocked.countDown();
+        assertTrue(queue.flush(TIMEOUT_MILLIS));
+        waitUntilSent(5);
+        assertEquals(5, sent.size());
+        assertFalse(names().contains("event0"));
+        assertFalse(names().contains("event1"));
+        assertTrue(names().containsAll(Arrays.asList("event2", "event3", "event4", "event5")));
+    }
+
+    @Test
+    public void testMetricsAndCommonPropertiesTakenAtEnqueue() throws InterruptedException {
+        final TelemetryQueue queue = newQueue(100);
+        blockSending(queue);
+        final Map<String, Double> metrics = new HashMap<>();
+        metrics.put("duration", 1.0);
+        queue.enqueue("event", null, null, metrics);
+        metrics.put("duration", 2.0);
+        commonProperties.set(Collections.singletonMap("SessionId", "second"));
+
+        blocked.countDown();
+        assertTrue(queue.flush(TIMEOUT_MILLIS));
+        waitUntilSent(2);
+        final TelemetryQueue.Event event = sent.stream().filter(e -> "event".equals(e.name)).findFirst().orElseThrow(AssertionError::new);
+        assertEquals(Double.valueOf(1.0), event.metrics.get("duration"));
+        assertEquals("first", event.commonProperties.get("SessionId"));
+    }
+
+    @Test
+    public void testFlushSendsOnCallingThread() throws InterruptedException {
+        final TelemetryQueue queue = newQueue(100);
+        blockSending(queue);
+        queue.enqueue("pending", null, null, null);
+
+        // the event is polled by the flush, which is then blocked by the sender too
+        final Thread flusher = new Thread(() -> queue.flush(TIMEOUT_MILLIS));
+        flusher.start();
+        flusher.join(200);
+        assertTrue(flusher.isAlive());
+        blocked.countDown();
+        flusher.join(TIMEOUT_MILLIS);
+        waitUntilSent(2);
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    private TelemetryQueue newQueue(int capacity) {
+        return new TelemetryQueue(capacity, commonProperties::get, batch -> {
+            sending.countDown();
+            try {
+                blocked.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.addAll(batch);
+        });
+    }
+
+    /**
+     * the first event is taken by the drainer, which is then blocked until {@link #blocked} is released
+     */
+    private void blockSending(TelemetryQueue queue) throws InterruptedException {
+        blocked = new CountDownLatch(1);
+        queue.enqueue("blocking", null, null, null);
+        assertTrue(sending.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private void waitUntilSent(int count) {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private Set<String> names() {
+        synchronized (sent) {
+            return sent.stream().map(event -> event.name).collect(Collectors.toSet());
+        }
+    }
+}
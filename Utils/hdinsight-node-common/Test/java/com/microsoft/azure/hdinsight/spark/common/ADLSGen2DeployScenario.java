@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpEntity;
+import rx.Observable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ADLSGen2DeployScenario {
+    private static final String DESTINATION_ROOT_PATH = "https://account.dfs.core.windows.net/fs/SparkSubmission/";
+    private static final long CHUNK_SIZE = 4;
+
+    private File artifact;
+    private ADLSGen2Deploy deploy;
+    private final List<String> createdFiles = new CopyOnWriteArrayList<>();
+    private final List<Long> appendedPositions = new CopyOnWriteArrayList<>();
+    private final List<String> flushedFiles = new CopyOnWriteArrayList<>();
+    private String firstCreatedFile;
+    private Long failingPosition;
+    private String deployedUri;
+    private Throwable deployError;
+
+    @Before
+    public void setUp() throws IOException {
+        artifact = Files.createTempFile("adls-gen2-deploy", ".jar").toFile();
+
+        deploy = new ADLSGen2Deploy(new HttpObservable(), DESTINATION_ROOT_PATH) {
+            @Override
+            ADLSGen2FSOperation createFSOperation() {
+                return new ADLSGen2FSOperation(http) {
+                    @Override
+                    public Observable<Boolean> createDir(String dirPath, String permission) {
+                        return Observable.just(true);
+                    }
+
+                    @Override
+                    public Observable<Boolean> createFile(String filePath, String permission) {
+                        createdFiles.add(filePath);
+                        if (firstCreatedFile == null) {
+                            firstCreatedFile = filePath;
+                        }
+
+                        return Observable.just(true);
+                    }
+
+                    @Override
+                    public Observable<Long> appendData(String filePath, long position, HttpEntity entity) {
+                        if (failingPosition != null && failingPosition == position) {
+                            return Observable.error(new IOException("Failed to append data at " + position));
+                        }
+
+                        appendedPositions.add(position);
+                        return Observable.just(entity.getContentLength());
+                    }
+
+                    @Override
+                    public Observable<Boolean> flushData(String filePath, long flushLen) {
+                        flushedFiles.add(filePath);
+                        return Observable.just(true);
+                    }
+                };
+            }
+
+            @Override
+            ChunkedArtifactUploader createUploader() {
+                return new ChunkedArtifactUploader(CHUNK_SIZE, 1, 0);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(artifact);
+    }
+
+    @Given("^the artifact to deploy to ADLS Gen2 has (\\d+) bytes$")
+    public void createArtifact(int length) throws IOException {
+        final byte[] content = new byte[length];
+        Arrays.fill(content, (byte) 'a');
+
+        Files.write(artifact.toPath(), content);
+    }
+
+    @Given("^appending data to ADLS Gen2 at position (\\d+) fails$")
+    public void failAppending(long position) {
+        failingPosition = position;
+    }
+
+    @Given("^appending data to ADLS Gen2 is recovered$")
+    public void recoverAppending() {
+        failingPosition = null;
+    }
+
+    @When("^deploy the artifact to ADLS Gen2$")
+    public void deployArtifact() {
+        createdFiles.clear();
+        appendedPositions.clear();
+        flushedFiles.clear();
+        deployedUri = null;
+        deployError = null;
+
+        try {
+            deployedUri = deploy.upload(artifact, null).toBlocking().single();
+        } catch (RuntimeException ex) {
+            deployError = ex;
+        }
+    }
+
+    @Then("^deploying the artifact to ADLS Gen2 should fail$")
+    public void checkDeployFailed() {
+        assertNotNull("Deploying the artifact should fail", deployError);
+        assertThat(flushedFiles).isEmpty();
+    }
+
+    @Then("^deploying the artifact to ADLS Gen2 should succeed$")
+    public void checkDeploySucceeded() {
+        assertNull(deployError);
+        assertNotNull(deployedUri);
+        assertThat(deployedUri).endsWith("/" + artifact.getName());
+    }
+
+    @Then("^the ADLS Gen2 file should be (created|not created)$")
+    public void checkFileCreated(String created) {
+        assertEquals(created.equals("created") ? 1 : 0, createdFiles.size());
+    }
+
+    @Then("^the ADLS Gen2 data should be appended at positions '(.*)'$")
+    public void checkAppendedPositions(String positions) {
+        assertThat(appendedPositions).containsExactlyInAnyOrderElementsOf(Arrays.stream(positions.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList()));
+    }
+
+    @Then("^the ADLS Gen2 file flushed should be the file created by the first deployment$")
+    public void checkFlushedFile() {
+        assertEquals(1, flushedFiles.size());
+        assertEquals(firstCreatedFile, flushedFiles.get(0));
+    }
+}
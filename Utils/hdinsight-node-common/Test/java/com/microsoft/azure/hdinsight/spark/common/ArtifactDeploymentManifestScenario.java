@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import rx.Observable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArtifactDeploymentManifestScenario {
+    private static final String TARGET = "ADLSGen2|https://account.dfs.core.windows.net/fs/SparkSubmission/";
+
+    private File folder;
+    private File artifact;
+    private ArtifactDeploymentManifest manifest;
+    private final AtomicInteger uploadCount = new AtomicInteger();
+    private long remoteLength;
+    private boolean isUploadFailed;
+    private String deployedUri;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("artifact-manifest").toFile();
+        artifact = new File(folder, "dependency.jar");
+        manifest = new ArtifactDeploymentManifest(getManifestFile());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(folder);
+    }
+
+    private File getManifestFile() {
+        return new File(folder, "SparkSubmission/artifacts-manifest.json");
+    }
+
+    @Given("^the artifact to deploy has content '(.*)'$")
+    public void createArtifact(String content) throws IOException {
+        FileUtils.writeStringToFile(artifact, content, StandardCharsets.UTF_8);
+    }
+
+    @Given("^the remote artifact deployed has the same length as the local artifact$")
+    public void keepRemoteLength() {
+        remoteLength = artifact.length();
+    }
+
+    @Given("^the remote artifact deployed has length (\\d+)$")
+    public void setRemoteLength(long length) {
+        remoteLength = length;
+    }
+
+    @Given("^the artifact upload fails$")
+    public void failUpload() {
+        isUploadFailed = true;
+    }
+
+    @Given("^the artifact deployment manifest is reloaded$")
+    public void reloadManifest() {
+        manifest = new ArtifactDeploymentManifest(getManifestFile());
+    }
+
+    @Given("^the artifact deployment manifest file has content '(.*)'$")
+    public void writeManifestFile(String content) throws IOException {
+        FileUtils.writeStringToFile(getManifestFile(), content, StandardCharsets.UTF_8);
+        reloadManifest();
+    }
+
+    @Given("^the artifacts (\\d+) to (\\d+) are recorded to the target$")
+    public void recordArtifacts(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            manifest.record(TARGET, "artifact" + i + ".jar:" + i, "abfss://fs@account.dfs.core.windows.net/" + i);
+        }
+    }
+
+    @Given("^the artifact '(.*)' is recorded to the target again$")
+    public void recordArtifactAgain(String contentKey) {
+        manifest.record(TARGET, contentKey, manifest.getDeployedUri(TARGET, contentKey));
+    }
+
+    @When("^deploy the artifact with the manifest$")
+    public void deployArtifact() {
+        deployedUri = null;
+
+        try {
+            deployedUri = manifest.deploy(
+                    artifact,
+                    TARGET,
+                    uri -> Observable.just(remoteLength == artifact.length()),
+                    () -> isUploadFailed
+                          ? Observable.error(new IOException("Failed to upload " + artifact.getName()))
+                          : Observable.just("abfss://fs@account.dfs.core.windows.net/" + uploadCount.incrementAndGet()),
+                    null)
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    @Then("^the artifact should be uploaded (\\d+) times?$")
+    public void checkUploadCount(int count) {
+        assertEquals(count, uploadCount.get());
+    }
+
+    @Then("^the artifact deployed URI should be '(.*)'$")
+    public void checkDeployedUri(String uri) {
+        assertEquals(uri.isEmpty() ? null : uri, deployedUri);
+    }
+
+    @Then("^the artifact content key should be its name and SHA-256$")
+    public void checkContentKey() throws IOException {
+        assertEquals("dependency.jar:" + DigestUtils.sha256Hex(Files.readAllBytes(artifact.toPath())),
+                     manifest.getContentKey(artifact));
+    }
+
+    @Then("^the artifact deployment manifest should record '(.*)' for the artifact$")
+    public void checkRecordedUri(String uri) throws IOException {
+        assertEquals(uri.isEmpty() ? null : uri, manifest.getDeployedUri(TARGET, manifest.getContentKey(artifact)));
+    }
+
+    @Then("^the artifact deployment manifest should record '(.*)' for '(.*)' of the target '(.*)'$")
+    public void checkTargetRecordedUri(String uri, String contentKey, String target) {
+        assertEquals(uri.isEmpty() ? null : uri, manifest.getDeployedUri(target, contentKey));
+    }
+
+    @Then("^the artifact '(.*)' should be (recorded|evicted)$")
+    public void checkArtifactRecorded(String contentKey, String recorded) {
+        assertEquals(recorded.equals("recorded"), manifest.getDeployedUri(TARGET, contentKey) != null);
+    }
+}
@@ -6,11 +6,14 @@
 package com.microsoft.azure.hdinsight.spark.jobs;
 
 import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import io.cucumber.java.Before;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -47,6 +50,22 @@ public class JobUtilsScenario {
 
     }
 
+    @Then("^merged Yarn logs observable from '(.*)' should produce events of source '(.*)':$")
+    public void checkYarnLogsObservable(String logUrl, String logSource, List<String> logs) throws Throwable {
+        List<SparkLogLine> logsGot = JobUtils.createYarnLogsObservable(
+                        null, null, Collections.singletonList(httpServerMock.completeUrl(logUrl)), Collections.singletonList("stderr"), 10)
+                .takeUntil(line -> line.getRawLog().isEmpty())
+                .filter(line -> !line.getRawLog().isEmpty())
+                .toList()
+                .toBlocking()
+                .singleOrDefault(null);
+
+        assertThat(logsGot.stream().map(SparkLogLine::getLogSource).distinct().collect(Collectors.toList()))
+                .containsExactly(logSource);
+        assertThat(logsGot.stream().map(SparkLogLine::getRawLog).collect(Collectors.toList()))
+                .containsExactlyElementsOf(logs);
+    }
+
     @Then("^get YarnUI log '(.+)' from '(.+)' should return '(.*)'$")
     public void checkGetYarnUILogType(String type, String logUrl, String expect) throws Throwable {
         String actual = JobUtils.getInformationFromYarnLogDom(null, httpServerMock.completeUrl(logUrl), type, 0, -1);
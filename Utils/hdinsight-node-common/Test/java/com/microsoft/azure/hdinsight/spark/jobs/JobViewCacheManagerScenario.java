@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.spark.jobs.JobViewCacheManager.StageTasksSnapshot;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JobViewCacheManagerScenario {
+    private List<Stage> stages;
+    private StageTasksSnapshot snapshot;
+    private List<String> fetchedStages;
+    private Exception fetchException;
+
+    @Before
+    public void setUp() {
+        stages = new ArrayList<>();
+        snapshot = StageTasksSnapshot.EMPTY;
+        fetchedStages = new CopyOnWriteArrayList<>();
+        fetchException = null;
+    }
+
+    @Given("^the Spark application has stages:$")
+    public void setStages(DataTable table) {
+        stages = table.asMaps().stream()
+                .map(this::toStage)
+                .collect(Collectors.toList());
+    }
+
+    @When("^fetch the stage tasks snapshot( failing for stage (\\d+))?$")
+    public void fetchSnapshot(String failing, Integer failingStageId) {
+        fetchedStages.clear();
+
+        try {
+            snapshot = StageTasksSnapshot.fetch(stages, snapshot, stage -> {
+                fetchedStages.add(stage.getStageId() + "_" + stage.getAttemptId());
+
+                if (failingStageId != null && failingStageId == stage.getStageId()) {
+                    throw new IOException("Failed to get the tasks of stage " + stage.getStageId());
+                }
+
+                final Task task = new Task();
+                task.setTaskId(stage.getStageId() + "." + stage.getNumCompleteTasks());
+                return Collections.singletonList(task);
+            });
+        } catch (Exception ex) {
+            fetchException = ex;
+        }
+    }
+
+    @Then("^the stage tasks of '(.*)' should be fetched$")
+    public void checkFetchedStages(String stageKeys) {
+        assertThat(fetchedStages).containsExactlyInAnyOrderElementsOf(
+                stageKeys.isEmpty() ? Collections.emptyList() : Arrays.asList(stageKeys.split(",")));
+    }
+
+    @Then("^the stage tasks snapshot should have tasks '(.*)'$")
+    public void checkSnapshotTasks(String taskIds) {
+        assertThat(snapshot.getAllTasks().stream().map(Task::getTaskId).collect(Collectors.toList()))
+                .containsExactly(taskIds.split(","));
+    }
+
+    @Then("^fetching the stage tasks snapshot should fail with '(.*)'$")
+    public void checkFetchException(String message) {
+        if (fetchException == null) {
+            fail("Fetching the stage tasks snapshot should fail");
+        }
+
+        assertEquals(message, fetchException.getMessage());
+    }
+
+    private Stage toStage(Map<String, String> row) {
+        final Stage stage = new Stage();
+        stage.setStageId(Integer.parseInt(row.get("stageId")));
+        stage.setAttemptId(Integer.parseInt(row.get("attemptId")));
+        stage.setStatus(row.get("status"));
+        stage.setNumActiveTasks(Integer.parseInt(row.get("numActiveTasks")));
+        stage.setNumCompleteTasks(Integer.parseInt(row.get("numCompleteTasks")));
+        stage.setNumFailedTasks(Integer.parseInt(row.get("numFailedTasks")));
+
+        return stage;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.sun.net.httpserver.HttpServer;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class JobViewHttpServerScenario {
+    private static final String TASKS_QUERY = "?cluster-name=test&http-type=spark&appId=application_1_0001";
+
+    private HttpServer server;
+    private JobViewCacheManager.Versioned<List<Task>> tasks;
+    private String staleETag;
+    private HttpURLConnection connection;
+    private byte[] body;
+    private LoadingCache<String, String> cache;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tasks_summary", httpExchange -> JobUtils.setJsonResponse(
+                httpExchange,
+                SparkJobHttpHandler.getPage(httpExchange, JobRequestDetails.getJobRequestDetail(httpExchange), tasks.getValue()),
+                tasks.getETag()));
+        server.createContext("/cache_stats", httpExchange -> JobUtils.setJsonResponse(
+                httpExchange,
+                SparkJobHttpHandler.getCacheStatsSummary(ImmutableMap.of("testCache", cache.stats())),
+                null));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (connection != null) {
+            connection.disconnect();
+        }
+
+        server.stop(0);
+    }
+
+    @Given("^the job view HTTP server serves (\\d+) tasks$")
+    public void serveTasks(int count) {
+        tasks = new JobViewCacheManager.Versioned<>(IntStream.range(0, count)
+                .mapToObj(i -> {
+                    final Task task = new Task();
+                    task.setTaskId(String.valueOf(i));
+                    task.setHost("wn" + (i % 4) + "-test.internal.cloudapp.net");
+                    return task;
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Given("^the job view HTTP server tasks are reloaded$")
+    public void reloadTasks() {
+        staleETag = tasks.getETag();
+        tasks = new JobViewCacheManager.Versioned<>(tasks.getValue());
+    }
+
+    @Given("^the job view HTTP server caches are got with keys '(.*)'$")
+    public void getCaches(String keys) {
+        cache = CacheBuilder.newBuilder()
+                .recordStats()
+                .build(CacheLoader.from(String::toUpperCase));
+
+        Arrays.stream(keys.split(",")).forEach(cache::getUnchecked);
+    }
+
+    @When("^request the job view cache statistics$")
+    public void requestCacheStats() throws IOException {
+        final URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/cache_stats" + TASKS_QUERY);
+        connection = (HttpURLConnection) url.openConnection();
+
+        try (InputStream in = connection.getInputStream()) {
+            body = IOUtils.toByteArray(in);
+        }
+    }
+
+    @Then("^the job view cache statistics should have (\\d+) hits, (\\d+) misses and (\\d+) loads$")
+    public void checkCacheStats(long hitCount, long missCount, long loadCount) throws IOException {
+        final Map<?, ?> stats = (Map<?, ?>) new ObjectMapper().readValue(body, Map.class).get("testCache");
+
+        assertEquals(hitCount, ((Number) stats.get("hitCount")).longValue());
+        assertEquals(missCount, ((Number) stats.get("missCount")).longValue());
+        assertEquals(loadCount, ((Number) stats.get("loadSuccessCount")).longValue());
+        assertThat(stats).containsKeys("hitRate", "loadExceptionCount", "averageLoadMillis", "evictionCount");
+    }
+
+    @When("^request the job view tasks with query '(.*)', gzip accepted (true|false) and If-None-Match '(.*)'$")
+    public void requestTasks(String query, boolean isGzipAccepted, String ifNoneMatch) throws IOException {
+        final URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/tasks_summary" + TASKS_QUERY + query);
+        connection = (HttpURLConnection) url.openConnection();
+
+        if (isGzipAccepted) {
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+        }
+
+        if (!ifNoneMatch.isEmpty()) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch
+                    .replace("<current>", tasks.getETag())
+                    .replace("<stale>", String.valueOf(staleETag)));
+        }
+
+        if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+            try (InputStream in = connection.getInputStream()) {
+                body = IOUtils.toByteArray(in);
+            }
+        } else {
+            body = new byte[0];
+        }
+    }
+
+    @Then("^the job view response status should be (\\d+)$")
+    public void checkStatus(int status) throws IOException {
+        assertEquals(status, connection.getResponseCode());
+    }
+
+    @Then("^the job view response should have the current ETag and (gzip|no) content encoding$")
+    public void checkHeaders(String encoding) {
+        assertEquals(tasks.getETag(), connection.getHeaderField("ETag"));
+        assertEquals(encoding.equals("gzip") ? "gzip" : null, connection.getHeaderField("Content-Encoding"));
+    }
+
+    @Then("^the job view response should have the tasks from (\\d+) to (\\d+)$")
+    public void checkTasks(int from, int to) throws IOException {
+        final byte[] json = "gzip".equals(connection.getHeaderField("Content-Encoding"))
+                ? IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body)))
+                : body;
+        final List<?> tasksGot = new ObjectMapper().readValue(json, List.class);
+
+        assertThat(tasksGot.stream().map(task -> ((Map<?, ?>) task).get("taskId")).collect(Collectors.toList()))
+                .containsExactlyElementsOf(IntStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.toList()));
+    }
+
+    @Then("^the job view response header '(.+)' should be '(.*)'$")
+    public void checkHeader(String name, String value) {
+        assertEquals(value.isEmpty() ? null : value, connection.getHeaderField(name));
+    }
+}
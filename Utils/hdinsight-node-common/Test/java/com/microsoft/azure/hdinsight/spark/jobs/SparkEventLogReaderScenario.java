@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SparkEventLogReaderScenario {
+    private static final String ENTRY_NAME = "application_1492415936046_0015_1";
+
+    private List<String> lines;
+    private String incompleteLine;
+    private SparkEventLogIndex index;
+    private Map<String, List<String>> eventsGot;
+    private IOException error;
+
+    @Before
+    public void setUp() {
+        lines = new ArrayList<>();
+        incompleteLine = "";
+        index = new SparkEventLogIndex(ENTRY_NAME);
+        eventsGot = null;
+        error = null;
+    }
+
+    @Given("^the Spark event log to read has lines:$")
+    public void setLines(List<String> newLines) {
+        lines = new ArrayList<>(newLines);
+        incompleteLine = "";
+    }
+
+    @Given("^the Spark event log to read is appended with lines:$")
+    public void appendLines(List<String> newLines) {
+        if (!incompleteLine.isEmpty()) {
+            // The line being written is completed
+            lines.add(incompleteLine);
+            incompleteLine = "";
+        }
+
+        lines.addAll(newLines);
+    }
+
+    @Given("^the Spark event log to read is appended with an incomplete line '(.+)'$")
+    public void appendIncompleteLine(String line) {
+        incompleteLine = line;
+    }
+
+    @Given("^the Spark event log to read is appended with a '(.+)' event after a (\\d+) bytes field$")
+    public void appendLongPrefixLine(String eventType, int fieldLength) {
+        lines.add(String.format("{\"Stage Info\":{\"Details\":\"%s\"},\"Event\":\"%s\"}",
+                                StringUtils.repeat('a', fieldLength), eventType));
+    }
+
+    @Given("^the Spark event log to read is truncated to (\\d+) lines$")
+    public void truncate(int count) {
+        lines = new ArrayList<>(lines.subList(0, count));
+        incompleteLine = "";
+    }
+
+    @Given("^the Spark event log index is saved and loaded again$")
+    public void saveAndLoadIndex() throws IOException {
+        final File indexFile = Files.createTempFile("spark-event-log", ".index").toFile();
+        indexFile.deleteOnExit();
+
+        index.save(indexFile);
+        index = SparkEventLogIndex.load(indexFile, ENTRY_NAME);
+    }
+
+    @When("^SparkEventLogReader reads '(.+)' events$")
+    public void readEvents(String eventType) throws IOException {
+        final SparkEventLogReader reader = new SparkEventLogReader(Collections.singleton(eventType));
+
+        try {
+            eventsGot = reader.read(new ByteArrayInputStream(getContent()), index);
+            error = null;
+        } catch (SparkEventLogReader.StaleIndexException ex) {
+            eventsGot = null;
+            error = ex;
+        }
+    }
+
+    @Then("^SparkEventLogReader should get '(.+)' events:$")
+    public void checkEvents(String eventType, List<String> expected) {
+        assertNull("Unexpected failure: " + error, error);
+        assertThat(eventsGot.getOrDefault(eventType, Collections.emptyList())).containsExactlyElementsOf(expected);
+    }
+
+    @Then("^SparkEventLogReader should get (\\d+) '(.+)' events$")
+    public void checkEventsCount(int count, String eventType) {
+        assertNull("Unexpected failure: " + error, error);
+        assertEquals(count, eventsGot.getOrDefault(eventType, Collections.emptyList()).size());
+    }
+
+    @Then("^SparkEventLogReader should fail for the stale index$")
+    public void checkStaleIndex() {
+        assertNotNull(error);
+    }
+
+    @Then("^the Spark event log index should have (\\d+) '(.+)' ranges and scanned (\\d+) lines$")
+    public void checkIndex(int rangesCount, String eventType, int scannedLines) {
+        long scannedBytes = 0;
+        for (final String line : lines.subList(0, scannedLines)) {
+            scannedBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+
+        assertEquals(rangesCount, index.getEventRanges(eventType).size());
+        assertEquals(scannedBytes, index.getScannedBytes());
+    }
+
+    @Then("^the Spark event log index should be indexed for '(.+)' but not for '(.+)'$")
+    public void checkIndexedEventTypes(String indexedType, String notIndexedType) {
+        assertThat(index.isIndexed(Collections.singleton(indexedType))).isTrue();
+        assertThat(index.isIndexed(Collections.singleton(notIndexedType))).isFalse();
+    }
+
+    private byte[] getContent() {
+        final StringBuilder content = new StringBuilder();
+        lines.forEach(line -> content.append(line).append('\n'));
+        content.append(incompleteLine);
+
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,23 @@
+Feature: ADLSGen2Deploy chunked upload unit test
+
+  Scenario: ADLSGen2Deploy uploads the artifact in chunks
+    Given the artifact to deploy to ADLS Gen2 has 10 bytes
+    When deploy the artifact to ADLS Gen2
+    Then deploying the artifact to ADLS Gen2 should succeed
+    And the ADLS Gen2 file should be created
+    And the ADLS Gen2 data should be appended at positions '0,4,8'
+    And the ADLS Gen2 file flushed should be the file created by the first deployment
+
+  Scenario: ADLSGen2Deploy resumes the failed upload and only sends the rest chunks
+    Given the artifact to deploy to ADLS Gen2 has 20 bytes
+    And appending data to ADLS Gen2 at position 8 fails
+    When deploy the artifact to ADLS Gen2
+    Then deploying the artifact to ADLS Gen2 should fail
+    And the ADLS Gen2 file should be created
+    And the ADLS Gen2 data should be appended at positions '0,4'
+    Given appending data to ADLS Gen2 is recovered
+    When deploy the artifact to ADLS Gen2
+    Then deploying the artifact to ADLS Gen2 should succeed
+    And the ADLS Gen2 file should be not created
+    And the ADLS Gen2 data should be appended at positions '8,12,16'
+    And the ADLS Gen2 file flushed should be the file created by the first deployment
@@ -0,0 +1,62 @@
+Feature: ArtifactDeploymentManifest unit test
+
+  Scenario: ArtifactDeploymentManifest reuses the deployed artifact with the same content
+    Given the artifact to deploy has content 'spark dependency'
+    And the remote artifact deployed has the same length as the local artifact
+    When deploy the artifact with the manifest
+    Then the artifact should be uploaded 1 time
+    And the artifact deployed URI should be 'abfss://fs@account.dfs.core.windows.net/1'
+    And the artifact content key should be its name and SHA-256
+    Given the artifact deployment manifest is reloaded
+    When deploy the artifact with the manifest
+    Then the artifact should be uploaded 1 time
+    And the artifact deployed URI should be 'abfss://fs@account.dfs.core.windows.net/1'
+
+  Scenario: ArtifactDeploymentManifest uploads the changed artifact again
+    Given the artifact to deploy has content 'spark dependency'
+    And the remote artifact deployed has the same length as the local artifact
+    When deploy the artifact with the manifest
+    Given the artifact to deploy has content 'spark dependency v2'
+    And the remote artifact deployed has the same length as the local artifact
+    When deploy the artifact with the manifest
+    Then the artifact should be uploaded 2 times
+    And the artifact deployed URI should be 'abfss://fs@account.dfs.core.windows.net/2'
+
+  Scenario: ArtifactDeploymentManifest uploads the artifact again if the remote length mismatches
+    Given the artifact to deploy has content 'spark dependency'
+    And the remote artifact deployed has the same length as the local artifact
+    When deploy the artifact with the manifest
+    Given the remote artifact deployed has length 3
+    When deploy the artifact with the manifest
+    Then the artifact should be uploaded 2 times
+    And the artifact deployed URI should be 'abfss://fs@account.dfs.core.windows.net/2'
+    And the artifact deployment manifest should record 'abfss://fs@account.dfs.core.windows.net/2' for the artifact
+
+  Scenario: ArtifactDeploymentManifest forgets the stale artifact even if the upload fails
+    Given the artifact to deploy has content 'spark dependency'
+    And the remote artifact deployed has the same length as the local artifact
+    When deploy the artifact with the manifest
+    Given the remote artifact deployed has length 3
+    And the artifact upload fails
+    When deploy the artifact with the manifest
+    Then the artifact should be uploaded 1 time
+    And the artifact deployed URI should be ''
+    And the artifact deployment manifest should record '' for the artifact
+    Given the artifact deployment manifest is reloaded
+    Then the artifact deployment manifest should record '' for the artifact
+
+  Scenario: ArtifactDeploymentManifest drops the target with the blank URI when loading
+    Given the artifact deployment manifest file has content '{"stale":{"a.jar:1":""},"other":{"b.jar:2":"abfss://fs@account.dfs.core.windows.net/b.jar"}}'
+    Then the artifact deployment manifest should record '' for 'a.jar:1' of the target 'stale'
+    And the artifact deployment manifest should record 'abfss://fs@account.dfs.core.windows.net/b.jar' for 'b.jar:2' of the target 'other'
+
+  Scenario: ArtifactDeploymentManifest evicts the least recently deployed artifacts
+    Given the artifacts 0 to 199 are recorded to the target
+    And the artifact 'artifact0.jar:0' is recorded to the target again
+    And the artifacts 200 to 200 are recorded to the target
+    Then the artifact 'artifact0.jar:0' should be recorded
+    And the artifact 'artifact1.jar:1' should be evicted
+    And the artifact 'artifact2.jar:2' should be recorded
+    Given the artifact deployment manifest is reloaded
+    Then the artifact 'artifact0.jar:0' should be recorded
+    And the artifact 'artifact1.jar:1' should be evicted
@@ -0,0 +1,49 @@
+Feature: JobViewCacheManager stage tasks snapshot unit test
+
+  Scenario: JobViewCacheManager fetches the tasks of all stages for the first snapshot
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | COMPLETE | 0              | 4                | 0              |
+      | 1       | 0         | ACTIVE   | 2              | 1                | 0              |
+    When fetch the stage tasks snapshot
+    Then the stage tasks of '0_0,1_0' should be fetched
+    And the stage tasks snapshot should have tasks '0.4,1.1'
+
+  Scenario: JobViewCacheManager only refetches the tasks of the changed stages
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | COMPLETE | 0              | 4                | 0              |
+      | 1       | 0         | ACTIVE   | 2              | 1                | 0              |
+      | 2       | 0         | PENDING  | 0              | 0                | 0              |
+    And fetch the stage tasks snapshot
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | COMPLETE | 0              | 4                | 0              |
+      | 1       | 0         | ACTIVE   | 1              | 2                | 0              |
+      | 2       | 0         | PENDING  | 0              | 0                | 0              |
+      | 2       | 1         | ACTIVE   | 1              | 0                | 0              |
+    When fetch the stage tasks snapshot
+    Then the stage tasks of '1_0,2_1' should be fetched
+    And the stage tasks snapshot should have tasks '0.4,1.2,2.0,2.0'
+
+  Scenario: JobViewCacheManager never refetches the tasks of the finished stages
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | FAILED   | 0              | 3                | 1              |
+      | 1       | 0         | SKIPPED  | 0              | 0                | 0              |
+    And fetch the stage tasks snapshot
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | FAILED   | 0              | 4                | 1              |
+      | 1       | 0         | SKIPPED  | 0              | 0                | 0              |
+    When fetch the stage tasks snapshot
+    Then the stage tasks of '' should be fetched
+    And the stage tasks snapshot should have tasks '0.3,1.0'
+
+  Scenario: JobViewCacheManager fails the snapshot if any stage tasks fetching fails
+    Given the Spark application has stages:
+      | stageId | attemptId | status   | numActiveTasks | numCompleteTasks | numFailedTasks |
+      | 0       | 0         | ACTIVE   | 1              | 0                | 0              |
+      | 1       | 0         | ACTIVE   | 1              | 0                | 0              |
+    When fetch the stage tasks snapshot failing for stage 1
+    Then fetching the stage tasks snapshot should fail with 'Failed to get the tasks of stage 1'
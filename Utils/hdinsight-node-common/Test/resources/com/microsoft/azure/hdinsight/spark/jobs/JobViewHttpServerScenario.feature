@@ -0,0 +1,46 @@
+Feature: JobViewHttpServer JSON response unit test
+
+  Scenario: JobViewHttpServer streams the JSON response with the entity tag
+    Given the job view HTTP server serves 100 tasks
+    When request the job view tasks with query '', gzip accepted false and If-None-Match ''
+    Then the job view response status should be 200
+    And the job view response should have the current ETag and no content encoding
+    And the job view response should have the tasks from 0 to 100
+    And the job view response header 'X-Total-Count' should be ''
+
+  Scenario: JobViewHttpServer gzips the JSON response if it's accepted
+    Given the job view HTTP server serves 100 tasks
+    When request the job view tasks with query '', gzip accepted true and If-None-Match ''
+    Then the job view response status should be 200
+    And the job view response should have the current ETag and gzip content encoding
+    And the job view response should have the tasks from 0 to 100
+
+  Scenario: JobViewHttpServer responds not modified for the current entity tag only
+    Given the job view HTTP server serves 100 tasks
+    When request the job view tasks with query '', gzip accepted true and If-None-Match '<current>'
+    Then the job view response status should be 304
+    When request the job view tasks with query '', gzip accepted true and If-None-Match '"other", W/<current>'
+    Then the job view response status should be 304
+    When request the job view tasks with query '', gzip accepted true and If-None-Match '"other"'
+    Then the job view response status should be 200
+    Given the job view HTTP server tasks are reloaded
+    When request the job view tasks with query '', gzip accepted true and If-None-Match '<stale>'
+    Then the job view response status should be 200
+    And the job view response should have the current ETag and gzip content encoding
+
+  Scenario: JobViewHttpServer responds the page of tasks with the total count
+    Given the job view HTTP server serves 100 tasks
+    When request the job view tasks with query '&offset=20&limit=30', gzip accepted false and If-None-Match ''
+    Then the job view response status should be 200
+    And the job view response should have the tasks from 20 to 50
+    And the job view response header 'X-Total-Count' should be '100'
+    When request the job view tasks with query '&offset=90&limit=30', gzip accepted false and If-None-Match ''
+    Then the job view response should have the tasks from 90 to 100
+    When request the job view tasks with query '&offset=200&limit=30', gzip accepted false and If-None-Match ''
+    Then the job view response should have the tasks from 100 to 100
+
+  Scenario: JobViewHttpServer responds the cache statistics
+    Given the job view HTTP server caches are got with keys 'a,b,a,c,a'
+    When request the job view cache statistics
+    Then the job view response status should be 200
+    And the job view cache statistics should have 2 hits, 3 misses and 3 loads
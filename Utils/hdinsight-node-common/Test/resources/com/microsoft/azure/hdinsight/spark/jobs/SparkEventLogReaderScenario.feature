@@ -0,0 +1,78 @@
+Feature: SparkEventLogReader and SparkEventLogIndex unit test
+
+  Scenario: SparkEventLogReader reads the wanted events and indexes them
+    Given the Spark event log to read has lines:
+      | {"Event":"SparkListenerApplicationStart","App Name":"app"} |
+      | {"Event":"SparkListenerJobStart","Job ID":0}               |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0}              |
+      | {"Event":"SparkListenerJobStart","Job ID":1}               |
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 'SparkListenerJobStart' events:
+      | {"Event":"SparkListenerJobStart","Job ID":0} |
+      | {"Event":"SparkListenerJobStart","Job ID":1} |
+    And the Spark event log index should have 2 'SparkListenerJobStart' ranges and scanned 4 lines
+    And the Spark event log index should be indexed for 'SparkListenerJobStart' but not for 'SparkListenerTaskEnd'
+
+  Scenario: SparkEventLogReader reads the indexed events and only scans the new tail
+    Given the Spark event log to read has lines:
+      | {"Event":"SparkListenerJobStart","Job ID":0}  |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0} |
+    And SparkEventLogReader reads 'SparkListenerJobStart' events
+    And the Spark event log index is saved and loaded again
+    And the Spark event log to read is appended with lines:
+      | {"Event":"SparkListenerTaskEnd","Stage ID":1} |
+      | {"Event":"SparkListenerJobStart","Job ID":1}  |
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 'SparkListenerJobStart' events:
+      | {"Event":"SparkListenerJobStart","Job ID":0} |
+      | {"Event":"SparkListenerJobStart","Job ID":1} |
+    And the Spark event log index should have 2 'SparkListenerJobStart' ranges and scanned 4 lines
+
+  Scenario: SparkEventLogReader reads the incomplete last line without indexing it
+    Given the Spark event log to read has lines:
+      | {"Event":"SparkListenerJobStart","Job ID":0} |
+    And the Spark event log to read is appended with an incomplete line '{"Event":"SparkListenerJobStart","Job ID":1}'
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 2 'SparkListenerJobStart' events
+    And the Spark event log index should have 1 'SparkListenerJobStart' ranges and scanned 1 lines
+    Given the Spark event log to read is appended with lines:
+      | {"Event":"SparkListenerJobStart","Job ID":2} |
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 'SparkListenerJobStart' events:
+      | {"Event":"SparkListenerJobStart","Job ID":0} |
+      | {"Event":"SparkListenerJobStart","Job ID":1} |
+      | {"Event":"SparkListenerJobStart","Job ID":2} |
+    And the Spark event log index should have 3 'SparkListenerJobStart' ranges and scanned 3 lines
+
+  Scenario: SparkEventLogReader parses the line whose event type is not in the prefix
+    Given the Spark event log to read is appended with a 'SparkListenerJobStart' event after a 1024 bytes field
+    And the Spark event log to read is appended with a 'SparkListenerTaskEnd' event after a 1024 bytes field
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 1 'SparkListenerJobStart' events
+    And the Spark event log index should have 1 'SparkListenerJobStart' ranges and scanned 2 lines
+
+  Scenario: SparkEventLogReader fails for the event log shorter than indexed and resets the index
+    Given the Spark event log to read has lines:
+      | {"Event":"SparkListenerJobStart","Job ID":0}  |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0} |
+      | {"Event":"SparkListenerJobStart","Job ID":1}  |
+    And SparkEventLogReader reads 'SparkListenerJobStart' events
+    And the Spark event log to read is truncated to 2 lines
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should fail for the stale index
+    And the Spark event log index should have 0 'SparkListenerJobStart' ranges and scanned 0 lines
+    When SparkEventLogReader reads 'SparkListenerJobStart' events
+    Then SparkEventLogReader should get 'SparkListenerJobStart' events:
+      | {"Event":"SparkListenerJobStart","Job ID":0} |
+    And the Spark event log index should have 1 'SparkListenerJobStart' ranges and scanned 2 lines
+
+  Scenario: SparkEventLogReader rebuilds the index for other event types
+    Given the Spark event log to read has lines:
+      | {"Event":"SparkListenerJobStart","Job ID":0}  |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0} |
+    And SparkEventLogReader reads 'SparkListenerJobStart' events
+    When SparkEventLogReader reads 'SparkListenerTaskEnd' events
+    Then SparkEventLogReader should get 'SparkListenerTaskEnd' events:
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0} |
+    And the Spark event log index should have 0 'SparkListenerJobStart' ranges and scanned 2 lines
+    And the Spark event log index should be indexed for 'SparkListenerTaskEnd' but not for 'SparkListenerJobStart'
@@ -42,6 +42,7 @@ public class CommonConst {
     public static final String ToolWindowSparkJobDebugIcon_16x_Path = "/icons/ToolWindowSparkJobDebug.png";
 
     public static final String ENABLE_HDINSIGHT_NEW_SDK = "Enable.HDInsight.New.SDK";
+    public static final String ENABLE_LIVY_SESSION_PREWARM = "Enable.Livy.Session.Prewarm";
     public static final String HDINSIGHT_ADDITIONAL_CLUSTERS = "com.microsoft.azure.hdinsight.AdditionalClusters";
     public static final String HDINSIGHT_ADDITIONAL_MFA_CLUSTERS = "com.microsoft.azure.hdinsight.AdditionalMfaClusters";
     public static final String HDINSIGHT_LIVY_LINK_CLUSTERS = "com.microsoft.azure.hdinsight.LivyLinkClusters";
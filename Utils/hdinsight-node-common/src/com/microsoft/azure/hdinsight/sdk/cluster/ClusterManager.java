@@ -9,8 +9,11 @@ import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.ClusterOperationNewAPIImpl;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
 import com.microsoft.azure.hdinsight.sdk.common.AuthType;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
+import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
@@ -20,8 +23,14 @@ import rx.schedulers.Schedulers;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
 
 public class ClusterManager implements ILogger {
+    /**
+     * The maximum count of the clusters probed concurrently
+     */
+    public static final int MAX_CONCURRENT_PROBES = 16;
+
     // Singleton Instance
     private static ClusterManager instance = null;
 
@@ -55,6 +64,9 @@ public class ClusterManager implements ILogger {
     /**
      * get hdinsight detailed cluster info list with specific cluster type: Spark and RServer
      *
+     * The clusters are probed concurrently with at most {@link #MAX_CONCURRENT_PROBES} probes in flight, and the
+     * probe results are cached in {@link ClusterMetadataCache}, so only the new or changed clusters are probed.
+     *
      * @param subscriptions
      * @return detailed cluster info list with specific cluster type
      */
@@ -78,22 +90,12 @@ public class ClusterManager implements ILogger {
                                             || rawClusterType.equals(ClusterType.spark))
                                                 && StringUtils.equalsIgnoreCase(rawOsType, osType);
                                 })
-                                .flatMap(clusterRawInfo -> {
-                                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
-                                    if (isHDInsightNewSDKEnabled()) {
-                                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
-                                                // Run the time-consuming probe job concurrently in IO thread
-                                                .subscribeOn(Schedulers.io())
-                                                .map(isProbeSucceed -> isProbeSucceed
-                                                        ? (isMfaEspCluster(clusterRawInfo)
-                                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
-                                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
-                                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    } else {
-                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    }
-                                })
+                                .map(clusterRawInfo -> new SimpleImmutableEntry<>(subscriptionDetail, clusterRawInfo))
                 )
+                // Limit the concurrent probes among all subscriptions
+                .flatMap(subscriptionAndCluster -> createClusterDetail(subscriptionAndCluster.getKey(),
+                                                                       subscriptionAndCluster.getValue()),
+                         MAX_CONCURRENT_PROBES)
                 .doOnNext(clusterDetail -> {
                     String debugMsg = String.format("Thread: %s. Sub: %s. Cluster: %s",
                             Thread.currentThread().getName(),
@@ -101,7 +103,48 @@ public class ClusterManager implements ILogger {
                             clusterDetail.getName());
                     log().info(debugMsg);
                 })
-                .toList();
+                .toList()
+                .doOnNext(clusters -> ClusterMetadataCache.getInstance().save());
+    }
+
+    private Observable<ClusterDetail> createClusterDetail(@NotNull Subscription subscriptionDetail,
+                                                          @NotNull ClusterRawInfo clusterRawInfo) {
+        if (!isHDInsightNewSDKEnabled()) {
+            return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
+        }
+
+        ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
+        ClusterMetadataCache.ClusterMetadata metadata = ClusterMetadataCache.getInstance().get(clusterRawInfo);
+        Boolean cachedProbeSucceed = metadata.getProbeSucceed();
+        // The role type is of the signed in user, which is probed again for another account
+        String accountKey = ClusterMetadataCache.ClusterMetadata.getAccountKey(
+                Azure.az(AzureAccount.class).account().getUsername(), subscriptionDetail.getTenantId());
+        HDInsightUserRoleType cachedRoleType = metadata.getRoleType(accountKey);
+
+        Observable<Boolean> probeSucceed;
+        if (cachedProbeSucceed != null && cachedRoleType != null) {
+            // Restore the role type determined by the probe
+            probeClusterNewApiOperation.setRoleType(cachedRoleType);
+            probeSucceed = Observable.just(cachedProbeSucceed);
+        } else {
+            probeSucceed = isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
+                    // Run the time-consuming probe job concurrently in IO thread
+                    .subscribeOn(Schedulers.io())
+                    .doOnNext(isProbeSucceed -> {
+                        // Only the succeeded probe is cached, the failure could be temporary
+                        if (isProbeSucceed && probeClusterNewApiOperation.getRoleType() != null) {
+                            metadata.setRoleType(accountKey, probeClusterNewApiOperation.getRoleType());
+                            metadata.setProbeSucceed(true);
+                        }
+                    });
+        }
+
+        return probeSucceed
+                .map(isProbeSucceed -> isProbeSucceed
+                        ? (isMfaEspCluster(clusterRawInfo)
+                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
+                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
+                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
     }
 
     public boolean isHDInsightNewSDKEnabled() {
@@ -125,10 +168,21 @@ public class ClusterManager implements ILogger {
             return rolesOption.get().stream().anyMatch(role -> role.getName().equalsIgnoreCase("idbrokernode"));
         }
 
-        // Fallback way is to challenge the authentication type
+        // Fallback way is to challenge the authentication type, which is cached since it's a blocking HTTP request
+        ClusterMetadataCache.ClusterMetadata metadata = ClusterMetadataCache.getInstance().get(rawInfo);
+        if (metadata.getMfaEsp() != null) {
+            return metadata.getMfaEsp();
+        }
+
         try {
-            return SparkBatchSubmission.getInstance().probeAuthType(
-                    ClusterManagerEx.getInstance().getClusterConnectionString(rawInfo.getName())) == AuthType.AADAuth;
+            AuthType authType = SparkBatchSubmission.getInstance().probeAuthType(
+                    ClusterManagerEx.getInstance().getClusterConnectionString(rawInfo.getName()));
+            boolean isMfaEsp = authType == AuthType.AADAuth;
+
+            metadata.setAuthType(authType);
+            metadata.setMfaEsp(isMfaEsp);
+
+            return isMfaEsp;
         } catch (IOException ex) {
             log().warn("Can't probe HDInsight cluster authentication type: " + rawInfo.getId(), ex);
 
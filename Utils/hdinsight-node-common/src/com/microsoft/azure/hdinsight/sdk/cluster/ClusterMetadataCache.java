@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.common.HDInsightLoader;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
+import com.microsoft.azure.hdinsight.sdk.common.AuthType;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The persistent HDInsight cluster metadata cache, keyed by the cluster resource ID, which keeps the time-consuming
+ * probe results (the new API probe, the user role type, the authentication type and the MFA/ESP flag) of a cluster
+ * until the cluster ETag changes or the entry expires, so that the explorer refreshing only probes the clusters
+ * which are new or changed. The user role type depends on who signed in, so it's kept for each account and tenant.
+ *
+ * The cache is saved as `{pluginRoot}/HDInsight/cluster-metadata.json`.
+ */
+public class ClusterMetadataCache implements ILogger {
+    /**
+     * The time to live of the cached metadata, in case the cluster is changed without ETag changing
+     */
+    public static final long ENTRY_TTL_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String CACHE_FILE = "HDInsight/cluster-metadata.json";
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final ClusterMetadataCache INSTANCE = new ClusterMetadataCache(
+                new File(HDInsightLoader.getHDInsightHelper().getPluginRootPath(), CACHE_FILE));
+    }
+
+    public static ClusterMetadataCache getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final File cacheFile;
+
+    @NotNull
+    private final Map<String, ClusterMetadata> metadataById = new ConcurrentHashMap<>();
+
+    ClusterMetadataCache(@NotNull File cacheFile) {
+        this.cacheFile = cacheFile;
+
+        load();
+    }
+
+    /**
+     * Get the metadata of the cluster, the outdated one is replaced with an empty metadata to fill
+     *
+     * @param rawInfo the cluster raw info got by listing clusters
+     * @return the metadata of the cluster, which is updated in place
+     */
+    @NotNull
+    public ClusterMetadata get(@NotNull ClusterRawInfo rawInfo) {
+        final String etag = StringUtils.defaultString(rawInfo.getEtag());
+
+        if (rawInfo.getId() == null) {
+            return new ClusterMetadata(etag);
+        }
+
+        return metadataById.compute(StringUtils.lowerCase(rawInfo.getId()), (id, metadata) ->
+                metadata != null && metadata.isValid(etag) ? metadata : new ClusterMetadata(etag));
+    }
+
+    private void load() {
+        if (!cacheFile.isFile()) {
+            return;
+        }
+
+        try {
+            final Map<String, ClusterMetadata> loaded = OBJECT_MAPPER.readValue(
+                    cacheFile, new TypeReference<HashMap<String, ClusterMetadata>>() {});
+
+            if (loaded != null) {
+                loaded.forEach((id, metadata) -> {
+                    if (id != null && metadata != null) {
+                        metadataById.put(id, metadata);
+                    }
+                });
+            }
+        } catch (IOException ex) {
+            log().warn("Can't load HDInsight cluster metadata cache " + cacheFile, ex);
+        }
+    }
+
+    /**
+     * Save the cache into file, the expired and empty metadata are dropped. Any failure is logged and ignored since
+     * the clusters will be probed again.
+     */
+    public synchronized void save() {
+        metadataById.values().removeIf(metadata -> !metadata.isValid(metadata.getEtag()) || metadata.isEmpty());
+
+        try {
+            final File folder = cacheFile.getParentFile();
+
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("Can't create folder " + folder);
+            }
+
+            OBJECT_MAPPER.writeValue(cacheFile, new HashMap<>(metadataById));
+        } catch (IOException ex) {
+            log().warn("Can't save HDInsight cluster metadata cache " + cacheFile, ex);
+        }
+    }
+
+    /**
+     * The probe results of a cluster, null fields for not probed yet
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ClusterMetadata {
+        @JsonProperty("etag")
+        private String etag = "";
+
+        @JsonProperty("createdAtMs")
+        private long createdAtMs = System.currentTimeMillis();
+
+        @Nullable
+        @JsonProperty("probeSucceed")
+        private volatile Boolean probeSucceed;
+
+        /**
+         * The user role types keyed by the account and tenant, see {@link #getAccountKey(String, String)}
+         */
+        @JsonProperty("roleTypeByAccount")
+        private final ConcurrentHashMap<String, HDInsightUserRoleType> roleTypeByAccount = new ConcurrentHashMap<>();
+
+        @Nullable
+        @JsonProperty("authType")
+        private volatile AuthType authType;
+
+        @Nullable
+        @JsonProperty("mfaEsp")
+        private volatile Boolean mfaEsp;
+
+        public ClusterMetadata() {
+        }
+
+        ClusterMetadata(@NotNull String etag) {
+            this.etag = etag;
+        }
+
+        @NotNull
+        public String getEtag() {
+            return StringUtils.defaultString(etag);
+        }
+
+        @Nullable
+        public Boolean getProbeSucceed() {
+            return probeSucceed;
+        }
+
+        public void setProbeSucceed(@Nullable Boolean probeSucceed) {
+            this.probeSucceed = probeSucceed;
+        }
+
+        @Nullable
+        public HDInsightUserRoleType getRoleType(@NotNull String accountKey) {
+            return roleTypeByAccount.get(accountKey);
+        }
+
+        public void setRoleType(@NotNull String accountKey, @Nullable HDInsightUserRoleType roleType) {
+            if (roleType == null) {
+                roleTypeByAccount.remove(accountKey);
+            } else {
+                roleTypeByAccount.put(accountKey, roleType);
+            }
+        }
+
+        /**
+         * Get the key of the signed in account to keep its user role type
+         *
+         * @param username the signed in username
+         * @param tenantId the tenant ID of the cluster subscription
+         * @return the account key
+         */
+        @NotNull
+        public static String getAccountKey(@Nullable String username, @Nullable String tenantId) {
+            return StringUtils.lowerCase(StringUtils.defaultString(username) + "@" + StringUtils.defaultString(tenantId));
+        }
+
+        @Nullable
+        public AuthType getAuthType() {
+            return authType;
+        }
+
+        public void setAuthType(@Nullable AuthType authType) {
+            this.authType = authType;
+        }
+
+        @Nullable
+        public Boolean getMfaEsp() {
+            return mfaEsp;
+        }
+
+        public void setMfaEsp(@Nullable Boolean mfaEsp) {
+            this.mfaEsp = mfaEsp;
+        }
+
+        @JsonIgnore
+        boolean isValid(@NotNull String currentEtag) {
+            // The cluster without ETag can't be checked for changes
+            return StringUtils.isNotEmpty(currentEtag)
+                    && StringUtils.equals(getEtag(), currentEtag)
+                    && System.currentTimeMillis() - createdAtMs < ENTRY_TTL_MS;
+        }
+
+        @JsonIgnore
+        boolean isEmpty() {
+            return probeSucceed == null && authType == null && mfaEsp == null;
+        }
+    }
+}
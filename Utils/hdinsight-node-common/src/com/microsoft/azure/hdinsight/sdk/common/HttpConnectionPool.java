@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.TrustStrategy;
+
+import javax.net.ssl.SSLContext;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide pooled HTTP connection managers shared by all {@link HttpObservable} instances.
+ *
+ * There is one pool per SSL setting: the system default one (used by the OAuth token based observables) and
+ * the ones built from the IDE trust strategy (used by the basic auth and shared key observables), so TLS sessions
+ * and sockets are reused across clusters instead of being created per observable instance.
+ *
+ * The pool size can be tuned with the system properties {@value #MAX_TOTAL_PROPERTY} and
+ * {@value #MAX_PER_ROUTE_PROPERTY}.
+ */
+public class HttpConnectionPool implements ILogger {
+    public static final String MAX_TOTAL_PROPERTY = "azure.hdinsight.http.pool.maxTotal";
+    public static final String MAX_PER_ROUTE_PROPERTY = "azure.hdinsight.http.pool.maxPerRoute";
+
+    private static final int DEFAULT_MAX_TOTAL = 200;
+    private static final int DEFAULT_MAX_PER_ROUTE = 20;
+    private static final long IDLE_EVICTION_SECONDS = 30;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    private static final String SYSTEM_POOL_KEY = "system";
+    private static final String TRUSTED_POOL_KEY = "trusted";
+    private static final String TRUSTED_NO_HOSTNAME_VERIFY_POOL_KEY = "trusted-no-hostname-verify";
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final HttpConnectionPool INSTANCE = new HttpConnectionPool();
+    }
+
+    public static HttpConnectionPool getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final Map<String, PoolingHttpClientConnectionManager> connectionManagers = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, IdleConnectionEvictor> evictors = new ConcurrentHashMap<>();
+
+    private HttpConnectionPool() {
+    }
+
+    /**
+     * Get the shared connection manager using the system default SSL socket factory
+     *
+     * @return the shared pooled connection manager
+     */
+    @NotNull
+    public HttpClientConnectionManager getSystemConnectionManager() {
+        return connectionManagers.computeIfAbsent(SYSTEM_POOL_KEY,
+                key -> createConnectionManager(key, SSLConnectionSocketFactory.getSystemSocketFactory()));
+    }
+
+    /**
+     * Get the shared connection manager using the SSL socket factory built from the IDE trust strategy.
+     * Falls back to the system one if there is no trust strategy service or the SSL context can't be prepared.
+     *
+     * @return the shared pooled connection manager
+     */
+    @NotNull
+    public HttpClientConnectionManager getTrustedConnectionManager() {
+        final boolean isHostnameVerifyDisabled = HttpObservable.isSSLCertificateValidationDisabled();
+        final String poolKey = isHostnameVerifyDisabled ? TRUSTED_NO_HOSTNAME_VERIFY_POOL_KEY : TRUSTED_POOL_KEY;
+
+        final PoolingHttpClientConnectionManager existing = connectionManagers.get(poolKey);
+        if (existing != null) {
+            return existing;
+        }
+
+        final SSLConnectionSocketFactory sslSocketFactory = createTrustedSSLSocketFactory(isHostnameVerifyDisabled);
+        if (sslSocketFactory == null) {
+            return getSystemConnectionManager();
+        }
+
+        return connectionManagers.computeIfAbsent(poolKey, key -> createConnectionManager(key, sslSocketFactory));
+    }
+
+    /**
+     * Get the aggregated statistics (leased, pending, available and max) of all shared pools
+     *
+     * @return the pool statistics summary
+     */
+    @NotNull
+    public PoolStats getTotalStats() {
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        int max = 0;
+
+        for (PoolingHttpClientConnectionManager manager : connectionManagers.values()) {
+            final PoolStats stats = manager.getTotalStats();
+            leased += stats.getLeased();
+            pending += stats.getPending();
+            available += stats.getAvailable();
+            max += stats.getMax();
+        }
+
+        return new PoolStats(leased, pending, available, max);
+    }
+
+    /**
+     * Get the statistics of each shared pool, keyed by the pool SSL setting name
+     *
+     * @return the pool name to statistics map
+     */
+    @NotNull
+    public Map<String, PoolStats> getStatsByPool() {
+        final Map<String, PoolStats> statsByPool = new ConcurrentHashMap<>();
+        connectionManagers.forEach((key, manager) -> statsByPool.put(key, manager.getTotalStats()));
+
+        return statsByPool;
+    }
+
+    /**
+     * Close all idle and expired connections of the shared pools immediately
+     */
+    public void closeIdleConnections() {
+        connectionManagers.values().forEach(manager -> {
+            manager.closeExpiredConnections();
+            manager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    @NotNull
+    private PoolingHttpClientConnectionManager createConnectionManager(
+            @NotNull final String poolKey,
+            @NotNull final SSLConnectionSocketFactory sslSocketFactory) {
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+
+        final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        manager.setMaxTotal(Integer.getInteger(MAX_TOTAL_PROPERTY, DEFAULT_MAX_TOTAL));
+        manager.setDefaultMaxPerRoute(Integer.getInteger(MAX_PER_ROUTE_PROPERTY, DEFAULT_MAX_PER_ROUTE));
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        final IdleConnectionEvictor evictor = new IdleConnectionEvictor(
+                manager, IDLE_EVICTION_SECONDS, TimeUnit.SECONDS, IDLE_EVICTION_SECONDS, TimeUnit.SECONDS);
+        evictor.start();
+        evictors.put(poolKey, evictor);
+
+        log().debug("Created shared HTTP connection pool " + poolKey);
+
+        return manager;
+    }
+
+    @Nullable
+    private SSLConnectionSocketFactory createTrustedSSLSocketFactory(final boolean isHostnameVerifyDisabled) {
+        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
+
+        if (ts == null) {
+            return null;
+        }
+
+        try {
+            SSLContext sslContext = new SSLContextBuilder()
+                    .loadTrustMaterial(ts)
+                    .build();
+
+            return new SSLConnectionSocketFactory(
+                    sslContext,
+                    new String[] { "TLSv1.2", "TLSv1.3" },
+                    null,
+                    isHostnameVerifyDisabled
+                            ? NoopHostnameVerifier.INSTANCE
+                            : new DefaultHostnameVerifier());
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
+        }
+
+        return null;
+    }
+}
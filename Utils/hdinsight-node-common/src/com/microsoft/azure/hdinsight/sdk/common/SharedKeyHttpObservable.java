@@ -19,6 +19,7 @@ import org.apache.http.message.HeaderGroup;
 import rx.Observable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -60,18 +61,30 @@ public class SharedKeyHttpObservable extends HttpObservable {
         // We add necessary information to a temporary header group which is used to generate shared keys
         final HeaderGroup headerGroup = new HeaderGroup();
         headerGroup.setHeaders(getDefaultHeaderGroup().getAllHeaders());
+
+        // The request date is refreshed for each request, since the shared key is only valid for 15 minutes
+        final Header dateHeader = new BasicHeader("x-ms-date", Utility.getGMTTime());
+        headerGroup.updateHeader(dateHeader);
         if (entity != null) {
             // We need to set content-length to generate shared key. What need to be point out is that the
             // HttpObservable auto adds this header and calculates length when executing, so the content-length header
             // cannot be added to default header group in case of duplication.
             headerGroup.addHeader(new BasicHeader("Content-Length", String.valueOf(entity.getContentLength())));
+
+            // The content type of request is updated by entity when executing
+            if (entity.getContentType() != null) {
+                headerGroup.updateHeader(entity.getContentType());
+            }
         }
-        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::addHeader);
+        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::updateHeader);
         String key = cred.generateSharedKey(httpRequest, headerGroup, ofNullable(parameters).orElse(emptyList()));
 
-        getDefaultHeaderGroup().updateHeader(new BasicHeader("Authorization", key));
+        // Set the shared key into the request headers, rather than the default ones shared with the concurrent requests
+        final List<Header> headers = new ArrayList<>(ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        headers.add(dateHeader);
+        headers.add(new BasicHeader("Authorization", key));
 
-        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), headers);
     }
 
     @Override
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
+
+/**
+ * The pool of the warm Livy interactive sessions, keyed by the scope and {@link Session#getPoolKey()}, which is the
+ * cluster Livy URL, the user and the session creation parameters.
+ *
+ * Creating a Livy session takes tens of seconds for YARN to start the Spark application, so the session acquired
+ * is handed off from an idle warm session with the same key if there is one, which is health checked before hand-off.
+ * The session acquired can request a replacement to be pre-warmed in the background for the next acquiring, only if
+ * the application property {@link CommonConst#ENABLE_LIVY_SESSION_PREWARM} is true, since the warm session is billed
+ * as a running Spark application. Only the sessions created by the pool are kept idle for reusing when released,
+ * the others are closed.
+ *
+ * The idle sessions are killed after {@link #IDLE_TIMEOUT_MS}, or when the pool is full of {@link #MAX_POOL_SIZE}
+ * sessions, the earliest idle one is killed to make room. The idle sessions left when the IDE exits are killed by
+ * the remote Livy server with its own session timeout, rather than blocking the exiting with the network requests.
+ */
+public class LivySessionPool implements ILogger {
+    /**
+     * The scope for the interactive console sessions, which are handed off to the users
+     */
+    public static final String SCOPE_CONSOLE = "console";
+
+    public static final long IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(10);
+
+    public static final int MAX_POOL_SIZE = 4;
+
+    private static final long SWEEP_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final LivySessionPool INSTANCE = new LivySessionPool();
+    }
+
+    public static LivySessionPool getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * The idle sessions of each key, the earliest idle one is the first
+     */
+    @NotNull
+    private final Map<String, Deque<IdleSession>> idleSessionsByKey = new HashMap<>();
+
+    /**
+     * The keys of the sessions being pre-warmed, to avoid warming the same shape repeatedly
+     */
+    @NotNull
+    private final Map<String, Integer> warmingCountByKey = new HashMap<>();
+
+    private int size = 0;
+
+    private LivySessionPool() {
+        final ScheduledThreadPoolExecutor sweeper = new ScheduledThreadPoolExecutor(1,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("livy-session-pool-%d")
+                        .daemon(true)
+                        .build());
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check whether pre-warming the sessions is enabled by the application property, which is disabled by default
+     */
+    public static boolean isPreWarmEnabled() {
+        return DefaultLoader.getIdeHelper().isApplicationPropertySet(CommonConst.ENABLE_LIVY_SESSION_PREWARM)
+                && Boolean.valueOf(DefaultLoader.getIdeHelper().getApplicationProperty(
+                        CommonConst.ENABLE_LIVY_SESSION_PREWARM));
+    }
+
+    /**
+     * Acquire the remote session for the session instance, by taking over a healthy idle session with the same key,
+     * or by creating a new one.
+     *
+     * @param session the session instance not created yet
+     * @param scope the scope of sessions which are interchangeable, such as {@link #SCOPE_CONSOLE}
+     * @param isWarmingNext true to pre-warm a session with the same key for the next acquiring, if it's enabled
+     * @return the session instance created or taken over, which may be still starting
+     */
+    @NotNull
+    public <T extends Session> Observable<T> acquire(@NotNull final T session,
+                                                     @NotNull final String scope,
+                                                     final boolean isWarmingNext) {
+        return Observable.defer(() -> {
+            final String key = scope + "|" + session.getPoolKey();
+
+            return takeHealthy(key)
+                    .map(warm -> {
+                        session.takeOver(warm);
+                        session.getCtrlSubject().onNext(new SparkLogLine(TOOL, Info, String.format(
+                                "Use the pre-warmed Livy session %d which is %s", session.getId(),
+                                session.getLastState())));
+
+                        return session;
+                    })
+                    .switchIfEmpty(session.create().map(created -> session))
+                    .doOnCompleted(() -> {
+                        if (isWarmingNext && isPreWarmEnabled()) {
+                            warm(key, session);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Release the session acquired, the healthy session created by the pool is kept idle in the pool for reusing,
+     * otherwise it's closed. Either way the session instance is completed as closed.
+     *
+     * @param session the session to release, which shouldn't be used after releasing
+     * @param scope the scope when it's acquired
+     */
+    public void release(@NotNull final Session session, @NotNull final String scope) {
+        if (session.isPooled() && session.isStatementRunnable() && offer(scope + "|" + session.getPoolKey(), session)) {
+            session.detach();
+        } else {
+            session.close();
+        }
+    }
+
+    @NotNull
+    private Observable<Session> takeHealthy(@NotNull final String key) {
+        return Observable.defer(() -> {
+            final Session idle = poll(key);
+
+            if (idle == null) {
+                return Observable.empty();
+            }
+
+            // Health check by getting the latest state, the session may be killed by server or YARN
+            return idle.get()
+                       .last()
+                       .map(Session::isStop)
+                       .onErrorReturn(err -> true)
+                       .flatMap(isStop -> {
+                           if (isStop) {
+                               log().info("Discard the unhealthy pooled Livy session " + idle.getName());
+                               killAsync(idle);
+
+                               return takeHealthy(key);
+                           }
+
+                           return Observable.just(idle);
+                       });
+        });
+    }
+
+    private void warm(@NotNull final String key, @NotNull final Session template) {
+        final Session pooled = template.newPooledSession();
+
+        if (pooled == null) {
+            return;
+        }
+
+        pooled.setPooled();
+
+        synchronized (this) {
+            if (size >= MAX_POOL_SIZE
+                    || warmingCountByKey.getOrDefault(key, 0) > 0
+                    || idleSessionsByKey.containsKey(key)) {
+                return;
+            }
+
+            warmingCountByKey.merge(key, 1, Integer::sum);
+        }
+
+        pooled.create()
+              .subscribeOn(Schedulers.io())
+              .doAfterTerminate(() -> {
+                  synchronized (this) {
+                      warmingCountByKey.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+                  }
+              })
+              .subscribe(created -> {
+                             if (!offer(key, created)) {
+                                 killAsync(created);
+                             }
+                         },
+                         err -> log().warn("Pre-warm Livy session " + pooled.getName() + " failed. " + err));
+    }
+
+    private synchronized boolean offer(@NotNull final String key, @NotNull final Session session) {
+        if (size >= MAX_POOL_SIZE && !evictEarliest()) {
+            return false;
+        }
+
+        idleSessionsByKey.computeIfAbsent(key, k -> new ArrayDeque<>())
+                         .addLast(new IdleSession(session, System.currentTimeMillis()));
+        size++;
+
+        return true;
+    }
+
+    @Nullable
+    private synchronized Session poll(@NotNull final String key) {
+        final Deque<IdleSession> idleSessions = idleSessionsByKey.get(key);
+
+        if (idleSessions == null) {
+            return null;
+        }
+
+        while (!idleSessions.isEmpty()) {
+            // The latest idle one is the most likely alive
+            final IdleSession idle = idleSessions.pollLast();
+            size--;
+
+            if (!idle.isExpired(System.currentTimeMillis())) {
+                if (idleSessions.isEmpty()) {
+                    idleSessionsByKey.remove(key);
+                }
+
+                return idle.session;
+            }
+
+            killAsync(idle.session);
+        }
+
+        idleSessionsByKey.remove(key);
+
+        return null;
+    }
+
+    private boolean evictEarliest() {
+        Deque<IdleSession> earliestSessions = null;
+
+        for (final Deque<IdleSession> idleSessions : idleSessionsByKey.values()) {
+            if (earliestSessions == null
+                    || idleSessions.getFirst().idleSinceMs < earliestSessions.getFirst().idleSinceMs) {
+                earliestSessions = idleSessions;
+            }
+        }
+
+        if (earliestSessions == null) {
+            return false;
+        }
+
+        killAsync(earliestSessions.pollFirst().session);
+        size--;
+        idleSessionsByKey.values().removeIf(Deque::isEmpty);
+
+        return true;
+    }
+
+    private void sweep() {
+        final long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            final Iterator<Deque<IdleSession>> keyIter = idleSessionsByKey.values().iterator();
+
+            while (keyIter.hasNext()) {
+                final Deque<IdleSession> idleSessions = keyIter.next();
+
+                idleSessions.removeIf(idle -> {
+                    if (idle.isExpired(now)) {
+                        killAsync(idle.session);
+                        size--;
+
+                        return true;
+                    }
+
+                    return false;
+                });
+
+                if (idleSessions.isEmpty()) {
+                    keyIter.remove();
+                }
+            }
+        }
+    }
+
+    private void killAsync(@NotNull final Session session) {
+        Observable.fromCallable(() -> {
+                      session.close();
+                      return session;
+                  })
+                  .subscribeOn(Schedulers.io())
+                  .subscribe(closed -> log().debug("Killed the pooled Livy session " + closed.getName()),
+                             err -> log().warn("Kill the pooled Livy session " + session.getName() + " failed. "
+                                                       + err));
+    }
+
+    private static class IdleSession {
+        @NotNull
+        private final Session session;
+
+        private final long idleSinceMs;
+
+        IdleSession(@NotNull final Session session, final long idleSinceMs) {
+            this.session = session;
+            this.idleSinceMs = idleSinceMs;
+        }
+
+        boolean isExpired(final long nowMs) {
+            return nowMs - idleSinceMs >= IDLE_TIMEOUT_MS;
+        }
+    }
+}
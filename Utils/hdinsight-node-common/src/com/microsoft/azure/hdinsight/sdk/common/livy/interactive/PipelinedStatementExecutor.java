@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import rx.Observable;
+import rx.Scheduler;
+import rx.observables.ConnectableObservable;
+import rx.schedulers.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
+import static rx.exceptions.Exceptions.propagate;
+
+/**
+ * The pipelined statement executor of a Livy interactive session.
+ *
+ * The statements are queued at once when submitted and posted in the submitting order by one thread, without
+ * waiting for the previous statements done, since Livy runs the statements of a session one by one. The results of
+ * the posted statements are polled concurrently, and the progress of the running statement is printed into the
+ * session control subject, which is shown in the console.
+ */
+public class PipelinedStatementExecutor implements ILogger {
+    @NotNull
+    private final Session session;
+
+    @NotNull
+    private final ExecutorService postExecutor;
+
+    @NotNull
+    private final Scheduler postScheduler;
+
+    public PipelinedStatementExecutor(@NotNull Session session) {
+        this.session = session;
+        this.postExecutor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("livy-statement-post-" + session.getName().hashCode() + "-%d")
+                .daemon(true)
+                .build());
+        this.postScheduler = Schedulers.from(postExecutor);
+    }
+
+    /**
+     * Queue the codes to run in the session, the statement is posted once the session is ready and all the statements
+     * submitted before are posted, whether the returned Observable is subscribed or not.
+     *
+     * @param codes the codes to run
+     * @return the statement Observable, emitted when the progress is changed and when it's done
+     */
+    @NotNull
+    public Observable<Statement> submit(@NotNull String codes) {
+        final Statement statement = new Statement(session, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8)));
+
+        final ConnectableObservable<Statement> execution = Observable
+                .fromCallable(() -> {
+                    // Blocking in the post thread to keep the statements order
+                    session.awaitStatementRunnable().toBlocking().first();
+
+                    return statement.post().toBlocking().single();
+                })
+                .subscribeOn(postScheduler)
+                .flatMap(Statement::watch)
+                .doOnNext(this::reportProgress)
+                .doOnError(session::refreshStateOnFailure)
+                .replay();
+
+        execution.connect();
+
+        return execution;
+    }
+
+    /**
+     * Queue the codes to run in the session and get the result
+     *
+     * @param codes the codes to run
+     * @return the statement result data Observable
+     * Observable Error: {@link StatementExecutionError} for the codes execution failure
+     */
+    @NotNull
+    public Observable<Map<String, String>> run(@NotNull String codes) {
+        return submit(codes)
+                .last()
+                .map(statement -> {
+                    final StatementOutput result = statement.getOutput();
+
+                    if (result == null || !"ok".equalsIgnoreCase(result.getStatus())) {
+                        throw propagate(result == null
+                                        ? new StatementExecutionError("", "No statement output got", Collections.emptyList())
+                                        : new StatementExecutionError(
+                                                result.getEname(), result.getEvalue(), result.getTraceback()));
+                    }
+
+                    return result.getData();
+                });
+    }
+
+    /**
+     * Stop posting the queued statements, the posted ones are still run by the session
+     */
+    public void shutdown() {
+        postExecutor.shutdownNow();
+    }
+
+    private void reportProgress(@NotNull Statement statement) {
+        if (statement.isDone() || statement.getProgress() <= 0) {
+            return;
+        }
+
+        try {
+            session.getCtrlSubject().onNext(new SparkLogLine(TOOL, Info, String.format(
+                    "Statement %d is running: %d%%", statement.getId(), Math.round(statement.getProgress() * 100))));
+        } catch (Exception ex) {
+            log().debug("Can't report the statement progress: " + ex);
+        }
+    }
+}
@@ -74,6 +74,14 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
 
     private final List<String> artifactsToDeploy = new ArrayList<>(); // Artifacts to deploy
 
+    @Nullable
+    private PipelinedStatementExecutor statementExecutor = null;    // Pipelined statement executor, created lazily
+
+    @Nullable
+    private final String username;        // Basic Authentication username, only for the pool key
+
+    private volatile boolean isPooled = false;  // Created by the session pool, or took over one from the pool
+
     public static class CreateParameters {
         public static final String DRIVER_MEMORY = "driverMemory";
         public static final String DRIVER_MEMORY_DEFAULT_VALUE = "4G";
@@ -117,6 +125,28 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
             this.kind = kind;
         }
 
+        /**
+         * Copy the Spark session parameters with another session name.
+         *
+         * @param sessionName session name of the copy
+         * @return the new {@link CreateParameters} instance
+         */
+        public CreateParameters copy(final @Nullable String sessionName) {
+            final CreateParameters copied = new CreateParameters(this.kind);
+
+            copied.name = sessionName;
+            copied.proxyUser = this.proxyUser;
+            copied.referenceFiles.addAll(this.referenceFiles);
+            copied.referencedJars.addAll(this.referencedJars);
+            copied.archives.addAll(this.archives);
+            copied.pyFiles.addAll(this.pyFiles);
+            copied.jobConfig.putAll(this.jobConfig);
+            copied.yarnQueue = this.yarnQueue;
+            copied.uploadedArtifactsUris.addAll(this.uploadedArtifactsUris);
+
+            return copied;
+        }
+
         /**
          * Set Spark session name.
          *
@@ -325,17 +355,34 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
                    final CreateParameters createParameters,
                    final @Nullable String username,
                    final @Nullable String password) {
+        this(name,
+             baseUrl,
+             createParameters,
+             username,
+             username == null || password == null ? new HttpObservable() : new HttpObservable(username, password));
+    }
+
+    /**
+     * Create a Livy session instance sharing the Http connection of another session, such as the session of the
+     * same shape to warm up, so that the credential isn't kept again.
+     *
+     * @param name             the session name which will be found in resource manager, such as Yarn
+     * @param baseUrl          the connect URL of Livy, ending with '/'
+     * @param createParameters the session options for creation
+     * @param username         the username of Basic Authentication, leave NULL for other authentication methods
+     * @param http             the Http connection with the authentication
+     */
+    protected Session(final String name,
+                      final URI baseUrl,
+                      final CreateParameters createParameters,
+                      final @Nullable String username,
+                      final HttpObservable http) {
         this.name = name;
         this.baseUrl = baseUrl;
         this.lastState = SessionState.NOT_STARTED;
         this.createParameters = createParameters;
-
-        if (username == null || password == null) {
-            this.http = new HttpObservable();
-        } else {
-            this.http = new HttpObservable(username, password);
-        }
-
+        this.username = username;
+        this.http = http;
         this.ctrlSubject = PublishSubject.create();
     }
 
@@ -427,11 +474,94 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return ctrlSubject;
     }
 
+    @Nullable
+    protected String getUsername() {
+        return username;
+    }
+
+    boolean isPooled() {
+        return isPooled;
+    }
+
+    void setPooled() {
+        this.isPooled = true;
+    }
+
+    /**
+     * Get the key of the session shape for pooling, the sessions with the same key are interchangeable, regardless
+     * of the session name.
+     *
+     * @return the key of the session type, the Livy URL, the user and the creation parameters
+     */
+    public String getPoolKey() {
+        final PostSessions postBody = getCreateParameters().build();
+        postBody.setName(null);
+
+        return String.join("|",
+                           getClass().getName(),
+                           getBaseUrl().toString(),
+                           StringUtils.defaultString(getUsername()),
+                           postBody.convertToJson().orElse(""));
+    }
+
+    /**
+     * Create a new session instance with the same shape to warm up in the session pool.
+     *
+     * @return the new session instance not created yet, or null for the session type not supporting pre-warming
+     */
+    @Nullable
+    protected Session newPooledSession() {
+        return null;
+    }
+
+    /**
+     * Take over the warm session created remotely, the warm session instance shouldn't be used any more.
+     *
+     * @param warm the warm session with the same pool key
+     */
+    void takeOver(final Session warm) {
+        this.setId(warm.getId());
+        this.setAppId(warm.appId);
+        this.setLastState(warm.getLastState());
+        this.setLastLogs(warm.getLastLogs());
+        this.setPooled();
+
+        warm.detach();
+    }
+
+    /**
+     * Detach the instance from the remote session, which is kept alive for others to take over. The instance
+     * shouldn't be used any more.
+     */
+    void detach() {
+        synchronized (this) {
+            if (statementExecutor != null) {
+                statementExecutor.shutdown();
+            }
+        }
+
+        this.ctrlSubject.onCompleted();
+    }
+
+    public synchronized PipelinedStatementExecutor getStatementExecutor() {
+        if (statementExecutor == null) {
+            statementExecutor = new PipelinedStatementExecutor(this);
+        }
+
+        return statementExecutor;
+    }
+
     /*
      * Overrides
      */
     @Override
     public void close() {
+        synchronized (this) {
+            if (statementExecutor != null) {
+                statementExecutor.shutdown();
+            }
+        }
+
         kill().toBlocking().subscribe(session -> {
                                       },
                                       err -> log().warn("Kill session failed. " + ExceptionUtils.getStackTrace(err)));
@@ -597,7 +727,7 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
     }
 
     public Observable<Map<String, String>> runStatement(final Statement statement) {
-        return awaitReady()
+        return awaitStatementRunnable()
                 .flatMap(session -> statement
                         .run()
                         .map(result -> {
@@ -607,7 +737,28 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
                             }
 
                             return result.getData();
-                        }));
+                        }))
+                .doOnError(this::refreshStateOnFailure);
+    }
+
+    /**
+     * Await the session statement runnable, the last state gotten is trusted without polling again, and it's
+     * refreshed in the background once a statement request fails, for the session may be gone.
+     *
+     * @return the session Observable when it's runnable
+     */
+    public Observable<Session> awaitStatementRunnable() {
+        return Observable.defer(() -> isStatementRunnable() ? Observable.just(this) : awaitReady());
+    }
+
+    void refreshStateOnFailure(final Throwable err) {
+        if (err instanceof StatementExecutionError) {
+            return;
+        }
+
+        get().subscribeOn(Schedulers.io())
+             .subscribe(session -> { },
+                        refreshErr -> log().warn("Refresh session " + getName() + " state failed. " + refreshErr));
     }
 
     public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
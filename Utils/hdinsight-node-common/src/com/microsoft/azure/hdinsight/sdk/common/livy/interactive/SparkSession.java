@@ -5,10 +5,12 @@
 
 package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
 
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
 import java.net.URI;
+import java.util.UUID;
 
 public class SparkSession extends Session {
     public SparkSession(final String name,
@@ -23,8 +25,33 @@ public class SparkSession extends Session {
         super(name, baseUrl, new CreateParameters(SessionKind.SPARK).name(name), username, password);
     }
 
+    private SparkSession(final String name,
+                         final URI baseUrl,
+                         final CreateParameters createParameters,
+                         final @Nullable String username,
+                         final HttpObservable http) {
+        super(name, baseUrl, createParameters, username, http);
+    }
+
     @Override
     public SessionKind getKind() {
         return SessionKind.SPARK;
     }
+
+    @Nullable
+    @Override
+    protected Session newPooledSession() {
+        // The derived sessions have their own authentications which can't be copied
+        if (getClass() != SparkSession.class) {
+            return null;
+        }
+
+        final String pooledName = getName() + " (pre-warmed " + UUID.randomUUID().toString().substring(0, 8) + ")";
+
+        return new SparkSession(pooledName,
+                                getBaseUrl(),
+                                getCreateParameters().copy(pooledName),
+                                getUsername(),
+                                getHttp());
+    }
 }
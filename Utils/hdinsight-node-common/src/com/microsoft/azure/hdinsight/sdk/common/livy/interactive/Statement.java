@@ -23,10 +23,21 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
 
+    /**
+     * The first statement polling interval in milliseconds, doubled for each poll until the maximum interval
+     */
+    public static final long MIN_POLL_INTERVAL_MS = 100;
+
+    /**
+     * The maximum statement polling interval in milliseconds
+     */
+    public static final long MAX_POLL_INTERVAL_MS = 1000;
+
     @NotNull
     private Session session;            // Statement owner session
 
@@ -41,6 +52,8 @@ public class Statement implements ILogger {
     @Nullable
     private StatementState lastState;   // Last statement state gotten
 
+    private double progress = 0;        // Last statement progress gotten, from 0 to 1
+
     public Statement(@NotNull Session session, int id) {
         this(session, null);
 
@@ -70,6 +83,10 @@ public class Statement implements ILogger {
         this.lastState = lastState;
     }
 
+    public double getProgress() {
+        return progress;
+    }
+
     @NotNull
     public URI getUri() throws StatementNotStartException, SessionNotStartException {
         return URI.create(getSession().getUri().toString() + "/" + REST_SEGMENT_STATEMENTS + "/" + String.valueOf(getId()));
@@ -116,17 +133,47 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
-        return runStatementRequest()
-                .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
-                                                                         // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
-                )
+        return post()
+                .flatMap(Statement::watch)
+                .filter(Statement::isDone)
                 .map(Statement::getOutput);
     }
 
+    /**
+     * To post the statement codes to run, without waiting for the result
+     *
+     * @return the posted statement Observable
+     */
+    public Observable<Statement> post() {
+        return runStatementRequest()
+                .map(this::updateWithResponse);
+    }
+
+    /**
+     * To watch the posted statement until it's done. The statement is polled from {@link #MIN_POLL_INTERVAL_MS}
+     * and the interval is doubled for each poll until {@link #MAX_POLL_INTERVAL_MS}, so that the short statements
+     * get the result quickly.
+     *
+     * @return the statement Observable, emitted when the progress is changed and when it's done
+     */
+    public Observable<Statement> watch() {
+        return Observable.defer(() -> {
+            if (isDone()) {
+                return Observable.just(this);
+            }
+
+            final AtomicLong intervalMs = new AtomicLong(MIN_POLL_INTERVAL_MS);
+
+            // The unmet state won't trigger retries, which is handled by repeatWhen()
+            return get()
+                    .repeatWhen(ob -> ob.flatMap(any -> Observable.timer(
+                            intervalMs.getAndUpdate(interval -> Math.min(interval * 2, MAX_POLL_INTERVAL_MS)),
+                            TimeUnit.MILLISECONDS)))
+                    .takeUntil(Statement::isDone)
+                    .distinctUntilChanged(statement -> statement.isDone() ? -1 : statement.getProgress());
+        });
+    }
+
     public boolean isDoneWithError()
     {
         return getLastState() == StatementState.ERROR || getLastState() == StatementState.CANCELLED;
@@ -144,6 +191,7 @@ public class Statement implements ILogger {
         this.setId(statementResp.getId());
         this.setLastState(statementResp.getState());
         this.setOutput(statementResp.getOutput());
+        this.progress = statementResp.getProgress();
 
         return this;
     }
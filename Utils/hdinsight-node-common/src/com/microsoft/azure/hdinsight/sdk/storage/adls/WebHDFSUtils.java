@@ -51,6 +51,25 @@ public class WebHDFSUtils {
         return ar.getAccessToken();
     }
 
+    /**
+     * Get the file length on ADLS by the file status, which doesn't read the file content
+     *
+     * @param storageAccount the ADLS storage account
+     * @param remotePath the file path
+     * @return the file length
+     * @throws Exception for the file doesn't exist or can't be accessed
+     */
+    public static long getFileLengthOnADLS(@NotNull IHDIStorageAccount storageAccount, @NotNull String remotePath) throws Exception {
+        if (!(storageAccount instanceof ADLSStorageAccount)) {
+            throw new HDIException("the storage type should be ADLS");
+        }
+
+        String accessToken = getAccessTokenFromCertificate((ADLSStorageAccount) storageAccount);
+        ADLStoreClient client = ADLStoreClient.createClient(String.format("%s.azuredatalakestore.net", storageAccount.getName()), accessToken);
+
+        return client.getDirectoryEntry(remotePath).length;
+    }
+
     public static void uploadFileToADLS(@NotNull IHDIStorageAccount storageAccount, @NotNull File localFile, @NotNull String remotePath, boolean overWrite) throws Exception {
         if (!(storageAccount instanceof ADLSStorageAccount)) {
             throw new HDIException("the storage type should be ADLS");
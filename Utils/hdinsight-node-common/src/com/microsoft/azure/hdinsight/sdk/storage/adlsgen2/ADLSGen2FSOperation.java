@@ -13,8 +13,12 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
@@ -149,7 +153,50 @@ public class ADLSGen2FSOperation {
         }
     }
 
-    private Observable<Boolean> flushData(String filePath, long flushLen) {
+    /**
+     * Append the data to the file at the position, the data isn't readable until it's flushed. The appending of
+     * different positions can be in parallel.
+     *
+     * @param filePath the file path
+     * @param position the position to append the data
+     * @param entity the data, with the content length
+     * @return Observable: the data length appended
+     */
+    public Observable<Long> appendData(String filePath, long position, HttpEntity entity) {
+        HttpPatch req = new HttpPatch(filePath);
+        List<NameValuePair> appendReqParams = new ADLSGen2ParamsBuilder()
+                .setAction("append")
+                .setPosition(position)
+                .build();
+
+        // The content type is set by the entity, rather than the shared one in HttpObservable
+        return http.executeReqAndCheckStatus(req, entity, appendReqParams, Collections.emptyList(), 202)
+                .map(resp -> {
+                    // Release the pooled connection for the next appending
+                    HttpClientUtils.closeQuietly(resp);
+                    return entity.getContentLength();
+                });
+    }
+
+    /**
+     * Get the length of the file by its properties, which doesn't read the file content
+     *
+     * @param filePath the file path
+     * @return Observable: the file length
+     * Observable Error: the file doesn't exist or can't be accessed
+     */
+    public Observable<Long> getFileLength(String filePath) {
+        return http.executeReqAndCheckStatus(new HttpHead(filePath), null, Collections.emptyList(), Collections.emptyList(), 200)
+                .map(resp -> {
+                    try {
+                        return Long.parseLong(resp.getFirstHeader(HttpHeaders.CONTENT_LENGTH).getValue());
+                    } finally {
+                        HttpClientUtils.closeQuietly(resp);
+                    }
+                });
+    }
+
+    public Observable<Boolean> flushData(String filePath, long flushLen) {
         HttpPatch req = new HttpPatch(filePath);
         List<NameValuePair> flushReqParams = this.flushReqParamsBuilder.setPosition(flushLen).build();
         http.setContentType("application/json");
@@ -21,6 +21,7 @@ import rx.Observer;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 
 public class ADLSGen2Deploy implements Deployable, ILogger {
@@ -42,10 +43,21 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
 
     @Override
     public Observable<String> deploy(File src, Observer<SparkLogLine> logSubject) {
+        return ArtifactDeploymentManifest.getInstance().deploy(
+                src,
+                "ADLSGen2|" + destinationRootPath,
+                deployedUri -> new ADLSGen2FSOperation(this.http)
+                        .getFileLength(AbfsUri.parse(deployedUri).getUrl().toString())
+                        .map(length -> length == src.length()),
+                () -> upload(src, logSubject),
+                logSubject);
+    }
+
+    Observable<String> upload(File src, Observer<SparkLogLine> logSubject) {
         // four steps to upload via adls gen2 rest api
         // 1.put request to create new dir
         // 2.put request to create new file(artifact) which is empty
-        // 3.patch request to append data to file
+        // 3.patch requests to append data chunks to file in parallel
         // 4.patch request to flush data to file
 
         final URI destURI = getUploadDir();
@@ -53,10 +65,19 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
         //remove request / end otherwise invalid url response
         final String destStr = destURI.toString();
         final String dirPath = destStr.endsWith("/") ? destStr.substring(0, destStr.length() - 1) : destStr;
-        final String filePath = String.format("%s/%s", dirPath, src.getName());
 
-        final ADLSGen2FSOperation op = new ADLSGen2FSOperation(this.http);
-        return op.createDir(dirPath, "0755")
+        final ADLSGen2FSOperation op = createFSOperation();
+        final ChunkedArtifactUploader uploader = createUploader().setLogSubject(logSubject);
+
+        // The file created and the data appended are kept for the failed upload, the upload of the same artifact to
+        // the same root path goes on with the file and only uploads the rest chunks, instead of a new upload folder
+        final String resumableFilePath = uploader.getResumableDestination(src, destinationRootPath);
+        final String filePath = resumableFilePath != null
+                ? resumableFilePath
+                : String.format("%s/%s", dirPath, src.getName());
+        final Observable<Boolean> fileCreated = resumableFilePath != null
+                ? Observable.just(true)
+                : op.createDir(dirPath, "0755")
                  .onErrorReturn(err -> {
                      if (err.getMessage() != null && (err.getMessage().contains(String.valueOf(HttpStatus.SC_FORBIDDEN))
                              || err.getMessage().contains(String.valueOf(HttpStatus.SC_NOT_FOUND)))) {
@@ -75,12 +96,29 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                      }
                  })
                  .doOnNext(ignore -> log().info(String.format("Create filesystem %s successfully.", dirPath)))
-                 .flatMap(ignore -> op.createFile(filePath, "0755"))
-                 .flatMap(ignore -> op.uploadData(filePath, src))
+                 .flatMap(ignore -> op.createFile(filePath, "0755"));
+
+        return fileCreated
+                 .flatMap(ignore -> uploader.upload(src, destinationRootPath, filePath, chunk -> {
+                     try {
+                         return op.appendData(filePath, chunk.getOffset(), chunk.toEntity());
+                     } catch (IOException ex) {
+                         return Observable.error(new IllegalArgumentException("Can not read the artifact " + src, ex));
+                     }
+                 }))
+                 .flatMap(ignore -> op.flushData(filePath, src.length()))
                  .doOnNext(ignore -> log().info(String.format("Append data to file %s successfully.", filePath)))
                  .map(ignored -> AbfsUri.parse(filePath).getUri().toString());
     }
 
+    ADLSGen2FSOperation createFSOperation() {
+        return new ADLSGen2FSOperation(this.http);
+    }
+
+    ChunkedArtifactUploader createUploader() {
+        return new ChunkedArtifactUploader();
+    }
+
     public static String getForbiddenErrorHints(String fileSystemRootPath) {
         final String signInUserEmail = Azure.az(AzureAccount.class).account().getUsername();
         return " Please verify if\n"
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.common.HDInsightLoader;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
+
+/**
+ * The local manifest of the artifacts deployed, which records the remote URI of each artifact content (SHA-256)
+ * per storage target, so that the unchanged artifacts (usually the dependency jars) are referenced rather than
+ * uploaded again for every submission. The remote artifact is checked by the target before it's referenced.
+ *
+ * The manifest is saved as `{pluginRoot}/SparkSubmission/artifacts-manifest.json`.
+ */
+public class ArtifactDeploymentManifest implements ILogger {
+    static final int MAX_ARTIFACTS_PER_TARGET = 200;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String MANIFEST_FILE = "SparkSubmission/artifacts-manifest.json";
+
+    private static class LazyHolder {
+        static final ArtifactDeploymentManifest INSTANCE = new ArtifactDeploymentManifest(
+                new File(HDInsightLoader.getHDInsightHelper().getPluginRootPath(), MANIFEST_FILE));
+    }
+
+    public static ArtifactDeploymentManifest getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final File manifestFile;
+
+    /**
+     * The SHA-256 of the local artifacts, keyed by the path, size and modified time
+     */
+    private final Map<String, String> sha256ByArtifact = new ConcurrentHashMap<>();
+
+    /**
+     * The target to the artifact content key to the remote URI map, in the deployed order. Loaded lazily.
+     */
+    @Nullable
+    private Map<String, LinkedHashMap<String, String>> deployedUrisByTarget;
+
+    ArtifactDeploymentManifest(@NotNull File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Deploy the artifact to the target only if the same content hasn't been deployed there, or the remote
+     * artifact deployed is gone.
+     *
+     * @param src the artifact to deploy
+     * @param target the storage target key, such as the deploy type and the destination root path
+     * @param isDeployed the cheap check whether the remote artifact of the URI is still there and intact
+     * @param upload the actual deployment
+     * @param logSubject the subject to print logs
+     * @return Observable: the remote URI deployed or referenced
+     * Observable Error: the deployment error
+     */
+    @NotNull
+    public Observable<String> deploy(@NotNull File src,
+                                     @NotNull String target,
+                                     @NotNull Func1<String, Observable<Boolean>> isDeployed,
+                                     @NotNull Func0<Observable<String>> upload,
+                                     @Nullable Observer<SparkLogLine> logSubject) {
+        return Observable.fromCallable(() -> getContentKey(src))
+                .subscribeOn(Schedulers.io())
+                .flatMap(contentKey -> {
+                    final String deployedUri = getDeployedUri(target, contentKey);
+                    final Observable<Boolean> reusable = deployedUri == null
+                            ? Observable.just(false)
+                            : isDeployed.call(deployedUri)
+                                        .lastOrDefault(false)
+                                        .onErrorReturn(err -> {
+                                            log().warn("Can't check the deployed artifact " + deployedUri, err);
+                                            return false;
+                                        });
+
+                    return reusable.flatMap(isReusable -> {
+                        if (isReusable) {
+                            if (logSubject != null) {
+                                logSubject.onNext(new SparkLogLine(TOOL, Info, String.format(
+                                        "Artifact %s is unchanged, use the deployed %s.", src.getName(), deployedUri)));
+                            }
+
+                            return Observable.just(deployedUri);
+                        }
+
+                        if (deployedUri != null) {
+                            forget(target, contentKey);
+                        }
+
+                        return upload.call()
+                                     .doOnNext(uri -> record(target, contentKey, uri));
+                    });
+                });
+    }
+
+    /**
+     * Get the remote URI of the artifact content deployed to the target
+     *
+     * @return the remote URI, or null for not deployed
+     */
+    @Nullable
+    public synchronized String getDeployedUri(@NotNull String target, @NotNull String contentKey) {
+        final Map<String, String> deployedUris = getDeployedUrisByTarget().get(target);
+
+        return deployedUris == null ? null : deployedUris.get(contentKey);
+    }
+
+    synchronized void record(@NotNull String target, @NotNull String contentKey, @NotNull String uri) {
+        final LinkedHashMap<String, String> deployedUris =
+                getDeployedUrisByTarget().computeIfAbsent(target, key -> new LinkedHashMap<>());
+
+        // Move to the end as the latest deployed
+        deployedUris.remove(contentKey);
+        deployedUris.put(contentKey, uri);
+
+        final Iterator<String> oldest = deployedUris.keySet().iterator();
+        while (deployedUris.size() > MAX_ARTIFACTS_PER_TARGET && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+
+        save();
+    }
+
+    synchronized void forget(@NotNull String target, @NotNull String contentKey) {
+        final Map<String, String> deployedUris = getDeployedUrisByTarget().get(target);
+
+        if (deployedUris != null && deployedUris.remove(contentKey) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Get the content key of the artifact, the file name is kept since the remote artifact is referenced by name
+     *
+     * @param src the artifact
+     * @return the key as `{name}:{SHA-256 hex}`
+     * @throws IOException for reading the artifact failure
+     */
+    @NotNull
+    String getContentKey(@NotNull File src) throws IOException {
+        final String artifactKey = String.join("|", src.getAbsolutePath(),
+                                               String.valueOf(src.length()),
+                                               String.valueOf(src.lastModified()));
+        String sha256 = sha256ByArtifact.get(artifactKey);
+
+        if (sha256 == null) {
+            try (final InputStream in = new FileInputStream(src)) {
+                sha256 = DigestUtils.sha256Hex(in);
+            }
+
+            sha256ByArtifact.put(artifactKey, sha256);
+        }
+
+        return src.getName() + ":" + sha256;
+    }
+
+    @NotNull
+    private Map<String, LinkedHashMap<String, String>> getDeployedUrisByTarget() {
+        if (deployedUrisByTarget == null) {
+            deployedUrisByTarget = load();
+        }
+
+        return deployedUrisByTarget;
+    }
+
+    @NotNull
+    private Map<String, LinkedHashMap<String, String>> load() {
+        if (manifestFile.isFile()) {
+            try {
+                final Map<String, LinkedHashMap<String, String>> loaded = OBJECT_MAPPER.readValue(
+                        manifestFile, new TypeReference<LinkedHashMap<String, LinkedHashMap<String, String>>>() {});
+
+                if (loaded != null) {
+                    loaded.values().removeIf(deployedUris -> deployedUris == null
+                            || deployedUris.values().stream().anyMatch(StringUtils::isBlank));
+
+                    return loaded;
+                }
+            } catch (IOException ex) {
+                log().warn("Can't load the artifact deployment manifest " + manifestFile, ex);
+            }
+        }
+
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * Save the manifest into file, any failure is logged and ignored since the artifacts will be uploaded again
+     */
+    private void save() {
+        try {
+            final File folder = manifestFile.getParentFile();
+
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("Can't create folder " + folder);
+            }
+
+            OBJECT_MAPPER.writeValue(manifestFile, deployedUrisByTarget);
+        } catch (IOException ex) {
+            log().warn("Can't save the artifact deployment manifest " + manifestFile, ex);
+        }
+    }
+}
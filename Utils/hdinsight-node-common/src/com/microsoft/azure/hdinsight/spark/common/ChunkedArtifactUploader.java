@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import rx.Observable;
+import rx.Observer;
+import rx.schedulers.Schedulers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
+import static rx.exceptions.Exceptions.propagate;
+
+/**
+ * The artifact uploader for {@link Deployable}, which splits the artifact into the fixed size chunks and uploads
+ * them in parallel, each chunk is read from the file range directly and retried separately.
+ *
+ * The chunks uploaded are remembered until the whole upload succeeds, so that the next upload of the same artifact
+ * (same path, size and modified time) to the same destination root only uploads the rest chunks, into the destination
+ * which the unfinished upload was writing. Only the most recent
+ * {@value #MAX_RESUMABLE_UPLOADS} unfinished uploads in the last {@value #RESUMABLE_HOURS} hours are remembered, and
+ * not across the IDE restarts.
+ *
+ * An empty artifact has no chunk, the writer is never called and the caller should create the empty file itself.
+ */
+public class ChunkedArtifactUploader implements ILogger {
+    public static final long DEFAULT_CHUNK_SIZE = 8 * FileUtils.ONE_MB;
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_CHUNK_RETRIES = 3;
+
+    private static final long RETRY_DELAY_SECONDS = 2;
+    private static final int PROGRESS_REPORT_PERCENT_STEP = 10;
+    private static final int MAX_RESUMABLE_UPLOADS = 16;
+    private static final long RESUMABLE_HOURS = 24;
+
+    /**
+     * The unfinished uploads keyed by the artifact and destination root, in the access order to evict the eldest one
+     */
+    private static final Map<String, UnfinishedUpload> unfinishedUploads =
+            new LinkedHashMap<String, UnfinishedUpload>(MAX_RESUMABLE_UPLOADS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, UnfinishedUpload> eldest) {
+                    return size() > MAX_RESUMABLE_UPLOADS;
+                }
+            };
+
+    /**
+     * The upload operation for one chunk, which is subscribed again for retries
+     */
+    @FunctionalInterface
+    public interface ChunkWriter {
+        Observable<?> write(@NotNull Chunk chunk);
+    }
+
+    private final long chunkSize;
+    private final int parallelism;
+    private final int chunkRetries;
+
+    @Nullable
+    private Consumer<String> progressLogger;
+
+    @Nullable
+    private LongConsumer progressCallback;
+
+    public ChunkedArtifactUploader() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM, DEFAULT_CHUNK_RETRIES);
+    }
+
+    public ChunkedArtifactUploader(long chunkSize, int parallelism, int chunkRetries) {
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.parallelism = Math.max(parallelism, 1);
+        this.chunkRetries = Math.max(chunkRetries, 0);
+    }
+
+    /**
+     * Set the log subject to print the upload progress
+     */
+    public ChunkedArtifactUploader setLogSubject(@Nullable Observer<SparkLogLine> logSubject) {
+        return setProgressLogger(logSubject == null
+                                 ? null
+                                 : message -> logSubject.onNext(new SparkLogLine(TOOL, Info, message)));
+    }
+
+    /**
+     * Set the logger to print the upload progress messages, for each {@value #PROGRESS_REPORT_PERCENT_STEP}%
+     */
+    public ChunkedArtifactUploader setProgressLogger(@Nullable Consumer<String> progressLogger) {
+        this.progressLogger = progressLogger;
+        return this;
+    }
+
+    /**
+     * Set the callback to get the uploaded bytes whenever it's changed
+     */
+    public ChunkedArtifactUploader setProgressCallback(@Nullable LongConsumer progressCallback) {
+        this.progressCallback = progressCallback;
+        return this;
+    }
+
+    /**
+     * Get the destination of the unfinished upload of the artifact to the destination root, to resume it rather than
+     * uploading to a new destination
+     *
+     * @param src the artifact file
+     * @param destinationRoot the upload destination root
+     * @return the destination which some chunks were uploaded to, null for nothing to resume
+     */
+    @Nullable
+    public String getResumableDestination(@NotNull File src, @NotNull String destinationRoot) {
+        final UnfinishedUpload unfinished = getUnfinishedUpload(getUploadKey(src, destinationRoot));
+
+        return unfinished != null && !unfinished.chunks.isEmpty() ? unfinished.destination : null;
+    }
+
+    /**
+     * Split the artifact into chunks and upload them in parallel, the chunks uploaded by the previous failed upload
+     * to the same destination are skipped.
+     *
+     * @param src the artifact file
+     * @param destination the upload destination, also as the destination root to resume
+     * @param writer the chunk upload operation
+     * @return Observable: the chunks to commit in order, which are all uploaded
+     * Observable Error: the error of the chunk which exceeds the maximum retries
+     */
+    @NotNull
+    public Observable<List<Chunk>> upload(@NotNull File src,
+                                          @NotNull String destination,
+                                          @NotNull ChunkWriter writer) {
+        return upload(src, destination, destination, writer);
+    }
+
+    /**
+     * Split the artifact into chunks and upload them in parallel, the chunks uploaded by the previous failed upload
+     * of the same artifact to the same destination root and destination are skipped.
+     *
+     * @param src the artifact file
+     * @param destinationRoot the upload destination root, as the key to resume
+     * @param destination the upload destination, see {@link #getResumableDestination(File, String)}
+     * @param writer the chunk upload operation
+     * @return Observable: the chunks to commit in order, which are all uploaded
+     * Observable Error: the error of the chunk which exceeds the maximum retries
+     */
+    @NotNull
+    public Observable<List<Chunk>> upload(@NotNull File src,
+                                          @NotNull String destinationRoot,
+                                          @NotNull String destination,
+                                          @NotNull ChunkWriter writer) {
+        return Observable.defer(() -> {
+            final String uploadKey = getUploadKey(src, destinationRoot);
+            final UnfinishedUpload unfinished = startUnfinishedUpload(uploadKey, destination);
+            final Set<Integer> uploaded = unfinished.chunks;
+            final Progress progress = new Progress(src.length());
+            final List<Chunk> chunks = split(src, progress);
+
+            chunks.stream()
+                  .filter(chunk -> uploaded.contains(chunk.getIndex()))
+                  .forEach(Chunk::markSent);
+
+            if (!uploaded.isEmpty()) {
+                logProgress(String.format("Resume uploading %s, %d of %d chunks were uploaded.",
+                                          src.getName(), uploaded.size(), chunks.size()));
+            }
+
+            return Observable.from(chunks)
+                    .filter(chunk -> !uploaded.contains(chunk.getIndex()))
+                    .flatMap(chunk -> retry(Observable.defer(() -> writer.write(chunk))
+                                                      .subscribeOn(Schedulers.io())
+                                                      .lastOrDefault(null))
+                                     .doOnNext(ignored -> unfinished.add(chunk.getIndex())),
+                             parallelism)
+                    .toList()
+                    .doOnNext(ignored -> removeUnfinishedUpload(uploadKey))
+                    .map(ignored -> chunks);
+        });
+    }
+
+    @NotNull
+    private List<Chunk> split(@NotNull File src, @NotNull Progress progress) {
+        final List<Chunk> chunks = new ArrayList<>();
+        final long length = src.length();
+
+        for (long offset = 0; offset < length; offset += chunkSize) {
+            chunks.add(new Chunk(src, chunks.size(), offset, Math.min(chunkSize, length - offset), progress));
+        }
+
+        return chunks;
+    }
+
+    @NotNull
+    private <T> Observable<T> retry(@NotNull Observable<T> source) {
+        return source.retryWhen(errors -> errors
+                .zipWith(Observable.range(1, chunkRetries + 1), (err, tries) -> {
+                    if (tries > chunkRetries) {
+                        throw propagate(err);
+                    }
+
+                    log().warn("Upload chunk failed, retry " + tries + " of " + chunkRetries + ": " + err);
+                    return tries;
+                })
+                .flatMap(tries -> Observable.timer(RETRY_DELAY_SECONDS * tries, TimeUnit.SECONDS)));
+    }
+
+    private void logProgress(@NotNull String message) {
+        if (progressLogger != null) {
+            progressLogger.accept(message);
+        }
+    }
+
+    @Nullable
+    private static UnfinishedUpload getUnfinishedUpload(@NotNull String uploadKey) {
+        synchronized (unfinishedUploads) {
+            removeExpiredUploads();
+
+            return unfinishedUploads.get(uploadKey);
+        }
+    }
+
+    /**
+     * Get the unfinished upload to the destination to continue, or start a new one if the unfinished upload was
+     * writing another destination
+     */
+    @NotNull
+    private static UnfinishedUpload startUnfinishedUpload(@NotNull String uploadKey, @NotNull String destination) {
+        synchronized (unfinishedUploads) {
+            removeExpiredUploads();
+
+            final UnfinishedUpload unfinished = unfinishedUploads.get(uploadKey);
+            if (unfinished != null && unfinished.destination.equals(destination)) {
+                return unfinished;
+            }
+
+            final UnfinishedUpload started = new UnfinishedUpload(destination);
+            unfinishedUploads.put(uploadKey, started);
+
+            return started;
+        }
+    }
+
+    private static void removeExpiredUploads() {
+        final long expiredBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(RESUMABLE_HOURS);
+        unfinishedUploads.values().removeIf(unfinished -> unfinished.lastUpdated < expiredBefore);
+    }
+
+    private static void removeUnfinishedUpload(@NotNull String uploadKey) {
+        synchronized (unfinishedUploads) {
+            unfinishedUploads.remove(uploadKey);
+        }
+    }
+
+    @NotNull
+    private static String getUploadKey(@NotNull File src, @NotNull String destinationRoot) {
+        return String.join("|", src.getAbsolutePath(),
+                           String.valueOf(src.length()),
+                           String.valueOf(src.lastModified()),
+                           destinationRoot);
+    }
+
+    /**
+     * The destination and the chunk indexes uploaded of an unfinished upload
+     */
+    private static class UnfinishedUpload {
+        @NotNull
+        private final String destination;
+
+        private final Set<Integer> chunks = ConcurrentHashMap.newKeySet();
+        private volatile long lastUpdated = System.currentTimeMillis();
+
+        UnfinishedUpload(@NotNull String destination) {
+            this.destination = destination;
+        }
+
+        void add(int chunkIndex) {
+            chunks.add(chunkIndex);
+            lastUpdated = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The upload progress of all chunks of an artifact
+     */
+    private class Progress {
+        private final long total;
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicInteger lastReportedPercent = new AtomicInteger();
+
+        Progress(long total) {
+            this.total = total;
+        }
+
+        void add(long bytes) {
+            final long current = sent.addAndGet(bytes);
+
+            if (progressCallback != null) {
+                progressCallback.accept(current);
+            }
+
+            if (total <= 0) {
+                return;
+            }
+
+            final int percent = (int) (current * 100 / total);
+            final int lastPercent = lastReportedPercent.get();
+
+            if (percent >= lastPercent + PROGRESS_REPORT_PERCENT_STEP
+                    && lastReportedPercent.compareAndSet(lastPercent, percent)) {
+                logProgress(String.format("Uploaded %s of %s (%d%%)",
+                                          FileUtils.byteCountToDisplaySize(current),
+                                          FileUtils.byteCountToDisplaySize(total),
+                                          percent));
+            }
+        }
+    }
+
+    /**
+     * A range of the artifact file to upload
+     */
+    public static class Chunk {
+        @NotNull
+        private final File file;
+
+        private final int index;
+        private final long offset;
+        private final long length;
+
+        @NotNull
+        private final Progress progress;
+
+        private final AtomicLong sent = new AtomicLong();
+
+        private Chunk(@NotNull File file, int index, long offset, long length, @NotNull Progress progress) {
+            this.file = file;
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+            this.progress = progress;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        private void markSent() {
+            progress.add(length - sent.getAndSet(length));
+        }
+
+        /**
+         * Open the stream of the chunk range, the progress is counted by the bytes read
+         *
+         * @return the input stream of the chunk range, which should be closed by the caller
+         * @throws IOException for opening the file failure
+         */
+        @NotNull
+        public InputStream openStream() throws IOException {
+            // Opened again for retry, rewind the progress of this chunk
+            progress.add(-sent.getAndSet(0));
+
+            final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ).position(offset);
+
+            return new FilterInputStream(new BoundedInputStream(Channels.newInputStream(channel), length)) {
+                @Override
+                public int read() throws IOException {
+                    final int read = super.read();
+                    if (read >= 0) {
+                        count(1);
+                    }
+
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] buffer, int off, int len) throws IOException {
+                    final int read = super.read(buffer, off, len);
+                    if (read > 0) {
+                        count(read);
+                    }
+
+                    return read;
+                }
+
+                private void count(long bytes) {
+                    sent.addAndGet(bytes);
+                    progress.add(bytes);
+                }
+            };
+        }
+
+        /**
+         * Create the HTTP entity of the chunk range, the chunk stream is opened when the entity is written and closed
+         * after that, so nothing is left open if the request fails before sending the entity
+         *
+         * @return the HTTP entity
+         * @throws IOException for the artifact file is not found
+         */
+        @NotNull
+        public HttpEntity toEntity() throws IOException {
+            if (!file.isFile()) {
+                throw new FileNotFoundException(file.getAbsolutePath());
+            }
+
+            final AbstractHttpEntity entity = new AbstractHttpEntity() {
+                @Override
+                public boolean isRepeatable() {
+                    return true;
+                }
+
+                @Override
+                public long getContentLength() {
+                    return length;
+                }
+
+                @Override
+                public InputStream getContent() throws IOException {
+                    return openStream();
+                }
+
+                @Override
+                public void writeTo(OutputStream outStream) throws IOException {
+                    try (InputStream inStream = openStream()) {
+                        IOUtils.copyLarge(inStream, outStream);
+                    }
+                }
+
+                @Override
+                public boolean isStreaming() {
+                    return false;
+                }
+            };
+            entity.setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
+
+            return entity;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Action0;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.SerialSubscription;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static rx.exceptions.Exceptions.propagate;
+
+/**
+ * The central Livy batch job status poller shared by all Spark batch jobs in the process.
+ *
+ * All the status queries (state, application ID, activity and so on) of the same batch are coalesced into one
+ * Livy `GET /batches/{id}` round trip, and the periodical polling is driven by a small timer thread pool
+ * instead of sleeping threads, with exponential backoff while the batch state is unchanged.
+ */
+public class LivyBatchStatusPoller implements ILogger {
+    /**
+     * The minimum polling interval in milliseconds, also the interval just after the batch state changed
+     */
+    public static final long MIN_INTERVAL_MS = 1000;
+
+    /**
+     * The time window in milliseconds to reuse the last status got for the coalesced queries
+     */
+    public static final long COALESCE_WINDOW_MS = 500;
+
+    private static final int TIMER_THREADS = 2;
+    private static final int BACKOFF_FACTOR = 2;
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final LivyBatchStatusPoller INSTANCE = new LivyBatchStatusPoller();
+    }
+
+    public static LivyBatchStatusPoller getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final ScheduledExecutorService timer;
+
+    @NotNull
+    private final Scheduler scheduler;
+
+    @NotNull
+    private final Map<String, BatchStatusEntry> entries = new ConcurrentHashMap<>();
+
+    private LivyBatchStatusPoller() {
+        this.timer = Executors.newScheduledThreadPool(TIMER_THREADS,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("livy-batch-poller-%d")
+                        .daemon(true)
+                        .build());
+
+        this.scheduler = Schedulers.from(this.timer);
+    }
+
+    /**
+     * Get the timer scheduler of the poller, which is only for scheduling, don't run blocking work on it
+     *
+     * @return the timer scheduler
+     */
+    @NotNull
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the batch status once. The concurrent queries and the ones within {@link #COALESCE_WINDOW_MS} of the last
+     * response share one Livy request.
+     *
+     * @param job the Spark batch job to query
+     * @return the batch status observable, each subscription is a new query
+     */
+    @NotNull
+    public Observable<SparkSubmitResponse> getStatus(@NotNull final SparkBatchJob job) {
+        return Observable.defer(() -> getEntry(job).fetch(job));
+    }
+
+    /**
+     * Watch the batch status. The status is emitted with the adaptive interval, from {@link #MIN_INTERVAL_MS} to
+     * the job delay seconds setting, doubled for each poll which the batch state isn't changed. All the watchers of
+     * the same batch share one polling.
+     *
+     * @param job the Spark batch job to watch
+     * @return the hot batch status observable, the polling stops when all watchers unsubscribed
+     */
+    @NotNull
+    public Observable<SparkSubmitResponse> watch(@NotNull final SparkBatchJob job) {
+        return Observable.defer(() -> getEntry(job).watch(job));
+    }
+
+    /**
+     * Resubscribe the source observable for errors with delay, the timer is run on the poller scheduler
+     *
+     * @param source the source observable
+     * @param retriesMax the maximum tries count
+     * @param delaySeconds the delay seconds between tries
+     * @param <T> the source item type
+     * @return the observable with retries
+     */
+    @NotNull
+    public <T> Observable<T> retryWithDelay(@NotNull final Observable<T> source,
+                                            final int retriesMax,
+                                            final int delaySeconds) {
+        return source.retryWhen(errors -> errors
+                .zipWith(Observable.range(1, Math.max(retriesMax, 1)), (err, tries) -> {
+                    if (tries >= retriesMax) {
+                        throw propagate(err);
+                    }
+
+                    log().debug("Got exception " + err.toString() + ", waiting for a while to try", err);
+                    return tries;
+                })
+                .flatMap(tries -> Observable.timer(delaySeconds, TimeUnit.SECONDS, scheduler)));
+    }
+
+    @NotNull
+    private BatchStatusEntry getEntry(@NotNull final SparkBatchJob job) {
+        final String key = StringUtils.removeEnd(String.valueOf(job.getConnectUri()), "/") + "/" + job.getBatchId();
+
+        return entries.computeIfAbsent(key, BatchStatusEntry::new);
+    }
+
+    /**
+     * The adaptive interval with exponential backoff while the observed value is unchanged
+     */
+    static class AdaptiveInterval {
+        private final long minMs;
+        private final long maxMs;
+        private long currentMs;
+
+        AdaptiveInterval(final long minMs, final long maxMs) {
+            this.minMs = minMs;
+            this.maxMs = Math.max(minMs, maxMs);
+            this.currentMs = minMs;
+        }
+
+        /**
+         * Get the next interval
+         *
+         * @param isChanged whether the observed value is changed since the last time
+         * @return the next interval in milliseconds
+         */
+        synchronized long next(final boolean isChanged) {
+            currentMs = isChanged ? minMs : Math.min(currentMs * BACKOFF_FACTOR, maxMs);
+
+            return currentMs;
+        }
+    }
+
+    /**
+     * The entry of a batch, which is evicted once the batch is done, or nobody is watching the batch and the last
+     * status got is out of the coalescing window
+     */
+    private class BatchStatusEntry {
+        @NotNull
+        private final String key;
+
+        @Nullable
+        private Observable<SparkSubmitResponse> inflight;
+
+        @Nullable
+        private SparkSubmitResponse last;
+
+        private long lastFetchedAtMs;
+
+        @Nullable
+        private Observable<SparkSubmitResponse> polling;
+
+        BatchStatusEntry(@NotNull final String key) {
+            this.key = key;
+        }
+
+        @NotNull
+        synchronized Observable<SparkSubmitResponse> fetch(@NotNull final SparkBatchJob job) {
+            if (last != null && System.currentTimeMillis() - lastFetchedAtMs < COALESCE_WINDOW_MS) {
+                return Observable.just(last);
+            }
+
+            if (inflight == null) {
+                inflight = job.requestBatchStatus()
+                        .doOnNext(status -> onFetched(job, status))
+                        .doOnTerminate(this::onFetchTerminated)
+                        .cache();
+            }
+
+            return inflight;
+        }
+
+        private synchronized void onFetched(@NotNull final SparkBatchJob job, @NotNull final SparkSubmitResponse status) {
+            last = status;
+            lastFetchedAtMs = System.currentTimeMillis();
+
+            if (status.getState() != null && job.isDone(status.getState())) {
+                entries.remove(key, this);
+            }
+        }
+
+        private synchronized void onFetchTerminated() {
+            inflight = null;
+            scheduleEviction();
+        }
+
+        @NotNull
+        synchronized Observable<SparkSubmitResponse> watch(@NotNull final SparkBatchJob job) {
+            if (polling == null) {
+                polling = createPolling(job)
+                        .doOnUnsubscribe(this::onPollingStopped)
+                        .share();
+            }
+
+            return polling;
+        }
+
+        private synchronized void onPollingStopped() {
+            polling = null;
+            scheduleEviction();
+        }
+
+        private void scheduleEviction() {
+            timer.schedule(this::evictIfIdle, COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void evictIfIdle() {
+            if (inflight == null && polling == null
+                    && System.currentTimeMillis() - lastFetchedAtMs >= COALESCE_WINDOW_MS) {
+                entries.remove(key, this);
+            }
+        }
+
+        @NotNull
+        private Observable<SparkSubmitResponse> createPolling(@NotNull final SparkBatchJob job) {
+            return Observable.create(ob -> {
+                final Scheduler.Worker worker = scheduler.createWorker();
+                final SerialSubscription currentFetch = new SerialSubscription();
+                final AdaptiveInterval interval = new AdaptiveInterval(
+                        MIN_INTERVAL_MS, TimeUnit.SECONDS.toMillis(job.getDelaySeconds()));
+                ob.add(worker);
+                ob.add(currentFetch);
+
+                worker.schedule(new Action0() {
+                    private int failures = 0;
+
+                    @Nullable
+                    private String lastState;
+
+                    @Override
+                    public void call() {
+                        if (ob.isUnsubscribed()) {
+                            return;
+                        }
+
+                        // The HTTP request is blocking, run it out of the timer threads
+                        currentFetch.set(getStatus(job)
+                                .subscribeOn(Schedulers.io())
+                                .subscribe(status -> {
+                                    failures = 0;
+                                    final boolean isChanged = !StringUtils.equals(lastState, status.getState());
+                                    lastState = status.getState();
+
+                                    ob.onNext(status);
+
+                                    if (status.getState() != null && job.isDone(status.getState())) {
+                                        ob.onCompleted();
+                                        return;
+                                    }
+
+                                    worker.schedule(this, interval.next(isChanged), TimeUnit.MILLISECONDS);
+                                }, err -> {
+                                    if (++failures >= job.getRetriesMax()) {
+                                        ob.onError(err);
+                                        return;
+                                    }
+
+                                    log().debug("Got exception " + err.toString() + ", waiting for a while to try", err);
+                                    worker.schedule(this, job.getDelaySeconds(), TimeUnit.SECONDS);
+                                }));
+                    }
+                });
+            });
+        }
+    }
+}
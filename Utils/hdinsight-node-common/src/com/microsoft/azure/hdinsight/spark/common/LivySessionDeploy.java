@@ -5,10 +5,22 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
+import com.microsoft.azure.hdinsight.common.AdlUri;
+import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
+import com.microsoft.azure.hdinsight.common.WasbUri;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.storage.ADLSStorageAccount;
+import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
+import com.microsoft.azure.hdinsight.sdk.storage.IHDIStorageAccount;
+import com.microsoft.azure.hdinsight.sdk.storage.adls.WebHDFSUtils;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
+import org.apache.commons.lang3.StringUtils;
 import rx.Observable;
 import rx.Observer;
 
@@ -24,8 +36,48 @@ public class LivySessionDeploy implements Deployable, ILogger {
 
     @Override
     public Observable<String> deploy(File src, Observer<SparkLogLine> logSubject) {
-        return JobUtils.deployArtifact(src.getAbsolutePath(), clusterName, logSubject)
-                       .map(AbstractMap.SimpleImmutableEntry::getValue)
-                       .toObservable();
+        return ArtifactDeploymentManifest.getInstance().deploy(
+                src,
+                "Livy|" + clusterName,
+                deployedUri -> Observable.fromCallable(() -> getDeployedFileLength(deployedUri) == src.length()),
+                () -> JobUtils.deployArtifact(src.getAbsolutePath(), clusterName, logSubject)
+                              .map(AbstractMap.SimpleImmutableEntry::getValue)
+                              .toObservable(),
+                logSubject);
+    }
+
+    /**
+     * Get the length of the artifact deployed into the cluster default storage account. The artifacts uploaded
+     * through the helper session for the cluster without storage account can't be checked cheaply, which are
+     * always uploaded again.
+     *
+     * @param deployedUri the artifact deployed URI
+     * @return the artifact length, or -1 for unknown
+     * @throws Exception for the cluster or the artifact can't be accessed
+     */
+    private long getDeployedFileLength(@NotNull String deployedUri) throws Exception {
+        final IClusterDetail clusterDetail = ClusterManagerEx.getInstance()
+                                                             .getClusterDetailByName(clusterName)
+                                                             .orElseThrow(() -> new HDIException(
+                                                                     "No cluster name matched selection: " + clusterName));
+        final IHDIStorageAccount storageAccount = clusterDetail.isEmulator() ? null : clusterDetail.getStorageAccount();
+
+        if (storageAccount instanceof HDStorageAccount && WasbUri.isType(deployedUri)) {
+            final WasbUri wasbUri = WasbUri.parse(deployedUri);
+            final CloudBlockBlob blob = StorageClientSDKManager
+                    .getCloudStorageAccount(((HDStorageAccount) storageAccount).getConnectionString())
+                    .createCloudBlobClient()
+                    .getContainerReference(wasbUri.getContainer())
+                    .getBlockBlobReference(StringUtils.removeStart(wasbUri.getPath(), "/"));
+
+            // The blob properties are fetched by the existence check
+            return blob.exists() ? blob.getProperties().getLength() : -1;
+        }
+
+        if (storageAccount instanceof ADLSStorageAccount && AdlUri.isType(deployedUri)) {
+            return WebHDFSUtils.getFileLengthOnADLS(storageAccount, AdlUri.parse(deployedUri).getPath());
+        }
+
+        return -1;
     }
 }
@@ -28,7 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Observer;
-import rx.Subscriber;
+import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
 
 import java.io.File;
@@ -38,8 +38,11 @@ import java.net.UnknownServiceException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Error;
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.*;
@@ -498,34 +501,34 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
-        int retries = 0;
-
-        do {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        this.getConnectUri().toString(), batchId);
-
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
+        return getStatusWithRetries("Failed to get job state").getState();
+    }
 
-                    return jobResp.getState();
-                }
-            } catch (final IOException e) {
-                log().debug("Got exception " + e.toString() + ", waiting for a while to try", e);
+    /**
+     * Get Spark Job Livy batch status with retries, the status request is coalesced with other queries for the
+     * same batch by {@link LivyBatchStatusPoller}
+     *
+     * @param failureMessage the message prefix of the exception thrown after all tries failed
+     * @return the Livy batch status got
+     * @throws IOException exceptions in transaction
+     */
+    @NotNull
+    private SparkSubmitResponse getStatusWithRetries(@NotNull String failureMessage) throws IOException {
+        try {
+            return getBatchStatusPoller()
+                    .retryWithDelay(getStatus(), this.getRetriesMax(), this.getDelaySeconds())
+                    .toBlocking()
+                    .single();
+        } catch (final RuntimeException ex) {
+            if (ex.getCause() instanceof InterruptedException) {
+                throw new IOException("Interrupted in retry attempting", ex.getCause());
             }
 
-            try {
-                // Retry interval
-                sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-            } catch (final InterruptedException ex) {
-                throw new IOException("Interrupted in retry attempting", ex);
-            }
-        } while (++retries < this.getRetriesMax());
+            log().debug("Got exception " + ex.toString() + " after all retries", ex);
 
-        throw new UnknownServiceException("Failed to get job state: Unknown service error after " + --retries + " retries");
+            throw new UnknownServiceException(failureMessage + ": Unknown service error after "
+                    + (this.getRetriesMax() - 1) + " retries");
+        }
     }
 
     /**
@@ -628,28 +631,18 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create(ob -> {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        getConnectUri().toString(), getBatchId());
-
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
-
-                    if (jobResp.getAppId() != null) {
-                        ob.onNext(jobResp.getAppId());
+        return getStatus()
+                .onErrorResumeNext(err -> {
+                    if (err instanceof SparkJobException) {
+                        // Bad Livy response, no application ID allocated
+                        return Observable.empty();
                     }
-                }
 
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                log().warn("Got exception " + ex.toString());
-                ob.onError(ex);
-            }
-        });
+                    log().warn("Got exception " + err.toString());
+                    return Observable.error(err);
+                })
+                .map(SparkSubmitResponse::getAppId)
+                .filter(Objects::nonNull);
     }
 
     /**
@@ -802,55 +795,71 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "stderr:",
                 "yarn diagnostics:"));
 
-        return Observable.create(ob -> {
-            try {
-                final int maxLinesPerGet = 128;
-                int linesGot;
-                boolean isFetching = true;
-
-                while (isFetching) {
-                    final int start = nextLivyLogOffset;
-                    final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
-                            .lastOrDefault(true);
-                    final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
-                                                        this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
-
-                    final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
-
-                    final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
-                                                                                           SparkJobLog.class)
-                                                                      .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark log response: " + httpResponse.getMessage()));
-
-                    synchronized (livyLogOffsetLock) {
-                        if (start != nextLivyLogOffset) {
-                            // The offset is moved by another fetching thread, re-do it with new offset
-                            continue;
-                        }
+        final int maxLinesPerGet = 128;
 
-                        // To subscriber
-                        sparkJobLog.getLog().stream()
-                                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
-                                .forEach(line -> ob.onNext(new SparkLogLine(LIVY, Log, line)));
+        // The fetching state is per subscription
+        return Observable.defer(() -> {
+            final AtomicBoolean isFetching = new AtomicBoolean(true);
+            final AtomicInteger lastLinesGot = new AtomicInteger(0);
+            final LivyBatchStatusPoller.AdaptiveInterval retryInterval = new LivyBatchStatusPoller.AdaptiveInterval(
+                    LivyBatchStatusPoller.MIN_INTERVAL_MS, TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
 
-                        linesGot = sparkJobLog.getLog().size();
-                        nextLivyLogOffset += linesGot;
-                    }
+            return Observable.fromCallable(() -> {
+                        final int start = nextLivyLogOffset;
+                        final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
+                                .lastOrDefault(true);
+                        final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
+                                                            this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
 
-                    // Retry interval
-                    if (linesGot == 0) {
-                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated;
+                        final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
 
-                        sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-                    }
-                }
-            } catch (final IOException ex) {
-                ob.onNext(new SparkLogLine(TOOL, Error, ex.getMessage()));
-            } catch (final InterruptedException ignored) {
-            } finally {
-                ob.onCompleted();
-            }
-        });
+                        final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
+                                                                                               SparkJobLog.class)
+                                                                          .orElseThrow(() -> new UnknownServiceException(
+                                        "Bad spark log response: " + httpResponse.getMessage()));
+
+                        final List<SparkLogLine> lines;
+
+                        synchronized (livyLogOffsetLock) {
+                            if (start != nextLivyLogOffset) {
+                                // The offset is moved by another fetching thread, re-do it with new offset
+                                lastLinesGot.set(-1);
+
+                                return Collections.<SparkLogLine>emptyList();
+                            }
+
+                            // To subscriber
+                            lines = sparkJobLog.getLog().stream()
+                                    .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
+                                    .map(line -> new SparkLogLine(LIVY, Log, line))
+                                    .collect(Collectors.toList());
+
+                            lastLinesGot.set(sparkJobLog.getLog().size());
+                            nextLivyLogOffset += sparkJobLog.getLog().size();
+                        }
+
+                        if (lastLinesGot.get() == 0) {
+                            isFetching.set("starting".equals(this.getState()) && !isAppIdAllocated);
+                        } else {
+                            retryInterval.next(true);
+                        }
+
+                        return lines;
+                    })
+                    .subscribeOn(Schedulers.io())
+                    // Fetch the next page immediately if there are lines got, otherwise retry with backoff interval
+                    .repeatWhen(completed -> completed
+                            .takeWhile(ignored -> isFetching.get())
+                            .concatMap(ignored -> lastLinesGot.get() != 0
+                                    ? Observable.just(ignored)
+                                    : Observable.timer(retryInterval.next(false),
+                                                       TimeUnit.MILLISECONDS,
+                                                       getBatchStatusPoller().getScheduler())))
+                    .flatMapIterable(lines -> lines);
+        })
+                .onErrorResumeNext(err -> err instanceof IOException
+                        ? Observable.just(new SparkLogLine(TOOL, Error, err.getMessage()))
+                        : Observable.error(err));
     }
 
     public boolean isActive() throws IOException {
@@ -859,34 +868,7 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
-        int retries = 0;
-
-        do {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        this.getConnectUri().toString(), batchId);
-
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
-
-                    return jobResp.isAlive();
-                }
-            } catch (final IOException e) {
-                log().debug("Got exception " + e.toString() + ", waiting for a while to try", e);
-            }
-
-            try {
-                // Retry interval
-                sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-            } catch (final InterruptedException ex) {
-                throw new IOException("Interrupted in retry attempting", ex);
-            }
-        } while (++retries < this.getRetriesMax());
-
-        throw new UnknownServiceException("Failed to detect job activity: Unknown service error after " + --retries + " retries");
+        return getStatusWithRetries("Failed to detect job activity").isAlive();
     }
 
     protected Observable<SimpleImmutableEntry<String, String>> getJobDoneObservable() {
@@ -895,43 +877,16 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
-            try {
-                boolean isJobActive;
-                SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
-                String diagnostics = "";
-
-                do {
-                    final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                            this.getConnectUri().toString(), batchId);
-
-                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                        final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                                httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                              .orElseThrow(() -> new UnknownServiceException(
-                                        "Bad spark job response: " + httpResponse.getMessage()));
-
-                        state = SparkBatchJobState.valueOf(jobResp.getState().toUpperCase());
-                        diagnostics = String.join("\n", jobResp.getLog());
-
-                        isJobActive = !isDone(state.toString());
-                    } else {
-                        isJobActive = false;
-                    }
-
-
-                    // Retry interval
-                    sleep(1000);
-                } while (isJobActive);
-
-                ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                ob.onError(ex);
-            } catch (final InterruptedException ignored) {
-                ob.onCompleted();
-            }
-        });
+        return getBatchStatusPoller().watch(this)
+                // The bad Livy response stops watching with the last state got
+                .onErrorResumeNext(err -> err instanceof SparkJobException
+                        ? Observable.empty()
+                        : Observable.error(err))
+                .takeUntil(jobResp -> isDone(jobResp.getState()))
+                .map(jobResp -> new SimpleImmutableEntry<>(
+                        SparkBatchJobState.valueOf(jobResp.getState().toUpperCase()).toString(),
+                        String.join("\n", jobResp.getLog())))
+                .lastOrDefault(new SimpleImmutableEntry<>(SparkBatchJobState.NOT_STARTED.toString(), ""));
     }
 
     protected Observable<String> getJobLogAggregationDoneObservable() {
@@ -1136,7 +1091,17 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     }
 
     /**
-     * New RxAPI: Get the job status (from livy)
+     * Get the Livy batch status poller shared by all batch jobs
+     *
+     * @return the Livy batch status poller
+     */
+    @NotNull
+    protected LivyBatchStatusPoller getBatchStatusPoller() {
+        return LivyBatchStatusPoller.getInstance();
+    }
+
+    /**
+     * New RxAPI: Get the job status (from livy), coalesced with other status queries for the same batch
      *
      * @return Spark Job observable
      */
@@ -1147,6 +1112,16 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
+        return getBatchStatusPoller().getStatus(this);
+    }
+
+    /**
+     * Send the Livy `GET /batches/{id}` request for the job status, called by {@link LivyBatchStatusPoller}
+     *
+     * @return Spark Job observable
+     */
+    @NotNull
+    Observable<SparkSubmitResponse> requestBatchStatus() {
         return Observable.fromCallable(() -> {
             final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
                     this.getConnectUri().toString(), getBatchId());
@@ -1165,12 +1140,14 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @NotNull
     @Override
     public Observable<String> awaitStarted() {
-        return getStatus()
+        return getBatchStatusPoller().watch(this)
                 .map(status -> new SimpleImmutableEntry<>(status.getState(), String.join("\n", status.getLog())))
-                .retry(getRetriesMax())
-                .repeatWhen(ob -> ob.doOnNext(ignored -> getCtrlSubject().onNext(
-                        new SparkLogLine(TOOL, Info, "The Spark job is starting...")))
-                                    .delay(getDelaySeconds(), TimeUnit.SECONDS))
+                .distinctUntilChanged(SimpleImmutableEntry::getKey)
+                .doOnNext(stateLogPair -> {
+                    if (!isDone(stateLogPair.getKey()) && !isRunning(stateLogPair.getKey())) {
+                        getCtrlSubject().onNext(new SparkLogLine(TOOL, Info, "The Spark job is starting..."));
+                    }
+                })
                 .takeUntil(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .filter(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .flatMap(stateLogPair -> {
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
@@ -16,25 +17,28 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.entity.BufferedHttpEntity;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.Observer;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownServiceException;
+import java.util.Collections;
 import java.util.List;
 
 public class WebHDFSDeploy implements Deployable, ILogger {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     @NotNull
     IClusterDetail cluster;
 
@@ -74,6 +78,46 @@ public class WebHDFSDeploy implements Deployable, ILogger {
     @Override
     public Observable<String> deploy(File src,
                                      Observer<SparkLogLine> logSubject) {
+        return ArtifactDeploymentManifest.getInstance().deploy(
+                src,
+                "WebHDFS|" + destinationRootPath,
+                deployedUri -> getFileLength(deployedUri).map(length -> length == src.length()),
+                () -> upload(src, logSubject),
+                logSubject);
+    }
+
+    /**
+     * Get the length of the uploaded artifact by GETFILESTATUS, which doesn't read the artifact content
+     *
+     * @param uploadedPath the artifact uploaded path got from {@link #getArtifactUploadedPath(String)}
+     * @return Observable: the artifact length
+     * Observable Error: the artifact doesn't exist or can't be accessed
+     */
+    private Observable<Long> getFileLength(@NotNull String uploadedPath) {
+        final String filePath = StringUtils.substringBefore(uploadedPath, "?");
+        final List<NameValuePair> params = new WebHdfsParamsBuilder("GETFILESTATUS").build();
+
+        return http.request(new HttpGet(filePath), null, params, null)
+                .map(resp -> {
+                    try {
+                        if (resp.getStatusLine().getStatusCode() != 200) {
+                            throw new UnknownServiceException("Can not get the artifact status " + filePath + ": "
+                                                                      + resp.getStatusLine());
+                        }
+
+                        return OBJECT_MAPPER.readTree(EntityUtils.toString(resp.getEntity()))
+                                            .path("FileStatus")
+                                            .path("length")
+                                            .asLong(-1);
+                    } catch (IOException ex) {
+                        throw Exceptions.propagate(ex);
+                    } finally {
+                        HttpClientUtils.closeQuietly(resp);
+                    }
+                });
+    }
+
+    private Observable<String> upload(File src, Observer<SparkLogLine> logSubject) {
         //three steps to upload via webhdfs
         // 1.put request to create new dir
         // 2.put request to get 307 redirect uri from response
@@ -96,20 +140,7 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                         Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
                     }
                 })
-                .map(HttpPut::new)
-                .flatMap(put -> {
-                    try {
-                        InputStreamEntity reqEntity = new InputStreamEntity(
-                                new FileInputStream(src),
-                                -1,
-                                ContentType.APPLICATION_OCTET_STREAM);
-                        reqEntity.setChunked(true);
-
-                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
-                    } catch (IOException ex) {
-                        throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
-                    }
-                })
+                .flatMap(redirectedUri -> uploadToRedirectedUri(redirectedUri, src, logSubject))
                 .map(ignored -> {
                     try {
                         return getArtifactUploadedPath(dest.resolve(src.getName()).toString());
@@ -119,6 +150,37 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 });
     }
 
+    /**
+     * Stream the artifact to the redirected URI with the file length, rather than buffering the whole artifact in
+     * memory. HDFS only supports one writer per file and the sequential appending, so the artifact is uploaded as
+     * one chunk, which is retried and reports the progress. An empty artifact has no chunk, it's created by an empty
+     * request.
+     */
+    private Observable<List<ChunkedArtifactUploader.Chunk>> uploadToRedirectedUri(@NotNull String redirectedUri,
+                                                                                   @NotNull File src,
+                                                                                   @Nullable Observer<SparkLogLine> logSubject) {
+        if (src.length() == 0) {
+            final HttpPut put = new HttpPut(redirectedUri);
+
+            return http.request(put, new ByteArrayEntity(new byte[0]), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null)
+                       .map(ignored -> Collections.<ChunkedArtifactUploader.Chunk>emptyList());
+        }
+
+        final ChunkedArtifactUploader uploader = new ChunkedArtifactUploader(
+                Long.MAX_VALUE, 1, ChunkedArtifactUploader.DEFAULT_CHUNK_RETRIES)
+                .setLogSubject(logSubject);
+
+        return uploader.upload(src, redirectedUri, chunk -> {
+            try {
+                final HttpPut put = new HttpPut(redirectedUri);
+
+                return http.request(put, chunk.toEntity(), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
+            } catch (IOException ex) {
+                return Observable.error(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
+            }
+        });
+    }
+
     @Nullable
     public String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         final List<NameValuePair> params = new WebHdfsParamsBuilder("OPEN").build();
@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azure.hdinsight.spark.common.log.YarnContainerLogReader;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import rx.BackpressureOverflow;
+import rx.Emitter;
+import rx.Observable;
+import rx.Subscription;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Log;
+
+/**
+ * The YARN container log tail multiplexer shared by all Spark applications in the process.
+ *
+ * Rather than one blocking loop per container log, all the tailed container logs are fetched by the range requests
+ * on a small fetcher thread pool, dispatched by a timer thread in the order of their next fetch time, so the logs
+ * are fetched round-robin with at most {@link #FETCH_THREADS} requests in flight. The idle logs are fetched with the
+ * adaptive interval, from {@link #MIN_INTERVAL_MS} to {@link #MAX_INTERVAL_MS}, and the log is not fetched until its
+ * subscriber requests more lines, so that at most one block of lines is buffered for each log, including the rest
+ * logs read block by block after stopped.
+ *
+ * The container logs of a Spark application are tailed by {@link #tail}, as one merged observable of the lines
+ * tagged with the log source, which buffers at most {@link #DEFAULT_BUFFER_LINES} lines for the slow subscriber.
+ */
+public class YarnLogTailMultiplexer implements ILogger {
+    /**
+     * The minimum fetching interval in milliseconds, also the interval just after new logs got
+     */
+    public static final long MIN_INTERVAL_MS = 1000;
+
+    /**
+     * The maximum fetching interval in milliseconds for the idle logs
+     */
+    public static final long MAX_INTERVAL_MS = 16000;
+
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * The maximum lines buffered of the merged logs, the oldest lines are dropped when it's full
+     */
+    public static final int DEFAULT_BUFFER_LINES = 10000;
+
+    private static final int FETCH_THREADS = 4;
+    private static final Pattern CONTAINER_ID_PATTERN = Pattern.compile("container_[0-9a-zA-Z_]+");
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final YarnLogTailMultiplexer INSTANCE = new YarnLogTailMultiplexer();
+    }
+
+    public static YarnLogTailMultiplexer getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * The timer to dispatch the fetches, which never runs the blocking requests itself
+     */
+    @NotNull
+    private final ScheduledThreadPoolExecutor timer;
+
+    @NotNull
+    private final ExecutorService fetchers;
+
+    private YarnLogTailMultiplexer() {
+        this.timer = new ScheduledThreadPoolExecutor(1,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("yarn-log-tail-timer-%d")
+                        .daemon(true)
+                        .build());
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.fetchers = Executors.newFixedThreadPool(FETCH_THREADS,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("yarn-log-tail-%d")
+                        .daemon(true)
+                        .build());
+    }
+
+    /**
+     * Tail the container logs of all types, merged into one observable. The lines are tagged with the log source
+     * `{containerId}.{type}`, such as `container_e02_1492415936046_0015_01_000002.stderr`. An empty line of the log
+     * source is emitted whenever the fetch of that log gets nothing, as the marker that all the logs produced by the
+     * source have been emitted.
+     *
+     * @param authCode the authorization header value for YarnUI, null for no authorization
+     * @param containerLogUrls the container log URLs
+     * @param types the log types, such as stderr, stdout
+     * @param blockSize the block size for one fetch
+     * @param bufferLines the maximum lines buffered for the slow subscriber, the oldest lines are dropped beyond it
+     * @param stop the observable to stop tailing, the rest logs are read before completed. Null for no stop
+     * @return the merged log lines observable
+     */
+    @NotNull
+    public Observable<SparkLogLine> tail(@Nullable final String authCode,
+                                         @NotNull final Collection<String> containerLogUrls,
+                                         @NotNull final Collection<String> types,
+                                         final int blockSize,
+                                         final int bufferLines,
+                                         @Nullable final Observable<?> stop) {
+        final List<Observable<SparkLogLine>> tails = new ArrayList<>();
+
+        for (final String containerLogUrl : containerLogUrls) {
+            for (final String type : types) {
+                final String logSource = getContainerId(containerLogUrl) + "." + type;
+
+                tails.add(tailLines(authCode, containerLogUrl, type, blockSize, stop)
+                        .map(line -> new SparkLogLine(logSource, Log, line)));
+            }
+        }
+
+        final AtomicBoolean isOverflowWarned = new AtomicBoolean(false);
+
+        return Observable.merge(tails)
+                .onBackpressureBuffer(Math.max(bufferLines, 1),
+                                      () -> {
+                                          if (isOverflowWarned.compareAndSet(false, true)) {
+                                              log().warn("The YARN container logs are produced faster than consumed, "
+                                                      + "the oldest lines beyond " + bufferLines + " are dropped");
+                                          }
+                                      },
+                                      BackpressureOverflow.ON_OVERFLOW_DROP_OLDEST);
+    }
+
+    @NotNull
+    static String getContainerId(@NotNull final String containerLogUrl) {
+        final Matcher matcher = CONTAINER_ID_PATTERN.matcher(containerLogUrl);
+
+        return matcher.find() ? matcher.group() : StringUtils.removeEnd(containerLogUrl, "/");
+    }
+
+    /**
+     * Tail one container log by lines. An empty string is emitted whenever the fetch gets nothing, as the marker
+     * that all the logs produced have been emitted.
+     *
+     * @param authCode the authorization header value for YarnUI, null for no authorization
+     * @param containerLogUrl the container log URL
+     * @param type the log type, such as stderr, stdout
+     * @param blockSize the block size for one fetch
+     * @param stop the observable to stop tailing, the rest logs are read before completed. Null for no stop
+     * @return the log lines observable, which supports backpressure
+     */
+    @NotNull
+    public Observable<String> tailLines(@Nullable final String authCode,
+                                        @NotNull final String containerLogUrl,
+                                        @NotNull final String type,
+                                        final int blockSize,
+                                        @Nullable final Observable<?> stop) {
+        if (blockSize <= 0) {
+            return Observable.empty();
+        }
+
+        // The lines are only emitted after the subscriber requested, at most one block ahead of the demand
+        return Observable.create(emitter -> new LogTail(new YarnContainerLogReader(authCode),
+                                                        containerLogUrl,
+                                                        type,
+                                                        blockSize,
+                                                        emitter).start(stop),
+                                 Emitter.BackpressureMode.BUFFER);
+    }
+
+    /**
+     * The tail state of one container log. Each scheduled fetch has a sequence number, and only the fetch of the
+     * latest sequence runs when no other fetch of the log is running, so the fetches of a log never run concurrently
+     * or twice, even if the scheduled one can't be cancelled in time. The emitter is also called with the lock
+     * {@link #emitLock}, and nothing is emitted after it's terminated.
+     */
+    private class LogTail {
+        @NotNull
+        private final YarnContainerLogReader logReader;
+
+        @NotNull
+        private final String containerLogUrl;
+
+        @NotNull
+        private final String type;
+
+        private final int blockSize;
+
+        @NotNull
+        private final Emitter<String> emitter;
+
+        @NotNull
+        private final Object emitLock = new Object();
+
+        @NotNull
+        private final LivyBatchStatusPoller.AdaptiveInterval interval =
+                new LivyBatchStatusPoller.AdaptiveInterval(MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+
+        private long nextStart = 0;
+
+        @NotNull
+        private String remainedLine = "";
+
+        private volatile boolean isStopping = false;
+        private volatile boolean isCancelled = false;
+
+        private boolean isTerminated = false;
+
+        // Guarded by this
+        private boolean isRunning = false;
+        private long fetchSequence = 0;
+
+        @Nullable
+        private ScheduledFuture<?> nextFetch;
+
+        @Nullable
+        private Subscription stopSubscription;
+
+        LogTail(@NotNull final YarnContainerLogReader logReader,
+                @NotNull final String containerLogUrl,
+                @NotNull final String type,
+                final int blockSize,
+                @NotNull final Emitter<String> emitter) {
+            this.logReader = logReader;
+            this.containerLogUrl = containerLogUrl;
+            this.type = type;
+            this.blockSize = blockSize;
+            this.emitter = emitter;
+        }
+
+        void start(@Nullable final Observable<?> stop) {
+            emitter.setCancellation(this::cancel);
+
+            if (stop != null) {
+                stopSubscription = stop.take(1).subscribe(any -> stop(), err -> stop());
+            }
+
+            schedule(0);
+        }
+
+        private synchronized void schedule(final long delayMs) {
+            if (isCancelled) {
+                return;
+            }
+
+            final long sequence = ++fetchSequence;
+            nextFetch = timer.schedule(() -> fetchers.execute(() -> fetch(sequence)), delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Schedule the next fetch when the running one is done
+         */
+        private synchronized void scheduleNext(final long delayMs) {
+            isRunning = false;
+            schedule(delayMs);
+        }
+
+        private synchronized void stop() {
+            isStopping = true;
+
+            // Fetch the rest logs at once if it's waiting, otherwise the running fetch will do it.
+            // The waiting one is skipped by its outdated sequence even if it's dispatched already.
+            if (!isRunning && nextFetch != null) {
+                nextFetch.cancel(false);
+                schedule(0);
+            }
+        }
+
+        private synchronized void cancel() {
+            isCancelled = true;
+
+            if (nextFetch != null) {
+                nextFetch.cancel(false);
+            }
+
+            if (stopSubscription != null) {
+                stopSubscription.unsubscribe();
+            }
+        }
+
+        private synchronized boolean tryStartFetch(final long sequence) {
+            if (isCancelled || isRunning || sequence != fetchSequence) {
+                return false;
+            }
+
+            isRunning = true;
+            return true;
+        }
+
+        private void fetch(final long sequence) {
+            if (!tryStartFetch(sequence)) {
+                return;
+            }
+
+            try {
+                if (emitter.requested() <= 0) {
+                    // No demand, check again later without fetching
+                    scheduleNext(MIN_INTERVAL_MS);
+                    return;
+                }
+
+                // Read the rest logs block by block after stopped, from history server if the log is moved there.
+                // Don't worry about the log is moved, the YarnUI can do URL redirect by itself
+                final boolean isFinishing = isStopping;
+                final String logs = logReader.read(containerLogUrl, type, nextStart, blockSize);
+
+                // The block size is of the byte range, rather than the characters decoded
+                final boolean isFullBlock = getByteLength(logs) >= blockSize;
+
+                if (isFinishing && !isFullBlock) {
+                    finish(logs);
+                    return;
+                }
+
+                final boolean isChanged = onLogs(logs);
+
+                // Fetch the next block at once to catch up the log producing, or to finish
+                scheduleNext(isFullBlock || isStopping ? 0 : interval.next(isChanged));
+            } catch (final Exception ex) {
+                log().warn("Tail YARN container log " + containerLogUrl + " " + type + " failed", ex);
+                emitError(ex);
+            }
+        }
+
+        /**
+         * Emit the lines of logs got
+         *
+         * @param logs the logs got from the next start
+         * @return true for any logs got
+         */
+        private boolean onLogs(@NotNull final String logs) {
+            final int lastLineBreak = logs.lastIndexOf('\n');
+
+            if (lastLineBreak < 0) {
+                // No linebreak found
+                if (logs.isEmpty()) {
+                    // Remained line is a full line since the backend producing logs line by line
+                    emitNext(remainedLine);
+                    remainedLine = "";
+
+                    return false;
+                }
+
+                remainedLine += logs;
+                nextStart += getByteLength(logs);
+
+                return true;
+            }
+
+            final long handledLength = new BufferedReader(new StringReader(
+                                            remainedLine + logs.substring(0, lastLineBreak)))
+                    .lines()
+                    .map(line -> {
+                        emitNext(line);
+
+                        // Count the line byte length with linebreak
+                        // We need to handle this since the web client may convert the LF to CRLF
+                        return (getByteLength(line) + 1);
+                    })
+                    .reduce(Integer::sum)
+                    .orElse(0);
+
+            nextStart += handledLength - getByteLength(remainedLine);
+            remainedLine = "";
+
+            return true;
+        }
+
+        private int getByteLength(@NotNull final String logs) {
+            return logs.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        /**
+         * Emit the last block of logs with the remained line and complete
+         */
+        private void finish(@NotNull final String logs) {
+            new BufferedReader(new StringReader(remainedLine + logs)).lines().forEach(this::emitNext);
+            remainedLine = "";
+
+            synchronized (emitLock) {
+                if (!isTerminated) {
+                    isTerminated = true;
+                    emitter.onCompleted();
+                }
+            }
+        }
+
+        private void emitNext(@NotNull final String line) {
+            synchronized (emitLock) {
+                if (!isTerminated) {
+                    emitter.onNext(line);
+                }
+            }
+        }
+
+        private void emitError(@NotNull final Throwable err) {
+            synchronized (emitLock) {
+                if (!isTerminated) {
+                    isTerminated = true;
+                    emitter.onError(err);
+                }
+            }
+        }
+    }
+}
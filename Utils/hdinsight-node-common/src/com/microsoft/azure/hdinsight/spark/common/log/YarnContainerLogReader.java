@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common.log;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpConnectionPool;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.jsoup.parser.Parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * The YARN container log reader, which requests the log byte range by the YarnUI `start` and `end` parameters and
+ * parses the `<pre>` section from the response stream incrementally, without any JavaScript engine and DOM building.
+ *
+ * The YarnUI container log page has the following layouts in the content cell after the `navcell` one:
+ *      Running container:                  <p>...</p><pre>logs</pre>
+ *      Spark 2.0/2.1 Yarn history server:  <p> Log Type: stderr <pre>logs</pre>
+ *      Spark 2.2 Yarn history server:      <pre>...</pre> <p> Log Type: stderr <pre>logs</pre>
+ */
+public class YarnContainerLogReader implements ILogger {
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+    private static final String NAV_CELL_ID_ATTRIBUTE = "id=\"navcell\"";
+
+    @NotNull
+    private final CloseableHttpClient httpClient;
+
+    @Nullable
+    private final String authCode;
+
+    public YarnContainerLogReader(@Nullable final String authCode) {
+        this.authCode = authCode;
+        this.httpClient = HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(HttpConnectionPool.getInstance().getTrustedConnectionManager())
+                .setConnectionManagerShared(true)
+                .build();
+    }
+
+    /**
+     * Read the container log of specified type and range
+     *
+     * @param baseUrl the container log URL
+     * @param type the log type, such as stderr, stdout
+     * @param start the start byte offset of the log
+     * @param size the size of the log to read, the value less than or equal to 0 for to the end
+     * @return the log read, or empty string for any failure
+     */
+    @NotNull
+    public String read(@NotNull final String baseUrl, @NotNull final String type, final long start, final int size) {
+        final URI url;
+
+        try {
+            url = getLogRangeUri(baseUrl, type, start, size);
+        } catch (final URISyntaxException e) {
+            log().error("baseUrl has syntax error: " + baseUrl);
+            return "";
+        }
+
+        final HttpGet httpGet = new HttpGet(url);
+        if (authCode != null) {
+            httpGet.setHeader(AUTHORIZATION, authCode);
+        }
+
+        try (final CloseableHttpResponse response = httpClient.execute(httpGet)) {
+            final int statusCode = response.getStatusLine().getStatusCode();
+
+            if (statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+                // If the URL is wrong, will get 200 response with content:
+                //      Unable to locate 'xxx' log for container
+                //  OR
+                //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                //  OR
+                //      Cannot get container logs without ...
+                //
+                // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                // the log is moving to job history server, just wait and retry.
+                if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                    log().warn("The GET request to " + url + " responded error: " + response.getStatusLine());
+                }
+
+                return "";
+            }
+
+            final HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return "";
+            }
+
+            final Charset charset = Optional.ofNullable(ContentType.get(entity))
+                    .map(ContentType::getCharset)
+                    .orElse(StandardCharsets.UTF_8);
+
+            final Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset));
+            final String logs = parseLog(reader, type);
+            if (reader.read() != -1) {
+                // Closing the content stream drains the rest of the entity to reuse the connection, abort the
+                // request instead, so the rest of a huge log page won't be downloaded once the <pre> section is got.
+                httpGet.abort();
+            }
+
+            return logs;
+        } catch (final Exception e) {
+            httpGet.abort();
+            log().warn("get Spark job log Error", e);
+        } finally {
+            httpGet.releaseConnection();
+        }
+
+        return "";
+    }
+
+    @NotNull
+    static URI getLogRangeUri(@NotNull final String baseUrl,
+                              @NotNull final String type,
+                              final long start,
+                              final int size) throws URISyntaxException {
+        return new URI(baseUrl + "/").resolve(
+                String.format("%s?start=%d", type, start) +
+                        (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+    }
+
+    /**
+     * Parse the log of specified type from the YarnUI container log HTML page stream
+     *
+     * @param reader the HTML page reader
+     * @param type the log type to get
+     * @return the `<pre>` text with the log type, or the last `<pre>` text without log type paragraph
+     * @throws IOException for reading the page failure
+     */
+    @NotNull
+    static String parseLog(@NotNull final Reader reader, @NotNull final String type) throws IOException {
+        final HtmlTokenizer tokenizer = new HtmlTokenizer(reader);
+        final Map<String, String> logTypeMap = new HashMap<>();
+        String logType = null;
+        String logs = "";
+        boolean isNavCellFound = false;
+        boolean isInContent = false;
+        String tag;
+
+        while ((tag = tokenizer.nextTag()) != null) {
+            final String tagName = HtmlTokenizer.getTagName(tag);
+
+            if (!isInContent) {
+                // The content cell is the next sibling of the navigation cell
+                if (!isNavCellFound) {
+                    isNavCellFound = tagName.equals("td") && tag.contains(NAV_CELL_ID_ATTRIBUTE);
+                } else if (tagName.equals("td")) {
+                    isInContent = true;
+                }
+
+                continue;
+            }
+
+            if (tagName.equals("/td")) {
+                // The end of content cell
+                break;
+            } else if (tagName.equals("p")) {
+                // In history server, need to read log type paragraph in page
+                final Matcher matcher = LOG_TYPE_PATTERN.matcher(tokenizer.readText().trim());
+
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                }
+            } else if (tagName.equals("pre")) {
+                // In running, no log type paragraph in page
+                logs = Parser.unescapeEntities(tokenizer.readUntilEndTag("pre"), false);
+
+                if (logType != null) {
+                    if (logType.equals(type)) {
+                        // No need to read the rest of the page
+                        return logs;
+                    }
+
+                    // Only get the first <pre>...</pre>
+                    logTypeMap.put(logType, logs);
+
+                    logType = null;
+                }
+            }
+        }
+
+        return logTypeMap.getOrDefault(type, logs);
+    }
+
+    /**
+     * A minimal forward-only HTML tokenizer only for the YarnUI log page, which reads the stream char by char.
+     */
+    static class HtmlTokenizer {
+        @NotNull
+        private final Reader reader;
+
+        private int pending = -1;
+
+        HtmlTokenizer(@NotNull final Reader reader) {
+            this.reader = reader;
+        }
+
+        @NotNull
+        static String getTagName(@NotNull final String tag) {
+            int end = tag.startsWith("/") ? 1 : 0;
+            while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != '/') {
+                end++;
+            }
+
+            return tag.substring(0, end).toLowerCase(Locale.ROOT);
+        }
+
+        private int read() throws IOException {
+            if (pending >= 0) {
+                final int ch = pending;
+                pending = -1;
+                return ch;
+            }
+
+            return reader.read();
+        }
+
+        /**
+         * Skip to the next tag and return its content between `<` and `>`, comments and doctype are skipped
+         *
+         * @return the tag content, or null for the end of stream
+         */
+        @Nullable
+        String nextTag() throws IOException {
+            int ch;
+
+            while ((ch = read()) >= 0) {
+                if (ch != '<') {
+                    continue;
+                }
+
+                final StringBuilder tag = new StringBuilder();
+                char quote = 0;
+
+                while ((ch = read()) >= 0) {
+                    if (quote != 0) {
+                        if (ch == quote) {
+                            quote = 0;
+                        }
+                    } else if (ch == '"' || ch == '\'') {
+                        quote = (char) ch;
+                    } else if (ch == '>') {
+                        break;
+                    }
+
+                    tag.append((char) ch);
+                }
+
+                if (tag.length() > 0 && tag.charAt(0) != '!') {
+                    return tag.toString();
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Read the text before the next tag
+         */
+        @NotNull
+        String readText() throws IOException {
+            final StringBuilder text = new StringBuilder();
+            int ch;
+
+            while ((ch = read()) >= 0) {
+                if (ch == '<') {
+                    pending = ch;
+                    break;
+                }
+
+                text.append((char) ch);
+            }
+
+            return text.toString();
+        }
+
+        /**
+         * Read the raw text until the end tag, the leading line break is ignored as HTML `<pre>` does
+         */
+        @NotNull
+        String readUntilEndTag(@NotNull final String tagName) throws IOException {
+            final String endTag = "</" + tagName;
+            final StringBuilder text = new StringBuilder();
+            int lastTagStart = -1;
+            int ch;
+
+            while ((ch = read()) >= 0) {
+                if (ch == '<') {
+                    lastTagStart = text.length();
+                }
+
+                text.append((char) ch);
+
+                if (ch == '>' && lastTagStart >= 0 && text.length() - lastTagStart > endTag.length() &&
+                        text.substring(lastTagStart, lastTagStart + endTag.length()).equalsIgnoreCase(endTag)) {
+                    text.setLength(lastTagStart);
+                    break;
+                }
+            }
+
+            if (text.length() > 0 && text.charAt(0) == '\n') {
+                text.deleteCharAt(0);
+            } else if (text.length() > 1 && text.charAt(0) == '\r' && text.charAt(1) == '\n') {
+                text.delete(0, 2);
+            }
+
+            return text.toString();
+        }
+    }
+}
@@ -5,11 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.Cache;
-import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.html.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -26,9 +22,9 @@ import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster;
 import com.microsoft.azure.hdinsight.sdk.cluster.MfaEspCluster;
 import com.microsoft.azure.hdinsight.sdk.common.AuthenticationException;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
 import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
@@ -37,7 +33,9 @@ import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountType;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchEspMfaSubmission;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
+import com.microsoft.azure.hdinsight.spark.common.YarnLogTailMultiplexer;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azure.hdinsight.spark.common.log.YarnContainerLogReader;
 import com.microsoft.azure.hdinsight.spark.jobs.livy.LivyBatchesInformation;
 import com.microsoft.azure.hdinsight.spark.jobs.livy.LivySession;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -47,8 +45,10 @@ import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager.BlobUploadStatistics;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.codec.binary.Base64OutputStream;
 import org.apache.commons.io.IOUtils;
@@ -75,27 +75,21 @@ import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Observer;
 import rx.Single;
-import rx.Subscription;
-import rx.schedulers.Schedulers;
 
 import java.awt.*;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownServiceException;
 import java.util.*;
 import java.util.List;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
-import static org.apache.http.HttpHeaders.AUTHORIZATION;
 import static rx.exceptions.Exceptions.propagate;
 
 public class JobUtils {
@@ -107,6 +101,8 @@ public class JobUtils {
 
     private static final CredentialsProvider provider = new BasicCredentialsProvider();
 
+    private static final int JSON_RESPONSE_BUFFER_SIZE = 64 * 1024;
+
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message) {
         setResponse(httpExchange, message, 200);
     }
@@ -123,6 +119,65 @@ public class JobUtils {
         }
     }
 
+    /**
+     * Send the object as the JSON response, which is serialized into the response body directly and compressed with
+     * gzip if the client accepts. With the entity tag, the request with matched `If-None-Match` header is responded
+     * with 304 Not Modified and no body.
+     *
+     * @param httpExchange the HTTP exchange to response
+     * @param body the object to send
+     * @param eTag the entity tag of the object, null for no cache validation
+     */
+    public static void setJsonResponse(@NotNull HttpExchange httpExchange, @NotNull Object body, @Nullable String eTag) {
+        try {
+            final Headers responseHeaders = httpExchange.getResponseHeaders();
+
+            if (eTag != null) {
+                responseHeaders.set("ETag", eTag);
+                responseHeaders.set("Cache-Control", "no-cache");
+
+                if (isETagMatched(httpExchange.getRequestHeaders().get("If-None-Match"), eTag)) {
+                    httpExchange.sendResponseHeaders(HttpStatus.SC_NOT_MODIFIED, -1);
+                    return;
+                }
+            }
+
+            final List<String> acceptEncodings = httpExchange.getRequestHeaders().get("Accept-Encoding");
+            final boolean isGzipAccepted = acceptEncodings != null &&
+                    acceptEncodings.stream().anyMatch(encoding -> StringUtils.containsIgnoreCase(encoding, "gzip"));
+
+            responseHeaders.set("Content-Type", "application/json; charset=utf-8");
+            responseHeaders.set("Vary", "Accept-Encoding");
+            if (isGzipAccepted) {
+                responseHeaders.set("Content-Encoding", "gzip");
+            }
+
+            // The length 0 for the chunked transfer encoding, since the body is streamed
+            httpExchange.sendResponseHeaders(HttpStatus.SC_OK, 0);
+
+            try (final OutputStream stream = isGzipAccepted
+                    ? new GZIPOutputStream(httpExchange.getResponseBody(), JSON_RESPONSE_BUFFER_SIZE)
+                    : new BufferedOutputStream(httpExchange.getResponseBody(), JSON_RESPONSE_BUFFER_SIZE)) {
+                ObjectConvertUtils.writeObjectAsJson(stream, body);
+            }
+        } catch (final IOException e) {
+            LOGGER.error("JobUtils set JSON Response error", e);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private static boolean isETagMatched(@Nullable List<String> ifNoneMatches, @NotNull String eTag) {
+        if (ifNoneMatches == null) {
+            return false;
+        }
+
+        return ifNoneMatches.stream()
+                .flatMap(ifNoneMatch -> Arrays.stream(ifNoneMatch.split(",")))
+                .map(tag -> StringUtils.removeStart(tag.trim(), "W/"))
+                .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
+
     public static URI getLivyLogPath(@NotNull String rootPath, @NotNull String applicationId) {
         final String path = StringHelper.concat(rootPath, File.separator, JobLogFolderName, File.separator, applicationId);
         final File file = new File(path);
@@ -242,167 +297,56 @@ public class JobUtils {
                                                       @NotNull String type,
                                                       long start,
                                                       int size) {
-        final WebClient HTTP_WEB_CLIENT = new WebClient(BrowserVersion.CHROME);
-        HTTP_WEB_CLIENT.getOptions().setUseInsecureSSL(HttpObservable.isSSLCertificateValidationDisabled());
-        HTTP_WEB_CLIENT.setCache(globalCache);
-
-        if (authCode != null) {
-            HTTP_WEB_CLIENT.addRequestHeader(AUTHORIZATION, authCode);
-        }
-
-        return getInformationFromYarnLogDom(HTTP_WEB_CLIENT, baseUrl, type, start, size);
-    }
-
-    private static String getInformationFromYarnLogDom(@NotNull WebClient client,
-                                                      @NotNull String baseUrl,
-                                                      @NotNull String type,
-                                                      long start,
-                                                      int size) {
-        URI url = null;
-
-        try {
-            url = new URI(baseUrl + "/").resolve(
-                    String.format("%s?start=%d", type, start) +
-                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
-            final HtmlPage htmlPage = client.getPage(url.toString());
-
-            final Iterator<DomElement> iterator = htmlPage.getElementById("navcell").getNextElementSibling().getChildElements().iterator();
-
-            final HashMap<String, String> logTypeMap = new HashMap<>();
-            final AtomicReference<String> logType = new AtomicReference<>();
-            String logs = "";
-
-            while (iterator.hasNext()) {
-                final DomElement node = iterator.next();
-
-                if (node instanceof HtmlParagraph) {
-                    // In history server, need to read log type paragraph in page
-                    final Pattern logTypePattern = Pattern.compile("Log Type:\\s+(\\S+)");
-
-                    Optional.ofNullable(node.getFirstChild())
-                            .map(DomNode::getTextContent)
-                            .map(String::trim)
-                            .map(logTypePattern::matcher)
-                            .filter(Matcher::matches)
-                            .map(matcher -> matcher.group(1))
-                            .ifPresent(logType::set);
-                } else if (node instanceof HtmlPreformattedText) {
-                    // In running, no log type paragraph in page
-                    logs = Optional.ofNullable(node.getFirstChild())
-                                .map(DomNode::getTextContent)
-                                .orElse("");
-
-                    if (logType.get() != null) {
-                        // Only get the first <pre>...</pre>
-                        logTypeMap.put(logType.get(), logs);
-
-                        logType.set(null);
-                    }
-                }
-            }
-
-            return logTypeMap.getOrDefault(type, logs);
-        } catch (final FailingHttpStatusCodeException httpError) {
-            // If the URL is wrong, will get 200 response with content:
-            //      Unable to locate 'xxx' log for container
-            //  OR
-            //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
-            //  OR
-            //      Cannot get container logs without ...
-            //
-            // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
-            // the log is moving to job history server, just wait and retry.
-            if (httpError.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
-                LOGGER.warn("The GET request to " + url + " responded error: " + httpError.getMessage());
-            }
-        } catch (final URISyntaxException e) {
-            LOGGER.error("baseUrl has syntax error: " + baseUrl);
-        } catch (final Exception e) {
-            LOGGER.warn("get Spark job log Error", e);
-        }
-        return "";
+        return new YarnContainerLogReader(authCode).read(baseUrl, type, start, size);
     }
 
     /**
-     * To create an Observable for specified Yarn container log type
+     * To create an Observable for specified Yarn container log type, the log is fetched by the shared
+     * {@link YarnLogTailMultiplexer} rather than a dedicated thread
      *
      * @param authCode the authCode in request's Authorization header
      * @param stop the stop observable to cancel the log fetch, refer to Observable.window() operation
      * @param containerLogUrl the contaniner log url
      * @param type the log type
-     * @param blockSize the block size for one fetch, the value 0 for as many as possible
-     * @return the log Observable
+     * @param blockSize the block size for one fetch
+     * @return the log Observable, an empty line is emitted whenever there are no new logs
      */
     public static Observable<String> createYarnLogObservable(@Nullable final String authCode,
                                                              @Nullable final Observable<Object> stop,
                                                              @NotNull final String containerLogUrl,
                                                              @NotNull final String type,
                                                              final int blockSize) {
-        final int retryIntervalMs = 1000;
-
-        if (blockSize <= 0)
-            return Observable.empty();
-
-        return Observable.create((Observable.OnSubscribe<String>) ob -> {
-            long nextStart = 0;
-            String remainedLine = "";
-            String logs;
-            Thread currentThread = Thread.currentThread();
-
-            // Refer to the Observable.window() operation:
-            //    http://reactivex.io/documentation/operators/window.html
-            // The event from `stop` observable will stop the log fetch
-            Optional<Subscription> stopSubscriptionOptional = Optional.ofNullable(stop).map(stopOb ->
-                    stopOb.subscribe(any -> currentThread.interrupt()));
-
-            try {
-                while (!ob.isUnsubscribed()) {
-                    logs = JobUtils.getInformationFromYarnLogDom(
-                            authCode, containerLogUrl, type, nextStart, blockSize);
-                    int lastLineBreak = logs.lastIndexOf('\n');
-
-                    if (lastLineBreak < 0) {
-                        // No linebreak found
-                        if (logs.isEmpty()) {
-                            // Remained line is a full line since the backend producing logs line by line
-                            ob.onNext(remainedLine);
-                            remainedLine = "";
-                        } else {
-                            remainedLine += logs;
-                            nextStart += logs.length();
-                        }
-                    } else {
-                        long handledLength = new BufferedReader(new StringReader(
-                                                remainedLine + logs.substring(0, lastLineBreak)))
-                                .lines()
-                                .map(line -> {
-                                    ob.onNext(line);
-
-                                    // Count the line length with linebreak
-                                    // We need to handle this since the web client may convert the LF to CRLF
-                                    return (line.length() + 1);
-                                })
-                                .reduce(Integer::sum)
-                                .orElse(0);
-
-                        nextStart += handledLength - remainedLine.length();
-                        remainedLine = "";
-                    }
-
-                    Thread.sleep(retryIntervalMs);
-                }
-            } catch (InterruptedException ignore) {
-            } finally {
-                // Get the rest logs from history server
-                // Don't worry about the log is moved to history server, the YarnUI can do URL redirect by itself
-                logs = JobUtils.getInformationFromYarnLogDom(authCode, containerLogUrl, type, nextStart, 0);
-
-                new BufferedReader(new StringReader(remainedLine + logs)).lines().forEach(ob::onNext);
-            }
+        return createYarnLogsObservable(authCode,
+                                        stop,
+                                        Collections.singletonList(containerLogUrl),
+                                        Collections.singletonList(type),
+                                        blockSize)
+                .map(SparkLogLine::getRawLog);
+    }
 
-            ob.onCompleted();
-            stopSubscriptionOptional.ifPresent(Subscription::unsubscribe);
-        }).subscribeOn(Schedulers.io());
+    /**
+     * To create one merged Observable for the specified Yarn container logs of all types, the logs are fetched by
+     * the shared {@link YarnLogTailMultiplexer} and buffered boundedly
+     *
+     * @param authCode the authCode in request's Authorization header
+     * @param stop the stop observable to cancel the log fetch, refer to Observable.window() operation
+     * @param containerLogUrls the contaniner log urls
+     * @param types the log types, such as stderr, stdout
+     * @param blockSize the block size for one fetch
+     * @return the log lines Observable tagged with `{containerId}.{type}`, an empty line of a log is emitted
+     *         whenever there are no new logs of it
+     */
+    public static Observable<SparkLogLine> createYarnLogsObservable(@Nullable final String authCode,
+                                                                    @Nullable final Observable<Object> stop,
+                                                                    @NotNull final Collection<String> containerLogUrls,
+                                                                    @NotNull final Collection<String> types,
+                                                                    final int blockSize) {
+        return YarnLogTailMultiplexer.getInstance().tail(authCode,
+                                                          containerLogUrls,
+                                                          types,
+                                                          blockSize,
+                                                          YarnLogTailMultiplexer.DEFAULT_BUFFER_LINES,
+                                                          stop);
     }
 
     public static HttpEntity getEntity(@NotNull final IClusterDetail clusterDetail, @NotNull final String url) throws IOException, HDIException {
@@ -434,14 +378,18 @@ public class JobUtils {
 
     @Nullable
     private static BlobContainer getSparkClusterContainer(ClientStorageAccount storageAccount, String dealtContainerName) throws AzureCmdException {
-        final List<BlobContainer> containerList = StorageClientSDKManager.getManager().getBlobContainers(storageAccount.getConnectionString());
-        for (final BlobContainer container : containerList) {
-            if (container.getName().toLowerCase().equals(dealtContainerName.toLowerCase())) {
-                return container;
-            }
+        try {
+            // Stop listing the rest pages once found
+            return StorageClientSDKManager.getManager()
+                                          .listBlobContainerPages(storageAccount.getConnectionString(), null, false)
+                                          .concatMapIterable(page -> page)
+                                          .firstOrDefault(null, container -> container.getName().toLowerCase()
+                                                                                      .equals(dealtContainerName.toLowerCase()))
+                                          .toBlocking()
+                                          .single();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Container list", t);
         }
-
-        return null;
     }
 
     public static void ctrlInfo(@Nullable Observer<SimpleImmutableEntry<MessageInfoType, String>> legacyLogSubject,
@@ -491,36 +439,33 @@ public class JobUtils {
                                                @Nullable Observer<SparkLogLine> newLogSubject,
                                                @Nullable CallableSingleArg<Void, Long> uploadInProcessCallback) throws Exception {
         if(storageAccount.getAccountType() == StorageAccountType.BLOB) {
-            try (final FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (final BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    final HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    final BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
-                    if (container == null) {
-                        throw new IllegalArgumentException("Can't get the valid container.");
-                    }
+            final HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            final BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
+            if (container == null) {
+                throw new IllegalArgumentException("Can't get the valid container.");
+            }
 
-                    final String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    final String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
+            // Resume the interrupted upload of the same file in its blob, rather than the new upload folder
+            final String path = StorageClientSDKManager.getManager().getUploadBlobPath(
+                    blobStorageAccount.getConnectionString(), container, file,
+                    String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName()));
+            final String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
 
-                    ctrlInfo(legacyLogSubject, newLogSubject,
-                             String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
-                                           file.getPath(), uploadedPath));
+            ctrlInfo(legacyLogSubject, newLogSubject,
+                     String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
+                                   file.getPath(), uploadedPath));
 
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                            blobStorageAccount.getConnectionString(),
-                            container,
-                            path,
-                            bufferedInputStream,
-                            uploadInProcessCallback,
-                            1024 * 1024,
-                            file.length());
+            // The blocks uploaded by the failed upload are kept by the blob, only the rest are uploaded
+            final BlobUploadStatistics statistics = StorageClientSDKManager.getManager().uploadBlobFile(
+                    blobStorageAccount.getConnectionString(), container, path, file, uploadInProcessCallback,
+                    StorageClientSDKManager.DEFAULT_PARALLEL_BLOCK_SIZE,
+                    StorageClientSDKManager.DEFAULT_UPLOAD_PARALLELISM);
 
-                    ctrlInfo(legacyLogSubject, newLogSubject,
-                             String.format("Submit file to azure blob '%s' successfully.", uploadedPath));
+            ctrlInfo(legacyLogSubject, newLogSubject,
+                     String.format("Submit file to azure blob '%s' successfully (%d KB/s).", uploadedPath,
+                                   statistics.getThroughput() / 1024));
 
-                    return uploadedPath;
-                }
-            }
+            return uploadedPath;
         } else if(storageAccount.getAccountType() == StorageAccountType.ADLS) {
             final String uploadPath = String.format("adl://%s.azuredatalakestore.net%s%s", storageAccount.getName(), storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
             ctrlInfo(legacyLogSubject, newLogSubject,
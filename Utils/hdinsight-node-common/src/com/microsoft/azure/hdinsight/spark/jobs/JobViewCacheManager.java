@@ -7,7 +7,11 @@ package com.microsoft.azure.hdinsight.spark.jobs;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
@@ -19,118 +23,393 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * The caches of the Spark job view.
+ *
+ * The entries are refreshed in the background on a bounded executor after the refresh interval since written, the
+ * stale value is served during the reloading, so the job view is kept up to date without blocking on the cluster.
+ * The stage tasks are fetched incrementally, only for the stages changed since the last snapshot, and the completed
+ * stages are never fetched again.
+ */
 public class JobViewCacheManager {
-    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Job>>() {
+    private static final int MAXIMUM_SIZE = 100;
+    private static final int INITIAL_CAPACITY = 20;
+
+    private static final long RUNTIME_REFRESH_SECONDS = 10;
+    private static final long APPLICATIONS_REFRESH_SECONDS = 30;
+    private static final long EVENT_LOGS_REFRESH_SECONDS = 60;
+
+    private static final int RELOAD_THREADS = 4;
+    private static final int STAGE_TASKS_FETCH_THREADS = 8;
+    private static final int EXECUTOR_QUEUE_SIZE = 200;
+
+    private static final List<String> FROZEN_STAGE_STATUSES = Arrays.asList("COMPLETE", "FAILED", "SKIPPED");
+
+    // The reloading and the stage tasks fetching are in different pools, since the tasks summary reloading waits
+    // for the stage tasks fetching, which can't share the same bounded pool without deadlock
+    private static final ExecutorService reloadExecutor = createBoundedExecutor("job-view-cache-reload-%d", RELOAD_THREADS);
+    private static final ExecutorService stageTasksFetchExecutor = createBoundedExecutor("job-view-stage-tasks-%d", STAGE_TASKS_FETCH_THREADS);
+
+    private static final Map<String, LoadingCache<?, ?>> caches = new LinkedHashMap<>();
+
+    private static final LoadingCache<ApplicationKey, Versioned<List<Job>>> sparkJobLocalCache = createCache(
+            "sparkJobs", RUNTIME_REFRESH_SECONDS, new CacheLoader<ApplicationKey, List<Job>>() {
                 @Override
                 public List<Job> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getLastAttemptJobsFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Stage>>() {
+    private static final LoadingCache<ApplicationKey, Versioned<List<Stage>>> sparkStageLocalCache = createCache(
+            "sparkStages", RUNTIME_REFRESH_SECONDS, new CacheLoader<ApplicationKey, List<Stage>>() {
                 @Override
                 public List<Stage> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllStageFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Executor>>() {
+    private static final LoadingCache<ApplicationKey, Versioned<List<Executor>>> sparkExecutorLocalCache = createCache(
+            "sparkExecutors", RUNTIME_REFRESH_SECONDS, new CacheLoader<ApplicationKey, List<Executor>>() {
                 @Override
                 public List<Executor> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllExecutorFromApp(key);
                 }
             });
 
-    private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<String, List<Application>>() {
+    private static final LoadingCache<String, Versioned<List<Application>>> sparkApplicationsLocalCache = createCache(
+            "sparkApplications", APPLICATIONS_REFRESH_SECONDS, new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
                     return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
+    private static final LoadingCache<ApplicationKey, Versioned<StageTasksSnapshot>> sparkTasksSummaryLocalCache = createCache(
+            "sparkTasksSummary", RUNTIME_REFRESH_SECONDS, new CacheLoader<ApplicationKey, StageTasksSnapshot>() {
                 @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
-                    }
-                    return allTasks;
+                public StageTasksSnapshot load(ApplicationKey key) throws Exception {
+                    return StageTasksSnapshot.fetch(key, sparkStageLocalCache.get(key).getValue(), StageTasksSnapshot.EMPTY);
+                }
+
+                @Override
+                public ListenableFuture<StageTasksSnapshot> reload(ApplicationKey key,
+                                                                   StageTasksSnapshot oldValue) throws Exception {
+                    return Futures.immediateFuture(
+                            StageTasksSnapshot.fetch(key, sparkStageLocalCache.get(key).getValue(), oldValue));
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
+    private static final LoadingCache<ApplicationKey, Versioned<ApplicationMasterLogs>> yarnAppLogLocalCache = createCache(
+            "yarnAppLogs", APPLICATIONS_REFRESH_SECONDS, new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
                 @Override
                 public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
                     return JobUtils.getYarnLogs(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, App>() {
+    private static final LoadingCache<ApplicationKey, Versioned<App>> yarnApplicationLocalCache = createCache(
+            "yarnApplications", RUNTIME_REFRESH_SECONDS, new CacheLoader<ApplicationKey, App>() {
                 @Override
                 public App load(ApplicationKey key) throws Exception {
                     return YarnRestUtil.getApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
+    private static final LoadingCache<ApplicationKey, Versioned<List<JobStartEventLog>>> sparkJobStartEventLogCache = createCache(
+            "sparkJobStartEventLogs", EVENT_LOGS_REFRESH_SECONDS, new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
                 @Override
                 public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getSparkEventLogs(key);
                 }
             });
 
+    @NotNull
+    private static ExecutorService createBoundedExecutor(@NotNull String namingPattern, int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(EXECUTOR_QUEUE_SIZE),
+                new BasicThreadFactory.Builder()
+                        .namingPattern(namingPattern)
+                        .daemon(true)
+                        .build(),
+                // Run it in the caller thread when the queue is full, rather than dropping a reloading
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    @NotNull
+    private static <K, V> LoadingCache<K, Versioned<V>> createCache(@NotNull String name,
+                                                                   long refreshSeconds,
+                                                                   @NotNull CacheLoader<K, V> loader) {
+        final CacheLoader<K, Versioned<V>> versionedLoader = new CacheLoader<K, Versioned<V>>() {
+            @Override
+            public Versioned<V> load(K key) throws Exception {
+                return new Versioned<>(loader.load(key));
+            }
+
+            @Override
+            public ListenableFuture<Versioned<V>> reload(K key, Versioned<V> oldValue) throws Exception {
+                return Futures.transform(loader.reload(key, oldValue.getValue()),
+                                         value -> new Versioned<>(value),
+                                         MoreExecutors.directExecutor());
+            }
+        };
+
+        final LoadingCache<K, Versioned<V>> cache = CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .initialCapacity(INITIAL_CAPACITY)
+                .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build(CacheLoader.asyncReloading(versionedLoader, reloadExecutor));
+
+        caches.put(name, cache);
+
+        return cache;
+    }
+
+    /**
+     * Get the statistics of the job view caches, such as the hit and miss count, the average load time
+     *
+     * @return the cache name to statistics map
+     */
+    @NotNull
+    public static Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.stats()));
+
+        return stats;
+    }
+
+    /**
+     * The cached value with its version, which is changed for each loading and reloading. The version is used as
+     * the entity tag in the job view HTTP responses.
+     */
+    public static class Versioned<T> {
+        // To avoid the same entity tag across IDE restarts
+        private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+        private static final AtomicLong VERSION_SEQUENCE = new AtomicLong();
+
+        private final T value;
+        private final long version;
+
+        Versioned(T value) {
+            this(value, VERSION_SEQUENCE.incrementAndGet());
+        }
+
+        private Versioned(T value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Convert the value and keep the version
+         */
+        @NotNull
+        public <R> Versioned<R> map(@NotNull Function<T, R> mapper) {
+            return new Versioned<>(mapper.apply(value), version);
+        }
+
+        @NotNull
+        public String getETag() {
+            return composeETag(this);
+        }
+
+        /**
+         * Get the entity tag of the response composed by the cached values
+         *
+         * @param values the cached values composed
+         * @return the quoted entity tag
+         */
+        @NotNull
+        public static String composeETag(@NotNull Versioned<?>... values) {
+            return Arrays.stream(values)
+                    .map(versioned -> Long.toString(versioned.getVersion(), 36))
+                    .collect(Collectors.joining(".", "\"" + EPOCH + "-", "\""));
+        }
+    }
+
+    /**
+     * The snapshot of all stage tasks of an application
+     */
+    static class StageTasksSnapshot {
+        static final StageTasksSnapshot EMPTY = new StageTasksSnapshot(Collections.emptyMap());
+
+        @NotNull
+        private final Map<String, StageTasks> stageTasks;
+
+        @NotNull
+        private final List<Task> allTasks;
+
+        private StageTasksSnapshot(@NotNull Map<String, StageTasks> stageTasks) {
+            this.stageTasks = stageTasks;
+            this.allTasks = Collections.unmodifiableList(stageTasks.values().stream()
+                    .flatMap(tasks -> tasks.getTasks().stream())
+                    .collect(Collectors.toList()));
+        }
+
+        @NotNull
+        List<Task> getAllTasks() {
+            return allTasks;
+        }
+
+        /**
+         * Fetch the tasks of the stages which are changed since the previous snapshot in parallel, the others are
+         * taken from the previous snapshot
+         *
+         * @param key the application key
+         * @param stages the current stages of the application
+         * @param previous the previous snapshot
+         * @return the new snapshot
+         */
+        @NotNull
+        static StageTasksSnapshot fetch(@NotNull ApplicationKey key,
+                                        @NotNull List<Stage> stages,
+                                        @NotNull StageTasksSnapshot previous) throws Exception {
+            return fetch(stages, previous, stage -> SparkRestUtil.getSparkTasks(
+                    key, stage.getStageId(), stage.getAttemptId()));
+        }
+
+        @NotNull
+        static StageTasksSnapshot fetch(@NotNull List<Stage> stages,
+                                        @NotNull StageTasksSnapshot previous,
+                                        @NotNull StageTasksFetcher fetcher) throws Exception {
+            final Map<String, CompletableFuture<StageTasks>> fetching = new LinkedHashMap<>();
+
+            for (Stage stage : stages) {
+                final String stageKey = stage.getStageId() + "_" + stage.getAttemptId();
+                final StageTasks previousTasks = previous.stageTasks.get(stageKey);
+
+                if (previousTasks != null && !previousTasks.isChanged(stage)) {
+                    fetching.put(stageKey, CompletableFuture.completedFuture(previousTasks));
+                } else {
+                    fetching.put(stageKey, CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return new StageTasks(stage, fetcher.fetch(stage));
+                        } catch (Exception ex) {
+                            throw new CompletionException(ex);
+                        }
+                    }, stageTasksFetchExecutor));
+                }
+            }
+
+            final Map<String, StageTasks> stageTasks = new LinkedHashMap<>();
+
+            try {
+                for (Map.Entry<String, CompletableFuture<StageTasks>> entry : fetching.entrySet()) {
+                    stageTasks.put(entry.getKey(), entry.getValue().join());
+                }
+            } catch (CompletionException ex) {
+                fetching.values().forEach(future -> future.cancel(false));
+
+                throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+            }
+
+            return new StageTasksSnapshot(stageTasks);
+        }
+    }
+
+    /**
+     * The fetcher of the tasks of a stage
+     */
+    @FunctionalInterface
+    interface StageTasksFetcher {
+        @NotNull
+        List<Task> fetch(@NotNull Stage stage) throws Exception;
+    }
+
+    /**
+     * The tasks of a stage, with the stage status and task counts when the tasks were fetched
+     */
+    static class StageTasks {
+        @Nullable
+        private final String status;
+
+        private final int numActiveTasks;
+        private final int numCompleteTasks;
+        private final int numFailedTasks;
+
+        @NotNull
+        private final List<Task> tasks;
+
+        StageTasks(@NotNull Stage stage, @NotNull List<Task> tasks) {
+            this.status = stage.getStatus();
+            this.numActiveTasks = stage.getNumActiveTasks();
+            this.numCompleteTasks = stage.getNumCompleteTasks();
+            this.numFailedTasks = stage.getNumFailedTasks();
+            this.tasks = tasks;
+        }
+
+        @NotNull
+        List<Task> getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Check whether the stage is changed since the tasks were fetched, the finished stage is frozen
+         */
+        boolean isChanged(@NotNull Stage stage) {
+            if (status != null && FROZEN_STAGE_STATUSES.contains(status.toUpperCase())) {
+                return false;
+            }
+
+            return !Objects.equals(status, stage.getStatus()) ||
+                    numActiveTasks != stage.getNumActiveTasks() ||
+                    numCompleteTasks != stage.getNumCompleteTasks() ||
+                    numFailedTasks != stage.getNumFailedTasks();
+        }
+    }
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobStartEventLogCache.get(key);
+        return sparkJobStartEventLogCache.get(key).getValue();
     }
 
     public static ApplicationMasterLogs getYarnLogs(@NotNull ApplicationKey key) throws ExecutionException {
-            return yarnAppLogLocalCache.get(key);
+            return yarnAppLogLocalCache.get(key).getValue();
     }
 
     public static App getYarnApp(@NotNull ApplicationKey key) throws ExecutionException {
-        return yarnApplicationLocalCache.get(key);
+        return yarnApplicationLocalCache.get(key).getValue();
     }
 
     public static List<Application> getSparkApplications(@NotNull IClusterDetail clusterDetail) throws ExecutionException {
-        return sparkApplicationsLocalCache.get(clusterDetail.getName());
+        return sparkApplicationsLocalCache.get(clusterDetail.getName()).getValue();
     }
 
     public static Application getSingleSparkApplication(@NotNull ApplicationKey key) throws ExecutionException {
-        List<Application> apps = sparkApplicationsLocalCache.get(key.getClusterDetails().getName());
+        List<Application> apps = sparkApplicationsLocalCache.get(key.getClusterDetails().getName()).getValue();
         for(Application application : apps) {
             if (application.getId().equalsIgnoreCase(key.getAppId())) {
                 return application;
@@ -140,18 +419,42 @@ public class JobViewCacheManager {
     }
 
     public static List<Executor> getExecutors(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkExecutorLocalCache.get(key);
+        return getVersionedExecutors(key).getValue();
     }
 
     public static List<Job> getJob(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobLocalCache.get(key);
+        return getVersionedJob(key).getValue();
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        return getVersionedTasks(key).getValue();
     }
 
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
+        return getVersionedStages(key).getValue();
+    }
+
+    public static Versioned<List<JobStartEventLog>> getVersionedJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkJobStartEventLogCache.get(key);
+    }
+
+    public static Versioned<App> getVersionedYarnApp(@NotNull ApplicationKey key) throws ExecutionException {
+        return yarnApplicationLocalCache.get(key);
+    }
+
+    public static Versioned<List<Executor>> getVersionedExecutors(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkExecutorLocalCache.get(key);
+    }
+
+    public static Versioned<List<Job>> getVersionedJob(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkJobLocalCache.get(key);
+    }
+
+    public static Versioned<List<Task>> getVersionedTasks(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkTasksSummaryLocalCache.get(key).map(StageTasksSnapshot::getAllTasks);
+    }
+
+    public static Versioned<List<Stage>> getVersionedStages(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkStageLocalCache.get(key);
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The compact on-disk index of a Spark event log entry, which records the byte offsets (in the uncompressed entry)
+ * of the indexed event types and how many bytes have been scanned, so that only the new tail of the event log
+ * needs to be scanned and parsed when the job view is reopened.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SparkEventLogIndex implements ILogger {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @JsonProperty("entryName")
+    private String entryName = "";
+
+    @JsonProperty("scannedBytes")
+    private long scannedBytes = 0;
+
+    @JsonProperty("indexedEventTypes")
+    private Set<String> indexedEventTypes = new HashSet<>();
+
+    /**
+     * Event type to the list of [offset, length] of the event lines
+     */
+    @JsonProperty("eventRanges")
+    private Map<String, List<long[]>> eventRanges = new HashMap<>();
+
+    public SparkEventLogIndex() {
+    }
+
+    public SparkEventLogIndex(@NotNull String entryName) {
+        this.entryName = entryName;
+    }
+
+    @NotNull
+    public String getEntryName() {
+        return entryName;
+    }
+
+    public long getScannedBytes() {
+        return scannedBytes;
+    }
+
+    public void setScannedBytes(long scannedBytes) {
+        this.scannedBytes = scannedBytes;
+    }
+
+    @NotNull
+    public Set<String> getIndexedEventTypes() {
+        return indexedEventTypes;
+    }
+
+    @NotNull
+    public List<long[]> getEventRanges(@NotNull String eventType) {
+        return eventRanges.getOrDefault(eventType, new ArrayList<>());
+    }
+
+    public void addEventRange(@NotNull String eventType, long offset, long length) {
+        eventRanges.computeIfAbsent(eventType, type -> new ArrayList<>()).add(new long[] { offset, length });
+    }
+
+    /**
+     * Check whether the index can be used for reading the specified event types, or should be rebuilt
+     *
+     * @param eventTypes the event types to read
+     * @return true for all event types are indexed
+     */
+    public boolean isIndexed(@NotNull Collection<String> eventTypes) {
+        return indexedEventTypes.containsAll(eventTypes);
+    }
+
+    /**
+     * Clear all the indexed ranges and start over for the specified event types
+     *
+     * @param eventTypes the event types to index
+     */
+    public void reset(@NotNull Collection<String> eventTypes) {
+        scannedBytes = 0;
+        eventRanges.clear();
+        indexedEventTypes = new HashSet<>(eventTypes);
+    }
+
+    /**
+     * Load the index from file, an empty index is returned if the file doesn't exist, is broken or for other entry
+     *
+     * @param indexFile the index file
+     * @param entryName the event log entry name in zip
+     * @return the index loaded
+     */
+    @NotNull
+    public static SparkEventLogIndex load(@NotNull File indexFile, @NotNull String entryName) {
+        if (indexFile.isFile()) {
+            try {
+                final SparkEventLogIndex index = OBJECT_MAPPER.readValue(indexFile, SparkEventLogIndex.class);
+
+                if (StringUtils.equals(index.getEntryName(), entryName)) {
+                    return index;
+                }
+            } catch (IOException ex) {
+                new SparkEventLogIndex(entryName).log().warn("Can't load Spark event log index " + indexFile, ex);
+            }
+        }
+
+        return new SparkEventLogIndex(entryName);
+    }
+
+    /**
+     * Save the index into file, any failure is logged and ignored since the index is only for speeding up
+     *
+     * @param indexFile the index file
+     */
+    public void save(@NotNull File indexFile) {
+        try {
+            final File folder = indexFile.getParentFile();
+
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("Can't create folder " + folder);
+            }
+
+            OBJECT_MAPPER.writeValue(indexFile, this);
+        } catch (IOException ex) {
+            log().warn("Can't save Spark event log index " + indexFile, ex);
+        }
+    }
+}
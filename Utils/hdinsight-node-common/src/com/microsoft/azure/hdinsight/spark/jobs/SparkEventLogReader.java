@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The Spark event log reader, which scans the event log stream (one JSON event per line) byte by byte and only
+ * materializes the lines of the wanted event types. The event type is got from the line prefix, since Spark
+ * always writes the `Event` field first, the whole line is parsed only when the prefix doesn't contain it.
+ *
+ * With a {@link SparkEventLogIndex}, the already scanned part of the event log is skipped except the indexed
+ * lines, and only the new tail is scanned.
+ */
+public class SparkEventLogReader implements ILogger {
+    static final int EVENT_PREFIX_MAX_BYTES = 256;
+
+    private static final Pattern EVENT_TYPE_PATTERN = Pattern.compile("\"Event\"\\s*:\\s*\"([^\"]+)\"");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @NotNull
+    private final Set<String> eventTypes;
+
+    public SparkEventLogReader(@NotNull final Collection<String> eventTypes) {
+        this.eventTypes = new HashSet<>(eventTypes);
+    }
+
+    /**
+     * Read the event lines of the wanted types from the event log stream, the index is updated with the new lines
+     * scanned. The last line without line break is treated as being written and won't be indexed.
+     *
+     * @param in the uncompressed event log stream, which is not closed
+     * @param index the index of the event log
+     * @return the event type to the JSON lines of that type map, in the event log order
+     * @throws StaleIndexException for the event log is shorter than indexed, the index is reset then and the event
+     *                             log should be read again from the start
+     * @throws IOException for reading the stream failure
+     */
+    @NotNull
+    public Map<String, List<String>> read(@NotNull final InputStream in,
+                                          @NotNull final SparkEventLogIndex index) throws IOException {
+        final Map<String, List<String>> events = new HashMap<>();
+        final EventLogInput input = new EventLogInput(in);
+
+        if (!index.isIndexed(eventTypes)) {
+            index.reset(eventTypes);
+        }
+
+        if (!readIndexed(input, index, events)) {
+            index.reset(eventTypes);
+
+            throw new StaleIndexException("The Spark event log " + index.getEntryName() + " is shorter than indexed");
+        }
+
+        readTail(input, index, events);
+
+        return events;
+    }
+
+    private boolean readIndexed(@NotNull final EventLogInput input,
+                                @NotNull final SparkEventLogIndex index,
+                                @NotNull final Map<String, List<String>> events) throws IOException {
+        final List<Map.Entry<String, long[]>> ranges = new ArrayList<>();
+        eventTypes.forEach(type -> index.getEventRanges(type)
+                .forEach(range -> ranges.add(new AbstractMap.SimpleImmutableEntry<>(type, range))));
+        ranges.sort(Comparator.comparingLong(entry -> entry.getValue()[0]));
+
+        for (final Map.Entry<String, long[]> range : ranges) {
+            final long offset = range.getValue()[0];
+            final int length = (int) range.getValue()[1];
+
+            if (!input.skipTo(offset)) {
+                return false;
+            }
+
+            final byte[] line = input.readFully(length);
+            if (line == null) {
+                return false;
+            }
+
+            events.computeIfAbsent(range.getKey(), type -> new ArrayList<>())
+                    .add(new String(line, StandardCharsets.UTF_8));
+        }
+
+        return input.skipTo(index.getScannedBytes());
+    }
+
+    private void readTail(@NotNull final EventLogInput input,
+                          @NotNull final SparkEventLogIndex index,
+                          @NotNull final Map<String, List<String>> events) throws IOException {
+        final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+
+        while (true) {
+            final long lineStart = input.getPosition();
+            lineBuffer.reset();
+
+            final int prefixEnd = input.readLinePart(lineBuffer, EVENT_PREFIX_MAX_BYTES);
+            if (prefixEnd == EventLogInput.END_OF_STREAM && lineBuffer.size() == 0) {
+                break;
+            }
+
+            String eventType = getEventTypeFromPrefix(lineBuffer);
+            int lineEnd = prefixEnd;
+
+            if (lineEnd == EventLogInput.MORE) {
+                if (eventType != null && !eventTypes.contains(eventType)) {
+                    // Not wanted, skip the rest of the line without buffering
+                    lineEnd = input.skipLine();
+                } else {
+                    lineEnd = input.readLinePart(lineBuffer, Integer.MAX_VALUE);
+                }
+            }
+
+            if (lineEnd == EventLogInput.END_OF_STREAM) {
+                // The incomplete last line, read it but leave it for the next scan
+                if (eventType == null) {
+                    eventType = getEventTypeFromLine(lineBuffer);
+                }
+
+                if (eventType != null && eventTypes.contains(eventType)) {
+                    events.computeIfAbsent(eventType, type -> new ArrayList<>()).add(lineBuffer.toString("UTF-8"));
+                }
+
+                break;
+            }
+
+            if (eventType == null) {
+                eventType = getEventTypeFromLine(lineBuffer);
+            }
+
+            if (eventType != null && eventTypes.contains(eventType)) {
+                events.computeIfAbsent(eventType, type -> new ArrayList<>()).add(lineBuffer.toString("UTF-8"));
+                index.addEventRange(eventType, lineStart, lineBuffer.size());
+            }
+
+            // The line break is consumed
+            index.setScannedBytes(input.getPosition());
+        }
+    }
+
+    @Nullable
+    private static String getEventTypeFromPrefix(@NotNull final ByteArrayOutputStream prefix) {
+        final Matcher matcher = EVENT_TYPE_PATTERN.matcher(new String(
+                prefix.toByteArray(), 0, Math.min(prefix.size(), EVENT_PREFIX_MAX_BYTES), StandardCharsets.UTF_8));
+
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Nullable
+    private String getEventTypeFromLine(@NotNull final ByteArrayOutputStream line) {
+        try (final JsonParser parser = JSON_FACTORY.createParser(line.toByteArray(), 0, line.size())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+
+                if ("Event".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+
+                parser.skipChildren();
+            }
+        } catch (IOException ex) {
+            log().debug("Skip the broken Spark event log line: " + ex.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * The exception for the event log doesn't match its index, such as it's rewritten
+     */
+    public static class StaleIndexException extends IOException {
+        public StaleIndexException(@NotNull final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The buffered event log input stream with the position tracking
+     */
+    static class EventLogInput {
+        static final int END_OF_STREAM = -1;
+        static final int MORE = 0;
+        static final int END_OF_LINE = 1;
+
+        @NotNull
+        private final InputStream in;
+
+        @NotNull
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int bufferPos = 0;
+        private int bufferLimit = 0;
+        private long position = 0;
+
+        EventLogInput(@NotNull final InputStream in) {
+            this.in = in;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        private boolean fill() throws IOException {
+            if (bufferPos < bufferLimit) {
+                return true;
+            }
+
+            final int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+
+            bufferPos = 0;
+            bufferLimit = read;
+
+            return true;
+        }
+
+        /**
+         * Skip forward to the position
+         *
+         * @return false for reaching the end of stream before the position
+         */
+        boolean skipTo(final long target) throws IOException {
+            while (position < target) {
+                if (!fill()) {
+                    return false;
+                }
+
+                final int skipped = (int) Math.min(bufferLimit - bufferPos, target - position);
+                bufferPos += skipped;
+                position += skipped;
+            }
+
+            return position == target;
+        }
+
+        /**
+         * Read the bytes of the length
+         *
+         * @return the bytes read, or null for reaching the end of stream before the length
+         */
+        @Nullable
+        byte[] readFully(final int length) throws IOException {
+            final byte[] bytes = new byte[length];
+            int read = 0;
+
+            while (read < length) {
+                if (!fill()) {
+                    return null;
+                }
+
+                final int count = Math.min(bufferLimit - bufferPos, length - read);
+                System.arraycopy(buffer, bufferPos, bytes, read, count);
+                bufferPos += count;
+                position += count;
+                read += count;
+            }
+
+            return bytes;
+        }
+
+        /**
+         * Read the line into the output until the line break or the maximum bytes, the line break is consumed but
+         * not written into the output
+         *
+         * @return {@link #END_OF_LINE}, {@link #MORE} for reaching the maximum bytes, or {@link #END_OF_STREAM}
+         */
+        int readLinePart(@NotNull final ByteArrayOutputStream out, final int maxBytes) throws IOException {
+            int remaining = maxBytes;
+
+            while (remaining > 0) {
+                if (!fill()) {
+                    return END_OF_STREAM;
+                }
+
+                final int end = bufferPos + Math.min(bufferLimit - bufferPos, remaining);
+                for (int i = bufferPos; i < end; i++) {
+                    if (buffer[i] == '\n') {
+                        out.write(buffer, bufferPos, i - bufferPos);
+                        position += i + 1 - bufferPos;
+                        bufferPos = i + 1;
+
+                        return END_OF_LINE;
+                    }
+                }
+
+                out.write(buffer, bufferPos, end - bufferPos);
+                position += end - bufferPos;
+                remaining -= end - bufferPos;
+                bufferPos = end;
+            }
+
+            return MORE;
+        }
+
+        /**
+         * Skip the rest of the line, including the line break
+         *
+         * @return {@link #END_OF_LINE} or {@link #END_OF_STREAM}
+         */
+        int skipLine() throws IOException {
+            while (fill()) {
+                for (int i = bufferPos; i < bufferLimit; i++) {
+                    if (buffer[i] == '\n') {
+                        position += i + 1 - bufferPos;
+                        bufferPos = i + 1;
+
+                        return END_OF_LINE;
+                    }
+                }
+
+                position += bufferLimit - bufferPos;
+                bufferPos = bufferLimit;
+            }
+
+            return END_OF_STREAM;
+        }
+    }
+}
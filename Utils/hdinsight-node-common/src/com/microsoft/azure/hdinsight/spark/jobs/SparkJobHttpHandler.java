@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.cache.CacheStats;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
@@ -15,21 +16,31 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azure.hdinsight.spark.jobs.JobViewCacheManager.Versioned;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class SparkJobHttpHandler implements HttpHandler {
+    private static final String OFFSET_QUERY_KEY = "offset";
+    private static final String LIMIT_QUERY_KEY = "limit";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int DEFAULT_PAGE_SIZE = 1000;
 
     @Override
     public void handle(HttpExchange httpExchange) throws IOException {
         httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        httpExchange.getResponseHeaders().add("Access-Control-Expose-Headers", "ETag, " + TOTAL_COUNT_HEADER);
         JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
         try {
             String path = requestDetail.getRequestPath();
@@ -43,28 +54,66 @@ public class SparkJobHttpHandler implements HttpHandler {
                 }
             } else if (path.contains("application_graph")) {
                 ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
-                List<Job> jobs = JobViewCacheManager.getJob(key);
-                App app = JobViewCacheManager.getYarnApp(key);
-                List<JobStartEventLog> jobStartEventLogs = JobViewCacheManager.getJobStartEventLogs(key);
-                YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(app, jobs, jobStartEventLogs);
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(yarnAppWithJobs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                Versioned<List<Job>> jobs = JobViewCacheManager.getVersionedJob(key);
+                Versioned<App> app = JobViewCacheManager.getVersionedYarnApp(key);
+                Versioned<List<JobStartEventLog>> jobStartEventLogs = JobViewCacheManager.getVersionedJobStartEventLogs(key);
+                YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(app.getValue(), jobs.getValue(), jobStartEventLogs.getValue());
+                JobUtils.setJsonResponse(httpExchange, yarnAppWithJobs, Versioned.composeETag(jobs, app, jobStartEventLogs));
             } else if (path.contains("stages_summary")) {
-                List<Stage> stages = JobViewCacheManager.getStages(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(stages);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                Versioned<List<Stage>> stages = JobViewCacheManager.getVersionedStages(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                JobUtils.setJsonResponse(httpExchange, stages.getValue(), stages.getETag());
             } else if (path.contains("executors_summary")) {
-                List<Executor> executors = JobViewCacheManager.getExecutors(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                Versioned<List<Executor>> executors = JobViewCacheManager.getVersionedExecutors(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                JobUtils.setJsonResponse(httpExchange, executors.getValue(), executors.getETag());
+            } else if (path.contains("cache_stats")) {
+                JobUtils.setJsonResponse(httpExchange, getCacheStatsSummary(JobViewCacheManager.getCacheStats()), null);
             } else if (path.contains("tasks_summary")) {
-                List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                Versioned<List<Task>> tasks = JobViewCacheManager.getVersionedTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                JobUtils.setJsonResponse(httpExchange, getPage(httpExchange, requestDetail, tasks.getValue()), tasks.getETag());
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
         }
     }
-}
 
+    /**
+     * Get the JSON friendly summary of the job view cache statistics, with the hit and miss count, the load count and
+     * the average load time in milliseconds of each cache
+     */
+    static Map<String, Map<String, Object>> getCacheStatsSummary(Map<String, CacheStats> cacheStats) {
+        final Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+
+        cacheStats.forEach((name, stats) -> {
+            final Map<String, Object> cacheSummary = new LinkedHashMap<>();
+            cacheSummary.put("hitCount", stats.hitCount());
+            cacheSummary.put("missCount", stats.missCount());
+            cacheSummary.put("hitRate", stats.hitRate());
+            cacheSummary.put("loadSuccessCount", stats.loadSuccessCount());
+            cacheSummary.put("loadExceptionCount", stats.loadExceptionCount());
+            cacheSummary.put("averageLoadMillis", TimeUnit.NANOSECONDS.toMillis((long) stats.averageLoadPenalty()));
+            cacheSummary.put("evictionCount", stats.evictionCount());
+
+            summary.put(name, cacheSummary);
+        });
+
+        return summary;
+    }
+
+    /**
+     * Get the page of the list by the `offset` and `limit` queries, the whole list is returned without `limit` query.
+     * The total count is set into the `X-Total-Count` response header for paging.
+     */
+    static <T> List<T> getPage(HttpExchange httpExchange, JobRequestDetails requestDetail, List<T> items) {
+        String limit = requestDetail.getQueryValue(LIMIT_QUERY_KEY);
+        if (limit == null) {
+            return items;
+        }
+
+        httpExchange.getResponseHeaders().set(TOTAL_COUNT_HEADER, String.valueOf(items.size()));
+
+        int from = Math.min(Math.max(NumberUtils.toInt(requestDetail.getQueryValue(OFFSET_QUERY_KEY), 0), 0), items.size());
+        int to = Math.min(from + Math.max(NumberUtils.toInt(limit, DEFAULT_PAGE_SIZE), 0), items.size());
+
+        return items.subList(from, to);
+    }
+}
@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
@@ -18,25 +17,23 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
-import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
+    private static final String JOB_START_EVENT = "SparkListenerJobStart";
 
     @NotNull
     public static List<Application> getSparkApplications(@NotNull IClusterDetail clusterDetail) throws HDIException, IOException {
@@ -85,39 +82,65 @@ public class SparkRestUtil {
     }
 
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
+        File indexFolder = new File(String.format("%s/SparkEventLogs/%s", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId()));
+        SparkEventLogReader reader = new SparkEventLogReader(Collections.singleton(JOB_START_EVENT));
+        List<String> lastAttemptEvents;
+
+        try {
+            lastAttemptEvents = readLastAttemptEvents(key, reader, indexFolder);
+        } catch (SparkEventLogReader.StaleIndexException ex) {
+            // The index has been reset and saved, read the event log from the start again
+            lastAttemptEvents = readLastAttemptEvents(key, reader, indexFolder);
+        }
+
+        return lastAttemptEvents.stream()
+                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> readLastAttemptEvents(@NotNull ApplicationKey key,
+                                                      @NotNull SparkEventLogReader reader,
+                                                      @NotNull File indexFolder) throws HDIException, IOException {
         String url = String.format("%s/logs", key.getAppId());
-        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
-        File file = new File(eventLogsPath);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
-        InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
 
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
         // every application has an attempt in event log
-        // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
+        // and the entity name should be in formation "{appId}_{attemptId}", the last attempt one is used
+        Pattern attemptEntityPattern = Pattern.compile(Pattern.quote(key.getAppId()) + "_(\\d+)");
+        int lastAttemptId = -1;
+        List<String> lastAttemptEvents = null;
+
+        // Stream the zip and the entity directly, rather than saving the zip file and reading the entity as string
+        try (ZipInputStream zipInputStream = new ZipInputStream(entity.getContent())) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+                Matcher matcher = attemptEntityPattern.matcher(zipEntry.getName());
+                if (!matcher.matches() || Integer.parseInt(matcher.group(1)) < lastAttemptId) {
+                    continue;
+                }
+
+                File indexFile = new File(indexFolder, zipEntry.getName() + ".index");
+                SparkEventLogIndex index = SparkEventLogIndex.load(indexFile, zipEntry.getName());
+                if (zipEntry.getSize() >= 0 && zipEntry.getSize() < index.getScannedBytes()) {
+                    index.reset(Collections.singleton(JOB_START_EVENT));
+                }
+
+                try {
+                    lastAttemptEvents = reader.read(zipInputStream, index)
+                            .getOrDefault(JOB_START_EVENT, Collections.emptyList());
+                } finally {
+                    index.save(indexFile);
+                }
+                lastAttemptId = Integer.parseInt(matcher.group(1));
+            }
+        }
+
+        if (lastAttemptEvents == null) {
             throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    final Map<String, Object> json = JsonUtils.fromJson(line, new TypeReference<HashMap<String, Object>>() {
-                    });
-                    String eventName = ((String) json.get("Event"));
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
-        return jobStartEvents;
+        return lastAttemptEvents;
     }
 
     private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.spark.jobs.framework;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
@@ -66,6 +67,11 @@ public class JobRequestDetails {
         return !myAppId.equals("0");
     }
 
+    @Nullable
+    public String getQueryValue(@NotNull String key) {
+        return myQueriesMap.get(key);
+    }
+
     public IClusterDetail getCluster() {
         return myClusterDetail;
     }